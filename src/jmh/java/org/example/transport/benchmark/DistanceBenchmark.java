@@ -0,0 +1,73 @@
+package org.example.transport.benchmark;
+
+import org.example.transport.util.DistanceCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the haversine kernel, alone and summed along a route
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistanceBenchmark {
+
+    private static final int MASK = 1023;
+
+    @Param({"10", "1000", "100000"})
+    public int stops;
+
+    private double[] lats;
+    private double[] lons;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(SyntheticTours.DEFAULT_SEED);
+        int size = Math.max(stops, MASK + 1);
+        lats = new double[size];
+        lons = new double[size];
+        for (int i = 0; i < size; i++) {
+            lats[i] = 48.8566 + (random.nextDouble() * 2 - 1) * 0.15;
+            lons[i] = 2.3522 + (random.nextDouble() * 2 - 1) * 0.15;
+        }
+    }
+
+    /**
+     * One distance, walking a fixed set of 1024 point pairs so inputs vary between calls
+     */
+    @Benchmark
+    public double haversine() {
+        int i = next++ & MASK;
+        int j = (i + 1) & MASK;
+        return DistanceCalculator.calculateDistance(lats[i], lons[i], lats[j], lons[j]);
+    }
+
+    /**
+     * Length of an open route through the first stops points
+     */
+    @Benchmark
+    public double route() {
+        double total = 0.0;
+        for (int i = 1; i < stops; i++) {
+            total += DistanceCalculator.calculateDistance(lats[i - 1], lons[i - 1], lats[i], lons[i]);
+        }
+        return total;
+    }
+}
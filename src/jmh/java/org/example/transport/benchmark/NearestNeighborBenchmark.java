@@ -0,0 +1,52 @@
+package org.example.transport.benchmark;
+
+import org.example.transport.entity.Delivery;
+import org.example.transport.entity.Tour;
+import org.example.transport.optimizer.NearestNeighborOptimizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time and allocation of NearestNeighborOptimizer, O(n²) in the number of stops
+ * 100k stops takes minutes per operation, run it explicitly with -p stops=100000.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NearestNeighborBenchmark {
+
+    @Param({"UNIFORM", "CLUSTERED", "MULTI_DEPOT"})
+    public SyntheticTours.Layout layout;
+
+    @Param({"10", "100", "1000", "10000"})
+    public int stops;
+
+    private final NearestNeighborOptimizer optimizer = new NearestNeighborOptimizer();
+    private Tour tour;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tour = SyntheticTours.generate(layout, stops);
+    }
+
+    @Benchmark
+    public List<Delivery> optimize() {
+        return optimizer.calculateOptimalTour(tour);
+    }
+}
@@ -0,0 +1,112 @@
+package org.example.transport.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.transport.entity.Delivery;
+import org.example.transport.entity.Tour;
+import org.example.transport.optimizer.ClarkeWrightOptimizer;
+import org.example.transport.optimizer.NearestNeighborOptimizer;
+import org.example.transport.optimizer.TourOptimizer;
+import org.example.transport.util.Tsplib;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Route length each optimizer reaches on the benchmark tours, written as JSON
+ * JMH measures time and allocation, this records what that time buys. Tours are seeded,
+ * so two builds can be compared row by row; lower routeKm is better. The TSPLIB instances
+ * of the quality regression suite add one row each with the gap to the best known tour.
+ * Usage: RouteQualityReport [output file], defaults to target/route-quality.json
+ */
+public final class RouteQualityReport {
+
+    private static final int[] NEAREST_NEIGHBOR_STOPS = {10, 100, 1000, 10000};
+    private static final int[] CLARKE_WRIGHT_STOPS = {10, 100, 500};
+    private static final String[] TSPLIB_INSTANCES = {"burma14", "ulysses16", "eil51", "berlin52"};
+
+    private RouteQualityReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        File output = new File(args.length > 0 ? args[0] : "target/route-quality.json");
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (SyntheticTours.Layout layout : SyntheticTours.Layout.values()) {
+            for (int stops : NEAREST_NEIGHBOR_STOPS) {
+                rows.add(measure("NEAREST_NEIGHBOR", new NearestNeighborOptimizer(), layout, stops));
+            }
+            for (int stops : CLARKE_WRIGHT_STOPS) {
+                rows.add(measure("CLARKE_WRIGHT", new ClarkeWrightOptimizer(), layout, stops));
+            }
+        }
+        Properties bestKnown = new Properties();
+        try (InputStream in = resource("best-known.properties")) {
+            bestKnown.load(in);
+        }
+        for (String name : TSPLIB_INSTANCES) {
+            Tsplib.Instance instance;
+            try (Reader reader = new InputStreamReader(resource(name + ".tsp"), StandardCharsets.UTF_8)) {
+                instance = Tsplib.read(reader);
+            }
+            long best = Long.parseLong(bestKnown.getProperty(name));
+            rows.add(gap("NEAREST_NEIGHBOR", Tsplib.evaluate(instance, new NearestNeighborOptimizer(), best)));
+            rows.add(gap("CLARKE_WRIGHT", Tsplib.evaluate(instance, new ClarkeWrightOptimizer(), best)));
+        }
+        if (output.getParentFile() != null) {
+            output.getParentFile().mkdirs();
+        }
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(output, rows);
+        System.out.println("Route quality written to " + output.getAbsolutePath());
+    }
+
+    private static Map<String, Object> measure(String algorithm, TourOptimizer optimizer,
+                                               SyntheticTours.Layout layout, int stops) {
+        Tour tour = SyntheticTours.generate(layout, stops);
+        double inputKm = SyntheticTours.routeKm(tour, tour.getDeliveries());
+        List<Delivery> route = optimizer.calculateOptimalTour(tour);
+        if (route.size() != stops) {
+            throw new IllegalStateException(algorithm + " returned " + route.size() + " of " + stops + " stops");
+        }
+        double routeKm = SyntheticTours.routeKm(tour, route);
+
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("algorithm", algorithm);
+        row.put("layout", layout.name());
+        row.put("stops", stops);
+        row.put("routeKm", routeKm);
+        row.put("kmPerStop", routeKm / stops);
+        // Generated order is random, so this is the gain over an unoptimized tour
+        row.put("ratioToInputOrder", routeKm / inputKm);
+        System.out.printf("%-16s %-12s %6d stops %10.1f km%n", algorithm, layout, stops, routeKm);
+        return row;
+    }
+
+    private static Map<String, Object> gap(String algorithm, Tsplib.Result result) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("algorithm", algorithm);
+        row.put("instance", result.instance());
+        row.put("cost", result.cost());
+        row.put("bestKnown", result.bestKnown());
+        row.put("gap", result.gap());
+        row.put("millis", result.millis());
+        System.out.printf("%-16s %-12s %6.2f%% gap %6d ms%n", algorithm, result.instance(),
+                result.gap() * 100, result.millis());
+        return row;
+    }
+
+    private static InputStream resource(String name) throws IOException {
+        InputStream in = RouteQualityReport.class.getResourceAsStream("/tsplib/" + name);
+        if (in == null) {
+            throw new IOException("Missing TSPLIB resource " + name + ", run with the test classpath");
+        }
+        return in;
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.transport.benchmark;
+
+import org.example.transport.entity.Delivery;
+import org.example.transport.entity.Tour;
+import org.example.transport.entity.Vehicle;
+import org.example.transport.entity.Warehouse;
+import org.example.transport.enums.VehicleType;
+import org.example.transport.util.DistanceCalculator;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Reproducible synthetic tours for benchmarks
+ * Stops are placed in a city-sized box (about 33 km by 22 km around Paris) and carry
+ * specific coordinates, so no customer has to be loaded. The same layout, size and seed
+ * always give the same tour.
+ */
+public final class SyntheticTours {
+
+    public static final long DEFAULT_SEED = 42L;
+
+    private static final double CENTER_LAT = 48.8566;
+    private static final double CENTER_LON = 2.3522;
+    private static final double HALF_SPAN_DEG = 0.15;
+
+    private SyntheticTours() {
+    }
+
+    public enum Layout {
+        /** Stops spread evenly, warehouse in the middle */
+        UNIFORM,
+        /** Stops around a few dense neighbourhoods, warehouse in the middle */
+        CLUSTERED,
+        /** Stops around four depots, the tour starts from the first one */
+        MULTI_DEPOT
+    }
+
+    public static Tour generate(Layout layout, int stops) {
+        return generate(layout, stops, DEFAULT_SEED);
+    }
+
+    public static Tour generate(Layout layout, int stops, long seed) {
+        Random random = new Random(seed);
+        double[][] centers = switch (layout) {
+            case UNIFORM -> new double[0][];
+            case CLUSTERED -> randomPoints(random, Math.max(2, (int) Math.sqrt(stops) / 4));
+            case MULTI_DEPOT -> new double[][]{
+                    {CENTER_LAT - HALF_SPAN_DEG / 2, CENTER_LON - HALF_SPAN_DEG / 2},
+                    {CENTER_LAT - HALF_SPAN_DEG / 2, CENTER_LON + HALF_SPAN_DEG / 2},
+                    {CENTER_LAT + HALF_SPAN_DEG / 2, CENTER_LON - HALF_SPAN_DEG / 2},
+                    {CENTER_LAT + HALF_SPAN_DEG / 2, CENTER_LON + HALF_SPAN_DEG / 2}};
+        };
+        double spread = layout == Layout.CLUSTERED ? 0.01 : 0.03;
+
+        Warehouse warehouse = new Warehouse();
+        warehouse.setId(1L);
+        warehouse.setName("Benchmark Depot");
+        warehouse.setAddress("Benchmark Depot");
+        warehouse.setLatitude(layout == Layout.MULTI_DEPOT ? centers[0][0] : CENTER_LAT);
+        warehouse.setLongitude(layout == Layout.MULTI_DEPOT ? centers[0][1] : CENTER_LON);
+        warehouse.setOpeningTime(LocalTime.of(6, 0));
+        warehouse.setClosingTime(LocalTime.of(22, 0));
+
+        Vehicle vehicle = new Vehicle("BENCH-001", VehicleType.TRUCK);
+        vehicle.setId(1L);
+
+        Tour tour = new Tour();
+        tour.setId(1L);
+        tour.setTourDate(LocalDate.of(2025, 11, 7));
+        tour.setWarehouse(warehouse);
+        tour.setVehicle(vehicle);
+        for (int i = 0; i < stops; i++) {
+            double lat;
+            double lon;
+            if (centers.length == 0) {
+                lat = CENTER_LAT + (random.nextDouble() * 2 - 1) * HALF_SPAN_DEG;
+                lon = CENTER_LON + (random.nextDouble() * 2 - 1) * HALF_SPAN_DEG;
+            } else {
+                double[] center = centers[random.nextInt(centers.length)];
+                lat = center[0] + random.nextGaussian() * spread;
+                lon = center[1] + random.nextGaussian() * spread;
+            }
+            Delivery delivery = new Delivery();
+            delivery.setId(i + 1L);
+            delivery.setSpecificAddress("Stop " + (i + 1));
+            delivery.setSpecificLatitude(lat);
+            delivery.setSpecificLongitude(lon);
+            delivery.setWeightKg(1.0 + random.nextInt(20));
+            delivery.setVolumeM3(0.1 + random.nextInt(10) / 10.0);
+            delivery.setSequenceInTour(i + 1);
+            tour.addDelivery(delivery);
+        }
+        return tour;
+    }
+
+    /**
+     * Closed route length: warehouse, every stop in order, back to the warehouse
+     */
+    public static double routeKm(Tour tour, List<Delivery> route) {
+        return DistanceCalculator.tourDistance(tour.getWarehouse(), route);
+    }
+
+    private static double[][] randomPoints(Random random, int count) {
+        double[][] points = new double[count][];
+        for (int i = 0; i < count; i++) {
+            points[i] = new double[]{
+                    CENTER_LAT + (random.nextDouble() * 2 - 1) * HALF_SPAN_DEG,
+                    CENTER_LON + (random.nextDouble() * 2 - 1) * HALF_SPAN_DEG};
+        }
+        return points;
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.transport.benchmark;
+
+import org.example.transport.entity.Delivery;
+import org.example.transport.entity.Tour;
+import org.example.transport.entity.Warehouse;
+import org.example.transport.util.DistanceCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed tour length over delivery entities, the computation behind TourService.getTotalDistance
+ * Includes the effective location lookups of each stop that the raw kernel in DistanceBenchmark skips.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TourDistanceBenchmark {
+
+    @Param({"UNIFORM", "CLUSTERED", "MULTI_DEPOT"})
+    public SyntheticTours.Layout layout;
+
+    @Param({"10", "1000", "100000"})
+    public int stops;
+
+    private Warehouse warehouse;
+    private List<Delivery> route;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Tour tour = SyntheticTours.generate(layout, stops);
+        warehouse = tour.getWarehouse();
+        route = new ArrayList<>(tour.getDeliveries());
+    }
+
+    @Benchmark
+    public double totalDistance() {
+        return DistanceCalculator.tourDistance(warehouse, route);
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.transport.load;
+
+import org.example.transport.datagen.DatasetGenerator;
+import org.example.transport.datagen.DatasetSpec;
+import org.example.transport.datagen.DatasetTable;
+import org.example.transport.datagen.JdbcDatasetSink;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.LongStream;
+
+/**
+ * Seeded data set the load test runs against
+ * Written by the {@link DatasetGenerator}: clustered customers, pending tours for today and
+ * unassigned deliveries. Ids are kept so requests only address rows that exist; the same
+ * sizes and seed always give the same data.
+ */
+final class LoadDataset {
+
+    private static final int BATCH_SIZE = 1000;
+
+    final List<Long> customerIds;
+    final List<Long> deliveryIds;
+    final List<Long> tourIds;
+
+    private LoadDataset(List<Long> customerIds, List<Long> deliveryIds, List<Long> tourIds) {
+        this.customerIds = customerIds;
+        this.deliveryIds = deliveryIds;
+        this.tourIds = tourIds;
+    }
+
+    static LoadDataset seed(ApplicationContext context, int customers, int tours, int stopsPerTour,
+                            int unassigned, long seed) {
+        LocalDate today = LocalDate.now();
+        DatasetSpec spec = new DatasetSpec(3, Math.max(1, tours / 5), customers, today, today, tours, stopsPerTour,
+                unassigned, today, seed);
+        DatasetGenerator.Summary summary;
+        try (JdbcDatasetSink sink = new JdbcDatasetSink(context.getBean(JdbcTemplate.class), BATCH_SIZE)) {
+            summary = new DatasetGenerator(spec).generate(sink);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new LoadDataset(ids(summary, DatasetTable.CUSTOMERS), ids(summary, DatasetTable.DELIVERIES),
+                ids(summary, DatasetTable.TOURS));
+    }
+
+    private static List<Long> ids(DatasetGenerator.Summary summary, DatasetTable table) {
+        long first = summary.firstIds().get(table);
+        return LongStream.range(first, first + summary.rows().get(table)).boxed().toList();
+    }
+}
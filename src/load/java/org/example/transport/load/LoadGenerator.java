@@ -0,0 +1,188 @@
+package org.example.transport.load;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop HTTP load generator
+ * Requests are started on a fixed schedule (exponential gaps around the target rate) no
+ * matter how many are still running, and latency is measured from the scheduled start.
+ * A slow server therefore shows up as queueing in the percentiles instead of silently
+ * lowering the offered rate (coordinated omission).
+ */
+final class LoadGenerator {
+
+    /**
+     * Endpoints in the traffic mix with their default share of requests
+     */
+    enum Operation {
+        LIST_DELIVERIES("GET /api/deliveries", 25),
+        GET_DELIVERY("GET /api/deliveries/{id}", 20),
+        CREATE_DELIVERY("POST /api/deliveries", 10),
+        UPDATE_DELIVERY("PUT /api/deliveries/{id}", 10),
+        NEARBY_DELIVERIES("GET /api/deliveries/nearby", 5),
+        GET_TOUR("GET /api/tours/{id}", 15),
+        OPTIMIZE_TOUR("GET /api/tours/{id}/optimize", 10),
+        TOUR_DISTANCE("GET /api/tours/{id}/distance", 5);
+
+        final String label;
+        final int defaultWeight;
+
+        Operation(String label, int defaultWeight) {
+            this.label = label;
+            this.defaultWeight = defaultWeight;
+        }
+    }
+
+    /**
+     * Outcome of one endpoint during a step, latencies in microseconds
+     */
+    static final class EndpointStats {
+        final Histogram latency = new ConcurrentHistogram(3);
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong conflicts = new AtomicLong();
+    }
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final LoadDataset dataset;
+    private final Map<Operation, Integer> mix;
+    private final int maxInFlight;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    LoadGenerator(HttpClient client, String baseUrl, LoadDataset dataset, Map<Operation, Integer> mix, int maxInFlight) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.dataset = dataset;
+        this.mix = mix;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Offer requests at the given rate for the duration and wait for the stragglers
+     * Requests that would exceed the in-flight limit are not sent and count as errors,
+     * the client would otherwise queue without bound once the server stops keeping up.
+     */
+    Map<Operation, EndpointStats> run(double ratePerSecond, Duration duration, long seed) throws InterruptedException {
+        Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+        mix.keySet().forEach(operation -> stats.put(operation, new EndpointStats()));
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        Random random = new Random(seed);
+        AtomicInteger inFlight = new AtomicInteger();
+
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long scheduled = start;
+        while (scheduled < end) {
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = pick(random, totalWeight);
+            EndpointStats endpoint = stats.get(operation);
+            long intended = scheduled;
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                endpoint.errors.incrementAndGet();
+                endpoint.latency.recordValue(micros(System.nanoTime() - intended));
+            } else {
+                client.sendAsync(request(operation, random), HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, failure) -> {
+                            endpoint.latency.recordValue(micros(System.nanoTime() - intended));
+                            if (failure != null || response.statusCode() >= 400 && response.statusCode() != 409) {
+                                endpoint.errors.incrementAndGet();
+                            } else if (response.statusCode() == 409) {
+                                endpoint.conflicts.incrementAndGet();
+                            }
+                            inFlight.decrementAndGet();
+                        });
+            }
+            scheduled += (long) (-Math.log(1.0 - random.nextDouble()) * meanGapNanos);
+        }
+
+        long drainUntil = System.nanoTime() + REQUEST_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainUntil) {
+            Thread.sleep(10);
+        }
+        return stats;
+    }
+
+    private Operation pick(Random random, int totalWeight) {
+        int ticket = random.nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            ticket -= entry.getValue();
+            if (ticket < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty traffic mix");
+    }
+
+    private HttpRequest request(Operation operation, Random random) {
+        return switch (operation) {
+            case LIST_DELIVERIES -> get("/api/deliveries?size=50");
+            case GET_DELIVERY -> get("/api/deliveries/" + any(random, dataset.deliveryIds));
+            case CREATE_DELIVERY -> send("POST", "/api/deliveries", delivery(random));
+            case UPDATE_DELIVERY -> send("PUT", "/api/deliveries/" + any(random, dataset.deliveryIds), delivery(random));
+            case NEARBY_DELIVERIES -> get(String.format(Locale.ROOT, "/api/deliveries/nearby?lat=%.5f&lon=%.5f&radiusKm=2",
+                    48.8566 + (random.nextDouble() - 0.5) * 0.2, 2.3522 + (random.nextDouble() - 0.5) * 0.2));
+            case GET_TOUR -> get("/api/tours/" + any(random, dataset.tourIds));
+            case OPTIMIZE_TOUR -> get("/api/tours/" + any(random, dataset.tourIds) + "/optimize?algorithm="
+                    + (random.nextInt(4) == 0 ? "CLARKE_WRIGHT" : "NEAREST_NEIGHBOR"));
+            case TOUR_DISTANCE -> get("/api/tours/" + any(random, dataset.tourIds) + "/distance");
+        };
+    }
+
+    private Map<String, Object> delivery(Random random) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("customerId", any(random, dataset.customerIds));
+        body.put("weightKg", 1.0 + random.nextInt(40));
+        body.put("volumeM3", 0.05 + random.nextInt(20) / 20.0);
+        return body;
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT).GET().build();
+    }
+
+    private HttpRequest send(String method, String path, Object body) {
+        try {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize request body", e);
+        }
+    }
+
+    private static Long any(Random random, List<Long> ids) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+
+    private static long micros(long nanos) {
+        return Math.max(1, nanos / 1000);
+    }
+}
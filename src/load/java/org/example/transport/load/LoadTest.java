@@ -0,0 +1,225 @@
+package org.example.transport.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.example.transport.TransportApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * End-to-end load test of the REST API on the embedded H2 profile
+ * Starts the application on a random port, seeds a data set, then offers the traffic mix
+ * at each rate in turn. Every step reports per endpoint latency percentiles, throughput,
+ * error and conflict (409) rates; the first step that misses the p99 target, the error
+ * budget or the offered rate is reported as the breaking point.
+ * Usage: LoadTest [key=value ...], see {@link #DEFAULTS}. Keys starting with spring.,
+ * server. or tour. are passed to the application.
+ */
+public final class LoadTest {
+
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("rates", "25,50,100,200,400");
+        DEFAULTS.put("duration", "30");
+        DEFAULTS.put("warmup", "15");
+        DEFAULTS.put("slo-p99-ms", "500");
+        DEFAULTS.put("max-error-rate", "0.01");
+        DEFAULTS.put("max-in-flight", "512");
+        DEFAULTS.put("client-threads", "16");
+        DEFAULTS.put("customers", "2000");
+        DEFAULTS.put("tours", "100");
+        DEFAULTS.put("stops-per-tour", "30");
+        DEFAULTS.put("unassigned", "3000");
+        DEFAULTS.put("seed", "42");
+        DEFAULTS.put("mix", "");
+        DEFAULTS.put("output", "target/load-report.json");
+    }
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>(DEFAULTS);
+        List<String> appArgs = new ArrayList<>(List.of("--spring.profiles.active=load", "--server.port=0"));
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            String key = arg.substring(0, equals);
+            if (key.startsWith("spring.") || key.startsWith("server.") || key.startsWith("tour.")) {
+                appArgs.add("--" + arg);
+            } else if (DEFAULTS.containsKey(key)) {
+                options.put(key, arg.substring(equals + 1));
+            } else {
+                throw new IllegalArgumentException("Unknown option " + key + ", known: " + DEFAULTS.keySet());
+            }
+        }
+
+        ConfigurableApplicationContext context = SpringApplication.run(TransportApplication.class,
+                appArgs.toArray(String[]::new));
+        ExecutorService clientPool = Executors.newFixedThreadPool(Integer.parseInt(options.get("client-threads")));
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            long seed = Long.parseLong(options.get("seed"));
+
+            long seedStart = System.nanoTime();
+            LoadDataset dataset = LoadDataset.seed(context, Integer.parseInt(options.get("customers")),
+                    Integer.parseInt(options.get("tours")), Integer.parseInt(options.get("stops-per-tour")),
+                    Integer.parseInt(options.get("unassigned")), seed);
+            System.out.printf("Seeded %d customers, %d deliveries, %d tours in %d ms, app on port %d%n",
+                    dataset.customerIds.size(), dataset.deliveryIds.size(), dataset.tourIds.size(),
+                    (System.nanoTime() - seedStart) / 1_000_000, port);
+
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(clientPool)
+                    .build();
+            LoadGenerator generator = new LoadGenerator(client, "http://localhost:" + port, dataset,
+                    mix(options.get("mix")), Integer.parseInt(options.get("max-in-flight")));
+
+            double[] rates = Arrays.stream(options.get("rates").split(",")).mapToDouble(Double::parseDouble).toArray();
+            int warmup = Integer.parseInt(options.get("warmup"));
+            if (warmup > 0) {
+                System.out.printf("Warming up for %d s at %.0f req/s%n", warmup, rates[0]);
+                generator.run(rates[0], Duration.ofSeconds(warmup), seed - 1);
+            }
+
+            Duration duration = Duration.ofSeconds(Long.parseLong(options.get("duration")));
+            double sloMicros = Double.parseDouble(options.get("slo-p99-ms")) * 1000;
+            double maxErrorRate = Double.parseDouble(options.get("max-error-rate"));
+            List<Map<String, Object>> steps = new ArrayList<>();
+            Double breakingPoint = null;
+            for (int i = 0; i < rates.length; i++) {
+                Map<LoadGenerator.Operation, LoadGenerator.EndpointStats> stats =
+                        generator.run(rates[i], duration, seed + i);
+                Map<String, Object> step = step(rates[i], duration, stats);
+                steps.add(step);
+                print(step);
+                boolean broken = (double) step.get("p99Ms") * 1000 > sloMicros
+                        || (double) step.get("errorRate") > maxErrorRate
+                        || (double) step.get("throughput") < rates[i] * 0.9;
+                if (broken && breakingPoint == null) {
+                    breakingPoint = rates[i];
+                    System.out.printf("Breaking point: %.0f req/s%n", rates[i]);
+                }
+            }
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("options", options);
+            report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+            report.put("maxHeapMb", Runtime.getRuntime().maxMemory() / (1024 * 1024));
+            report.put("breakingPointRate", breakingPoint);
+            report.put("steps", steps);
+            write(new File(options.get("output")), report);
+        } finally {
+            context.close();
+            clientPool.shutdownNow();
+        }
+    }
+
+    private static Map<LoadGenerator.Operation, Integer> mix(String spec) {
+        Map<LoadGenerator.Operation, Integer> mix = new LinkedHashMap<>();
+        if (spec.isBlank()) {
+            for (LoadGenerator.Operation operation : LoadGenerator.Operation.values()) {
+                mix.put(operation, operation.defaultWeight);
+            }
+            return mix;
+        }
+        // e.g. OPTIMIZE_TOUR:50,GET_TOUR:50
+        for (String part : spec.split(",")) {
+            String[] pair = part.split(":");
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                mix.put(LoadGenerator.Operation.valueOf(pair[0].trim()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Traffic mix " + spec + " has no operation with a positive weight");
+        }
+        return mix;
+    }
+
+    private static Map<String, Object> step(double rate, Duration duration,
+                                            Map<LoadGenerator.Operation, LoadGenerator.EndpointStats> stats) {
+        Histogram all = new Histogram(3);
+        long errors = 0;
+        long conflicts = 0;
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        for (Map.Entry<LoadGenerator.Operation, LoadGenerator.EndpointStats> entry : stats.entrySet()) {
+            Histogram latency = entry.getValue().latency;
+            long count = latency.getTotalCount();
+            all.add(latency);
+            errors += entry.getValue().errors.get();
+            conflicts += entry.getValue().conflicts.get();
+
+            Map<String, Object> endpoint = percentiles(latency);
+            endpoint.put("errors", entry.getValue().errors.get());
+            endpoint.put("conflicts", entry.getValue().conflicts.get());
+            endpoint.put("errorRate", count > 0 ? (double) entry.getValue().errors.get() / count : 0.0);
+            endpoints.put(entry.getKey().label, endpoint);
+        }
+
+        long total = all.getTotalCount();
+        Map<String, Object> step = new LinkedHashMap<>();
+        step.put("offeredRate", rate);
+        step.put("requests", total);
+        // Completed requests, the drain after the step is not counted as run time
+        step.put("throughput", (total - errors) / (double) duration.toSeconds());
+        step.put("errorRate", total > 0 ? (double) errors / total : 0.0);
+        step.put("conflictRate", total > 0 ? (double) conflicts / total : 0.0);
+        step.putAll(percentiles(all));
+        step.put("endpoints", endpoints);
+        return step;
+    }
+
+    private static Map<String, Object> percentiles(Histogram latency) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("count", latency.getTotalCount());
+        values.put("meanMs", latency.getMean() / 1000.0);
+        values.put("p50Ms", latency.getValueAtPercentile(50.0) / 1000.0);
+        values.put("p90Ms", latency.getValueAtPercentile(90.0) / 1000.0);
+        values.put("p99Ms", latency.getValueAtPercentile(99.0) / 1000.0);
+        values.put("p999Ms", latency.getValueAtPercentile(99.9) / 1000.0);
+        values.put("maxMs", latency.getMaxValue() / 1000.0);
+        return values;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void print(Map<String, Object> step) {
+        System.out.printf("%n%.0f req/s offered: %.1f req/s done, %.2f%% errors, %.2f%% conflicts, p99 %.1f ms%n",
+                step.get("offeredRate"), step.get("throughput"), (double) step.get("errorRate") * 100,
+                (double) step.get("conflictRate") * 100, step.get("p99Ms"));
+        System.out.printf("  %-30s %8s %8s %9s %9s %9s %9s %7s%n",
+                "endpoint", "count", "errors", "p50 ms", "p90 ms", "p99 ms", "max ms", "409");
+        for (Map.Entry<String, Object> entry : ((Map<String, Object>) step.get("endpoints")).entrySet()) {
+            Map<String, Object> e = (Map<String, Object>) entry.getValue();
+            System.out.printf("  %-30s %8d %8d %9.1f %9.1f %9.1f %9.1f %7d%n", entry.getKey(),
+                    e.get("count"), e.get("errors"), e.get("p50Ms"), e.get("p90Ms"), e.get("p99Ms"),
+                    e.get("maxMs"), e.get("conflicts"));
+        }
+    }
+
+    private static void write(File output, Map<String, Object> report) throws IOException {
+        if (output.getParentFile() != null) {
+            output.getParentFile().mkdirs();
+        }
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(output, report);
+        System.out.println("Load report written to " + output.getAbsolutePath());
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.transport.controller;
+
+import org.example.transport.dto.DelayStatisticsDTO;
+import org.example.transport.service.DelayRollupService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST Controller for delay analytics
+ * V2.0 - Served from the delay rollups, all filters are optional
+ */
+@RestController
+@RequestMapping("/api/analytics/delays")
+public class AnalyticsController {
+
+    private final DelayRollupService delayRollupService;
+
+    public AnalyticsController(DelayRollupService delayRollupService) {
+        this.delayRollupService = delayRollupService;
+    }
+
+    @GetMapping("/by-day")
+    public ResponseEntity<List<DelayStatisticsDTO>> getDelayByDayOfWeek(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long warehouseId) {
+        return ResponseEntity.ok(delayRollupService.getDelayByDayOfWeek(from, to, warehouseId));
+    }
+
+    @GetMapping("/by-slot")
+    public ResponseEntity<List<DelayStatisticsDTO>> getDelayByTimeSlot(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long warehouseId) {
+        return ResponseEntity.ok(delayRollupService.getDelayByTimeSlot(from, to, warehouseId));
+    }
+
+    @GetMapping("/by-week")
+    public ResponseEntity<List<DelayStatisticsDTO>> getDelayByWeek(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long warehouseId) {
+        return ResponseEntity.ok(delayRollupService.getDelayByWeek(from, to, warehouseId));
+    }
+
+    @GetMapping("/by-warehouse")
+    public ResponseEntity<List<DelayStatisticsDTO>> getDelayByWarehouse(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(delayRollupService.getDelayByWarehouse(from, to));
+    }
+
+    /**
+     * Recompute the rollups of every week overlapping [from, to] from the history
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Long>> rebuild(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(Map.of("historyRows", delayRollupService.rebuild(from, to)));
+    }
+}
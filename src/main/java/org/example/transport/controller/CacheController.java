@@ -0,0 +1,39 @@
+package org.example.transport.controller;
+
+import org.example.transport.dto.CacheStatisticsDTO;
+import org.example.transport.service.CacheStatisticsService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST Controller for the second-level cache of reference data
+ */
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    private final CacheStatisticsService cacheStatisticsService;
+
+    public CacheController(CacheStatisticsService cacheStatisticsService) {
+        this.cacheStatisticsService = cacheStatisticsService;
+    }
+
+    /**
+     * Hits, misses and puts per cache region since startup
+     */
+    @GetMapping("/statistics")
+    public ResponseEntity<List<CacheStatisticsDTO>> getStatistics() {
+        return ResponseEntity.ok(cacheStatisticsService.getStatistics());
+    }
+
+    /**
+     * Clear one region, only needed after the database was changed outside the application
+     */
+    @DeleteMapping("/{region}")
+    public ResponseEntity<Void> evictRegion(@PathVariable String region) {
+        cacheStatisticsService.evictRegion(region);
+        return ResponseEntity.noContent().build();
+    }
+}
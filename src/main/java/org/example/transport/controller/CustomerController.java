@@ -1,16 +1,25 @@
 package org.example.transport.controller;
 
 import jakarta.validation.Valid;
+import org.example.transport.dto.BulkImportResultDTO;
+import org.example.transport.dto.CursorPageDTO;
 import org.example.transport.dto.CustomerDTO;
+import org.example.transport.service.BulkImportService;
+import org.example.transport.service.CustomerSearchService;
 import org.example.transport.service.CustomerService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 
 /**
  * REST Controller for Customer management
@@ -23,9 +32,21 @@ public class CustomerController {
     @Autowired
     private CustomerService customerService;
 
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @Autowired
+    private CustomerSearchService customerSearchService;
+
+    /**
+     * Customers ordered by id, one page at a time
+     * @param cursor nextCursor of the previous page, omitted for the first page
+     */
     @GetMapping
-    public ResponseEntity<List<CustomerDTO>> getAllCustomers() {
-        return ResponseEntity.ok(customerService.getAllCustomers());
+    public ResponseEntity<CursorPageDTO<CustomerDTO>> getAllCustomers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(customerService.getAllCustomers(cursor, size));
     }
 
     @GetMapping("/paginated")
@@ -44,6 +65,16 @@ public class CustomerController {
                 .body(customerService.createCustomer(customerDTO));
     }
 
+    /**
+     * Import many customers from a CSV (with header row) or NDJSON request body
+     */
+    @PostMapping(value = "/bulk", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<BulkImportResultDTO> bulkImportCustomers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) throws IOException {
+        return ResponseEntity.ok(bulkImportService.importCustomers(body, "csv".equals(contentType.getSubtype())));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<CustomerDTO> updateCustomer(
             @PathVariable Long id,
@@ -58,14 +89,68 @@ public class CustomerController {
     }
 
     @GetMapping("/active")
-    public ResponseEntity<List<CustomerDTO>> getActiveCustomers() {
-        return ResponseEntity.ok(customerService.getActiveCustomers());
+    public ResponseEntity<CursorPageDTO<CustomerDTO>> getActiveCustomers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(customerService.getActiveCustomers(cursor, size));
+    }
+
+    /**
+     * Customers inside a latitude/longitude bounding box
+     * @param limit Maximum number of results, default 100, at most 1000
+     */
+    @GetMapping("/area")
+    public ResponseEntity<List<CustomerDTO>> getCustomersInArea(
+            @RequestParam double minLat,
+            @RequestParam double maxLat,
+            @RequestParam double minLon,
+            @RequestParam double maxLon,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(customerService.getCustomersInArea(minLat, maxLat, minLon, maxLon, limit));
+    }
+
+    /**
+     * Customers within radiusKm of a point, closest first
+     * @param limit Maximum number of results, default 100, at most 1000
+     */
+    @GetMapping("/nearby")
+    public ResponseEntity<List<CustomerDTO>> getCustomersNearby(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam double radiusKm,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(customerService.getCustomersNearby(lat, lon, radiusKm, limit));
     }
 
+    /**
+     * The k customers closest to a point, closest first (k at most 100)
+     */
+    @GetMapping("/nearest")
+    public ResponseEntity<List<CustomerDTO>> getNearestCustomers(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "10") int k) {
+        return ResponseEntity.ok(customerService.getNearestCustomers(lat, lon, k));
+    }
+
+    /**
+     * Typeahead search, best matches first
+     * @param query Free text, the last word matches as a prefix and small typos are tolerated
+     * @param limit Maximum number of results, default 20, at most 100
+     */
     @GetMapping("/search")
-    public ResponseEntity<Page<CustomerDTO>> searchCustomers(
+    public ResponseEntity<List<CustomerDTO>> searchCustomers(
             @RequestParam String query,
-            Pageable pageable) {
-        return ResponseEntity.ok(customerService.searchCustomers(query, pageable));
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean activeOnly) {
+        return ResponseEntity.ok(customerService.searchCustomers(query, limit, activeOnly));
+    }
+
+    /**
+     * Rebuild the search index, needed after customers were written outside the application
+     */
+    @PostMapping("/search/reload")
+    public ResponseEntity<Map<String, Integer>> reloadSearchIndex() {
+        return ResponseEntity.ok(Map.of("customers", customerSearchService.reload()));
     }
 }
@@ -1,12 +1,19 @@
 package org.example.transport.controller;
 
+import org.example.transport.dto.BulkImportResultDTO;
+import org.example.transport.dto.CursorPageDTO;
 import org.example.transport.dto.DeliveryDTO;
 import org.example.transport.enums.DeliveryStatus;
+import org.example.transport.service.BulkImportService;
 import org.example.transport.service.DeliveryService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -17,14 +24,22 @@ import java.util.List;
 public class DeliveryController {
 
     private final DeliveryService deliveryService;
+    private final BulkImportService bulkImportService;
 
-    public DeliveryController(DeliveryService deliveryService) {
+    public DeliveryController(DeliveryService deliveryService, BulkImportService bulkImportService) {
         this.deliveryService = deliveryService;
+        this.bulkImportService = bulkImportService;
     }
 
+    /**
+     * Deliveries ordered by id, one page at a time
+     * @param cursor nextCursor of the previous page, omitted for the first page
+     */
     @GetMapping
-    public ResponseEntity<List<DeliveryDTO>> getAllDeliveries() {
-        return ResponseEntity.ok(deliveryService.getAllDeliveries());
+    public ResponseEntity<CursorPageDTO<DeliveryDTO>> getAllDeliveries(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(deliveryService.getAllDeliveries(cursor, size));
     }
 
     @GetMapping("/{id}")
@@ -38,6 +53,16 @@ public class DeliveryController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    /**
+     * Import many deliveries from a CSV (with header row) or NDJSON request body
+     */
+    @PostMapping(value = "/bulk", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<BulkImportResultDTO> bulkImportDeliveries(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) throws IOException {
+        return ResponseEntity.ok(bulkImportService.importDeliveries(body, "csv".equals(contentType.getSubtype())));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<DeliveryDTO> updateDelivery(
             @PathVariable Long id,
@@ -52,13 +77,33 @@ public class DeliveryController {
     }
 
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<DeliveryDTO>> getDeliveriesByStatus(@PathVariable DeliveryStatus status) {
-        return ResponseEntity.ok(deliveryService.getDeliveriesByStatus(status));
+    public ResponseEntity<CursorPageDTO<DeliveryDTO>> getDeliveriesByStatus(
+            @PathVariable DeliveryStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(deliveryService.getDeliveriesByStatus(status, cursor, size));
     }
 
     @GetMapping("/unassigned")
-    public ResponseEntity<List<DeliveryDTO>> getUnassignedDeliveries() {
-        return ResponseEntity.ok(deliveryService.getUnassignedDeliveries());
+    public ResponseEntity<CursorPageDTO<DeliveryDTO>> getUnassignedDeliveries(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(deliveryService.getUnassignedDeliveries(cursor, size));
+    }
+
+    /**
+     * Deliveries within radiusKm of a point, closest first
+     * @param status Only deliveries in this status, all when omitted
+     * @param limit Maximum number of results, default 100, at most 1000
+     */
+    @GetMapping("/nearby")
+    public ResponseEntity<List<DeliveryDTO>> getDeliveriesNearby(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam double radiusKm,
+            @RequestParam(required = false) DeliveryStatus status,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(deliveryService.getDeliveriesNearby(lat, lon, radiusKm, status, limit));
     }
 
     @PatchMapping("/{id}/status")
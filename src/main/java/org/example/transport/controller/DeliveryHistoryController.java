@@ -0,0 +1,110 @@
+package org.example.transport.controller;
+
+import org.example.transport.dto.CursorPageDTO;
+import org.example.transport.dto.DeliveryHistoryDTO;
+import org.example.transport.dto.HistoryQueryDTO;
+import org.example.transport.dto.HistoryQueryResultDTO;
+import org.example.transport.service.DeliveryHistoryArchiveService;
+import org.example.transport.service.DeliveryHistoryService;
+import org.example.transport.service.HistoryQueryService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+
+/**
+ * REST Controller for delivery history
+ * V2.0 - Queries span the hot table and the month archive
+ */
+@RestController
+@RequestMapping("/api/history")
+public class DeliveryHistoryController {
+
+    private final DeliveryHistoryService deliveryHistoryService;
+    private final DeliveryHistoryArchiveService archiveService;
+    private final HistoryQueryService historyQueryService;
+
+    public DeliveryHistoryController(DeliveryHistoryService deliveryHistoryService,
+                                     DeliveryHistoryArchiveService archiveService,
+                                     HistoryQueryService historyQueryService) {
+        this.deliveryHistoryService = deliveryHistoryService;
+        this.archiveService = archiveService;
+        this.historyQueryService = historyQueryService;
+    }
+
+    /**
+     * History pages are newest first, pass nextCursor back as cursor for the next page
+     */
+    @GetMapping("/customer/{customerId}")
+    public ResponseEntity<CursorPageDTO<DeliveryHistoryDTO>> getHistoryByCustomer(
+            @PathVariable Long customerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(deliveryHistoryService.getHistoryByCustomer(customerId, cursor, size));
+    }
+
+    @GetMapping("/day/{dayOfWeek}")
+    public ResponseEntity<CursorPageDTO<DeliveryHistoryDTO>> getHistoryByDayOfWeek(
+            @PathVariable DayOfWeek dayOfWeek,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(deliveryHistoryService.getHistoryByDayOfWeek(dayOfWeek, cursor, size));
+    }
+
+    @GetMapping("/range")
+    public ResponseEntity<CursorPageDTO<DeliveryHistoryDTO>> getHistoryByDateRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(deliveryHistoryService.getHistoryByDateRange(from, to, cursor, size));
+    }
+
+    @GetMapping("/delayed")
+    public ResponseEntity<CursorPageDTO<DeliveryHistoryDTO>> getDelayedDeliveries(
+            @RequestParam(defaultValue = "0") Integer minDelay,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(deliveryHistoryService.getDelayedDeliveries(minDelay, cursor, size));
+    }
+
+    @GetMapping("/statistics/delay-by-day")
+    public ResponseEntity<Map<DayOfWeek, Double>> getAverageDelayByDayOfWeek() {
+        return ResponseEntity.ok(deliveryHistoryService.getAverageDelayByDayOfWeek());
+    }
+
+    @GetMapping("/statistics/delay-by-slot")
+    public ResponseEntity<Map<String, Double>> getAverageDelayByTimeSlot() {
+        return ResponseEntity.ok(deliveryHistoryService.getAverageDelayByTimeSlot());
+    }
+
+    /**
+     * Filter and aggregate the whole history in memory
+     */
+    @PostMapping("/query")
+    public ResponseEntity<HistoryQueryResultDTO> query(@RequestBody HistoryQueryDTO query) {
+        return ResponseEntity.ok(historyQueryService.query(query));
+    }
+
+    /**
+     * Reload the query store, needed after history was written outside the application
+     */
+    @PostMapping("/query/reload")
+    public ResponseEntity<Map<String, Long>> reloadQueryStore() {
+        return ResponseEntity.ok(Map.of("rows", historyQueryService.reload()));
+    }
+
+    /**
+     * Run the tiering job now
+     * @param before Archive every month before this one (yyyy-MM), defaults to the retention cutoff
+     */
+    @PostMapping("/archive/run")
+    public ResponseEntity<Map<String, Integer>> runArchive(@RequestParam(required = false) YearMonth before) {
+        int moved = before != null ? archiveService.archiveOlderThan(before) : archiveService.archiveExpired();
+        return ResponseEntity.ok(Map.of("archivedRows", moved));
+    }
+}
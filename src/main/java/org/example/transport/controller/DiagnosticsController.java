@@ -0,0 +1,36 @@
+package org.example.transport.controller;
+
+import org.example.transport.dto.SlowQueryDTO;
+import org.example.transport.jdbc.SlowQueryLog;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST Controller for database diagnostics
+ */
+@RestController
+@RequestMapping("/api/diagnostics")
+public class DiagnosticsController {
+
+    private final SlowQueryLog slowQueryLog;
+
+    public DiagnosticsController(SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    /**
+     * Most recent statements slower than jdbc.slow-query.threshold-ms, newest first
+     */
+    @GetMapping("/slow-queries")
+    public ResponseEntity<List<SlowQueryDTO>> getSlowQueries() {
+        return ResponseEntity.ok(slowQueryLog.getEntries());
+    }
+
+    @DeleteMapping("/slow-queries")
+    public ResponseEntity<Void> clearSlowQueries() {
+        slowQueryLog.clear();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.transport.controller;
+
+import org.example.transport.service.ExportService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+/**
+ * REST Controller for bulk exports
+ * Responses are streamed as newline-delimited JSON (one object per line).
+ */
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping("/deliveries")
+    public ResponseEntity<StreamingResponseBody> exportDeliveries() {
+        return ndjson("deliveries", exportService::exportDeliveries);
+    }
+
+    @GetMapping("/tours")
+    public ResponseEntity<StreamingResponseBody> exportTours() {
+        return ndjson("tours", exportService::exportTours);
+    }
+
+    @GetMapping("/history")
+    public ResponseEntity<StreamingResponseBody> exportHistory(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ndjson("delivery-history", out -> exportService.exportHistory(from, to, out));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> ndjson(String name, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + ".ndjson\"")
+                .body(body);
+    }
+}
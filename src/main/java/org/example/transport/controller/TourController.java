@@ -1,11 +1,16 @@
 package org.example.transport.controller;
 
+import org.example.transport.dto.CursorPageDTO;
+import org.example.transport.dto.OptimalityGapDTO;
 import org.example.transport.dto.OptimizedTourResponseDTO;
+import org.example.transport.dto.TourCompletionDTO;
 import org.example.transport.dto.TourDTO;
 import org.example.transport.enums.OptimizationAlgorithm;
 import org.example.transport.service.TourService;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -25,9 +30,15 @@ public class TourController {
         this.tourService = tourService;
     }
 
+    /**
+     * Tours newest first, one page at a time
+     * @param cursor nextCursor of the previous page, omitted for the first page
+     */
     @GetMapping
-    public ResponseEntity<List<TourDTO>> getAllTours() {
-        return ResponseEntity.ok(tourService.getAllTours());
+    public ResponseEntity<CursorPageDTO<TourDTO>> getAllTours(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(tourService.getAllTours(cursor, size));
     }
 
     @GetMapping("/{id}")
@@ -54,11 +65,35 @@ public class TourController {
         return ResponseEntity.ok(tourService.addDeliveryToTour(tourId, deliveryId));
     }
 
+    @PostMapping("/{id}/start")
+    public ResponseEntity<TourDTO> startTour(@PathVariable Long id) {
+        return ResponseEntity.ok(tourService.startTour(id));
+    }
+
+    @PostMapping("/{id}/complete")
+    public ResponseEntity<TourDTO> completeTour(
+            @PathVariable Long id,
+            @RequestBody(required = false) TourCompletionDTO completion) {
+        return ResponseEntity.ok(tourService.completeTour(id, completion));
+    }
+
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<TourDTO> cancelTour(@PathVariable Long id) {
+        return ResponseEntity.ok(tourService.cancelTour(id));
+    }
+
     @GetMapping("/{id}/optimize")
     public ResponseEntity<OptimizedTourResponseDTO> getOptimizedTour(
             @PathVariable Long id,
-            @RequestParam OptimizationAlgorithm algorithm) {
-        return ResponseEntity.ok(tourService.getOptimizedTour(id, algorithm));
+            @RequestParam OptimizationAlgorithm algorithm,
+            @RequestParam(defaultValue = "false") boolean diagnostics,
+            @RequestParam(required = false) Long budgetMs) {
+        return ResponseEntity.ok(tourService.getOptimizedTour(id, algorithm, diagnostics, budgetMs));
+    }
+
+    @GetMapping("/{id}/gap")
+    public ResponseEntity<OptimalityGapDTO> getOptimalityGap(@PathVariable Long id) {
+        return ResponseEntity.ok(tourService.getOptimalityGap(id));
     }
 
     @GetMapping("/{id}/distance")
@@ -66,6 +101,13 @@ public class TourController {
         return ResponseEntity.ok(tourService.getTotalDistance(id));
     }
 
+    @GetMapping(value = "/{id}/tsplib", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> exportTsplib(@PathVariable Long id) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tour" + id + ".tsp\"")
+                .body(tourService.exportTsplib(id));
+    }
+
     @GetMapping("/date/{date}")
     public ResponseEntity<List<TourDTO>> getToursByDate(
             @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
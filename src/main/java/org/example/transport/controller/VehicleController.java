@@ -1,5 +1,6 @@
 package org.example.transport.controller;
 
+import org.example.transport.dto.CursorPageDTO;
 import org.example.transport.dto.VehicleDTO;
 import org.example.transport.enums.VehicleType;
 import org.example.transport.service.VehicleService;
@@ -22,9 +23,15 @@ public class VehicleController {
         this.vehicleService = vehicleService;
     }
 
+    /**
+     * Vehicles ordered by id, one page at a time
+     * @param cursor nextCursor of the previous page, omitted for the first page
+     */
     @GetMapping
-    public ResponseEntity<List<VehicleDTO>> getAllVehicles() {
-        return ResponseEntity.ok(vehicleService.getAllVehicles());
+    public ResponseEntity<CursorPageDTO<VehicleDTO>> getAllVehicles(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(vehicleService.getAllVehicles(cursor, size));
     }
 
     @GetMapping("/{id}")
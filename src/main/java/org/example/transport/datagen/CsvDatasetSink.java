@@ -0,0 +1,75 @@
+package org.example.transport.datagen;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Writes generated rows as one CSV file per table, e.g. customers.csv
+ * The header row holds field names, so customers.csv and then deliveries.csv can be
+ * posted to the bulk import endpoints of an empty database: customers are numbered from 1
+ * in file order, which is the order the import assigns their ids in.
+ */
+public class CsvDatasetSink implements DatasetSink {
+
+    private final Path directory;
+    private final Map<DatasetTable, Writer> writers = new EnumMap<>(DatasetTable.class);
+
+    public CsvDatasetSink(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    @Override
+    public long firstId(DatasetTable table) {
+        return 1;
+    }
+
+    @Override
+    public void add(DatasetTable table, Object[] row) throws IOException {
+        Writer writer = writers.get(table);
+        if (writer == null) {
+            writer = Files.newBufferedWriter(directory.resolve(table.tableName() + ".csv"), StandardCharsets.UTF_8);
+            writers.put(table, writer);
+            writeLine(writer, table.fieldNames().toArray());
+        }
+        writeLine(writer, row);
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (Writer writer : writers.values()) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static void writeLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write(escape(values[i].toString()));
+            }
+        }
+        writer.write('\n');
+    }
+
+    private static String escape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,347 @@
+package org.example.transport.datagen;
+
+import org.example.transport.enums.DeliveryStatus;
+import org.example.transport.enums.OptimizationAlgorithm;
+import org.example.transport.enums.TourStatus;
+import org.example.transport.enums.VehicleType;
+import org.example.transport.util.DistanceCalculator;
+import org.example.transport.util.GeoCell;
+
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic generator for city-scale test data
+ * Customers live in dense neighbourhoods around a city centre, each tour serves one or two
+ * neighbourhoods from its warehouse in sweep order, and completed tours get one history row
+ * per stop. Delays follow the patterns the delay model looks for: later stops, Monday and
+ * Friday, the morning and evening slots, trucks and heavy parcels run later, with noise and
+ * occasional long incidents. Rows go to a {@link DatasetSink} as they are generated, so
+ * memory only grows with the number of customers.
+ */
+public class DatasetGenerator {
+
+    private static final double CENTER_LAT = 48.8566;
+    private static final double CENTER_LON = 2.3522;
+    private static final double CITY_SPREAD_DEG = 0.08;
+    private static final double NEIGHBOURHOOD_SPREAD_DEG = 0.01;
+    private static final int CUSTOMERS_PER_NEIGHBOURHOOD = 2500;
+    private static final String[] TIME_SLOTS = {"08:00-10:00", "10:00-12:00", "12:00-14:00", "14:00-16:00", "16:00-18:00"};
+    private static final double AVERAGE_SPEED_KMH = 30.0;
+    private static final int SERVICE_MINUTES_PER_STOP = 5;
+    private static final double FAILED_SHARE = 0.015;
+
+    private final DatasetSpec spec;
+
+    public DatasetGenerator(DatasetSpec spec) {
+        this.spec = spec;
+    }
+
+    /**
+     * Rows written per table and where the generated ids start
+     * @param firstOpenTourId Id of the first pending tour, every later tour is pending too, -1 if none
+     */
+    public record Summary(Map<DatasetTable, Long> rows, Map<DatasetTable, Long> firstIds,
+                          long firstOpenTourId, long openTours, long millis) {
+    }
+
+    /**
+     * Warehouses, vehicles and customers, kept in memory to build tours
+     */
+    private static final class City {
+        long warehouseFirst;
+        double[][] warehouses;
+        long vehicleFirst;
+        VehicleType[] vehicles;
+        long customerFirst;
+        double[] lat;
+        double[] lon;
+        String[] slot;
+        int[] neighbourhood;
+        int[][] members;
+
+        String address(int customer) {
+            return (customer % 200 + 1) + " Rue du Quartier " + (neighbourhood[customer] + 1);
+        }
+    }
+
+    public Summary generate(DatasetSink sink) throws IOException {
+        long start = System.nanoTime();
+        Random random = new Random(spec.seed());
+        Map<DatasetTable, Long> firstIds = new EnumMap<>(DatasetTable.class);
+        Map<DatasetTable, Long> rows = new EnumMap<>(DatasetTable.class);
+        for (DatasetTable table : DatasetTable.values()) {
+            firstIds.put(table, table.explicitIds() ? sink.firstId(table) : 0L);
+            rows.put(table, 0L);
+        }
+
+        City city = new City();
+        city.warehouseFirst = firstIds.get(DatasetTable.WAREHOUSES);
+        city.vehicleFirst = firstIds.get(DatasetTable.VEHICLES);
+        city.customerFirst = firstIds.get(DatasetTable.CUSTOMERS);
+        addWarehouses(sink, rows, random, city);
+        addVehicles(sink, rows, random, city);
+        addCustomers(sink, rows, random, city);
+
+        long tourId = firstIds.get(DatasetTable.TOURS);
+        long deliveryId = firstIds.get(DatasetTable.DELIVERIES);
+        long firstOpenTourId = -1;
+        long openTours = 0;
+        int tourIndex = 0;
+        for (LocalDate date = spec.from(); !date.isAfter(spec.to()); date = date.plusDays(1)) {
+            boolean completed = date.isBefore(spec.today());
+            for (int t = 0; t < spec.toursPerDay(); t++, tourIndex++, tourId++) {
+                if (!completed) {
+                    firstOpenTourId = firstOpenTourId < 0 ? tourId : firstOpenTourId;
+                    openTours++;
+                }
+                deliveryId = addTour(sink, rows, random, city, date, completed, tourId, deliveryId,
+                        t % city.warehouses.length, tourIndex % city.vehicles.length);
+            }
+        }
+
+        for (int i = 0; i < spec.unassigned(); i++, deliveryId++) {
+            int c = random.nextInt(spec.customers());
+            add(sink, rows, DatasetTable.DELIVERIES, deliveryId, city.customerFirst + c, null, null, null,
+                    round1(1.0 + random.nextDouble() * 30), round2(0.05 + random.nextDouble()), null,
+                    DeliveryStatus.PENDING.name(), null, null, 0L, GeoCell.encode(city.lat[c], city.lon[c]));
+        }
+
+        return new Summary(rows, firstIds, firstOpenTourId, openTours, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void addWarehouses(DatasetSink sink, Map<DatasetTable, Long> rows, Random random, City city)
+            throws IOException {
+        // On a ring around the centre, a single warehouse sits in the middle
+        city.warehouses = new double[spec.warehouses()][];
+        for (int i = 0; i < city.warehouses.length; i++) {
+            double angle = 2 * Math.PI * i / city.warehouses.length + random.nextDouble() * 0.3;
+            double radius = city.warehouses.length == 1 ? 0.0 : CITY_SPREAD_DEG * (0.8 + random.nextDouble() * 0.4);
+            city.warehouses[i] = new double[]{CENTER_LAT + Math.sin(angle) * radius,
+                    CENTER_LON + Math.cos(angle) * radius * 1.5};
+            long id = city.warehouseFirst + i;
+            add(sink, rows, DatasetTable.WAREHOUSES, id, "Depot " + id, (i + 1) + " Logistics Park",
+                    city.warehouses[i][0], city.warehouses[i][1], LocalTime.of(6, 0), LocalTime.of(20, 0));
+        }
+    }
+
+    private void addVehicles(DatasetSink sink, Map<DatasetTable, Long> rows, Random random, City city)
+            throws IOException {
+        city.vehicles = new VehicleType[spec.vehicles()];
+        for (int i = 0; i < city.vehicles.length; i++) {
+            double draw = random.nextDouble();
+            VehicleType type = draw < 0.6 ? VehicleType.VAN : draw < 0.9 ? VehicleType.TRUCK : VehicleType.BIKE;
+            city.vehicles[i] = type;
+            long id = city.vehicleFirst + i;
+            add(sink, rows, DatasetTable.VEHICLES, id, "GEN-" + id, type.name(), type.getMaxWeightKg(),
+                    type.getMaxVolumeM3(), true);
+        }
+    }
+
+    private void addCustomers(DatasetSink sink, Map<DatasetTable, Long> rows, Random random, City city)
+            throws IOException {
+        // Most customers live close to a neighbourhood centre, the rest anywhere in the city
+        int neighbourhoods = Math.max(4, spec.customers() / CUSTOMERS_PER_NEIGHBOURHOOD);
+        double[][] centers = new double[neighbourhoods][];
+        for (int n = 0; n < neighbourhoods; n++) {
+            centers[n] = new double[]{CENTER_LAT + random.nextGaussian() * CITY_SPREAD_DEG,
+                    CENTER_LON + random.nextGaussian() * CITY_SPREAD_DEG * 1.5};
+        }
+        int count = spec.customers();
+        city.lat = new double[count];
+        city.lon = new double[count];
+        city.slot = new String[count];
+        city.neighbourhood = new int[count];
+        int[] sizes = new int[neighbourhoods];
+        for (int i = 0; i < count; i++) {
+            int n = random.nextInt(neighbourhoods);
+            double spread = random.nextDouble() < 0.85 ? NEIGHBOURHOOD_SPREAD_DEG : CITY_SPREAD_DEG / 2;
+            city.lat[i] = centers[n][0] + random.nextGaussian() * spread;
+            city.lon[i] = centers[n][1] + random.nextGaussian() * spread * 1.5;
+            city.slot[i] = random.nextDouble() < 0.15 ? null : TIME_SLOTS[random.nextInt(TIME_SLOTS.length)];
+            city.neighbourhood[i] = n;
+            sizes[n]++;
+            long id = city.customerFirst + i;
+            add(sink, rows, DatasetTable.CUSTOMERS, id, "Customer " + id, city.address(i), city.lat[i], city.lon[i],
+                    city.slot[i], String.format("+33 1 %08d", id % 100_000_000L), "customer" + id + "@example.com",
+                    true, GeoCell.encode(city.lat[i], city.lon[i]));
+        }
+
+        // Customer indexes per neighbourhood, empty neighbourhoods are dropped
+        List<int[]> members = new ArrayList<>(neighbourhoods);
+        int[][] byNeighbourhood = new int[neighbourhoods][];
+        for (int n = 0; n < neighbourhoods; n++) {
+            byNeighbourhood[n] = new int[sizes[n]];
+            sizes[n] = 0;
+        }
+        for (int i = 0; i < count; i++) {
+            int n = city.neighbourhood[i];
+            byNeighbourhood[n][sizes[n]++] = i;
+        }
+        for (int[] neighbourhood : byNeighbourhood) {
+            if (neighbourhood.length > 0) {
+                members.add(neighbourhood);
+            }
+        }
+        city.members = members.toArray(new int[0][]);
+    }
+
+    /**
+     * One tour with its deliveries and, once completed, its history rows
+     * @return Next free delivery id
+     */
+    private long addTour(DatasetSink sink, Map<DatasetTable, Long> rows, Random random, City city, LocalDate date,
+                         boolean completed, long tourId, long deliveryId, int warehouse, int vehicle)
+            throws IOException {
+        double[] depot = city.warehouses[warehouse];
+        VehicleType vehicleType = city.vehicles[vehicle];
+        long vehicleId = city.vehicleFirst + vehicle;
+
+        // Mostly one neighbourhood, some stops in a second one
+        int[] main = city.members[random.nextInt(city.members.length)];
+        int[] second = city.members[random.nextInt(city.members.length)];
+        int stops = Math.max(1, (int) Math.round(spec.stopsPerTour() * (0.8 + random.nextDouble() * 0.4)));
+        int[] customers = new int[stops];
+        for (int s = 0; s < stops; s++) {
+            int[] pool = random.nextDouble() < 0.8 ? main : second;
+            customers[s] = pool[random.nextInt(pool.length)];
+        }
+
+        // Sweep order around the warehouse, a plausible route without running an optimizer
+        double[] angle = new double[stops];
+        Integer[] sweep = new Integer[stops];
+        for (int s = 0; s < stops; s++) {
+            angle[s] = Math.atan2(city.lat[customers[s]] - depot[0], city.lon[customers[s]] - depot[1]);
+            sweep[s] = s;
+        }
+        Arrays.sort(sweep, (a, b) -> Double.compare(angle[a], angle[b]));
+        int[] route = new int[stops];
+        for (int s = 0; s < stops; s++) {
+            route[s] = customers[sweep[s]];
+        }
+
+        // Loads stay within the vehicle capacity
+        double[] weight = new double[stops];
+        double[] volume = new double[stops];
+        double totalWeight = 0.0;
+        double totalVolume = 0.0;
+        for (int s = 0; s < stops; s++) {
+            weight[s] = round1(Math.max(0.1, vehicleType.getMaxWeightKg() * 0.8 / stops * (0.5 + random.nextDouble())));
+            volume[s] = round2(Math.max(0.01, vehicleType.getMaxVolumeM3() * 0.8 / stops * (0.5 + random.nextDouble())));
+            totalWeight += weight[s];
+            totalVolume += volume[s];
+        }
+
+        double[] fromPrevious = new double[stops];
+        double distance = 0.0;
+        double lat = depot[0];
+        double lon = depot[1];
+        for (int s = 0; s < stops; s++) {
+            fromPrevious[s] = DistanceCalculator.calculateDistance(lat, lon, city.lat[route[s]], city.lon[route[s]]);
+            distance += fromPrevious[s];
+            lat = city.lat[route[s]];
+            lon = city.lon[route[s]];
+        }
+        distance += DistanceCalculator.calculateDistance(lat, lon, depot[0], depot[1]);
+
+        // Completed tours: planned times as TourService plans them, actual times with delays
+        DeliveryStatus[] status = new DeliveryStatus[stops];
+        Arrays.fill(status, DeliveryStatus.PENDING);
+        List<Object[]> history = new ArrayList<>(completed ? stops : 0);
+        LocalDateTime startTime = null;
+        LocalDateTime completionTime = null;
+        if (completed) {
+            startTime = date.atTime(7, 0).plusMinutes(random.nextInt(60));
+            LocalTime clock = startTime.toLocalTime();
+            LocalTime last = clock;
+            for (int s = 0; s < stops; s++) {
+                int c = route[s];
+                clock = clock.plusSeconds(Math.round(fromPrevious[s] / AVERAGE_SPEED_KMH * 3600));
+                LocalTime planned = clock;
+                clock = clock.plusMinutes(SERVICE_MINUTES_PER_STOP);
+
+                status[s] = random.nextDouble() < FAILED_SHARE ? DeliveryStatus.FAILED : DeliveryStatus.DELIVERED;
+                Integer delay = status[s] == DeliveryStatus.FAILED ? null
+                        : delayMinutes(random, date.getDayOfWeek(), city.slot[c], s + 1, vehicleType, weight[s]);
+                LocalTime actual = delay != null ? planned.plusMinutes(delay) : null;
+                if (actual != null && actual.isAfter(last)) {
+                    last = actual;
+                }
+                long customerId = city.customerFirst + c;
+                history.add(new Object[]{date, date.getDayOfWeek().name(), customerId, "Customer " + customerId,
+                        city.address(c), city.lat[c], city.lon[c], tourId, s + 1, planned, actual, delay, city.slot[c],
+                        weight[s], volume[s], status[s].name(), vehicleType.name(), "GEN-" + vehicleId,
+                        DistanceCalculator.calculateDistance(depot[0], depot[1], city.lat[c], city.lon[c]),
+                        fromPrevious[s], null});
+            }
+            completionTime = date.atTime(last).plusMinutes(SERVICE_MINUTES_PER_STOP);
+        }
+
+        add(sink, rows, DatasetTable.TOURS, tourId, date, vehicleId, city.warehouseFirst + warehouse,
+                completed ? OptimizationAlgorithm.NEAREST_NEIGHBOR.name() : null, completed ? distance : null,
+                round1(totalWeight), round2(totalVolume), completed,
+                completed ? TourStatus.COMPLETED.name() : TourStatus.PENDING.name(), startTime, completionTime, 0L);
+        for (int s = 0; s < stops; s++) {
+            int c = route[s];
+            add(sink, rows, DatasetTable.DELIVERIES, deliveryId + s, city.customerFirst + c, null, null, null,
+                    weight[s], volume[s], null, status[s].name(), tourId, s + 1, 0L,
+                    GeoCell.encode(city.lat[c], city.lon[c]));
+        }
+        for (Object[] row : history) {
+            add(sink, rows, DatasetTable.DELIVERY_HISTORY, row);
+        }
+        return deliveryId + stops;
+    }
+
+    /**
+     * Minutes late (negative when early) for one stop
+     */
+    static int delayMinutes(Random random, DayOfWeek day, String slot, int sequence, VehicleType vehicleType,
+                            double weightKg) {
+        double delay = 0.3 * sequence;
+        delay += switch (day) {
+            case MONDAY -> 3.0;
+            case FRIDAY -> 5.0;
+            case SATURDAY, SUNDAY -> -1.0;
+            default -> 0.0;
+        };
+        if (slot != null) {
+            delay += slot.startsWith("08") ? 4.0 : slot.startsWith("16") ? 6.0 : 0.0;
+        }
+        delay += switch (vehicleType) {
+            case TRUCK -> 3.0;
+            case BIKE -> -2.0;
+            default -> 0.0;
+        };
+        delay += 0.01 * weightKg;
+        delay += random.nextGaussian() * 5.0;
+        if (random.nextDouble() < 0.04) {
+            // Breakdowns, closed roads, waiting at the door
+            delay += -Math.log(1.0 - random.nextDouble()) * 25.0;
+        }
+        return (int) Math.round(delay);
+    }
+
+    private static void add(DatasetSink sink, Map<DatasetTable, Long> rows, DatasetTable table, Object... values)
+            throws IOException {
+        sink.add(table, values);
+        rows.merge(table, 1L, Long::sum);
+    }
+
+    private static double round1(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    private static double round2(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.transport.datagen;
+
+import java.io.IOException;
+
+/**
+ * Destination of generated rows
+ * Rows arrive parents first: every row only references ids of rows already added.
+ */
+public interface DatasetSink extends AutoCloseable {
+
+    /**
+     * First id the generator may use for a table with explicit ids
+     */
+    long firstId(DatasetTable table);
+
+    /**
+     * Add one row, values in the order of {@link DatasetTable#columns()}
+     */
+    void add(DatasetTable table, Object[] row) throws IOException;
+
+    /**
+     * Write everything still buffered
+     */
+    @Override
+    void close() throws IOException;
+}
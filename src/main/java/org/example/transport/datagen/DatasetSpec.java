@@ -0,0 +1,27 @@
+package org.example.transport.datagen;
+
+import java.time.LocalDate;
+
+/**
+ * Size and shape of a generated dataset
+ * Tours dated before {@code today} are completed and have history rows, the others are
+ * pending. The same spec always produces the same rows.
+ * @param toursPerDay Tours on each date of [from, to]
+ * @param stopsPerTour Average stops per tour, actual counts vary by up to 20%
+ * @param unassigned Pending deliveries not planned on any tour
+ */
+public record DatasetSpec(int warehouses, int vehicles, int customers, LocalDate from, LocalDate to,
+                          int toursPerDay, int stopsPerTour, int unassigned, LocalDate today, long seed) {
+
+    public DatasetSpec {
+        if (warehouses < 1 || vehicles < 1 || customers < 1) {
+            throw new IllegalArgumentException("At least one warehouse, vehicle and customer are required");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Date range " + from + " to " + to + " is empty");
+        }
+        if (toursPerDay < 0 || stopsPerTour < 1 || unassigned < 0) {
+            throw new IllegalArgumentException("Tour and delivery counts must not be negative");
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.transport.datagen;
+
+import java.util.List;
+
+/**
+ * Tables written by the dataset generator, in foreign key order
+ * Columns are the database columns; CSV headers use the matching camelCase field names
+ * so customer and delivery files can be posted to the bulk import endpoints as they are.
+ * History rows carry no id, the database assigns it.
+ */
+public enum DatasetTable {
+
+    WAREHOUSES("warehouses", true,
+            "id", "name", "address", "latitude", "longitude", "opening_time", "closing_time"),
+    VEHICLES("vehicles", true,
+            "id", "registration_number", "type", "max_weight_kg", "max_volume_m3", "available"),
+    CUSTOMERS("customers", true,
+            "id", "name", "address", "latitude", "longitude", "preferred_time_slot", "phone", "email", "active",
+            "geo_cell"),
+    TOURS("tours", true,
+            "id", "tour_date", "vehicle_id", "warehouse_id", "algorithm", "total_distance_km", "total_weight_kg",
+            "total_volume_m3", "optimized", "status", "start_time", "completion_time", "version"),
+    DELIVERIES("deliveries", true,
+            "id", "customer_id", "specific_address", "specific_latitude", "specific_longitude", "weight_kg",
+            "volume_m3", "preferred_time_slot", "status", "tour_id", "sequence_in_tour", "version", "geo_cell"),
+    DELIVERY_HISTORY("delivery_history", false,
+            "delivery_date", "day_of_week", "customer_id", "customer_name", "delivery_address", "latitude",
+            "longitude", "tour_id", "sequence_in_tour", "planned_time", "actual_time", "delay_minutes",
+            "preferred_time_slot", "weight_kg", "volume_m3", "delivery_status", "vehicle_type",
+            "vehicle_registration", "distance_from_warehouse_km", "distance_from_previous_delivery_km", "notes");
+
+    private final String tableName;
+    private final boolean explicitIds;
+    private final List<String> columns;
+
+    DatasetTable(String tableName, boolean explicitIds, String... columns) {
+        this.tableName = tableName;
+        this.explicitIds = explicitIds;
+        this.columns = List.of(columns);
+    }
+
+    public String tableName() {
+        return tableName;
+    }
+
+    /**
+     * True when the generator assigns ids, which rows of other tables then reference
+     */
+    public boolean explicitIds() {
+        return explicitIds;
+    }
+
+    public List<String> columns() {
+        return columns;
+    }
+
+    public String insertSql() {
+        return "INSERT INTO " + tableName + " (" + String.join(", ", columns) + ") VALUES ("
+                + String.join(", ", columns.stream().map(c -> "?").toList()) + ")";
+    }
+
+    /**
+     * Field names for CSV headers, e.g. preferred_time_slot becomes preferredTimeSlot
+     */
+    public List<String> fieldNames() {
+        return columns.stream().map(DatasetTable::camelCase).toList();
+    }
+
+    private static String camelCase(String column) {
+        StringBuilder name = new StringBuilder(column.length());
+        boolean upper = false;
+        for (char c : column.toCharArray()) {
+            if (c == '_') {
+                upper = true;
+            } else {
+                name.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        return name.toString();
+    }
+}
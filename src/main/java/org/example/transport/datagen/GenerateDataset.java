@@ -0,0 +1,164 @@
+package org.example.transport.datagen;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.transport.TransportApplication;
+import org.example.transport.dto.CacheStatisticsDTO;
+import org.example.transport.service.DelayRollupService;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line entry point of the dataset generator
+ * format=jdbc starts the application without a web server, so Liquibase brings the
+ * configured database up to date, writes the rows with batched inserts and rebuilds the
+ * delay rollups of the generated history. format=csv needs no database and writes one
+ * file per table. Keys starting with spring. are passed to the application, e.g.
+ * spring.datasource.url; the default dev profile is an in-memory database that is gone
+ * when the generator exits.
+ * The rollups, the history column store, the customer search index and the second-level
+ * cache of a running application do not see rows written by another JVM. Either run
+ * format=jdbc while the application is stopped, or pass app-url of the running instance:
+ * the generator then skips its own rollup rebuild and asks that instance to rebuild the
+ * rollups, reload the column store and the search index and clear its caches.
+ * Usage: GenerateDataset [key=value ...], see {@link #DEFAULTS}
+ */
+public final class GenerateDataset {
+
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    private static final Duration REFRESH_TIMEOUT = Duration.ofMinutes(30);
+
+    static {
+        LocalDate today = LocalDate.now();
+        DEFAULTS.put("format", "jdbc");
+        DEFAULTS.put("output", "target/dataset");
+        DEFAULTS.put("warehouses", "5");
+        DEFAULTS.put("vehicles", "200");
+        DEFAULTS.put("customers", "100000");
+        DEFAULTS.put("from", today.minusDays(365).toString());
+        DEFAULTS.put("to", today.plusDays(7).toString());
+        DEFAULTS.put("today", today.toString());
+        DEFAULTS.put("tours-per-day", "200");
+        DEFAULTS.put("stops-per-tour", "30");
+        DEFAULTS.put("unassigned", "20000");
+        DEFAULTS.put("seed", "42");
+        DEFAULTS.put("batch-size", "1000");
+        DEFAULTS.put("app-url", "");
+    }
+
+    private GenerateDataset() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>(DEFAULTS);
+        List<String> appArgs = new ArrayList<>(List.of("--spring.main.web-application-type=none"));
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            String key = arg.substring(0, equals);
+            if (key.startsWith("spring.")) {
+                appArgs.add("--" + arg);
+            } else if (DEFAULTS.containsKey(key)) {
+                options.put(key, arg.substring(equals + 1));
+            } else {
+                throw new IllegalArgumentException("Unknown option " + key + ", known: " + DEFAULTS.keySet());
+            }
+        }
+
+        DatasetSpec spec = new DatasetSpec(
+                Integer.parseInt(options.get("warehouses")),
+                Integer.parseInt(options.get("vehicles")),
+                Integer.parseInt(options.get("customers")),
+                LocalDate.parse(options.get("from")),
+                LocalDate.parse(options.get("to")),
+                Integer.parseInt(options.get("tours-per-day")),
+                Integer.parseInt(options.get("stops-per-tour")),
+                Integer.parseInt(options.get("unassigned")),
+                LocalDate.parse(options.get("today")),
+                Long.parseLong(options.get("seed")));
+        DatasetGenerator generator = new DatasetGenerator(spec);
+
+        DatasetGenerator.Summary summary;
+        switch (options.get("format")) {
+            case "csv" -> {
+                Path output = Path.of(options.get("output"));
+                try (CsvDatasetSink sink = new CsvDatasetSink(output)) {
+                    summary = generator.generate(sink);
+                }
+                System.out.println("CSV files written to " + output.toAbsolutePath());
+            }
+            case "jdbc" -> {
+                try (ConfigurableApplicationContext context = SpringApplication.run(TransportApplication.class,
+                        appArgs.toArray(String[]::new))) {
+                    try (JdbcDatasetSink sink = new JdbcDatasetSink(context.getBean(JdbcTemplate.class),
+                            Integer.parseInt(options.get("batch-size")))) {
+                        summary = generator.generate(sink);
+                    }
+                    LocalDate lastCompleted = spec.today().minusDays(1);
+                    LocalDate historyTo = lastCompleted.isBefore(spec.to()) ? lastCompleted : spec.to();
+                    boolean history = summary.rows().get(DatasetTable.DELIVERY_HISTORY) > 0;
+                    if (!options.get("app-url").isEmpty()) {
+                        refreshRunningApplication(options.get("app-url"), spec.from(), historyTo, history);
+                    } else if (history) {
+                        context.getBean(DelayRollupService.class).rebuild(spec.from(), historyTo);
+                    }
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown format " + options.get("format") + ", use jdbc or csv");
+        }
+
+        summary.rows().forEach((table, count) -> System.out.printf("%-18s %,12d rows%n", table.tableName(), count));
+        System.out.printf("Generated in %,d ms%n", summary.millis());
+    }
+
+    /**
+     * Bring the derived views of a running application up to date with the new rows
+     */
+    private static void refreshRunningApplication(String appUrl, LocalDate from, LocalDate to, boolean history)
+            throws IOException, InterruptedException {
+        String base = appUrl.endsWith("/") ? appUrl.substring(0, appUrl.length() - 1) : appUrl;
+        HttpClient client = HttpClient.newHttpClient();
+        if (history) {
+            send(client, "POST", base + "/api/analytics/delays/rebuild?from=" + from + "&to=" + to);
+            send(client, "POST", base + "/api/history/query/reload");
+        }
+        send(client, "POST", base + "/api/customers/search/reload");
+        CacheStatisticsDTO[] regions = new ObjectMapper().readValue(
+                send(client, "GET", base + "/api/cache/statistics"), CacheStatisticsDTO[].class);
+        for (CacheStatisticsDTO region : regions) {
+            send(client, "DELETE", base + "/api/cache/" + URLEncoder.encode(region.getRegion(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String send(HttpClient client, String method, String url) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .timeout(REFRESH_TIMEOUT)
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException(method + " " + url + " failed with " + response.statusCode()
+                    + ": " + response.body());
+        }
+        System.out.println(method + " " + url + " " + response.statusCode());
+        return response.body();
+    }
+}
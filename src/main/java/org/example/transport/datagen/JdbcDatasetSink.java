@@ -0,0 +1,115 @@
+package org.example.transport.datagen;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes generated rows with JDBC batch inserts
+ * Rows are buffered per table; when one buffer is full every buffer is flushed in foreign
+ * key order, so a batch never references a row that is still buffered. Ids continue after
+ * the largest existing or reserved id, and the id sequences are moved past the new rows on
+ * close so the application keeps generating unique ids.
+ */
+public class JdbcDatasetSink implements DatasetSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcDatasetSink.class);
+
+    /** Hibernate's pooled optimizer hands out (value - 49) .. value for these sequences */
+    private static final Map<DatasetTable, String> POOLED_SEQUENCES = Map.of(
+            DatasetTable.CUSTOMERS, "customers_seq",
+            DatasetTable.DELIVERIES, "deliveries_seq");
+    private static final int SEQUENCE_INCREMENT = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final boolean postgres;
+    private final Map<DatasetTable, List<Object[]>> buffers = new EnumMap<>(DatasetTable.class);
+    private final Map<DatasetTable, Long> written = new EnumMap<>(DatasetTable.class);
+
+    public JdbcDatasetSink(JdbcTemplate jdbcTemplate, int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.postgres = "PostgreSQL".equals(databaseProduct(jdbcTemplate));
+        for (DatasetTable table : DatasetTable.values()) {
+            buffers.put(table, new ArrayList<>(batchSize));
+            written.put(table, 0L);
+        }
+    }
+
+    @Override
+    public long firstId(DatasetTable table) {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table.tableName(), Long.class);
+        long first = max != null ? max + 1 : 1;
+        String sequence = POOLED_SEQUENCES.get(table);
+        if (sequence != null) {
+            // A running application may still hold unused ids of a block below this value
+            Long next = jdbcTemplate.queryForObject(postgres
+                    ? "SELECT nextval('" + sequence + "')"
+                    : "SELECT NEXT VALUE FOR " + sequence, Long.class);
+            first = Math.max(first, next + 1);
+        }
+        return first;
+    }
+
+    @Override
+    public void add(DatasetTable table, Object[] row) {
+        List<Object[]> buffer = buffers.get(table);
+        buffer.add(row);
+        if (buffer.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+        for (DatasetTable table : DatasetTable.values()) {
+            if (table.explicitIds() && written.get(table) > 0) {
+                restartIds(table);
+            }
+        }
+        logger.info("Dataset written: {}", written);
+    }
+
+    private void flush() {
+        for (DatasetTable table : DatasetTable.values()) {
+            List<Object[]> buffer = buffers.get(table);
+            if (!buffer.isEmpty()) {
+                jdbcTemplate.batchUpdate(table.insertSql(), buffer);
+                written.merge(table, (long) buffer.size(), Long::sum);
+                buffer.clear();
+            }
+        }
+    }
+
+    private void restartIds(DatasetTable table) {
+        long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table.tableName(), Long.class);
+        String sequence = POOLED_SEQUENCES.get(table);
+        if (sequence != null) {
+            jdbcTemplate.execute(postgres
+                    ? "SELECT setval('" + sequence + "', " + (max + SEQUENCE_INCREMENT) + ", false)"
+                    : "ALTER SEQUENCE " + sequence + " RESTART WITH " + (max + SEQUENCE_INCREMENT));
+        } else {
+            jdbcTemplate.execute(postgres
+                    ? "SELECT setval(pg_get_serial_sequence('" + table.tableName() + "', 'id'), " + max + ")"
+                    : "ALTER TABLE " + table.tableName() + " ALTER COLUMN id RESTART WITH " + (max + 1));
+        }
+    }
+
+    private static String databaseProduct(JdbcTemplate jdbcTemplate) {
+        try {
+            return JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                    metaData -> metaData.getDatabaseProductName());
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Cannot detect the database product", e);
+        }
+    }
+}
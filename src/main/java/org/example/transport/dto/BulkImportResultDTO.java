@@ -0,0 +1,30 @@
+package org.example.transport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import
+ * Only the first errors are listed, failed counts every rejected row.
+ */
+@Data
+@NoArgsConstructor
+public class BulkImportResultDTO {
+    private long received;
+    private long imported;
+    private long failed;
+    private long durationMs;
+    private List<RowError> errors = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line; // 1-based line in the uploaded file
+        private String message;
+    }
+}
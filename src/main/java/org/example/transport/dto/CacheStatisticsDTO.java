@@ -0,0 +1,19 @@
+package org.example.transport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Hit and miss counts of one second-level cache region since startup
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheStatisticsDTO {
+    private String region;
+    private long hits;
+    private long misses;
+    private long puts;
+    private Double hitRatio; // null before the first lookup
+}
@@ -0,0 +1,20 @@
+package org.example.transport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.transport.enums.OptimizationAlgorithm;
+
+/**
+ * Logged local search runs of one construction algorithm, aggregated over a range of tour sizes
+ * Runtime is per work unit of the construction, see AutoStrategySelector.workUnits.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConstructionStatisticsDTO {
+    private OptimizationAlgorithm construction;
+    private Long runs;
+    private Double runtimeMsPerWorkUnit;
+    private Double averageGapPercent; // Null when no run computed a bound
+}
@@ -0,0 +1,23 @@
+package org.example.transport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Delay statistics for one analytics bucket (a day of week, a time slot, a week...)
+ * V2.0 - Computed from the delay rollups
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DelayStatisticsDTO {
+    private String key;
+    private Long deliveryCount;
+    private Double averageDelayMinutes;
+    private Double stdDevDelayMinutes;
+    private Double p50DelayMinutes; // Approximate, from the rollup histograms
+    private Double p90DelayMinutes;
+}
@@ -0,0 +1,33 @@
+package org.example.transport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.transport.enums.HistoryGroupBy;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Ad-hoc query over delivery history
+ * V2.0 - Every criterion is optional, lists match any of their values
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HistoryQueryDTO {
+    private LocalDate from;
+    private LocalDate to;
+    private Set<DayOfWeek> daysOfWeek;
+    private Set<String> timeSlots;
+    private Set<Long> customerIds;
+    private Set<String> vehicleTypes;
+    private Set<String> deliveryStatuses;
+    private Integer minDelay; // Restricts to rows with a recorded delay
+    private Integer maxDelay;
+    @Builder.Default
+    private HistoryGroupBy groupBy = HistoryGroupBy.NONE;
+}
@@ -0,0 +1,40 @@
+package org.example.transport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Result of an ad-hoc delivery history query
+ * V2.0 - One group per distinct value of the groupBy column
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HistoryQueryResultDTO {
+    private Long matchedRows;
+    private Long scannedRows;
+    private Integer scannedBlocks;
+    private Integer skippedBlocks;
+    private Long elapsedMicros;
+    private List<Group> groups;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Group {
+        private String key;
+        private Long count;
+        private Long delayedCount; // Rows with a recorded delay
+        private Double averageDelayMinutes;
+        private Integer minDelayMinutes;
+        private Integer maxDelayMinutes;
+        private Double averageDistanceFromWarehouseKm;
+        private Double totalWeightKg;
+    }
+}
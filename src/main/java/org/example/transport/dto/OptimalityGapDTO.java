@@ -0,0 +1,20 @@
+package org.example.transport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Distance of a tour in its current stop order compared with a lower bound on the optimum
+ * Bound and gap are null for tours above the configured maximum of stops.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OptimalityGapDTO {
+    private Long tourId;
+    private Integer stops;
+    private Double distanceKm;
+    private Double lowerBoundKm;
+    private Double gapPercent;
+}
@@ -0,0 +1,47 @@
+package org.example.transport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.transport.enums.OptimizationAlgorithm;
+import org.example.transport.enums.OptimizationStrategy;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * How one tour optimization went, returned with diagnostics=true
+ * Phases, evaluations, stages and cache lookups are those of the last attempt, earlier
+ * attempts were discarded on a concurrent change. Lower bound and gap are null when no
+ * bound was computed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OptimizationDiagnosticsDTO {
+    private OptimizationAlgorithm algorithmUsed; // Construction of a local search, else the requested algorithm
+    private OptimizationStrategy strategy;
+    private String strategyReason; // AUTO only
+    private Long latencyBudgetMs; // AUTO only
+    private List<String> fallbacks;
+    private Map<String, Double> phaseMillis;
+    private Long distanceEvaluations;
+    private List<Stage> stages;
+    private Double lowerBoundKm;
+    private Double gapPercent;
+    private Integer cacheHits;
+    private Integer cacheMisses;
+    private Integer attempts;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Stage {
+        private String name;
+        private Double initialDistanceKm;
+        private Double finalDistanceKm;
+        private String stopReason; // Improvement stages: target-gap, local-optimum, max-passes or time-budget
+    }
+}
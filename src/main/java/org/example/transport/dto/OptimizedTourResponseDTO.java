@@ -1,5 +1,6 @@
 package org.example.transport.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -17,4 +18,6 @@ public class OptimizedTourResponseDTO {
     private Double totalDistanceKm;
     private Double totalWeightKg;
     private Double totalVolumeM3;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private OptimizationDiagnosticsDTO diagnostics; // Only when requested
 }
@@ -0,0 +1,26 @@
+package org.example.transport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One JDBC statement that ran longer than the slow query threshold
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SlowQueryDTO {
+    private LocalDateTime executedAt;
+    private Long elapsedMs;
+    private String sql;
+    private List<String> parameters; // One entry per parameter set, the first sets of a batch only
+    private Integer batchSize;
+    private Boolean success;
+    private String thread;
+}
@@ -0,0 +1,32 @@
+package org.example.transport.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.transport.enums.DeliveryStatus;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Request body for completing a tour
+ * V2.0 - Driver reports per stop, stops without a report are considered delivered
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TourCompletionDTO {
+
+    private List<StopReport> stops = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StopReport {
+        private Long deliveryId;
+        private LocalTime actualTime;
+        private DeliveryStatus status; // DELIVERED or FAILED
+        private String notes;
+    }
+}
@@ -5,8 +5,11 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.example.transport.enums.OptimizationAlgorithm;
+import org.example.transport.enums.TourStatus;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Data
@@ -30,4 +33,18 @@ public class TourDTO {
     private Double totalWeightKg;
     private Double totalVolumeM3;
     private Boolean optimized;
+    private TourStatus status;
+    private LocalDateTime startTime;
+    private LocalDateTime completionTime;
+
+    /**
+     * Projection constructor used by repository queries, delivery ids are added afterwards
+     */
+    public TourDTO(Long id, LocalDate tourDate, Long vehicleId, Long warehouseId,
+                   OptimizationAlgorithm algorithm, Double totalDistanceKm, Double totalWeightKg,
+                   Double totalVolumeM3, Boolean optimized, TourStatus status,
+                   LocalDateTime startTime, LocalDateTime completionTime) {
+        this(id, tourDate, vehicleId, warehouseId, new ArrayList<>(), algorithm, totalDistanceKm,
+                totalWeightKg, totalVolumeM3, optimized, status, startTime, completionTime);
+    }
 }
@@ -4,6 +4,9 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.example.transport.util.GeoCell;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -14,6 +17,8 @@ import java.util.List;
  */
 @Entity
 @Table(name = "customers")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "customers")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -21,8 +26,10 @@ import java.util.List;
 @EqualsAndHashCode(exclude = {"deliveries"})
 public class Customer {
 
+    // Pooled sequence so inserts can be batched, see changeset 15
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_seq")
+    @SequenceGenerator(name = "customer_seq", sequenceName = "customers_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Customer name is required")
@@ -55,4 +62,14 @@ public class Customer {
 
     @Column
     private Boolean active = true;
+
+    // Z-order cell of the location, see GeoCell and changeset 16
+    @Column(name = "geo_cell")
+    private Long geoCell;
+
+    @PrePersist
+    @PreUpdate
+    void updateGeoCell() {
+        geoCell = GeoCell.of(latitude, longitude);
+    }
 }
@@ -10,6 +10,8 @@ import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 import org.example.transport.enums.DeliveryStatus;
+import org.example.transport.util.GeoCell;
+import org.hibernate.Hibernate;
 
 /**
  * Entity representing a delivery
@@ -23,13 +25,15 @@ import org.example.transport.enums.DeliveryStatus;
 @EqualsAndHashCode(exclude = {"tour"})
 public class Delivery {
 
+    // Pooled sequence so inserts can be batched, see changeset 15
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "delivery_seq")
+    @SequenceGenerator(name = "delivery_seq", sequenceName = "deliveries_seq", allocationSize = 50)
     private Long id;
 
     // V2.0 - Customer reference (address comes from customer)
     @NotNull(message = "Customer is required")
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id", nullable = false)
     private Customer customer;
 
@@ -68,6 +72,30 @@ public class Delivery {
     @Column
     private Integer sequenceInTour; // Order in the tour
 
+    // Optimistic lock, see changeset 18
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    // Z-order cell of the effective location, see GeoCell and changeset 16
+    @Column(name = "geo_cell")
+    private Long geoCell;
+
+    /**
+     * Keep the cell in step with the effective location
+     * A customer that is still an uninitialized proxy is not loaded here, the customer
+     * service re-computes the cells of its deliveries when the customer moves.
+     */
+    @PrePersist
+    @PreUpdate
+    void updateGeoCell() {
+        if ((specificLatitude == null || specificLongitude == null)
+                && (customer == null || !Hibernate.isInitialized(customer))) {
+            return;
+        }
+        geoCell = GeoCell.of(getEffectiveLatitude(), getEffectiveLongitude());
+    }
+
     /**
      * Get the effective delivery address
      * Returns specific address if set, otherwise customer's address
@@ -0,0 +1,60 @@
+package org.example.transport.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated delay statistics for one day of week, time slot, warehouse and week
+ * Maintained incrementally from delivery history, see DelayRollupService.
+ */
+@Entity
+@Table(name = "delivery_delay_rollup")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeliveryDelayRollup {
+
+    public static final String NO_TIME_SLOT = "NONE";
+    public static final long NO_WAREHOUSE = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate weekStart; // Monday of the week
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private DayOfWeek dayOfWeek;
+
+    @Column(nullable = false)
+    private String timeSlot;
+
+    @Column(nullable = false)
+    private Long warehouseId;
+
+    @Column(nullable = false)
+    private Long deliveryCount;
+
+    @Column(nullable = false)
+    private Long delaySum;
+
+    @Column(nullable = false)
+    private Long delaySumSquares;
+
+    @Column(nullable = false)
+    private byte[] histogram; // DelayHistogram bytes
+
+    /**
+     * Date this rollup row covers
+     */
+    public LocalDate getDate() {
+        return weekStart.plusDays(dayOfWeek.getValue() - 1L);
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.transport.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.transport.enums.OptimizationAlgorithm;
+import org.example.transport.enums.OptimizationStrategy;
+import org.example.transport.enums.VehicleType;
+
+import java.time.LocalDateTime;
+
+/**
+ * One tour optimization as it ran, written with the optimized route
+ * Runtimes and gaps of past runs drive the strategy choice of AUTO, see AutoStrategySelector.
+ */
+@Entity
+@Table(name = "optimization_run_log")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OptimizationRunLog {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long tourId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OptimizationAlgorithm algorithm; // As requested, AUTO included
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OptimizationStrategy strategy;
+
+    @Enumerated(EnumType.STRING)
+    @Column
+    private OptimizationAlgorithm construction; // Local search only
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private VehicleType vehicleType;
+
+    @Column(nullable = false)
+    private Integer stops;
+
+    @Column(nullable = false)
+    private Double spreadKm; // Diagonal of the box around warehouse and stops
+
+    @Column(nullable = false)
+    private Double runtimeMs; // Optimizer time, without loading and persisting
+
+    @Column(nullable = false)
+    private Double distanceKm;
+
+    @Column
+    private Double lowerBoundKm;
+
+    @Column
+    private Double gapPercent;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -36,12 +36,12 @@ public class Tour {
     private LocalDate tourDate;
 
     @NotNull(message = "Vehicle is required")
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "vehicle_id", nullable = false)
     private Vehicle vehicle;
 
     @NotNull(message = "Warehouse is required")
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "warehouse_id", nullable = false)
     private Warehouse warehouse;
 
@@ -77,6 +77,11 @@ public class Tour {
     @Column(name = "completion_time")
     private LocalDateTime completionTime;
 
+    // Optimistic lock, see changeset 17
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     public void addDelivery(Delivery delivery) {
         deliveries.add(delivery);
         delivery.setTour(this);
@@ -6,6 +6,8 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalTime;
 
@@ -14,6 +16,8 @@ import java.time.LocalTime;
  */
 @Entity
 @Table(name = "warehouses")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "warehouses")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,15 @@
+package org.example.transport.enums;
+
+/**
+ * Grouping of delivery history query results
+ */
+public enum HistoryGroupBy {
+    NONE,
+    DAY_OF_WEEK,
+    TIME_SLOT,
+    CUSTOMER,
+    VEHICLE_TYPE,
+    DELIVERY_STATUS,
+    WEEK,
+    MONTH
+}
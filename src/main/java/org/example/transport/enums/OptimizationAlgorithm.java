@@ -3,9 +3,11 @@ package org.example.transport.enums;
 /**
  * Enum representing the optimization algorithms available
  * V2.0 - Added AI-based optimization
+ * V2.2 - Added AUTO, which picks a strategy per tour (see AutoStrategySelector)
  */
 public enum OptimizationAlgorithm {
     NEAREST_NEIGHBOR,
     CLARKE_WRIGHT,
-    AI  // V2.0 - AI-powered optimization using delivery history
+    AI,  // V2.0 - AI-powered optimization using delivery history
+    AUTO  // V2.2 - Exact search, construction with 2-opt or a space-filling curve, by tour size and budget
 }
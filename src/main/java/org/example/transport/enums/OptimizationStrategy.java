@@ -0,0 +1,13 @@
+package org.example.transport.enums;
+
+/**
+ * How a tour was optimized, recorded with every optimization run
+ * EXACT: Held-Karp dynamic programming, optimal, small tours only
+ * LOCAL_SEARCH: Nearest neighbor or Clarke-Wright construction followed by 2-opt
+ * SPACE_FILLING_CURVE: Stops in Hilbert curve order, O(n log n) for very large tours
+ */
+public enum OptimizationStrategy {
+    EXACT,
+    LOCAL_SEARCH,
+    SPACE_FILLING_CURVE
+}
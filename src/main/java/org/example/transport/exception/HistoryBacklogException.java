@@ -0,0 +1,11 @@
+package org.example.transport.exception;
+
+/**
+ * Exception thrown when the delivery history writer cannot take more rows
+ */
+public class HistoryBacklogException extends RuntimeException {
+
+    public HistoryBacklogException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.transport.jdbc;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application's data sources in a statement-observing proxy
+ * Everything that uses the DataSource bean (Hibernate, JdbcTemplate, Liquibase) goes
+ * through {@link JdbcQueryListener}. The pool stays reachable through unwrap(), so pool
+ * metrics and health checks still see it.
+ */
+@Component
+public class DataSourceProxyPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<JdbcQueryListener> listener;
+    private final boolean enabled;
+
+    public DataSourceProxyPostProcessor(ObjectProvider<JdbcQueryListener> listener,
+                                        @Value("${jdbc.instrumentation.enabled:true}") boolean enabled) {
+        this.listener = listener;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!enabled || !(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+            return bean;
+        }
+        return ProxyDataSourceBuilder.create(beanName, dataSource)
+                .listener(listener.getObject())
+                .build();
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.transport.jdbc;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Feeds every executed statement to the {@link QueryCounter} of its thread and the {@link SlowQueryLog}
+ * Parameters are only formatted for slow statements, the common path is a counter update.
+ */
+@Component
+public class JdbcQueryListener implements QueryExecutionListener {
+
+    private static final int MAX_LOGGED_PARAMETER_SETS = 10;
+    private static final int MAX_VALUE_LENGTH = 100;
+
+    private final SlowQueryLog slowQueryLog;
+
+    public JdbcQueryListener(SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (queryInfoList.isEmpty()) {
+            return;
+        }
+        String sql = queryInfoList.size() == 1
+                ? queryInfoList.get(0).getQuery()
+                : queryInfoList.stream().map(QueryInfo::getQuery).distinct().collect(Collectors.joining("; "));
+        QueryCounter.record(sql);
+        if (slowQueryLog.isSlow(execInfo.getElapsedTime())) {
+            slowQueryLog.record(sql, parameters(queryInfoList), execInfo.getElapsedTime(),
+                    execInfo.isBatch() ? execInfo.getBatchSize() : 0, execInfo.isSuccess());
+        }
+    }
+
+    private static List<String> parameters(List<QueryInfo> queryInfoList) {
+        List<String> sets = new ArrayList<>();
+        for (QueryInfo query : queryInfoList) {
+            for (List<ParameterSetOperation> operations : query.getParametersList()) {
+                if (sets.size() == MAX_LOGGED_PARAMETER_SETS) {
+                    return sets;
+                }
+                sets.add(operations.stream()
+                        .map(JdbcQueryListener::format)
+                        .collect(Collectors.joining(", ", "[", "]")));
+            }
+        }
+        return sets;
+    }
+
+    private static String format(ParameterSetOperation operation) {
+        Object[] args = operation.getArgs();
+        String value = "setNull".equals(operation.getMethod().getName()) || args.length < 2 || args[1] == null
+                ? "NULL" : String.valueOf(args[1]);
+        if (value.length() > MAX_VALUE_LENGTH) {
+            value = value.substring(0, MAX_VALUE_LENGTH) + "...";
+        }
+        return args[0] + "=" + value;
+    }
+}
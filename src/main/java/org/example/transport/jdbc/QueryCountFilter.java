@@ -0,0 +1,71 @@
+package org.example.transport.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Counts the statements each HTTP request executes and flags likely N+1 patterns
+ * The count is published as http.server.requests.queries per endpoint. When one SQL string
+ * runs at least the configured number of times in a request, typically a lazy association
+ * loaded row by row, the request is logged at WARN with that statement and counted in
+ * jdbc.n-plus-one.suspects.
+ */
+@Component
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryCountFilter.class);
+
+    private final MeterRegistry registry;
+    private final int repeatThreshold;
+
+    public QueryCountFilter(MeterRegistry registry,
+                            @Value("${jdbc.n-plus-one.repeat-threshold:10}") int repeatThreshold) {
+        this.registry = registry;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try (QueryCounter counter = QueryCounter.open()) {
+            chain.doFilter(request, response);
+
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+            DistributionSummary.builder("http.server.requests.queries")
+                    .description("JDBC statements executed per request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(registry)
+                    .record(counter.getStatements());
+
+            if (counter.getStatements() >= repeatThreshold) {
+                Map.Entry<String, Integer> mostRepeated = counter.getExecutionsBySql().get(0);
+                if (mostRepeated.getValue() >= repeatThreshold) {
+                    logger.warn("Possible N+1 in {} {}: {} statements, {} executions of {}", request.getMethod(),
+                            uri, counter.getStatements(), mostRepeated.getValue(), mostRepeated.getKey());
+                    Counter.builder("jdbc.n-plus-one.suspects")
+                            .description("Requests that repeated one statement at least the threshold")
+                            .tag("method", request.getMethod())
+                            .tag("uri", uri)
+                            .register(registry)
+                            .increment();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.transport.jdbc;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counts the JDBC statements executed on the current thread while it is open
+ * Counters nest: a statement is added to every open counter of the thread, so a test can
+ * count one service call inside a request that is counted as a whole. A JDBC batch is one
+ * statement, it is one round trip. Statements of other threads (the history writer,
+ * streamed exports) are not counted.
+ */
+public final class QueryCounter implements AutoCloseable {
+
+    private static final ThreadLocal<QueryCounter> CURRENT = new ThreadLocal<>();
+
+    private final QueryCounter parent;
+    private final Map<String, Integer> executionsBySql = new HashMap<>();
+    private int statements;
+
+    private QueryCounter(QueryCounter parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Start counting on this thread, close the counter in a finally block or try-with-resources
+     */
+    public static QueryCounter open() {
+        QueryCounter counter = new QueryCounter(CURRENT.get());
+        CURRENT.set(counter);
+        return counter;
+    }
+
+    /**
+     * Add one executed statement to every open counter of this thread
+     */
+    static void record(String sql) {
+        for (QueryCounter counter = CURRENT.get(); counter != null; counter = counter.parent) {
+            counter.statements++;
+            counter.executionsBySql.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    /**
+     * Execution count per distinct SQL string, most executed first
+     */
+    public List<Map.Entry<String, Integer>> getExecutionsBySql() {
+        return executionsBySql.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+                .map(e -> Map.entry(e.getKey(), e.getValue()))
+                .toList();
+    }
+
+    @Override
+    public void close() {
+        if (parent != null) {
+            CURRENT.set(parent);
+        } else {
+            CURRENT.remove();
+        }
+    }
+}
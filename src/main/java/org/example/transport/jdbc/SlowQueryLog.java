@@ -0,0 +1,80 @@
+package org.example.transport.jdbc;
+
+import org.example.transport.dto.SlowQueryDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * The most recent statements slower than a threshold, with their bind parameters
+ * Each slow statement is also logged at WARN. Only the last entries are kept, older ones
+ * are dropped, so the log can stay on in production.
+ */
+@Component
+public class SlowQueryLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private final long thresholdMs;
+    private final int capacity;
+    private final Deque<SlowQueryDTO> entries = new ArrayDeque<>();
+
+    public SlowQueryLog(@Value("${jdbc.slow-query.threshold-ms:200}") long thresholdMs,
+                        @Value("${jdbc.slow-query.capacity:100}") int capacity) {
+        this.thresholdMs = thresholdMs;
+        this.capacity = capacity;
+    }
+
+    public boolean isSlow(long elapsedMs) {
+        return elapsedMs >= thresholdMs;
+    }
+
+    /**
+     * Keep a statement that ran at least the threshold
+     * @param parameters Formatted parameter sets, see {@link SlowQueryDTO#getParameters()}
+     */
+    public void record(String sql, List<String> parameters, long elapsedMs, int batchSize, boolean success) {
+        if (!isSlow(elapsedMs)) {
+            return;
+        }
+        logger.warn("Slow query ({} ms{}): {} {}", elapsedMs, batchSize > 0 ? ", batch of " + batchSize : "",
+                sql, parameters);
+        SlowQueryDTO entry = SlowQueryDTO.builder()
+                .executedAt(LocalDateTime.now())
+                .elapsedMs(elapsedMs)
+                .sql(sql)
+                .parameters(parameters)
+                .batchSize(batchSize)
+                .success(success)
+                .thread(Thread.currentThread().getName())
+                .build();
+        synchronized (entries) {
+            entries.addFirst(entry);
+            if (entries.size() > capacity) {
+                entries.removeLast();
+            }
+        }
+    }
+
+    /**
+     * Kept entries, newest first
+     */
+    public List<SlowQueryDTO> getEntries() {
+        synchronized (entries) {
+            return new ArrayList<>(entries);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+}
@@ -36,7 +36,7 @@ public class CustomerMapper {
         customer.setAddress(dto.getAddress());
         customer.setLatitude(dto.getLatitude());
         customer.setLongitude(dto.getLongitude());
-        dto.setPreferredTimeSlot(dto.getPreferredTimeSlot());
+        customer.setPreferredTimeSlot(dto.getPreferredTimeSlot());
         customer.setPhone(dto.getPhone());
         customer.setEmail(dto.getEmail());
         customer.setActive(dto.getActive() != null ? dto.getActive() : true);
@@ -28,7 +28,10 @@ public class TourMapper {
                 tour.getTotalDistanceKm(),
                 tour.getTotalWeightKg(),
                 tour.getTotalVolumeM3(),
-                tour.getOptimized()
+                tour.getOptimized(),
+                tour.getStatus(),
+                tour.getStartTime(),
+                tour.getCompletionTime()
         );
     }
 }
@@ -0,0 +1,92 @@
+package org.example.transport.migration;
+
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+import org.example.transport.util.GeoCell;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Liquibase task filling geo_cell for existing customers and deliveries
+ * The Morton interleave is computed in Java with GeoCell, the same code the entities
+ * use on write, so the migration behaves identically on every database.
+ */
+public class GeoCellBackfillChange implements CustomTaskChange {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String CUSTOMERS_SQL = "SELECT id, latitude, longitude FROM customers";
+
+    // Same rule as Delivery.getEffectiveLatitude/getEffectiveLongitude
+    private static final String DELIVERIES_SQL =
+            "SELECT d.id, COALESCE(d.specific_latitude, c.latitude), COALESCE(d.specific_longitude, c.longitude) " +
+            "FROM deliveries d JOIN customers c ON c.id = d.customer_id";
+
+    private int customers;
+    private int deliveries;
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        Connection connection = ((JdbcConnection) database.getConnection()).getUnderlyingConnection();
+        try {
+            customers = backfill(connection, CUSTOMERS_SQL, "UPDATE customers SET geo_cell = ? WHERE id = ?");
+            deliveries = backfill(connection, DELIVERIES_SQL, "UPDATE deliveries SET geo_cell = ? WHERE id = ?");
+        } catch (SQLException e) {
+            throw new CustomChangeException("Could not fill geo_cell columns", e);
+        }
+    }
+
+    private static int backfill(Connection connection, String selectSql, String updateSql) throws SQLException {
+        int rows = 0;
+        try (Statement select = connection.createStatement();
+             PreparedStatement update = connection.prepareStatement(updateSql)) {
+            select.setFetchSize(BATCH_SIZE);
+            try (ResultSet rs = select.executeQuery(selectSql)) {
+                while (rs.next()) {
+                    double latitude = rs.getDouble(2);
+                    boolean noLatitude = rs.wasNull();
+                    double longitude = rs.getDouble(3);
+                    if (noLatitude || rs.wasNull()) {
+                        continue;
+                    }
+                    update.setLong(1, GeoCell.encode(latitude, longitude));
+                    update.setLong(2, rs.getLong(1));
+                    update.addBatch();
+                    if (++rows % BATCH_SIZE == 0) {
+                        update.executeBatch();
+                    }
+                }
+            }
+            if (rows % BATCH_SIZE != 0) {
+                update.executeBatch();
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Filled geo_cell for " + customers + " customers and " + deliveries + " deliveries";
+    }
+
+    @Override
+    public void setUp() {
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        return new ValidationErrors();
+    }
+}
@@ -2,9 +2,12 @@ package org.example.transport.optimizer;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.example.transport.entity.Delivery;
 import org.example.transport.entity.DeliveryHistory;
 import org.example.transport.entity.Tour;
+import org.example.transport.enums.OptimizationAlgorithm;
 import org.example.transport.repository.DeliveryHistoryRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,6 +39,9 @@ public class AIOptimizer implements TourOptimizer {
     @Autowired
     private DeliveryHistoryRepository deliveryHistoryRepository;
 
+    @Autowired(required = false)
+    private MeterRegistry meterRegistry;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Override
@@ -51,6 +57,7 @@ public class AIOptimizer implements TourOptimizer {
         // Check if AI is available
         if (chatModel == null) {
             logger.warn("ChatModel not available, falling back to simple optimization");
+            OptimizationRun.addFallback("AI -> NEAREST_NEIGHBOR: chat model not available");
             return fallbackOptimization(tour);
         }
 
@@ -64,18 +71,29 @@ public class AIOptimizer implements TourOptimizer {
                     .collect(Collectors.toList());
 
             // Build the AI prompt
+            OptimizationPhaseEvent promptPhase = OptimizationPhaseEvent.start(OptimizationPhaseEvent.AI_PROMPT_BUILD);
             String prompt = buildOptimizationPrompt(tour, deliveries, historicalData);
+            promptPhase.end(tour.getId(), deliveries.size(), OptimizationAlgorithm.AI);
             
             logger.debug("Sending prompt to AI model");
             
             // Call AI model
             Prompt aiPrompt = new Prompt(new UserMessage(prompt));
+            OptimizationPhaseEvent callPhase = OptimizationPhaseEvent.start(OptimizationPhaseEvent.AI_MODEL_CALL);
+            Timer.Sample modelCall = meterRegistry != null ? Timer.start(meterRegistry) : null;
             String aiResponse = chatModel.call(aiPrompt).getResult().getOutput().getContent();
+            if (modelCall != null) {
+                // Model latency on its own, the compute phase of the optimization includes it
+                modelCall.stop(meterRegistry.timer("tour.optimization.ai.model.call"));
+            }
+            callPhase.end(tour.getId(), deliveries.size(), OptimizationAlgorithm.AI);
             
             logger.debug("Received AI response: {}", aiResponse);
 
             // Parse AI response and reorder deliveries
+            OptimizationPhaseEvent parsePhase = OptimizationPhaseEvent.start(OptimizationPhaseEvent.AI_RESPONSE_PARSE);
             List<Delivery> optimizedRoute = parseAIResponse(aiResponse, deliveries);
+            parsePhase.end(tour.getId(), deliveries.size(), OptimizationAlgorithm.AI);
             
             logger.info("AI optimization completed for tour {} with {} deliveries", 
                        tour.getId(), optimizedRoute.size());
@@ -85,6 +103,7 @@ public class AIOptimizer implements TourOptimizer {
         } catch (Exception e) {
             logger.error("Error during AI optimization: {}", e.getMessage(), e);
             logger.info("Falling back to simple optimization");
+            OptimizationRun.addFallback("AI -> NEAREST_NEIGHBOR: " + e.getClass().getSimpleName());
             return fallbackOptimization(tour);
         }
     }
@@ -222,6 +241,7 @@ public class AIOptimizer implements TourOptimizer {
             
         } catch (Exception e) {
             logger.error("Error parsing AI response: {}", e.getMessage(), e);
+            OptimizationRun.addFallback("AI -> INPUT_ORDER: response not parseable");
             return deliveries; // Return original order on error
         }
     }
@@ -0,0 +1,222 @@
+package org.example.transport.optimizer;
+
+import org.example.transport.dto.ConstructionStatisticsDTO;
+import org.example.transport.entity.Delivery;
+import org.example.transport.entity.Tour;
+import org.example.transport.enums.OptimizationAlgorithm;
+import org.example.transport.enums.OptimizationStrategy;
+import org.example.transport.enums.VehicleType;
+import org.example.transport.repository.OptimizationRunLogRepository;
+import org.example.transport.util.DistanceCalculator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Strategy of the AUTO algorithm for one tour
+ * Small tours get exact search. Tours above the lower bound's maximum of stops, and tours so
+ * compact that a space-filling curve order would cost less than min-saving-km, get the curve.
+ * Everything else gets local search: each construction algorithm is tried until the run log
+ * has min-samples runs of it for tours of half to twice the size, then the one with the
+ * lowest average gap whose estimated runtime fits the latency budget is used; when none fits,
+ * the curve. Runtimes are estimated per construction from its work model (see workUnits), and
+ * a construction is only sampled when its cold-start estimate fits the budget, so a cold log
+ * never sends a large tour to Clarke-Wright. The budget comes from the request or the vehicle
+ * type and is the deadline of the construction and the 2-opt stage.
+ * Runs older than history-days no longer count and are purged from the log every night.
+ */
+@Component
+public class AutoStrategySelector {
+
+    private static final Logger logger = LoggerFactory.getLogger(AutoStrategySelector.class);
+
+    // Beardwood-Halton-Hammersley: an optimal route through n uniform points in area A is about 0.7124 * sqrt(n * A)
+    private static final double ROUTE_LENGTH_CONSTANT = 0.7124;
+    // Share a curve order adds to the optimum on uniformly spread stops
+    private static final double CURVE_EXCESS = 0.4;
+    // Tried in this order while they lack samples
+    private static final List<OptimizationAlgorithm> CONSTRUCTIONS =
+            List.of(OptimizationAlgorithm.CLARKE_WRIGHT, OptimizationAlgorithm.NEAREST_NEIGHBOR);
+
+    private final OptimizationRunLogRepository runLogRepository;
+    private final LowerBoundCalculator lowerBoundCalculator;
+    private final int exactMaxStops;
+    private final double minSavingKm;
+    private final int minSamples;
+    private final int historyDays;
+    private final double coldStartNsPerUnit;
+    private final Map<VehicleType, Long> latencyBudgetMs = new EnumMap<>(VehicleType.class);
+
+    public AutoStrategySelector(OptimizationRunLogRepository runLogRepository,
+                                LowerBoundCalculator lowerBoundCalculator,
+                                @Value("${tour.optimizer.auto.exact-max-stops:10}") int exactMaxStops,
+                                @Value("${tour.optimizer.auto.min-saving-km:0.5}") double minSavingKm,
+                                @Value("${tour.optimizer.auto.min-samples:5}") int minSamples,
+                                @Value("${tour.optimizer.auto.history-days:30}") int historyDays,
+                                @Value("${tour.optimizer.auto.cold-start-ns-per-unit:50}") double coldStartNsPerUnit,
+                                @Value("${tour.optimizer.auto.latency-budget-ms.van:500}") long vanBudgetMs,
+                                @Value("${tour.optimizer.auto.latency-budget-ms.truck:2000}") long truckBudgetMs,
+                                @Value("${tour.optimizer.auto.latency-budget-ms.bike:200}") long bikeBudgetMs) {
+        this.runLogRepository = runLogRepository;
+        this.lowerBoundCalculator = lowerBoundCalculator;
+        this.exactMaxStops = Math.min(exactMaxStops, ExactOptimizer.MAX_STOPS);
+        this.minSavingKm = minSavingKm;
+        this.minSamples = minSamples;
+        this.historyDays = historyDays;
+        this.coldStartNsPerUnit = coldStartNsPerUnit;
+        this.latencyBudgetMs.put(VehicleType.VAN, vanBudgetMs);
+        this.latencyBudgetMs.put(VehicleType.TRUCK, truckBudgetMs);
+        this.latencyBudgetMs.put(VehicleType.BIKE, bikeBudgetMs);
+    }
+
+    /**
+     * Strategy, construction (local search only) and time budget for a tour
+     */
+    public record Plan(OptimizationStrategy strategy, OptimizationAlgorithm construction, Duration budget,
+                       String reason) {
+    }
+
+    @Scheduled(cron = "${tour.optimizer.auto.purge-cron:0 45 2 * * *}")
+    public void scheduledPurge() {
+        try {
+            purgeExpiredRuns();
+        } catch (RuntimeException e) {
+            logger.error("Optimization run log purge failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Delete the logged runs older than history-days
+     * @return Number of runs deleted
+     */
+    public int purgeExpiredRuns() {
+        int deleted = runLogRepository.deleteByCreatedAtBefore(LocalDateTime.now().minusDays(historyDays));
+        if (deleted > 0) {
+            logger.info("Purged {} optimization runs older than {} days", deleted, historyDays);
+        }
+        return deleted;
+    }
+
+    /**
+     * Choose how to optimize a loaded tour
+     * @param budgetMs Compute time allowed, null for the vehicle type's budget
+     */
+    public Plan select(Tour tour, Long budgetMs) {
+        int n = tour.getDeliveries().size();
+        Duration budget = Duration.ofMillis(budgetMs != null ? budgetMs
+                : latencyBudgetMs.get(tour.getVehicle().getType()));
+        Plan plan = select(tour, n, budget);
+        logger.debug("AUTO for tour {}: {} {} within {} ms, {}", tour.getId(), plan.strategy(),
+                plan.construction(), budget.toMillis(), plan.reason());
+        return plan;
+    }
+
+    private Plan select(Tour tour, int n, Duration budget) {
+        if (n <= exactMaxStops) {
+            return new Plan(OptimizationStrategy.EXACT, null, budget, n + " stops, small enough for exact search");
+        }
+        if (!lowerBoundCalculator.supports(n)) {
+            return new Plan(OptimizationStrategy.SPACE_FILLING_CURVE, null, budget,
+                    n + " stops, too many for a distance matrix");
+        }
+        // The box is at most a square of this diagonal, which bounds the expected route length
+        double spreadKm = spreadKm(tour);
+        double curveLossKm = CURVE_EXCESS * ROUTE_LENGTH_CONSTANT * spreadKm * Math.sqrt(n / 2.0);
+        if (curveLossKm < minSavingKm) {
+            return new Plan(OptimizationStrategy.SPACE_FILLING_CURVE, null, budget,
+                    String.format("stops within %.2f km, a curve order loses about %.2f km", spreadKm, curveLossKm));
+        }
+
+        Map<OptimizationAlgorithm, ConstructionStatisticsDTO> statistics = runLogRepository
+                .summarizeByConstruction(OptimizationStrategy.LOCAL_SEARCH, n / 2, 2 * n,
+                        LocalDateTime.now().minusDays(historyDays))
+                .stream()
+                .collect(Collectors.toMap(ConstructionStatisticsDTO::getConstruction, Function.identity()));
+        for (OptimizationAlgorithm construction : CONSTRUCTIONS) {
+            ConstructionStatisticsDTO logged = statistics.get(construction);
+            if (!sampled(logged) && worstCaseRuntimeMs(construction, n, logged) <= budget.toMillis()) {
+                return new Plan(OptimizationStrategy.LOCAL_SEARCH, construction, budget,
+                        "sampling " + construction + ", " + (logged != null ? logged.getRuns() : 0) + " runs logged");
+            }
+        }
+
+        // Constructions still lacking samples here are expected to overrun the budget
+        ConstructionStatisticsDTO best = null;
+        double bestRuntimeMs = 0.0;
+        for (OptimizationAlgorithm construction : CONSTRUCTIONS) {
+            ConstructionStatisticsDTO logged = statistics.get(construction);
+            if (!sampled(logged)) {
+                continue;
+            }
+            double runtimeMs = logged.getRuntimeMsPerWorkUnit() * workUnits(construction, n);
+            if (runtimeMs <= budget.toMillis() && (best == null || gap(logged) < gap(best))) {
+                best = logged;
+                bestRuntimeMs = runtimeMs;
+            }
+        }
+        if (best == null) {
+            return new Plan(OptimizationStrategy.SPACE_FILLING_CURVE, null, budget,
+                    "no local search is expected to finish within the budget");
+        }
+        return new Plan(OptimizationStrategy.LOCAL_SEARCH, best.getConstruction(), budget,
+                String.format("expected %.0f ms, average gap %.2f%%", bestRuntimeMs, gap(best)));
+    }
+
+    /**
+     * Work of a local search run with a construction, the unit its logged runtimes are averaged in
+     * Nearest neighbor and 2-opt passes grow with n^2. Clarke-Wright adds the n^2 log n sort of
+     * the savings and, for each of the n^2 savings, a scan of the routes for its two stops.
+     * Mirrored by OptimizationRunLogRepository.summarizeByConstruction.
+     */
+    public static double workUnits(OptimizationAlgorithm construction, int n) {
+        double squared = (double) n * n;
+        return construction == OptimizationAlgorithm.CLARKE_WRIGHT ? squared * (n + Math.log(n)) : squared;
+    }
+
+    private boolean sampled(ConstructionStatisticsDTO logged) {
+        return logged != null && logged.getRuns() >= minSamples;
+    }
+
+    /**
+     * Runtime a construction is not expected to exceed before it has enough samples
+     * The cold-start cost per work unit is pessimistic; logged runs can only raise it.
+     */
+    private double worstCaseRuntimeMs(OptimizationAlgorithm construction, int n, ConstructionStatisticsDTO logged) {
+        double perUnitMs = coldStartNsPerUnit / 1_000_000.0;
+        if (logged != null && logged.getRuntimeMsPerWorkUnit() != null) {
+            perUnitMs = Math.max(perUnitMs, logged.getRuntimeMsPerWorkUnit());
+        }
+        return perUnitMs * workUnits(construction, n);
+    }
+
+    private static double gap(ConstructionStatisticsDTO statistics) {
+        return statistics.getAverageGapPercent() != null ? statistics.getAverageGapPercent() : Double.MAX_VALUE;
+    }
+
+    /**
+     * Diagonal (km) of the latitude/longitude box around the warehouse and the stops
+     */
+    public static double spreadKm(Tour tour) {
+        double minLat = tour.getWarehouse().getLatitude();
+        double maxLat = minLat;
+        double minLon = tour.getWarehouse().getLongitude();
+        double maxLon = minLon;
+        for (Delivery delivery : tour.getDeliveries()) {
+            minLat = Math.min(minLat, delivery.getEffectiveLatitude());
+            maxLat = Math.max(maxLat, delivery.getEffectiveLatitude());
+            minLon = Math.min(minLon, delivery.getEffectiveLongitude());
+            maxLon = Math.max(maxLon, delivery.getEffectiveLongitude());
+        }
+        return DistanceCalculator.calculateDistance(minLat, minLon, maxLat, maxLon);
+    }
+}
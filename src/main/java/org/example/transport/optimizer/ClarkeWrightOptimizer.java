@@ -2,6 +2,7 @@ package org.example.transport.optimizer;
 
 import org.example.transport.entity.Delivery;
 import org.example.transport.entity.Tour;
+import org.example.transport.enums.OptimizationAlgorithm;
 import org.example.transport.util.DistanceCalculator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,8 +20,20 @@ public class ClarkeWrightOptimizer implements TourOptimizer {
 
     private static final Logger logger = LoggerFactory.getLogger(ClarkeWrightOptimizer.class);
 
+    // Savings merged between two looks at the clock
+    private static final int DEADLINE_CHECK_INTERVAL = 1024;
+
     @Override
     public List<Delivery> calculateOptimalTour(Tour tour) {
+        return calculateOptimalTour(tour, null);
+    }
+
+    /**
+     * Savings route; past the deadline no further routes are merged and the partial routes
+     * are joined as they are, or the stored order is kept when the savings were not sorted yet
+     */
+    @Override
+    public List<Delivery> calculateOptimalTour(Tour tour, Long deadlineNanos) {
         logger.info("Starting Clarke-Wright optimization for tour {}", tour.getId());
         
         List<Delivery> deliveries = new ArrayList<>(tour.getDeliveries());
@@ -33,33 +46,48 @@ public class ClarkeWrightOptimizer implements TourOptimizer {
             return deliveries;
         }
 
+        int n = deliveries.size();
         double warehouseLat = tour.getWarehouse().getLatitude();
         double warehouseLon = tour.getWarehouse().getLongitude();
 
-        // Calculate savings for all pairs
-        List<Saving> savings = new ArrayList<>();
-        for (int i = 0; i < deliveries.size(); i++) {
-            for (int j = i + 1; j < deliveries.size(); j++) {
-                Delivery d1 = deliveries.get(i);
+        // Warehouse and pairwise distances, each computed once
+        OptimizationPhaseEvent matrixPhase = OptimizationPhaseEvent.start(OptimizationPhaseEvent.DISTANCE_MATRIX);
+        double[] fromWarehouse = new double[n];
+        double[][] between = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            Delivery d1 = deliveries.get(i);
+            fromWarehouse[i] = DistanceCalculator.calculateDistance(
+                    warehouseLat, warehouseLon, d1.getEffectiveLatitude(), d1.getEffectiveLongitude());
+            for (int j = i + 1; j < n; j++) {
                 Delivery d2 = deliveries.get(j);
-
-                double distWarehouseToD1 = DistanceCalculator.calculateDistance(
-                        warehouseLat, warehouseLon, d1.getEffectiveLatitude(), d1.getEffectiveLongitude());
-                double distWarehouseToD2 = DistanceCalculator.calculateDistance(
-                        warehouseLat, warehouseLon, d2.getEffectiveLatitude(), d2.getEffectiveLongitude());
-                double distD1ToD2 = DistanceCalculator.calculateDistance(
+                between[i][j] = DistanceCalculator.calculateDistance(
                         d1.getEffectiveLatitude(), d1.getEffectiveLongitude(), d2.getEffectiveLatitude(), d2.getEffectiveLongitude());
+            }
+        }
+        OptimizationRun.addDistanceEvaluations(n + (long) n * (n - 1) / 2);
+        matrixPhase.end(tour.getId(), n, OptimizationAlgorithm.CLARKE_WRIGHT);
+        if (TourOptimizer.pastDeadline(deadlineNanos)) {
+            logger.warn("Clarke-Wright for tour {} ran out of time before the savings, stored order kept", tour.getId());
+            return deliveries;
+        }
 
+        // Calculate savings for all pairs
+        OptimizationPhaseEvent savingsPhase = OptimizationPhaseEvent.start(OptimizationPhaseEvent.SAVINGS);
+        List<Saving> savings = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
                 // Savings = distance(warehouse, d1) + distance(warehouse, d2) - distance(d1, d2)
-                double savingValue = distWarehouseToD1 + distWarehouseToD2 - distD1ToD2;
-                savings.add(new Saving(d1, d2, savingValue));
+                double savingValue = fromWarehouse[i] + fromWarehouse[j] - between[i][j];
+                savings.add(new Saving(deliveries.get(i), deliveries.get(j), savingValue));
             }
         }
 
         // Sort savings in descending order
         savings.sort((s1, s2) -> Double.compare(s2.saving, s1.saving));
+        savingsPhase.end(tour.getId(), n, OptimizationAlgorithm.CLARKE_WRIGHT);
 
         // Build routes using savings
+        OptimizationPhaseEvent mergePhase = OptimizationPhaseEvent.start(OptimizationPhaseEvent.MERGE);
         List<Route> routes = new ArrayList<>();
         for (Delivery delivery : deliveries) {
             Route route = new Route();
@@ -68,7 +96,12 @@ public class ClarkeWrightOptimizer implements TourOptimizer {
         }
 
         // Merge routes based on savings
+        int merged = 0;
         for (Saving saving : savings) {
+            if (merged++ % DEADLINE_CHECK_INTERVAL == 0 && TourOptimizer.pastDeadline(deadlineNanos)) {
+                logger.warn("Clarke-Wright for tour {} ran out of time with {} routes left", tour.getId(), routes.size());
+                break;
+            }
             Route route1 = findRouteContaining(routes, saving.delivery1);
             Route route2 = findRouteContaining(routes, saving.delivery2);
 
@@ -84,6 +117,7 @@ public class ClarkeWrightOptimizer implements TourOptimizer {
         List<Delivery> optimizedRoute = routes.stream()
                 .flatMap(route -> route.deliveries.stream())
                 .collect(Collectors.toList());
+        mergePhase.end(tour.getId(), n, OptimizationAlgorithm.CLARKE_WRIGHT);
 
         logger.info("Clarke-Wright optimization completed for tour {} with {} deliveries", 
                     tour.getId(), optimizedRoute.size());
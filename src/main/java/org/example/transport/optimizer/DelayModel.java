@@ -0,0 +1,95 @@
+package org.example.transport.optimizer;
+
+import org.example.transport.enums.VehicleType;
+
+import java.time.DayOfWeek;
+
+/**
+ * Immutable linear delay model trained from DeliveryHistory
+ * Predicts the expected delay (minutes) of a stop from day of week, time slot,
+ * distance from warehouse, position in the tour, vehicle type and weight.
+ * Prediction only reads primitive fields and does not allocate.
+ */
+public final class DelayModel {
+
+    /** Model returned before enough history has been collected, always predicts zero */
+    public static final DelayModel EMPTY = new DelayModel(new double[FeatureLayout.SIZE], 0);
+
+    private final double[] weights;
+    private final int trainingSamples;
+
+    DelayModel(double[] weights, int trainingSamples) {
+        this.weights = weights;
+        this.trainingSamples = trainingSamples;
+    }
+
+    /**
+     * Predict the delay in minutes for one stop
+     * @param dayOfWeek ISO day of week (1 = Monday .. 7 = Sunday)
+     * @param slotStartMinute start of the preferred time slot in minutes after midnight, or -1 if unknown
+     * @param distanceFromWarehouseKm straight-line distance from the warehouse
+     * @param sequenceInTour 1-based position of the stop in the tour
+     * @param vehicleTypeOrdinal ordinal of {@link VehicleType}, or -1 if unknown
+     * @param weightKg parcel weight
+     * @return Predicted delay in minutes (negative means early)
+     */
+    public double predictDelayMinutes(int dayOfWeek, int slotStartMinute, double distanceFromWarehouseKm,
+                                      int sequenceInTour, int vehicleTypeOrdinal, double weightKg) {
+        double[] w = weights;
+        double y = w[FeatureLayout.BIAS] + w[FeatureLayout.DAY + dayOfWeek - 1];
+        if (slotStartMinute >= 0) {
+            y += w[FeatureLayout.SLOT_KNOWN] + w[FeatureLayout.SLOT_HOUR] * (slotStartMinute / 60.0);
+        }
+        if (vehicleTypeOrdinal >= 0) {
+            y += w[FeatureLayout.VEHICLE + vehicleTypeOrdinal];
+        }
+        return y
+                + w[FeatureLayout.DISTANCE] * distanceFromWarehouseKm
+                + w[FeatureLayout.SEQUENCE] * sequenceInTour
+                + w[FeatureLayout.WEIGHT] * weightKg;
+    }
+
+    public boolean isTrained() {
+        return trainingSamples > 0;
+    }
+
+    public int getTrainingSamples() {
+        return trainingSamples;
+    }
+
+    /**
+     * Parse the start of a slot such as "09:00-11:00" into minutes after midnight
+     * @return Minutes after midnight, or -1 if the slot is missing or malformed
+     */
+    public static int parseSlotStartMinute(String timeSlot) {
+        if (timeSlot == null || timeSlot.length() < 5 || timeSlot.charAt(2) != ':') {
+            return -1;
+        }
+        int h1 = timeSlot.charAt(0) - '0';
+        int h2 = timeSlot.charAt(1) - '0';
+        int m1 = timeSlot.charAt(3) - '0';
+        int m2 = timeSlot.charAt(4) - '0';
+        if (h1 < 0 || h1 > 9 || h2 < 0 || h2 > 9 || m1 < 0 || m1 > 9 || m2 < 0 || m2 > 9) {
+            return -1;
+        }
+        return (h1 * 10 + h2) * 60 + m1 * 10 + m2;
+    }
+
+    /**
+     * Position of each feature in the weight vector
+     */
+    static final class FeatureLayout {
+        static final int BIAS = 0;
+        static final int DAY = 1;                                   // 7 one-hot columns
+        static final int SLOT_KNOWN = DAY + DayOfWeek.values().length;
+        static final int SLOT_HOUR = SLOT_KNOWN + 1;
+        static final int DISTANCE = SLOT_HOUR + 1;
+        static final int SEQUENCE = DISTANCE + 1;
+        static final int VEHICLE = SEQUENCE + 1;                    // one-hot per vehicle type
+        static final int WEIGHT = VEHICLE + VehicleType.values().length;
+        static final int SIZE = WEIGHT + 1;
+
+        private FeatureLayout() {
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.example.transport.optimizer;
+
+import org.example.transport.optimizer.DelayModel.FeatureLayout;
+
+import java.util.Arrays;
+
+/**
+ * Ridge regression trainer for {@link DelayModel}
+ * Samples are folded into the normal equations as they arrive, so training memory
+ * does not depend on the number of history rows.
+ * Not thread-safe: use one trainer per training run.
+ */
+public class DelayModelTrainer {
+
+    private static final int N = FeatureLayout.SIZE;
+
+    private final double lambda;
+    private final double[][] gram = new double[N][N];
+    private final double[] xty = new double[N];
+    private final double[] x = new double[N];
+    private int samples;
+
+    /**
+     * @param lambda Regularization strength applied to standardized features
+     */
+    public DelayModelTrainer(double lambda) {
+        this.lambda = lambda;
+    }
+
+    /**
+     * Add one observed delay, see {@link DelayModel#predictDelayMinutes} for the feature encoding
+     */
+    public void addSample(int dayOfWeek, int slotStartMinute, double distanceFromWarehouseKm,
+                          int sequenceInTour, int vehicleTypeOrdinal, double weightKg, double delayMinutes) {
+        Arrays.fill(x, 0.0);
+        x[FeatureLayout.BIAS] = 1.0;
+        x[FeatureLayout.DAY + dayOfWeek - 1] = 1.0;
+        if (slotStartMinute >= 0) {
+            x[FeatureLayout.SLOT_KNOWN] = 1.0;
+            x[FeatureLayout.SLOT_HOUR] = slotStartMinute / 60.0;
+        }
+        if (vehicleTypeOrdinal >= 0) {
+            x[FeatureLayout.VEHICLE + vehicleTypeOrdinal] = 1.0;
+        }
+        x[FeatureLayout.DISTANCE] = distanceFromWarehouseKm;
+        x[FeatureLayout.SEQUENCE] = sequenceInTour;
+        x[FeatureLayout.WEIGHT] = weightKg;
+
+        for (int i = 0; i < N; i++) {
+            double xi = x[i];
+            if (xi == 0.0) {
+                continue;
+            }
+            xty[i] += xi * delayMinutes;
+            double[] row = gram[i];
+            for (int j = 0; j < N; j++) {
+                row[j] += xi * x[j];
+            }
+        }
+        samples++;
+    }
+
+    public int getSampleCount() {
+        return samples;
+    }
+
+    /**
+     * Solve the regularized normal equations
+     * Penalizing w_j by lambda * n * var(x_j) is equivalent to ridge on standardized
+     * features with an unpenalized intercept.
+     * @return Trained model, or {@link DelayModel#EMPTY} if no samples were added
+     */
+    public DelayModel train() {
+        if (samples == 0) {
+            return DelayModel.EMPTY;
+        }
+        double n = samples;
+        double[][] a = new double[N][N + 1];
+        for (int i = 0; i < N; i++) {
+            System.arraycopy(gram[i], 0, a[i], 0, N);
+            a[i][N] = xty[i];
+            if (i != FeatureLayout.BIAS) {
+                double mean = gram[FeatureLayout.BIAS][i] / n;
+                double variance = Math.max(gram[i][i] / n - mean * mean, 0.0);
+                a[i][i] += lambda * n * variance + 1e-9 * n;
+            }
+        }
+        return new DelayModel(solve(a), samples);
+    }
+
+    /**
+     * Gaussian elimination with partial pivoting on an augmented matrix
+     */
+    private static double[] solve(double[][] a) {
+        for (int col = 0; col < N; col++) {
+            int pivot = col;
+            for (int row = col + 1; row < N; row++) {
+                if (Math.abs(a[row][col]) > Math.abs(a[pivot][col])) {
+                    pivot = row;
+                }
+            }
+            double[] tmp = a[col];
+            a[col] = a[pivot];
+            a[pivot] = tmp;
+
+            double p = a[col][col];
+            if (Math.abs(p) < 1e-12) {
+                continue; // Feature never observed, its weight stays zero
+            }
+            for (int row = col + 1; row < N; row++) {
+                double factor = a[row][col] / p;
+                if (factor == 0.0) {
+                    continue;
+                }
+                for (int k = col; k <= N; k++) {
+                    a[row][k] -= factor * a[col][k];
+                }
+            }
+        }
+
+        double[] w = new double[N];
+        for (int row = N - 1; row >= 0; row--) {
+            double p = a[row][row];
+            if (Math.abs(p) < 1e-12) {
+                continue;
+            }
+            double sum = a[row][N];
+            for (int k = row + 1; k < N; k++) {
+                sum -= a[row][k] * w[k];
+            }
+            w[row] = sum / p;
+        }
+        return w;
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.transport.optimizer;
+
+import org.example.transport.entity.Delivery;
+import org.example.transport.entity.Tour;
+import org.example.transport.enums.OptimizationAlgorithm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Exact tour optimization by Held-Karp dynamic programming
+ * For every set of visited stops and every last stop the shortest path from the warehouse
+ * is kept, O(2^n * n^2) time and O(2^n * n) memory, so only small tours are accepted.
+ * The route found is optimal, it is also reported to the open run as the lower bound.
+ */
+@Component
+public class ExactOptimizer implements TourOptimizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExactOptimizer.class);
+
+    // 2^16 * 16 path lengths are 8 MB, beyond that the table grows too fast
+    public static final int MAX_STOPS = 16;
+
+    @Override
+    public List<Delivery> calculateOptimalTour(Tour tour) {
+        List<Delivery> deliveries = new ArrayList<>(tour.getDeliveries());
+        int n = deliveries.size();
+        if (n > MAX_STOPS) {
+            throw new IllegalArgumentException("Exact search supports at most " + MAX_STOPS + " stops, got " + n);
+        }
+        if (n == 0) {
+            return deliveries;
+        }
+
+        OptimizationPhaseEvent matrixPhase = OptimizationPhaseEvent.start(OptimizationPhaseEvent.DISTANCE_MATRIX);
+        double[][] distances = LowerBoundCalculator.distanceMatrix(tour, deliveries);
+        matrixPhase.end(tour.getId(), n, OptimizationAlgorithm.AUTO);
+
+        OptimizationPhaseEvent searchPhase = OptimizationPhaseEvent.start(OptimizationPhaseEvent.EXACT_SEARCH);
+        // Stop i is node i + 1 of the matrix and bit i of a set
+        int sets = 1 << n;
+        double[][] length = new double[sets][n];
+        byte[][] previous = new byte[sets][n];
+        for (double[] row : length) {
+            Arrays.fill(row, Double.POSITIVE_INFINITY);
+        }
+        for (int i = 0; i < n; i++) {
+            length[1 << i][i] = distances[0][i + 1];
+            previous[1 << i][i] = -1;
+        }
+        for (int set = 1; set < sets; set++) {
+            for (int last = 0; last < n; last++) {
+                double current = length[set][last];
+                if (current == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                for (int next = 0; next < n; next++) {
+                    if ((set & (1 << next)) != 0) {
+                        continue;
+                    }
+                    int extended = set | (1 << next);
+                    double candidate = current + distances[last + 1][next + 1];
+                    if (candidate < length[extended][next]) {
+                        length[extended][next] = candidate;
+                        previous[extended][next] = (byte) last;
+                    }
+                }
+            }
+        }
+
+        int all = sets - 1;
+        int last = 0;
+        double best = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            double closed = length[all][i] + distances[i + 1][0];
+            if (closed < best) {
+                best = closed;
+                last = i;
+            }
+        }
+        Delivery[] route = new Delivery[n];
+        int set = all;
+        for (int position = n - 1; position >= 0; position--) {
+            route[position] = deliveries.get(last);
+            int before = previous[set][last];
+            set &= ~(1 << last);
+            last = before;
+        }
+        searchPhase.end(tour.getId(), n, OptimizationAlgorithm.AUTO);
+
+        OptimizationRun.setLowerBound(best);
+        logger.debug("Exact search for tour {}: {} stops, {} km", tour.getId(), n, best);
+        return new ArrayList<>(Arrays.asList(route));
+    }
+}
@@ -0,0 +1,248 @@
+package org.example.transport.optimizer;
+
+import org.example.transport.entity.Delivery;
+import org.example.transport.entity.Tour;
+import org.example.transport.util.DistanceCalculator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Held-Karp lower bound on the length of a route that starts and ends at the warehouse
+ * A minimum 1-tree (spanning tree of the stops plus the two cheapest warehouse edges) is
+ * never longer than the best route. Node penalties are moved by subgradient steps towards
+ * degree 2 everywhere, which tightens the bound to within about 1% of the optimum on
+ * typical instances; once every degree is 2 the 1-tree is a route and the bound is exact.
+ * Each iteration is a dense Prim's algorithm, O(n^2) on the distance matrix.
+ */
+@Component
+public class LowerBoundCalculator {
+
+    // Non-improving iterations before the step size is halved
+    private static final int PATIENCE = 5;
+
+    private final int maxStops;
+    private final int iterations;
+
+    public LowerBoundCalculator(@Value("${tour.optimizer.lower-bound.max-stops:1000}") int maxStops,
+                                @Value("${tour.optimizer.lower-bound.iterations:100}") int iterations) {
+        this.maxStops = maxStops;
+        this.iterations = iterations;
+    }
+
+    /**
+     * Whether a tour is small enough for its distance matrix
+     */
+    public boolean supports(int stops) {
+        return stops <= maxStops;
+    }
+
+    /**
+     * Bound for the stops of a route, null above the configured maximum of stops
+     */
+    public Double lowerBound(Tour tour, List<Delivery> route) {
+        if (!supports(route.size())) {
+            return null;
+        }
+        double[][] distances = distanceMatrix(tour, route);
+        return lowerBound(distances, routeLength(distances), 0.0);
+    }
+
+    /**
+     * Bound for a distance matrix whose node 0 is the warehouse
+     * @param upperBound Length of a known route through all nodes, sizes the subgradient steps
+     *                   together with a nearest neighbor route over the matrix
+     * @param targetGap Stop as soon as the route of upperBound is proven within this fraction
+     *                  of the optimum, 0 to use every iteration
+     */
+    public double lowerBound(double[][] distances, double upperBound, double targetGap) {
+        return lowerBound(distances, upperBound, targetGap, null);
+    }
+
+    /**
+     * Bound for a distance matrix, see {@link #lowerBound(double[][], double, double)}
+     * @param deadlineNanos System.nanoTime() after which no further iteration starts, null for
+     *                      none; the first iteration always runs, so the bound stays valid
+     */
+    public double lowerBound(double[][] distances, double upperBound, double targetGap, Long deadlineNanos) {
+        int n = distances.length;
+        if (n <= 3) {
+            // Zero, one or two stops have a single route
+            return routeLength(distances);
+        }
+
+        // Steps are sized by the distance to the best known route, a poor route overshoots
+        double target = Math.min(upperBound, nearestNeighborLength(distances));
+        double[] penalty = new double[n];
+        double[] bestPenalty = new double[n];
+        int[] degree = new int[n];
+        double[] key = new double[n];
+        int[] parent = new int[n];
+        boolean[] inTree = new boolean[n];
+        double best = 0.0;
+        double stepScale = 2.0;
+        int sinceImprovement = 0;
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            double penaltySum = 0.0;
+            for (double p : penalty) {
+                penaltySum += p;
+            }
+            double bound = oneTree(distances, penalty, degree, key, parent, inTree) - 2 * penaltySum;
+            if (bound > best) {
+                best = bound;
+                System.arraycopy(penalty, 0, bestPenalty, 0, n);
+                sinceImprovement = 0;
+            } else if (++sinceImprovement >= PATIENCE) {
+                // Smaller steps from the best penalties so far
+                stepScale /= 2;
+                System.arraycopy(bestPenalty, 0, penalty, 0, n);
+                sinceImprovement = 0;
+                continue;
+            }
+            if (upperBound - best <= targetGap * best) {
+                break;
+            }
+            if (deadlineNanos != null && System.nanoTime() - deadlineNanos >= 0) {
+                break;
+            }
+
+            int squaredNorm = 0;
+            for (int d : degree) {
+                squaredNorm += (d - 2) * (d - 2);
+            }
+            if (squaredNorm == 0) {
+                // The 1-tree is a route, nothing is shorter
+                break;
+            }
+            double step = stepScale * Math.max(target - bound, 0.0) / squaredNorm;
+            for (int i = 0; i < n; i++) {
+                penalty[i] += step * (degree[i] - 2);
+            }
+        }
+        return Math.min(best, upperBound);
+    }
+
+    /**
+     * Relative gap of a route to a lower bound, 0.01 for a route 1% above the bound
+     */
+    public static double gap(double distanceKm, double lowerBoundKm) {
+        return lowerBoundKm > 0 ? (distanceKm - lowerBoundKm) / lowerBoundKm : 0.0;
+    }
+
+    /**
+     * Symmetric haversine matrix, node 0 is the warehouse and node i the i-th stop of the route
+     */
+    static double[][] distanceMatrix(Tour tour, List<Delivery> route) {
+        int n = route.size() + 1;
+        double[] lats = new double[n];
+        double[] lons = new double[n];
+        lats[0] = tour.getWarehouse().getLatitude();
+        lons[0] = tour.getWarehouse().getLongitude();
+        for (int i = 1; i < n; i++) {
+            lats[i] = route.get(i - 1).getEffectiveLatitude();
+            lons[i] = route.get(i - 1).getEffectiveLongitude();
+        }
+        double[][] distances = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                distances[i][j] = DistanceCalculator.calculateDistance(lats[i], lons[i], lats[j], lons[j]);
+                distances[j][i] = distances[i][j];
+            }
+        }
+        OptimizationRun.addDistanceEvaluations((long) n * (n - 1) / 2);
+        return distances;
+    }
+
+    /**
+     * Length of the route 0, 1, ..., n-1, 0
+     */
+    static double routeLength(double[][] distances) {
+        int n = distances.length;
+        double length = 0.0;
+        for (int i = 0; i < n; i++) {
+            length += distances[i][(i + 1) % n];
+        }
+        return length;
+    }
+
+    /**
+     * Length of the nearest neighbor route from node 0
+     */
+    private static double nearestNeighborLength(double[][] distances) {
+        int n = distances.length;
+        boolean[] visited = new boolean[n];
+        visited[0] = true;
+        int current = 0;
+        double length = 0.0;
+        for (int step = 1; step < n; step++) {
+            int nearest = -1;
+            for (int i = 1; i < n; i++) {
+                if (!visited[i] && (nearest < 0 || distances[current][i] < distances[current][nearest])) {
+                    nearest = i;
+                }
+            }
+            visited[nearest] = true;
+            length += distances[current][nearest];
+            current = nearest;
+        }
+        return length + distances[current][0];
+    }
+
+    /**
+     * Length of the minimum 1-tree under penalised costs, fills the degree of every node
+     */
+    private static double oneTree(double[][] distances, double[] penalty, int[] degree,
+                                  double[] key, int[] parent, boolean[] inTree) {
+        int n = distances.length;
+        Arrays.fill(degree, 0);
+        Arrays.fill(inTree, false);
+
+        // Spanning tree of nodes 1..n-1, grown from node 1
+        inTree[1] = true;
+        for (int i = 2; i < n; i++) {
+            key[i] = distances[1][i] + penalty[1] + penalty[i];
+            parent[i] = 1;
+        }
+        double length = 0.0;
+        for (int added = 2; added < n; added++) {
+            int next = -1;
+            for (int i = 2; i < n; i++) {
+                if (!inTree[i] && (next < 0 || key[i] < key[next])) {
+                    next = i;
+                }
+            }
+            inTree[next] = true;
+            length += key[next];
+            degree[next]++;
+            degree[parent[next]]++;
+            for (int i = 2; i < n; i++) {
+                if (!inTree[i]) {
+                    double cost = distances[next][i] + penalty[next] + penalty[i];
+                    if (cost < key[i]) {
+                        key[i] = cost;
+                        parent[i] = next;
+                    }
+                }
+            }
+        }
+
+        // Two cheapest edges of the warehouse
+        int first = -1;
+        int second = -1;
+        for (int i = 1; i < n; i++) {
+            double cost = distances[0][i] + penalty[0] + penalty[i];
+            if (first < 0 || cost < distances[0][first] + penalty[0] + penalty[first]) {
+                second = first;
+                first = i;
+            } else if (second < 0 || cost < distances[0][second] + penalty[0] + penalty[second]) {
+                second = i;
+            }
+        }
+        degree[0] = 2;
+        degree[first]++;
+        degree[second]++;
+        return length + distances[0][first] + distances[0][second] + 2 * penalty[0] + penalty[first] + penalty[second];
+    }
+}
@@ -2,71 +2,172 @@ package org.example.transport.optimizer;
 
 import org.example.transport.entity.Delivery;
 import org.example.transport.entity.Tour;
+import org.example.transport.enums.OptimizationAlgorithm;
+import org.example.transport.service.DelayPredictionService;
 import org.example.transport.util.DistanceCalculator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 /**
  * Nearest Neighbor algorithm implementation for tour optimization
  * Always chooses the closest unvisited delivery
+ * When a delay cost weight is configured, the distance to each candidate is
+ * reduced by its predicted lateness at the position it would take (see {@link DelayModel}),
+ * so the stops predicted to run latest are served first.
  */
 @Component
 public class NearestNeighborOptimizer implements TourOptimizer {
 
     private static final Logger logger = LoggerFactory.getLogger(NearestNeighborOptimizer.class);
 
+    @Autowired(required = false)
+    private DelayPredictionService delayPredictionService;
+
+    // Kilometres of detour accepted to avoid one minute of predicted delay (0 disables the cost term)
+    @Value("${tour.optimizer.delay-cost-km-per-minute:0.0}")
+    private double delayCostKmPerMinute;
+
     @Override
     public List<Delivery> calculateOptimalTour(Tour tour) {
+        return calculateOptimalTour(tour, null);
+    }
+
+    /**
+     * Nearest neighbor route; past the deadline the unvisited stops follow in stored order
+     */
+    @Override
+    public List<Delivery> calculateOptimalTour(Tour tour, Long deadlineNanos) {
         logger.info("Starting Nearest Neighbor optimization for tour {}", tour.getId());
-        
+
         List<Delivery> deliveries = new ArrayList<>(tour.getDeliveries());
         if (deliveries.isEmpty()) {
             logger.warn("No deliveries to optimize for tour {}", tour.getId());
             return deliveries;
         }
 
-        List<Delivery> optimizedRoute = new ArrayList<>();
-        Set<Delivery> visited = new HashSet<>();
+        OptimizationPhaseEvent construction = OptimizationPhaseEvent.start(OptimizationPhaseEvent.CONSTRUCTION);
+        int n = deliveries.size();
+        double[] lats = new double[n];
+        double[] lons = new double[n];
+        for (int i = 0; i < n; i++) {
+            lats[i] = deliveries.get(i).getEffectiveLatitude();
+            lons[i] = deliveries.get(i).getEffectiveLongitude();
+        }
+
+        DelayCost delayCost = delayCost(tour, deliveries, lats, lons);
+
+        List<Delivery> optimizedRoute = new ArrayList<>(n);
+        boolean[] visited = new boolean[n];
 
         // Start from warehouse
         double currentLat = tour.getWarehouse().getLatitude();
         double currentLon = tour.getWarehouse().getLongitude();
 
         // Visit all deliveries
-        while (visited.size() < deliveries.size()) {
-            Delivery nearest = null;
-            double minDistance = Double.MAX_VALUE;
+        int step = 0;
+        for (; step < n && !TourOptimizer.pastDeadline(deadlineNanos); step++) {
+            int nearest = -1;
+            double minCost = Double.MAX_VALUE;
 
             // Find nearest unvisited delivery
-            for (Delivery delivery : deliveries) {
-                if (!visited.contains(delivery)) {
-                    double distance = DistanceCalculator.calculateDistance(
-                            currentLat, currentLon,
-                            delivery.getEffectiveLatitude(), delivery.getEffectiveLongitude()
-                    );
-                    if (distance < minDistance) {
-                        minDistance = distance;
-                        nearest = delivery;
+            for (int i = 0; i < n; i++) {
+                if (!visited[i]) {
+                    double cost = DistanceCalculator.calculateDistance(currentLat, currentLon, lats[i], lons[i]);
+                    if (delayCost != null) {
+                        cost -= delayCost.latenessCost(i, step + 1);
+                    }
+                    if (cost < minCost) {
+                        minCost = cost;
+                        nearest = i;
                     }
                 }
             }
 
-            if (nearest != null) {
-                optimizedRoute.add(nearest);
-                visited.add(nearest);
-                currentLat = nearest.getEffectiveLatitude();
-                currentLon = nearest.getEffectiveLongitude();
+            optimizedRoute.add(deliveries.get(nearest));
+            visited[nearest] = true;
+            currentLat = lats[nearest];
+            currentLon = lons[nearest];
+        }
+        if (step < n) {
+            logger.warn("Nearest neighbor for tour {} ran out of time after {} of {} stops", tour.getId(), step, n);
+            for (int i = 0; i < n; i++) {
+                if (!visited[i]) {
+                    optimizedRoute.add(deliveries.get(i));
+                }
             }
         }
 
-        logger.info("Nearest Neighbor optimization completed for tour {} with {} deliveries", 
+        // n + (n - 1) + ... candidate distances for the steps taken, plus one per stop for the delay features
+        OptimizationRun.addDistanceEvaluations((long) n * (n + 1) / 2 - (long) (n - step) * (n - step + 1) / 2
+                + (delayCost != null ? n : 0));
+        construction.end(tour.getId(), n, OptimizationAlgorithm.NEAREST_NEIGHBOR);
+
+        logger.info("Nearest Neighbor optimization completed for tour {} with {} deliveries",
                     tour.getId(), optimizedRoute.size());
         return optimizedRoute;
     }
+
+    /**
+     * Whether routes of this tour weigh predicted delays besides distance
+     * A later distance-only improvement would undo that order.
+     */
+    public boolean usesDelayCost(Tour tour) {
+        return delayCostKmPerMinute > 0.0 && delayPredictionService != null && tour.getTourDate() != null
+                && delayPredictionService.getModel().isTrained();
+    }
+
+    /**
+     * Precompute the per-stop delay features, or return null when the cost term is disabled
+     */
+    private DelayCost delayCost(Tour tour, List<Delivery> deliveries, double[] lats, double[] lons) {
+        if (!usesDelayCost(tour)) {
+            return null;
+        }
+        DelayModel model = delayPredictionService.getModel();
+
+        int n = deliveries.size();
+        int[] slotStart = new int[n];
+        double[] warehouseDistance = new double[n];
+        double[] weight = new double[n];
+        for (int i = 0; i < n; i++) {
+            Delivery delivery = deliveries.get(i);
+            String slot = delivery.getPreferredTimeSlot() != null
+                    ? delivery.getPreferredTimeSlot()
+                    : delivery.getCustomer() != null ? delivery.getCustomer().getPreferredTimeSlot() : null;
+            slotStart[i] = DelayModel.parseSlotStartMinute(slot);
+            warehouseDistance[i] = DistanceCalculator.calculateDistance(
+                    tour.getWarehouse().getLatitude(), tour.getWarehouse().getLongitude(), lats[i], lons[i]);
+            weight[i] = delivery.getWeightKg() != null ? delivery.getWeightKg() : 0.0;
+        }
+        int vehicleType = tour.getVehicle() != null && tour.getVehicle().getType() != null
+                ? tour.getVehicle().getType().ordinal() : -1;
+        return new DelayCost(model, delayCostKmPerMinute, tour.getTourDate().getDayOfWeek().getValue(),
+                vehicleType, slotStart, warehouseDistance, weight);
+    }
+
+    /**
+     * Delay features of one tour, evaluated without allocation inside the search loop
+     */
+    private record DelayCost(DelayModel model, double kmPerMinute, int dayOfWeek, int vehicleType,
+                             int[] slotStart, double[] warehouseDistance, double[] weight) {
+
+        /**
+         * Cost (km) of the lateness predicted for the stop when served at sequence
+         */
+        double latenessCost(int stop, int sequence) {
+            return latenessAt(stop, sequence) * kmPerMinute;
+        }
+
+        double latenessAt(int stop, int sequence) {
+            double delay = model.predictDelayMinutes(dayOfWeek, slotStart[stop], warehouseDistance[stop],
+                    sequence, vehicleType, weight[stop]);
+            return Math.max(0.0, delay);
+        }
+    }
 }
@@ -0,0 +1,87 @@
+package org.example.transport.optimizer;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import org.example.transport.enums.OptimizationAlgorithm;
+
+/**
+ * Java Flight Recorder event spanning one phase of a tour optimization
+ * Enabled by default, so any recording (e.g. -XX:StartFlightRecording) captures it; with no
+ * recording running start() and end() only check a flag and the thread's run, and the JIT
+ * removes the unused event object. Stack traces are off, the phase name says where the time went.
+ * Inside a diagnostic {@link OptimizationRun} the phase is also timed into the run.
+ * Usage: {@code OptimizationPhaseEvent event = OptimizationPhaseEvent.start(CONSTRUCTION);
+ * ...; event.end(tour.getId(), stops, NEAREST_NEIGHBOR);}
+ */
+@Name("org.example.transport.OptimizationPhase")
+@Label("Optimization Phase")
+@Category({"Transport", "Optimization"})
+@Description("One phase of a tour optimization")
+@StackTrace(false)
+public class OptimizationPhaseEvent extends Event {
+
+    public static final String SNAPSHOT_LOAD = "snapshot-load";
+    public static final String DISTANCE_MATRIX = "distance-matrix";
+    public static final String CONSTRUCTION = "construction";
+    public static final String SAVINGS = "savings";
+    public static final String MERGE = "merge";
+    public static final String LOWER_BOUND = "lower-bound";
+    public static final String IMPROVEMENT = "improvement";
+    public static final String EXACT_SEARCH = "exact-search";
+    public static final String SPACE_FILLING_CURVE = "space-filling-curve";
+    public static final String AI_PROMPT_BUILD = "ai-prompt-build";
+    public static final String AI_MODEL_CALL = "ai-model-call";
+    public static final String AI_RESPONSE_PARSE = "ai-response-parse";
+    public static final String PERSIST = "persist";
+
+    @Label("Phase")
+    private String phase;
+
+    @Label("Tour Id")
+    private long tourId;
+
+    @Label("Stops")
+    private int stops;
+
+    @Label("Algorithm")
+    private String algorithm;
+
+    // Transient fields are not recorded
+    private transient OptimizationRun run;
+    private transient long startNanos;
+
+    /**
+     * Start timing a phase
+     */
+    public static OptimizationPhaseEvent start(String phase) {
+        OptimizationPhaseEvent event = new OptimizationPhaseEvent();
+        event.phase = phase;
+        event.run = OptimizationRun.timingPhases();
+        if (event.run != null) {
+            event.startNanos = System.nanoTime();
+        }
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Stop timing and commit the event if a recording wants it
+     * @param tourId Tour being optimized, null for tours that were never saved
+     */
+    public void end(Long tourId, int stops, OptimizationAlgorithm algorithm) {
+        end();
+        if (run != null) {
+            run.addPhase(phase, System.nanoTime() - startNanos);
+        }
+        if (shouldCommit()) {
+            this.tourId = tourId != null ? tourId : 0L;
+            this.stops = stops;
+            this.algorithm = algorithm != null ? algorithm.name() : null;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package org.example.transport.optimizer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counters of the optimization running on the current thread
+ * The caller opens a run around {@link TourOptimizer#calculateOptimalTour}, optimizers add
+ * to it once per call. Without an open run the reports are dropped, so optimizers used
+ * directly (tests, benchmarks) need no setup.
+ * A diagnostic run also times the {@link OptimizationPhaseEvent} phases; fallbacks and
+ * stages are kept for every run, the caller decides what to compute for them.
+ */
+public final class OptimizationRun implements AutoCloseable {
+
+    private static final ThreadLocal<OptimizationRun> CURRENT = new ThreadLocal<>();
+
+    private final boolean diagnostic;
+    private final Map<String, Long> phaseNanos = new LinkedHashMap<>();
+    private final List<Stage> stages = new ArrayList<>();
+    private final List<String> fallbacks = new ArrayList<>();
+    private long distanceEvaluations;
+    private Double lowerBoundKm;
+    private int cacheHits;
+    private int cacheMisses;
+
+    private OptimizationRun(boolean diagnostic) {
+        this.diagnostic = diagnostic;
+    }
+
+    /**
+     * Open a run on this thread, close it in a finally block or try-with-resources
+     */
+    public static OptimizationRun open() {
+        return open(false);
+    }
+
+    /**
+     * Open a run on this thread
+     * @param diagnostic Also time the phases of the run
+     */
+    public static OptimizationRun open(boolean diagnostic) {
+        OptimizationRun run = new OptimizationRun(diagnostic);
+        CURRENT.set(run);
+        return run;
+    }
+
+    /**
+     * Add distance computations to the open run, if any
+     */
+    public static void addDistanceEvaluations(long count) {
+        OptimizationRun run = CURRENT.get();
+        if (run != null) {
+            run.distanceEvaluations += count;
+        }
+    }
+
+    /**
+     * Record the route distance before and after a construction or improvement stage
+     */
+    public static void addStage(String name, double initialDistanceKm, double finalDistanceKm) {
+        addStage(name, initialDistanceKm, finalDistanceKm, null);
+    }
+
+    /**
+     * Record a stage that can end early
+     * @param stopReason Why the stage ended, e.g. the target gap was reached
+     */
+    public static void addStage(String name, double initialDistanceKm, double finalDistanceKm, String stopReason) {
+        OptimizationRun run = CURRENT.get();
+        if (run != null) {
+            run.stages.add(new Stage(name, initialDistanceKm, finalDistanceKm, stopReason));
+        }
+    }
+
+    /**
+     * Record a lower bound on the route distance of the open run, if any
+     */
+    public static void setLowerBound(double lowerBoundKm) {
+        OptimizationRun run = CURRENT.get();
+        if (run != null) {
+            run.lowerBoundKm = lowerBoundKm;
+        }
+    }
+
+    /**
+     * Record that another algorithm ran than the one asked for, e.g. "AI -> NEAREST_NEIGHBOR"
+     */
+    public static void addFallback(String fallback) {
+        OptimizationRun run = CURRENT.get();
+        if (run != null) {
+            run.fallbacks.add(fallback);
+        }
+    }
+
+    /**
+     * Record one second-level cache lookup of the tour snapshot
+     */
+    public static void addCacheLookup(boolean hit) {
+        OptimizationRun run = CURRENT.get();
+        if (run != null) {
+            if (hit) {
+                run.cacheHits++;
+            } else {
+                run.cacheMisses++;
+            }
+        }
+    }
+
+    /**
+     * The open run if it times phases, null otherwise
+     */
+    static OptimizationRun timingPhases() {
+        OptimizationRun run = CURRENT.get();
+        return run != null && run.diagnostic ? run : null;
+    }
+
+    void addPhase(String phase, long nanos) {
+        phaseNanos.merge(phase, nanos, Long::sum);
+    }
+
+    public boolean isDiagnostic() {
+        return diagnostic;
+    }
+
+    public long getDistanceEvaluations() {
+        return distanceEvaluations;
+    }
+
+    /**
+     * Lower bound on the route distance, null when none was computed
+     */
+    public Double getLowerBoundKm() {
+        return lowerBoundKm;
+    }
+
+    /**
+     * Time per phase in the order the phases first ran, repeated phases are summed
+     */
+    public Map<String, Long> getPhaseNanos() {
+        return Collections.unmodifiableMap(phaseNanos);
+    }
+
+    public List<Stage> getStages() {
+        return Collections.unmodifiableList(stages);
+    }
+
+    public List<String> getFallbacks() {
+        return Collections.unmodifiableList(fallbacks);
+    }
+
+    public int getCacheHits() {
+        return cacheHits;
+    }
+
+    public int getCacheMisses() {
+        return cacheMisses;
+    }
+
+    @Override
+    public void close() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Route distance before and after one stage of the run
+     */
+    public record Stage(String name, double initialDistanceKm, double finalDistanceKm, String stopReason) {
+    }
+}
@@ -0,0 +1,129 @@
+package org.example.transport.optimizer;
+
+import org.example.transport.entity.Delivery;
+import org.example.transport.entity.Tour;
+import org.example.transport.enums.OptimizationAlgorithm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Tour optimization by Hilbert curve order, for tours too large for a distance matrix
+ * Stops are placed on a 2^16 x 2^16 grid over the square bounding the warehouse and the
+ * stops (longitudes scaled by the cosine of the latitude, so cells are roughly square) and
+ * visited in the order the curve passes them, starting after the warehouse. Neighbours on
+ * the curve are close on the map; on uniformly spread stops routes come out 25% to 40%
+ * longer than the optimum.
+ * O(n log n) time, no distance is computed.
+ */
+@Component
+public class SpaceFillingCurveOptimizer implements TourOptimizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpaceFillingCurveOptimizer.class);
+
+    private static final int ORDER = 16;
+    private static final int SIDE = 1 << ORDER;
+
+    @Override
+    public List<Delivery> calculateOptimalTour(Tour tour) {
+        List<Delivery> deliveries = new ArrayList<>(tour.getDeliveries());
+        int n = deliveries.size();
+        if (n <= 1) {
+            return deliveries;
+        }
+
+        OptimizationPhaseEvent curvePhase = OptimizationPhaseEvent.start(OptimizationPhaseEvent.SPACE_FILLING_CURVE);
+        // Point 0 is the warehouse, point i the i-th stop
+        double[] lats = new double[n + 1];
+        double[] lons = new double[n + 1];
+        lats[0] = tour.getWarehouse().getLatitude();
+        lons[0] = tour.getWarehouse().getLongitude();
+        for (int i = 0; i < n; i++) {
+            lats[i + 1] = deliveries.get(i).getEffectiveLatitude();
+            lons[i + 1] = deliveries.get(i).getEffectiveLongitude();
+        }
+        long[] index = curveIndex(lats, lons);
+
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> index[i + 1]));
+
+        // The route is closed through the warehouse, so it starts with the first stop after it on the curve
+        int start = 0;
+        while (start < n && index[order[start] + 1] < index[0]) {
+            start++;
+        }
+        List<Delivery> route = new ArrayList<>(n);
+        for (int k = 0; k < n; k++) {
+            route.add(deliveries.get(order[(start + k) % n]));
+        }
+        curvePhase.end(tour.getId(), n, OptimizationAlgorithm.AUTO);
+
+        logger.debug("Space-filling curve order for tour {} with {} stops", tour.getId(), n);
+        return route;
+    }
+
+    /**
+     * Hilbert curve position of every point on a grid over their bounding square
+     */
+    static long[] curveIndex(double[] lats, double[] lons) {
+        int count = lats.length;
+        double minLat = Double.POSITIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY;
+        double minLon = Double.POSITIVE_INFINITY;
+        double maxLon = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            minLat = Math.min(minLat, lats[i]);
+            maxLat = Math.max(maxLat, lats[i]);
+            minLon = Math.min(minLon, lons[i]);
+            maxLon = Math.max(maxLon, lons[i]);
+        }
+        double lonScale = Math.cos(Math.toRadians((minLat + maxLat) / 2));
+        double extent = Math.max(maxLat - minLat, (maxLon - minLon) * lonScale);
+
+        long[] index = new long[count];
+        for (int i = 0; i < count; i++) {
+            int x = cell((lons[i] - minLon) * lonScale, extent);
+            int y = cell(lats[i] - minLat, extent);
+            index[i] = hilbert(x, y);
+        }
+        return index;
+    }
+
+    private static int cell(double offset, double extent) {
+        if (extent <= 0) {
+            return 0;
+        }
+        return (int) Math.min(SIDE - 1, (long) (offset / extent * SIDE));
+    }
+
+    /**
+     * Distance along the Hilbert curve of order 16 to grid cell (x, y)
+     */
+    static long hilbert(int x, int y) {
+        long distance = 0;
+        for (int s = SIDE / 2; s > 0; s /= 2) {
+            int rx = (x & s) != 0 ? 1 : 0;
+            int ry = (y & s) != 0 ? 1 : 0;
+            distance += (long) s * s * ((3 * rx) ^ ry);
+            // Rotate the quadrant so the curve inside it has the standard orientation
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = SIDE - 1 - x;
+                    y = SIDE - 1 - y;
+                }
+                int swap = x;
+                x = y;
+                y = swap;
+            }
+        }
+        return distance;
+    }
+}
@@ -16,4 +16,18 @@ public interface TourOptimizer {
      * @return List of deliveries in optimal order
      */
     List<Delivery> calculateOptimalTour(Tour tour);
+
+    /**
+     * Calculate a tour within a deadline
+     * Optimizers that can stop early return a complete, less optimized route once the
+     * deadline has passed; the others ignore it.
+     * @param deadlineNanos System.nanoTime() by which the route is due, null for none
+     */
+    default List<Delivery> calculateOptimalTour(Tour tour, Long deadlineNanos) {
+        return calculateOptimalTour(tour);
+    }
+
+    static boolean pastDeadline(Long deadlineNanos) {
+        return deadlineNanos != null && System.nanoTime() - deadlineNanos >= 0;
+    }
 }
@@ -0,0 +1,180 @@
+package org.example.transport.optimizer;
+
+import org.example.transport.entity.Delivery;
+import org.example.transport.entity.Tour;
+import org.example.transport.enums.OptimizationAlgorithm;
+import org.example.transport.util.DistanceCalculator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 2-opt improvement stage, run on the route of a construction algorithm
+ * Reverses route segments while that shortens the round trip from the warehouse. The route
+ * is compared with a Held-Karp lower bound before the first pass and after every pass, and
+ * the stage stops as soon as it is provably within the target gap of the optimum, so the
+ * passes go to routes that can still gain. Tours above the lower bound's maximum of stops
+ * are left as constructed, their distance matrix would not fit. A time budget is checked
+ * before the stage starts, after the distance matrix, between the bound's iterations and
+ * between passes, so a spent budget leaves the route as constructed.
+ */
+@Component
+public class TwoOptImprover {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoOptImprover.class);
+
+    public static final String STAGE = "two-opt";
+    public static final String STOPPED_AT_TARGET_GAP = "target-gap";
+    public static final String STOPPED_AT_LOCAL_OPTIMUM = "local-optimum";
+    public static final String STOPPED_AT_MAX_PASSES = "max-passes";
+    public static final String STOPPED_AT_TIME_BUDGET = "time-budget";
+    // Not run, the constructed order also weighs predicted delays
+    public static final String SKIPPED_FOR_DELAY_COST = "delay-cost";
+
+    // Gains below this (km) are rounding noise, accepting them could loop forever
+    private static final double MIN_GAIN_KM = 1e-9;
+
+    private final LowerBoundCalculator lowerBoundCalculator;
+    private final boolean enabled;
+    private final int maxPasses;
+    private final double targetGap;
+
+    public TwoOptImprover(LowerBoundCalculator lowerBoundCalculator,
+                          @Value("${tour.optimizer.improvement.enabled:true}") boolean enabled,
+                          @Value("${tour.optimizer.improvement.max-passes:50}") int maxPasses,
+                          @Value("${tour.optimizer.improvement.target-gap-percent:1.0}") double targetGapPercent) {
+        this.lowerBoundCalculator = lowerBoundCalculator;
+        this.enabled = enabled;
+        this.maxPasses = maxPasses;
+        this.targetGap = targetGapPercent / 100;
+    }
+
+    /**
+     * Improve a constructed route, the lower bound and the stage are reported to the open run
+     * @param route Stops in constructed order, not modified
+     * @param algorithm Construction algorithm, for the phase events
+     * @return The improved order, or the given one when disabled or too large
+     */
+    public List<Delivery> improve(Tour tour, List<Delivery> route, OptimizationAlgorithm algorithm) {
+        return improve(tour, route, algorithm, null);
+    }
+
+    /**
+     * Improve a constructed route within a time budget
+     * @param budget Time left for the distance matrix, the bound and the passes, null for no
+     *               limit; when it is already spent the stage is skipped
+     */
+    public List<Delivery> improve(Tour tour, List<Delivery> route, OptimizationAlgorithm algorithm, Duration budget) {
+        Long deadline = budget != null ? System.nanoTime() + budget.toNanos() : null;
+        if (!enabled || route.size() < 3) {
+            return route;
+        }
+        int n = route.size();
+        if (!lowerBoundCalculator.supports(n)) {
+            logger.debug("Tour {} has {} stops, left as constructed", tour.getId(), n);
+            return route;
+        }
+        if (budget != null && (budget.isNegative() || budget.isZero())) {
+            // Construction used up the budget, not even the matrix is built
+            double length = DistanceCalculator.tourDistance(tour.getWarehouse(), route);
+            OptimizationRun.addStage(STAGE, length, length, STOPPED_AT_TIME_BUDGET);
+            return route;
+        }
+
+        OptimizationPhaseEvent matrixPhase = OptimizationPhaseEvent.start(OptimizationPhaseEvent.DISTANCE_MATRIX);
+        double[][] distances = LowerBoundCalculator.distanceMatrix(tour, route);
+        matrixPhase.end(tour.getId(), n, algorithm);
+        double initialLength = LowerBoundCalculator.routeLength(distances);
+        if (TourOptimizer.pastDeadline(deadline)) {
+            OptimizationRun.addStage(STAGE, initialLength, initialLength, STOPPED_AT_TIME_BUDGET);
+            return route;
+        }
+
+        OptimizationPhaseEvent boundPhase = OptimizationPhaseEvent.start(OptimizationPhaseEvent.LOWER_BOUND);
+        double lowerBound = lowerBoundCalculator.lowerBound(distances, initialLength, targetGap, deadline);
+        boundPhase.end(tour.getId(), n, algorithm);
+        OptimizationRun.setLowerBound(lowerBound);
+
+        OptimizationPhaseEvent improvementPhase = OptimizationPhaseEvent.start(OptimizationPhaseEvent.IMPROVEMENT);
+        // Node 0 is the warehouse and stays first, node i is the i-th stop of the given route
+        int[] order = new int[n + 1];
+        for (int i = 0; i <= n; i++) {
+            order[i] = i;
+        }
+        double length = initialLength;
+        int passes = 0;
+        String stopReason;
+        while (true) {
+            if (LowerBoundCalculator.gap(length, lowerBound) <= targetGap) {
+                stopReason = STOPPED_AT_TARGET_GAP;
+                break;
+            }
+            if (passes == maxPasses) {
+                stopReason = STOPPED_AT_MAX_PASSES;
+                break;
+            }
+            if (TourOptimizer.pastDeadline(deadline)) {
+                stopReason = STOPPED_AT_TIME_BUDGET;
+                break;
+            }
+            double gain = pass(distances, order);
+            passes++;
+            if (gain == 0.0) {
+                stopReason = STOPPED_AT_LOCAL_OPTIMUM;
+                break;
+            }
+            length -= gain;
+        }
+        improvementPhase.end(tour.getId(), n, algorithm);
+
+        List<Delivery> improved = new ArrayList<>(n);
+        for (int i = 1; i <= n; i++) {
+            improved.add(route.get(order[i] - 1));
+        }
+        OptimizationRun.addStage(STAGE, initialLength, length, stopReason);
+        logger.debug("2-opt on tour {}: {} passes, {} -> {} km, bound {} km, stopped at {}",
+                tour.getId(), passes, initialLength, length, lowerBound, stopReason);
+        return improved;
+    }
+
+    /**
+     * One sweep over all pairs of non-adjacent edges, applying every improving reversal
+     * @return Total length removed from the route
+     */
+    private static double pass(double[][] distances, int[] order) {
+        int size = order.length;
+        double gained = 0.0;
+        for (int i = 0; i < size - 2; i++) {
+            for (int j = i + 2; j < size; j++) {
+                int next = (j + 1) % size;
+                if (next == i) {
+                    continue;
+                }
+                // Edges (a, b) and (c, d) become (a, c) and (b, d)
+                int a = order[i];
+                int b = order[i + 1];
+                int c = order[j];
+                int d = order[next];
+                double gain = distances[a][b] + distances[c][d] - distances[a][c] - distances[b][d];
+                if (gain > MIN_GAIN_KM) {
+                    reverse(order, i + 1, j);
+                    gained += gain;
+                }
+            }
+        }
+        return gained;
+    }
+
+    private static void reverse(int[] order, int from, int to) {
+        while (from < to) {
+            int swap = order[from];
+            order[from++] = order[to];
+            order[to--] = swap;
+        }
+    }
+}
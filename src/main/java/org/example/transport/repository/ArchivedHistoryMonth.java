@@ -0,0 +1,352 @@
+package org.example.transport.repository;
+
+import org.example.transport.entity.Customer;
+import org.example.transport.entity.DeliveryHistory;
+import org.example.transport.entity.Tour;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One month of archived delivery history held as columns
+ * Strings are dictionary encoded (one dictionary shared by all text columns), missing
+ * values use sentinels: -1 for ids, dictionary codes, sequences and times, NaN for
+ * doubles and {@link Integer#MIN_VALUE} for delays.
+ */
+public final class ArchivedHistoryMonth {
+
+    static final int MAGIC = 0x44484131; // "DHA1"
+    static final int NO_DELAY = Integer.MIN_VALUE;
+
+    private final YearMonth month;
+    private final int size;
+    private final String[] dictionary;
+
+    final long[] id;
+    final byte[] dayOfMonth;
+    final long[] customerId;
+    final int[] customerName;
+    final int[] deliveryAddress;
+    final double[] latitude;
+    final double[] longitude;
+    final long[] tourId;
+    final int[] sequenceInTour;
+    final int[] plannedSecond;
+    final int[] actualSecond;
+    final int[] delayMinutes;
+    final int[] preferredTimeSlot;
+    final double[] weightKg;
+    final double[] volumeM3;
+    final int[] deliveryStatus;
+    final int[] vehicleType;
+    final int[] vehicleRegistration;
+    final double[] distanceFromWarehouseKm;
+    final double[] distanceFromPreviousDeliveryKm;
+    final int[] notes;
+
+    private ArchivedHistoryMonth(YearMonth month, int size, String[] dictionary) {
+        this.month = month;
+        this.size = size;
+        this.dictionary = dictionary;
+        id = new long[size];
+        dayOfMonth = new byte[size];
+        customerId = new long[size];
+        customerName = new int[size];
+        deliveryAddress = new int[size];
+        latitude = new double[size];
+        longitude = new double[size];
+        tourId = new long[size];
+        sequenceInTour = new int[size];
+        plannedSecond = new int[size];
+        actualSecond = new int[size];
+        delayMinutes = new int[size];
+        preferredTimeSlot = new int[size];
+        weightKg = new double[size];
+        volumeM3 = new double[size];
+        deliveryStatus = new int[size];
+        vehicleType = new int[size];
+        vehicleRegistration = new int[size];
+        distanceFromWarehouseKm = new double[size];
+        distanceFromPreviousDeliveryKm = new double[size];
+        notes = new int[size];
+    }
+
+    /**
+     * Encode history rows of a single month
+     */
+    public static ArchivedHistoryMonth fromRows(YearMonth month, List<DeliveryHistory> rows) {
+        Map<String, Integer> codes = new HashMap<>();
+        List<String> words = new ArrayList<>();
+        int n = rows.size();
+        int[][] text = new int[7][n];
+        for (int i = 0; i < n; i++) {
+            DeliveryHistory h = rows.get(i);
+            text[0][i] = encode(h.getCustomerName(), codes, words);
+            text[1][i] = encode(h.getDeliveryAddress(), codes, words);
+            text[2][i] = encode(h.getPreferredTimeSlot(), codes, words);
+            text[3][i] = encode(h.getDeliveryStatus(), codes, words);
+            text[4][i] = encode(h.getVehicleType(), codes, words);
+            text[5][i] = encode(h.getVehicleRegistration(), codes, words);
+            text[6][i] = encode(h.getNotes(), codes, words);
+        }
+
+        ArchivedHistoryMonth m = new ArchivedHistoryMonth(month, n, words.toArray(new String[0]));
+        for (int i = 0; i < n; i++) {
+            DeliveryHistory h = rows.get(i);
+            m.id[i] = h.getId() != null ? h.getId() : -1L;
+            m.dayOfMonth[i] = (byte) h.getDeliveryDate().getDayOfMonth();
+            m.customerId[i] = h.getCustomer() != null ? h.getCustomer().getId() : -1L;
+            m.customerName[i] = text[0][i];
+            m.deliveryAddress[i] = text[1][i];
+            m.latitude[i] = h.getLatitude();
+            m.longitude[i] = h.getLongitude();
+            m.tourId[i] = h.getTour() != null ? h.getTour().getId() : -1L;
+            m.sequenceInTour[i] = h.getSequenceInTour() != null ? h.getSequenceInTour() : -1;
+            m.plannedSecond[i] = h.getPlannedTime() != null ? h.getPlannedTime().toSecondOfDay() : -1;
+            m.actualSecond[i] = h.getActualTime() != null ? h.getActualTime().toSecondOfDay() : -1;
+            m.delayMinutes[i] = h.getDelayMinutes() != null ? h.getDelayMinutes() : NO_DELAY;
+            m.preferredTimeSlot[i] = text[2][i];
+            m.weightKg[i] = h.getWeightKg() != null ? h.getWeightKg() : Double.NaN;
+            m.volumeM3[i] = h.getVolumeM3() != null ? h.getVolumeM3() : Double.NaN;
+            m.deliveryStatus[i] = text[3][i];
+            m.vehicleType[i] = text[4][i];
+            m.vehicleRegistration[i] = text[5][i];
+            m.distanceFromWarehouseKm[i] = h.getDistanceFromWarehouseKm() != null
+                    ? h.getDistanceFromWarehouseKm() : Double.NaN;
+            m.distanceFromPreviousDeliveryKm[i] = h.getDistanceFromPreviousDeliveryKm() != null
+                    ? h.getDistanceFromPreviousDeliveryKm() : Double.NaN;
+            m.notes[i] = text[6][i];
+        }
+        return m;
+    }
+
+    private static int encode(String value, Map<String, Integer> codes, List<String> words) {
+        if (value == null) {
+            return -1;
+        }
+        return codes.computeIfAbsent(value, v -> {
+            words.add(v);
+            return words.size() - 1;
+        });
+    }
+
+    public YearMonth getMonth() {
+        return month;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Dictionary value of a text column code, or null for the missing sentinel
+     */
+    public String text(int code) {
+        return code < 0 ? null : dictionary[code];
+    }
+
+    public long id(int row) {
+        return id[row];
+    }
+
+    public int dayOfMonth(int row) {
+        return dayOfMonth[row];
+    }
+
+    public DayOfWeek dayOfWeek(int row) {
+        return month.atDay(dayOfMonth[row]).getDayOfWeek();
+    }
+
+    public long customerId(int row) {
+        return customerId[row];
+    }
+
+    public String customerName(int row) {
+        return text(customerName[row]);
+    }
+
+    public String preferredTimeSlot(int row) {
+        return text(preferredTimeSlot[row]);
+    }
+
+    public String vehicleType(int row) {
+        return text(vehicleType[row]);
+    }
+
+    public long tourId(int row) {
+        return tourId[row];
+    }
+
+    public boolean hasDelay(int row) {
+        return delayMinutes[row] != NO_DELAY;
+    }
+
+    public int delayMinutes(int row) {
+        return delayMinutes[row];
+    }
+
+    /**
+     * Rebuild a detached DeliveryHistory for one row
+     * Customer and tour are id-only references.
+     */
+    public DeliveryHistory toEntity(int row) {
+        Customer customer = null;
+        if (customerId[row] >= 0) {
+            customer = new Customer();
+            customer.setId(customerId[row]);
+        }
+        Tour tour = null;
+        if (tourId[row] >= 0) {
+            tour = new Tour();
+            tour.setId(tourId[row]);
+        }
+        return DeliveryHistory.builder()
+                .id(id[row] >= 0 ? id[row] : null)
+                .deliveryDate(month.atDay(dayOfMonth[row]))
+                .dayOfWeek(dayOfWeek(row))
+                .customer(customer)
+                .customerName(text(customerName[row]))
+                .deliveryAddress(text(deliveryAddress[row]))
+                .latitude(latitude[row])
+                .longitude(longitude[row])
+                .tour(tour)
+                .sequenceInTour(sequenceInTour[row] >= 0 ? sequenceInTour[row] : null)
+                .plannedTime(plannedSecond[row] >= 0 ? LocalTime.ofSecondOfDay(plannedSecond[row]) : null)
+                .actualTime(actualSecond[row] >= 0 ? LocalTime.ofSecondOfDay(actualSecond[row]) : null)
+                .delayMinutes(hasDelay(row) ? delayMinutes[row] : null)
+                .preferredTimeSlot(text(preferredTimeSlot[row]))
+                .weightKg(Double.isNaN(weightKg[row]) ? null : weightKg[row])
+                .volumeM3(Double.isNaN(volumeM3[row]) ? null : volumeM3[row])
+                .deliveryStatus(text(deliveryStatus[row]))
+                .vehicleType(text(vehicleType[row]))
+                .vehicleRegistration(text(vehicleRegistration[row]))
+                .distanceFromWarehouseKm(Double.isNaN(distanceFromWarehouseKm[row])
+                        ? null : distanceFromWarehouseKm[row])
+                .distanceFromPreviousDeliveryKm(Double.isNaN(distanceFromPreviousDeliveryKm[row])
+                        ? null : distanceFromPreviousDeliveryKm[row])
+                .notes(text(notes[row]))
+                .build();
+    }
+
+    /**
+     * Rebuild all rows, used when merging new rows into an existing month file
+     */
+    public List<DeliveryHistory> toEntities() {
+        List<DeliveryHistory> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            rows.add(toEntity(i));
+        }
+        return rows;
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(month.getYear());
+        out.writeByte(month.getMonthValue());
+        out.writeInt(size);
+        out.writeInt(dictionary.length);
+        for (String word : dictionary) {
+            out.writeUTF(word);
+        }
+        for (long v : id) {
+            out.writeLong(v);
+        }
+        out.write(dayOfMonth);
+        for (long v : customerId) {
+            out.writeLong(v);
+        }
+        writeInts(out, customerName);
+        writeInts(out, deliveryAddress);
+        writeDoubles(out, latitude);
+        writeDoubles(out, longitude);
+        for (long v : tourId) {
+            out.writeLong(v);
+        }
+        writeInts(out, sequenceInTour);
+        writeInts(out, plannedSecond);
+        writeInts(out, actualSecond);
+        writeInts(out, delayMinutes);
+        writeInts(out, preferredTimeSlot);
+        writeDoubles(out, weightKg);
+        writeDoubles(out, volumeM3);
+        writeInts(out, deliveryStatus);
+        writeInts(out, vehicleType);
+        writeInts(out, vehicleRegistration);
+        writeDoubles(out, distanceFromWarehouseKm);
+        writeDoubles(out, distanceFromPreviousDeliveryKm);
+        writeInts(out, notes);
+    }
+
+    static ArchivedHistoryMonth readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a delivery history archive");
+        }
+        YearMonth month = YearMonth.of(in.readInt(), in.readByte());
+        int size = in.readInt();
+        String[] dictionary = new String[in.readInt()];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = in.readUTF();
+        }
+        ArchivedHistoryMonth m = new ArchivedHistoryMonth(month, size, dictionary);
+        for (int i = 0; i < size; i++) {
+            m.id[i] = in.readLong();
+        }
+        in.readFully(m.dayOfMonth);
+        for (int i = 0; i < size; i++) {
+            m.customerId[i] = in.readLong();
+        }
+        readInts(in, m.customerName);
+        readInts(in, m.deliveryAddress);
+        readDoubles(in, m.latitude);
+        readDoubles(in, m.longitude);
+        for (int i = 0; i < size; i++) {
+            m.tourId[i] = in.readLong();
+        }
+        readInts(in, m.sequenceInTour);
+        readInts(in, m.plannedSecond);
+        readInts(in, m.actualSecond);
+        readInts(in, m.delayMinutes);
+        readInts(in, m.preferredTimeSlot);
+        readDoubles(in, m.weightKg);
+        readDoubles(in, m.volumeM3);
+        readInts(in, m.deliveryStatus);
+        readInts(in, m.vehicleType);
+        readInts(in, m.vehicleRegistration);
+        readDoubles(in, m.distanceFromWarehouseKm);
+        readDoubles(in, m.distanceFromPreviousDeliveryKm);
+        readInts(in, m.notes);
+        return m;
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        for (int v : values) {
+            out.writeInt(v);
+        }
+    }
+
+    private static void writeDoubles(DataOutputStream out, double[] values) throws IOException {
+        for (double v : values) {
+            out.writeDouble(v);
+        }
+    }
+
+    private static void readInts(DataInputStream in, int[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readInt();
+        }
+    }
+
+    private static void readDoubles(DataInputStream in, double[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readDouble();
+        }
+    }
+}
@@ -1,13 +1,20 @@
 package org.example.transport.repository;
 
+import jakarta.persistence.QueryHint;
+import org.example.transport.dto.CustomerDTO;
 import org.example.transport.entity.Customer;
-import org.springframework.data.domain.Page;
+import org.example.transport.util.GeoCell;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -18,15 +25,46 @@ import java.util.List;
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
     /**
-     * Find all active customers
+     * Select list of the keyset page queries
      */
-    List<Customer> findByActiveTrue();
+    String PAGE_SELECT = "SELECT new org.example.transport.dto.CustomerDTO(c.id, c.name, c.address, " +
+            "c.latitude, c.longitude, c.preferredTimeSlot, c.phone, c.email, c.active) FROM Customer c ";
+
+    /**
+     * First keyset page of customers selected into DTOs, ordered by id, served by the primary key
+     */
+    @Query(PAGE_SELECT + "ORDER BY c.id")
+    List<CustomerDTO> findFirstPageAsDTO(Pageable pageable);
+
+    /**
+     * Keyset page of customers after an id, a range seek on the primary key
+     * @param afterId Last id of the previous page
+     */
+    @Query(PAGE_SELECT + "WHERE c.id > :afterId ORDER BY c.id")
+    List<CustomerDTO> findPageAsDTOAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * First keyset page of active customers, served by idx_customer_active_id
+     */
+    @Query(PAGE_SELECT + "WHERE c.active = true ORDER BY c.id")
+    List<CustomerDTO> findFirstActivePageAsDTO(Pageable pageable);
+
+    /**
+     * Keyset page of active customers after an id, a range seek on idx_customer_active_id
+     * @param afterId Last id of the previous page
+     */
+    @Query(PAGE_SELECT + "WHERE c.active = true AND c.id > :afterId ORDER BY c.id")
+    List<CustomerDTO> findActivePageAsDTOAfter(@Param("afterId") Long afterId, Pageable pageable);
 
     /**
-     * Find customers by name (case-insensitive partial match)
+     * Find all active customers
+     * Cached in the customer-queries region, invalidated by any write to customers
      */
-    @Query("SELECT c FROM Customer c WHERE LOWER(c.name) LIKE LOWER(CONCAT('%', :name, '%'))")
-    Page<Customer> findByNameContaining(@Param("name") String name, Pageable pageable);
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "customer-queries")
+    })
+    List<Customer> findByActiveTrue();
 
     /**
      * Find customers by address (case-insensitive partial match)
@@ -35,24 +73,78 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
     List<Customer> findByAddressContaining(@Param("address") String address);
 
     /**
-     * Find customers within a geographic area
+     * Customers within a bounding box, answered by geo_cell range scans
+     * @return Customers in no particular order
+     */
+    default List<CustomerDTO> findByLocationArea(double minLat, double maxLat, double minLon, double maxLon) {
+        List<CustomerDTO> customers = new ArrayList<>();
+        for (GeoCell.Range range : GeoCell.cover(minLat, maxLat, minLon, maxLon)) {
+            customers.addAll(findInCellRange(range.from(), range.to(), minLat, maxLat, minLon, maxLon,
+                    Pageable.unpaged()));
+        }
+        return customers;
+    }
+
+    /**
+     * At most limit customers within a bounding box, the scans stop once enough rows are read
+     * @return Customers in geo_cell order
+     */
+    default List<CustomerDTO> findByLocationArea(double minLat, double maxLat, double minLon, double maxLon,
+                                                 int limit) {
+        List<CustomerDTO> customers = new ArrayList<>();
+        for (GeoCell.Range range : GeoCell.cover(minLat, maxLat, minLon, maxLon)) {
+            if (customers.size() >= limit) {
+                break;
+            }
+            customers.addAll(findInCellRange(range.from(), range.to(), minLat, maxLat, minLon, maxLon,
+                    PageRequest.ofSize(limit - customers.size())));
+        }
+        return customers;
+    }
+
+    /**
+     * Number of customers within a bounding box, counted without loading them
+     */
+    default long countByLocationArea(double minLat, double maxLat, double minLon, double maxLon) {
+        long count = 0;
+        for (GeoCell.Range range : GeoCell.cover(minLat, maxLat, minLon, maxLon)) {
+            count += countInCellRange(range.from(), range.to(), minLat, maxLat, minLon, maxLon);
+        }
+        return count;
+    }
+
+    /**
+     * One range scan of idx_customer_geo_cell, exact box filter applied to the scanned rows
+     */
+    @Query("SELECT new org.example.transport.dto.CustomerDTO(c.id, c.name, c.address, c.latitude, c.longitude, " +
+           "c.preferredTimeSlot, c.phone, c.email, c.active) FROM Customer c " +
+           "WHERE c.geoCell BETWEEN :fromCell AND :toCell " +
+           "AND c.latitude BETWEEN :minLat AND :maxLat AND c.longitude BETWEEN :minLon AND :maxLon " +
+           "ORDER BY c.geoCell, c.id")
+    List<CustomerDTO> findInCellRange(@Param("fromCell") long fromCell,
+                                      @Param("toCell") long toCell,
+                                      @Param("minLat") double minLat,
+                                      @Param("maxLat") double maxLat,
+                                      @Param("minLon") double minLon,
+                                      @Param("maxLon") double maxLon,
+                                      Pageable pageable);
+
+    /**
+     * Count over one range scan of idx_customer_geo_cell
      */
-    @Query("SELECT c FROM Customer c WHERE " +
-           "c.latitude BETWEEN :minLat AND :maxLat AND " +
-           "c.longitude BETWEEN :minLon AND :maxLon")
-    List<Customer> findByLocationArea(
-            @Param("minLat") Double minLat,
-            @Param("maxLat") Double maxLat,
-            @Param("minLon") Double minLon,
-            @Param("maxLon") Double maxLon
-    );
+    @Query("SELECT COUNT(c) FROM Customer c WHERE c.geoCell BETWEEN :fromCell AND :toCell " +
+           "AND c.latitude BETWEEN :minLat AND :maxLat AND c.longitude BETWEEN :minLon AND :maxLon")
+    long countInCellRange(@Param("fromCell") long fromCell,
+                          @Param("toCell") long toCell,
+                          @Param("minLat") double minLat,
+                          @Param("maxLat") double maxLat,
+                          @Param("minLon") double minLon,
+                          @Param("maxLon") double maxLon);
 
     /**
-     * Search customers with pagination
+     * Customers selected into DTOs by id, used to resolve search index hits
      */
-    @Query("SELECT c FROM Customer c WHERE " +
-           "LOWER(c.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(c.address) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(c.email) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    Page<Customer> searchCustomers(@Param("searchTerm") String searchTerm, Pageable pageable);
+    @Query("SELECT new org.example.transport.dto.CustomerDTO(c.id, c.name, c.address, c.latitude, c.longitude, " +
+           "c.preferredTimeSlot, c.phone, c.email, c.active) FROM Customer c WHERE c.id IN :ids")
+    List<CustomerDTO> findAllAsDTOByIdIn(@Param("ids") Collection<Long> ids);
 }
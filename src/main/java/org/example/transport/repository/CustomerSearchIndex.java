@@ -0,0 +1,321 @@
+package org.example.transport.repository;
+
+import org.springframework.stereotype.Repository;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory trigram index over customer name, address and email for typeahead search
+ * Every word is padded with two leading blanks and one trailing blank before it is cut
+ * into trigrams, so the last query word only needs its leading trigrams to match: that
+ * gives prefix matching, and requiring only half of the query trigrams gives fuzzy
+ * matching. Hits are ranked by the share of query trigrams they contain plus a bonus
+ * for name prefix, word prefix and substring matches.
+ * Writes are single-writer (synchronized) and append-only: a changed customer gets a
+ * new slot and its old slot is cleared. Readers only see slots published through the
+ * volatile sizes, so searches never need a lock.
+ */
+@Repository
+public class CustomerSearchIndex {
+
+    /** Share of query trigrams a customer must contain to match */
+    public static final double MIN_SIMILARITY = 0.5;
+
+    static final int MAX_QUERY_LENGTH = 64;
+    private static final double MAX_BONUS = 1.0;
+    private static final int MIN_COMPACT_SLOTS = 1024;
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private static final Comparator<Hit> RANK = Comparator.comparingDouble(Hit::score)
+            .thenComparing(Comparator.comparingLong(Hit::id).reversed());
+
+    private final Map<Long, Integer> slotById = new HashMap<>();
+
+    private volatile State state = new State(1024);
+    private int deadSlots;
+
+    /**
+     * One search result, higher scores rank first
+     */
+    public record Hit(long id, double score) {
+    }
+
+    private record Entry(long id, String name, String text, boolean active) {
+    }
+
+    /**
+     * Growable int list appended by the writer and read without locking
+     */
+    private static final class Posting {
+        private volatile int[] slots = new int[4];
+        private volatile int size;
+
+        void add(int slot) {
+            int[] current = slots;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+                current[size] = slot;
+                slots = current;
+            } else {
+                current[size] = slot;
+            }
+            size++;
+        }
+    }
+
+    private static final class State {
+        private final Map<Long, Posting> postings = new ConcurrentHashMap<>();
+        private volatile Entry[] entries;
+        private volatile int size;
+
+        State(int capacity) {
+            entries = new Entry[capacity];
+        }
+
+        int append(Entry entry) {
+            Entry[] current = entries;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+                current[size] = entry;
+                entries = current;
+            } else {
+                current[size] = entry;
+            }
+            int slot = size;
+            for (long gram : indexGrams(entry.text())) {
+                postings.computeIfAbsent(gram, g -> new Posting()).add(slot);
+            }
+            size = slot + 1;
+            return slot;
+        }
+    }
+
+    /**
+     * Add a customer or replace its indexed values
+     */
+    public synchronized void put(long id, String name, String address, String email, boolean active) {
+        release(id);
+        String normalizedName = normalize(name);
+        String text = String.join(" ", normalizedName, normalize(address), normalize(email)).trim();
+        slotById.put(id, state.append(new Entry(id, normalizedName, text, active)));
+    }
+
+    public synchronized void remove(long id) {
+        release(id);
+    }
+
+    public synchronized void clear() {
+        slotById.clear();
+        deadSlots = 0;
+        state = new State(1024);
+    }
+
+    /**
+     * Number of indexed customers
+     */
+    public synchronized int size() {
+        return slotById.size();
+    }
+
+    /**
+     * Customers matching the query, best first
+     * @param activeOnly Skip deactivated customers
+     */
+    public List<Hit> search(String query, int limit, boolean activeOnly) {
+        String normalized = normalize(query);
+        if (normalized.length() > MAX_QUERY_LENGTH) {
+            normalized = normalized.substring(0, MAX_QUERY_LENGTH).trim();
+        }
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        long[] grams = queryGrams(normalized);
+
+        State current = state;
+        int size = current.size;
+        Entry[] entries = current.entries;
+        // Sizes and arrays are read once so a concurrent writer cannot change them mid-search
+        List<int[]> postings = new ArrayList<>(grams.length);
+        List<Integer> postingSizes = new ArrayList<>(grams.length);
+        for (long gram : grams) {
+            Posting posting = current.postings.get(gram);
+            if (posting != null) {
+                postingSizes.add(posting.size);
+                postings.add(posting.slots);
+            }
+        }
+        int minShared = Math.max(1, (int) Math.ceil(grams.length * MIN_SIMILARITY));
+        if (postings.size() < minShared) {
+            return List.of();
+        }
+        // A match must appear in at least one of the rarest (n - minShared + 1) postings,
+        // the larger remaining postings only need to be probed for those candidates
+        Integer[] order = new Integer[postings.size()];
+        for (int p = 0; p < order.length; p++) {
+            order[p] = p;
+        }
+        Arrays.sort(order, Comparator.comparingInt(postingSizes::get));
+        int seeding = order.length - minShared + 1;
+
+        short[] counts = new short[size];
+        int[] touched = new int[64];
+        int touchedCount = 0;
+        for (int p = 0; p < seeding; p++) {
+            int postingSize = postingSizes.get(order[p]);
+            int[] slots = postings.get(order[p]);
+            for (int i = 0; i < postingSize; i++) {
+                int slot = slots[i];
+                if (slot < size && counts[slot]++ == 0) {
+                    if (touchedCount == touched.length) {
+                        touched = Arrays.copyOf(touched, touched.length * 2);
+                    }
+                    touched[touchedCount++] = slot;
+                }
+            }
+        }
+        for (int p = seeding; p < order.length; p++) {
+            int postingSize = postingSizes.get(order[p]);
+            int[] slots = postings.get(order[p]);
+            if ((long) touchedCount * (32 - Integer.numberOfLeadingZeros(postingSize)) < postingSize) {
+                // Slots are appended in increasing order, so every posting is sorted
+                for (int i = 0; i < touchedCount; i++) {
+                    if (Arrays.binarySearch(slots, 0, postingSize, touched[i]) >= 0) {
+                        counts[touched[i]]++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < postingSize; i++) {
+                    int slot = slots[i];
+                    if (slot < size && counts[slot] > 0) {
+                        counts[slot]++;
+                    }
+                }
+            }
+        }
+
+        String wordStart = " " + normalized;
+        PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, RANK);
+        for (int i = 0; i < touchedCount; i++) {
+            int slot = touched[i];
+            if (counts[slot] < minShared) {
+                continue;
+            }
+            Entry entry = entries[slot];
+            if (entry == null || (activeOnly && !entry.active())) {
+                continue;
+            }
+            double similarity = (double) counts[slot] / grams.length;
+            if (top.size() == limit) {
+                // Skip the string checks when even the best bonus cannot beat the weakest hit
+                Hit weakest = top.peek();
+                double best = similarity + MAX_BONUS;
+                if (best < weakest.score() || (best == weakest.score() && entry.id() > weakest.id())) {
+                    continue;
+                }
+            }
+            Hit hit = new Hit(entry.id(), similarity + bonus(entry, normalized, wordStart));
+            if (top.size() < limit) {
+                top.add(hit);
+            } else if (RANK.compare(hit, top.peek()) > 0) {
+                top.poll();
+                top.add(hit);
+            }
+        }
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(RANK.reversed());
+        return hits;
+    }
+
+    private static double bonus(Entry entry, String query, String wordStart) {
+        if (entry.name().startsWith(query)) {
+            return MAX_BONUS;
+        }
+        if (entry.name().contains(wordStart)) {
+            return 0.75;
+        }
+        if (entry.text().startsWith(query) || entry.text().contains(wordStart)) {
+            return 0.5;
+        }
+        return entry.text().contains(query) ? 0.25 : 0.0;
+    }
+
+    private void release(long id) {
+        Integer slot = slotById.remove(id);
+        if (slot == null) {
+            return;
+        }
+        state.entries[slot] = null;
+        deadSlots++;
+        if (deadSlots > Math.max(MIN_COMPACT_SLOTS, slotById.size())) {
+            compact();
+        }
+    }
+
+    /**
+     * Rebuild without cleared slots, searches keep using the old state until the swap
+     */
+    private void compact() {
+        State old = state;
+        State rebuilt = new State(Math.max(1024, slotById.size() * 2));
+        for (int i = 0; i < old.size; i++) {
+            Entry entry = old.entries[i];
+            if (entry != null) {
+                slotById.put(entry.id(), rebuilt.append(entry));
+            }
+        }
+        deadSlots = 0;
+        state = rebuilt;
+    }
+
+    /**
+     * Lower case, accents stripped, words separated by single blanks
+     */
+    static String normalize(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        String stripped = MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        return NON_WORD.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    private static Set<Long> indexGrams(String text) {
+        Set<Long> grams = new LinkedHashSet<>();
+        for (String word : text.split(" ")) {
+            if (!word.isEmpty()) {
+                addGrams("  " + word + " ", grams);
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * Like the indexed trigrams, but the last word has no trailing blank so it matches as a prefix
+     */
+    static long[] queryGrams(String query) {
+        Set<Long> grams = new LinkedHashSet<>();
+        String[] words = query.split(" ");
+        for (int i = 0; i < words.length; i++) {
+            addGrams(i == words.length - 1 ? "  " + words[i] : "  " + words[i] + " ", grams);
+        }
+        return grams.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static void addGrams(String padded, Set<Long> grams) {
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2));
+        }
+    }
+}
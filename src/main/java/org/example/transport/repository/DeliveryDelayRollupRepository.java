@@ -0,0 +1,35 @@
+package org.example.transport.repository;
+
+import org.example.transport.entity.DeliveryDelayRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository for DeliveryDelayRollup entity
+ */
+@Repository
+public interface DeliveryDelayRollupRepository extends JpaRepository<DeliveryDelayRollup, Long> {
+
+    /**
+     * Find rollups in a week range, optionally for one warehouse (null bounds are open)
+     */
+    @Query("SELECT r FROM DeliveryDelayRollup r " +
+           "WHERE (:fromWeek IS NULL OR r.weekStart >= :fromWeek) " +
+           "AND (:toWeek IS NULL OR r.weekStart <= :toWeek) " +
+           "AND (:warehouseId IS NULL OR r.warehouseId = :warehouseId)")
+    List<DeliveryDelayRollup> findByFilter(
+            @Param("fromWeek") LocalDate fromWeek,
+            @Param("toWeek") LocalDate toWeek,
+            @Param("warehouseId") Long warehouseId
+    );
+
+    @Modifying
+    @Query("DELETE FROM DeliveryDelayRollup r WHERE r.weekStart BETWEEN :fromWeek AND :toWeek")
+    int deleteByWeekStartBetween(@Param("fromWeek") LocalDate fromWeek, @Param("toWeek") LocalDate toWeek);
+}
@@ -0,0 +1,443 @@
+package org.example.transport.repository;
+
+import org.example.transport.entity.DeliveryHistory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * File-based repository for archived (cold) delivery history
+ * One gzip-compressed columnar file per month, see {@link ArchivedHistoryMonth}.
+ * Offers the same queries as {@link DeliveryHistoryRepository} for archived rows;
+ * aggregates are returned as totals so they can be merged with the hot table.
+ * Delay totals are computed once per month file (when it is written, or on first use)
+ * and kept until the file changes, so aggregates do not decode the months again.
+ * The most recently used months stay decoded, with their rows in keyset order, so
+ * consecutive pages find their cursor by binary search instead of a scan.
+ */
+@Repository
+public class DeliveryHistoryArchiveRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeliveryHistoryArchiveRepository.class);
+
+    private static final String PREFIX = "delivery-history-";
+    private static final String SUFFIX = ".dha.gz";
+
+    /**
+     * Keyset order of history pages: delivery date, then id, both descending
+     */
+    public static final Comparator<DeliveryHistory> NEWEST_FIRST = Comparator
+            .comparing(DeliveryHistory::getDeliveryDate)
+            .thenComparing(DeliveryHistory::getId)
+            .reversed();
+
+    private final Path directory;
+    private final Map<YearMonth, MonthTotals> totalsByMonth = new ConcurrentHashMap<>();
+    private final Map<YearMonth, DecodedMonth> decodedMonths; // Access ordered, guarded by itself
+
+    public DeliveryHistoryArchiveRepository(@Value("${history.archive.directory:./data/history-archive}") String directory,
+                                            @Value("${history.archive.cached-months:6}") int cachedMonths) {
+        this.directory = Paths.get(directory);
+        this.decodedMonths = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<YearMonth, DecodedMonth> eldest) {
+                return size() > cachedMonths;
+            }
+        };
+    }
+
+    /**
+     * Months present in the archive, oldest first
+     */
+    public List<YearMonth> findArchivedMonths() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> YearMonth.parse(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list history archive " + directory, e);
+        }
+    }
+
+    public ArchivedHistoryMonth readMonth(YearMonth month) {
+        Path file = fileFor(month);
+        if (!Files.exists(file)) {
+            return ArchivedHistoryMonth.fromRows(month, List.of());
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file), 1 << 16), 1 << 16))) {
+            return ArchivedHistoryMonth.readFrom(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read history archive " + file, e);
+        }
+    }
+
+    /**
+     * Append rows to a month file
+     * The file is rewritten to a temporary file and atomically moved into place,
+     * readers see either the previous or the new version. Rows whose id is already
+     * archived are skipped, so re-running an interrupted archive run is harmless.
+     */
+    public void appendMonth(YearMonth month, List<DeliveryHistory> rows) {
+        List<DeliveryHistory> all = new ArrayList<>(readMonth(month).toEntities());
+        Set<Long> archivedIds = new HashSet<>();
+        for (DeliveryHistory row : all) {
+            archivedIds.add(row.getId());
+        }
+        for (DeliveryHistory row : rows) {
+            if (row.getId() == null || archivedIds.add(row.getId())) {
+                all.add(row);
+            }
+        }
+        ArchivedHistoryMonth encoded = ArchivedHistoryMonth.fromRows(month, all);
+
+        try {
+            Files.createDirectories(directory);
+            Path tmp = Files.createTempFile(directory, PREFIX, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(tmp), 1 << 16), 1 << 16))) {
+                encoded.writeTo(out);
+            }
+            Files.move(tmp, fileFor(month), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            totalsByMonth.put(month, MonthTotals.of(lastModified(month), encoded));
+            synchronized (decodedMonths) {
+                decodedMonths.remove(month);
+            }
+            logger.info("Archived {} history rows into {} ({} total)", rows.size(), fileFor(month), all.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write history archive for " + month, e);
+        }
+    }
+
+    /**
+     * Visit archived months overlapping a date range (null bounds are open)
+     */
+    public void forEachMonth(LocalDate startDate, LocalDate endDate, Consumer<ArchivedHistoryMonth> visitor) {
+        for (YearMonth month : findArchivedMonths()) {
+            if (startDate != null && month.atEndOfMonth().isBefore(startDate)) {
+                continue;
+            }
+            if (endDate != null && month.atDay(1).isAfter(endDate)) {
+                continue;
+            }
+            visitor.accept(decoded(month).month());
+        }
+    }
+
+    /**
+     * Visit archived rows of a date range (null bounds are open) oldest first, in keyset order
+     */
+    public void forEachOldestFirst(LocalDate startDate, LocalDate endDate, Consumer<DeliveryHistory> visitor) {
+        for (YearMonth month : findArchivedMonths()) {
+            if ((startDate != null && month.atEndOfMonth().isBefore(startDate))
+                    || (endDate != null && month.atDay(1).isAfter(endDate))) {
+                continue;
+            }
+            DecodedMonth decoded = decoded(month);
+            ArchivedHistoryMonth m = decoded.month();
+            int[] order = decoded.newestFirst();
+            for (int p = order.length - 1; p >= 0; p--) {
+                int i = order[p];
+                LocalDate date = month.atDay(m.dayOfMonth(i));
+                if ((startDate == null || !date.isBefore(startDate)) && (endDate == null || !date.isAfter(endDate))) {
+                    visitor.accept(m.toEntity(i));
+                }
+            }
+        }
+    }
+
+    public List<DeliveryHistory> findByCustomerId(Long customerId) {
+        List<DeliveryHistory> result = new ArrayList<>();
+        forEachMonth(null, null, m -> {
+            for (int i = 0; i < m.size(); i++) {
+                if (m.customerId(i) == customerId) {
+                    result.add(m.toEntity(i));
+                }
+            }
+        });
+        return result;
+    }
+
+    public List<DeliveryHistory> findByDayOfWeek(DayOfWeek dayOfWeek) {
+        List<DeliveryHistory> result = new ArrayList<>();
+        forEachMonth(null, null, m -> {
+            for (int i = 0; i < m.size(); i++) {
+                if (m.dayOfWeek(i) == dayOfWeek) {
+                    result.add(m.toEntity(i));
+                }
+            }
+        });
+        return result;
+    }
+
+    public List<DeliveryHistory> findByDateRange(LocalDate startDate, LocalDate endDate) {
+        List<DeliveryHistory> result = new ArrayList<>();
+        forEachMonth(startDate, endDate, m -> {
+            for (int i = 0; i < m.size(); i++) {
+                LocalDate date = m.getMonth().atDay(m.dayOfMonth(i));
+                if (!date.isBefore(startDate) && !date.isAfter(endDate)) {
+                    result.add(m.toEntity(i));
+                }
+            }
+        });
+        return result;
+    }
+
+    public List<DeliveryHistory> findDelayedDeliveries(Integer minDelay) {
+        List<DeliveryHistory> result = new ArrayList<>();
+        forEachMonth(null, null, m -> {
+            for (int i = 0; i < m.size(); i++) {
+                if (m.hasDelay(i) && m.delayMinutes(i) > minDelay) {
+                    result.add(m.toEntity(i));
+                }
+            }
+        });
+        result.sort(Comparator.comparing(DeliveryHistory::getDelayMinutes).reversed());
+        return result;
+    }
+
+    /**
+     * Keyset page of archived history, newest first, all filters optional
+     * Months are read newest first and reading stops once enough rows are collected,
+     * so a page touches at most the months its rows come from. Within the month of the
+     * cursor, the position after it is found by binary search over the keyset order.
+     * @param beforeDate Delivery date of the last row of the previous page, null for the first page
+     * @param beforeId Id of the last row of the previous page
+     * @param limit Maximum number of rows returned
+     */
+    public List<DeliveryHistory> findPage(Long customerId, DayOfWeek dayOfWeek, LocalDate fromDate,
+                                          LocalDate toDate, Integer minDelay, LocalDate beforeDate,
+                                          Long beforeId, int limit) {
+        return findPage(customerId, dayOfWeek, fromDate, toDate, minDelay, beforeDate, beforeId, null, null, limit);
+    }
+
+    /**
+     * Keyset page of archived history between two keys, newest first
+     * Rows at or after (untilDate, untilId) in keyset order are left out and reading
+     * stops at the first of them, so a page merged with the hot table only decodes the
+     * archive down to the last hot row it already has.
+     * @param untilDate Delivery date of the first row not wanted, null to read to the end
+     * @param untilId Id of the first row not wanted
+     */
+    public List<DeliveryHistory> findPage(Long customerId, DayOfWeek dayOfWeek, LocalDate fromDate,
+                                          LocalDate toDate, Integer minDelay, LocalDate beforeDate,
+                                          Long beforeId, LocalDate untilDate, Long untilId, int limit) {
+        List<YearMonth> months = findArchivedMonths();
+        YearMonth cursorMonth = beforeDate != null ? YearMonth.from(beforeDate) : null;
+        YearMonth untilMonth = untilDate != null ? YearMonth.from(untilDate) : null;
+        List<DeliveryHistory> result = new ArrayList<>();
+        boolean reachedUntil = false;
+        for (int k = months.size() - 1; k >= 0 && result.size() < limit && !reachedUntil; k--) {
+            YearMonth month = months.get(k);
+            if ((fromDate != null && month.atEndOfMonth().isBefore(fromDate))
+                    || (untilMonth != null && month.isBefore(untilMonth))) {
+                break;
+            }
+            if ((toDate != null && month.atDay(1).isAfter(toDate))
+                    || (cursorMonth != null && month.isAfter(cursorMonth))) {
+                continue;
+            }
+            DecodedMonth decoded = decoded(month);
+            ArchivedHistoryMonth m = decoded.month();
+            int[] order = decoded.newestFirst();
+            int start = month.equals(cursorMonth)
+                    ? firstAfterCursor(m, order, beforeDate.getDayOfMonth(), beforeId) : 0;
+            for (int p = start; p < order.length && result.size() < limit; p++) {
+                int i = order[p];
+                LocalDate date = month.atDay(m.dayOfMonth(i));
+                if (untilDate != null && (date.isBefore(untilDate)
+                        || (date.equals(untilDate) && m.id(i) <= untilId))) {
+                    reachedUntil = true;
+                    break;
+                }
+                if ((customerId != null && m.customerId(i) != customerId)
+                        || (dayOfWeek != null && m.dayOfWeek(i) != dayOfWeek)
+                        || (fromDate != null && date.isBefore(fromDate))
+                        || (toDate != null && date.isAfter(toDate))
+                        || (minDelay != null && (!m.hasDelay(i) || m.delayMinutes(i) <= minDelay))) {
+                    continue;
+                }
+                result.add(m.toEntity(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * First position in keyset order that comes after (day, id)
+     */
+    private static int firstAfterCursor(ArchivedHistoryMonth m, int[] order, int day, long id) {
+        int low = 0;
+        int high = order.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int row = order[mid];
+            if (m.dayOfMonth(row) < day || (m.dayOfMonth(row) == day && m.id(row) < id)) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Delay totals by day of week
+     * @return Rows of [DayOfWeek, Long sum, Long count], like the hot table query
+     */
+    public List<Object[]> getDelayTotalsByDayOfWeek() {
+        Map<DayOfWeek, long[]> totals = new EnumMap<>(DayOfWeek.class);
+        for (YearMonth month : findArchivedMonths()) {
+            addTotals(totals, totals(month).byDayOfWeek());
+        }
+        return toRows(totals);
+    }
+
+    /**
+     * Delay totals by preferred time slot
+     * @return Rows of [String slot, Long sum, Long count], like the hot table query
+     */
+    public List<Object[]> getDelayTotalsByTimeSlot() {
+        Map<String, long[]> totals = new HashMap<>();
+        for (YearMonth month : findArchivedMonths()) {
+            addTotals(totals, totals(month).byTimeSlot());
+        }
+        return toRows(totals);
+    }
+
+    private MonthTotals totals(YearMonth month) {
+        FileTime modified = lastModified(month);
+        MonthTotals cached = totalsByMonth.get(month);
+        if (cached != null && cached.modified().equals(modified)) {
+            return cached;
+        }
+        MonthTotals totals = MonthTotals.of(modified, readMonth(month));
+        totalsByMonth.put(month, totals);
+        return totals;
+    }
+
+    private static <K> void addTotals(Map<K, long[]> totals, Map<K, long[]> month) {
+        month.forEach((key, t) -> {
+            long[] sum = totals.computeIfAbsent(key, k -> new long[2]);
+            sum[0] += t[0];
+            sum[1] += t[1];
+        });
+    }
+
+    private static List<Object[]> toRows(Map<?, long[]> totals) {
+        List<Object[]> rows = new ArrayList<>(totals.size());
+        totals.forEach((key, t) -> rows.add(new Object[]{key, t[0], t[1]}));
+        return rows;
+    }
+
+    private Path fileFor(YearMonth month) {
+        return directory.resolve(PREFIX + month + SUFFIX);
+    }
+
+    private DecodedMonth decoded(YearMonth month) {
+        FileTime modified = lastModified(month);
+        synchronized (decodedMonths) {
+            DecodedMonth cached = decodedMonths.get(month);
+            if (cached != null && cached.modified().equals(modified)) {
+                return cached;
+            }
+        }
+        DecodedMonth decoded = DecodedMonth.of(modified, readMonth(month));
+        synchronized (decodedMonths) {
+            decodedMonths.put(month, decoded);
+        }
+        return decoded;
+    }
+
+    private FileTime lastModified(YearMonth month) {
+        try {
+            return Files.getLastModifiedTime(fileFor(month));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read history archive for " + month, e);
+        }
+    }
+
+    /**
+     * A month file as read, with its rows in keyset order (day, then id, descending)
+     */
+    private record DecodedMonth(FileTime modified, ArchivedHistoryMonth month, int[] newestFirst) {
+
+        static DecodedMonth of(FileTime modified, ArchivedHistoryMonth m) {
+            Integer[] rows = new Integer[m.size()];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = i;
+            }
+            Arrays.sort(rows, Comparator.<Integer>comparingInt(m::dayOfMonth)
+                    .thenComparingLong(m::id)
+                    .reversed());
+            int[] order = new int[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                order[i] = rows[i];
+            }
+            return new DecodedMonth(modified, m, order);
+        }
+    }
+
+    /**
+     * Delay sums and counts of one month file, by day of week and by time slot
+     */
+    private record MonthTotals(FileTime modified, Map<DayOfWeek, long[]> byDayOfWeek,
+                               Map<String, long[]> byTimeSlot) {
+
+        static MonthTotals of(FileTime modified, ArchivedHistoryMonth m) {
+            Map<DayOfWeek, long[]> byDayOfWeek = new EnumMap<>(DayOfWeek.class);
+            Map<String, long[]> byTimeSlot = new HashMap<>();
+            for (int i = 0; i < m.size(); i++) {
+                if (!m.hasDelay(i)) {
+                    continue;
+                }
+                long[] day = byDayOfWeek.computeIfAbsent(m.dayOfWeek(i), d -> new long[2]);
+                day[0] += m.delayMinutes(i);
+                day[1]++;
+                String slot = m.preferredTimeSlot(i);
+                if (slot != null) {
+                    long[] t = byTimeSlot.computeIfAbsent(slot, k -> new long[2]);
+                    t[0] += m.delayMinutes(i);
+                    t[1]++;
+                }
+            }
+            return new MonthTotals(modified, byDayOfWeek, byTimeSlot);
+        }
+    }
+}
@@ -1,16 +1,20 @@
 package org.example.transport.repository;
 
+import jakarta.persistence.QueryHint;
 import org.example.transport.entity.DeliveryHistory;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository for DeliveryHistory entity
@@ -60,6 +64,143 @@ public interface DeliveryHistoryRepository extends JpaRepository<DeliveryHistory
            "GROUP BY dh.preferredTimeSlot")
     List<Object[]> getAverageDelayByTimeSlot();
 
+    /**
+     * Get delay sum and count by day of week, mergeable with the archive totals
+     */
+    @Query("SELECT dh.dayOfWeek, SUM(dh.delayMinutes), COUNT(dh.delayMinutes) FROM DeliveryHistory dh " +
+           "WHERE dh.delayMinutes IS NOT NULL " +
+           "GROUP BY dh.dayOfWeek")
+    List<Object[]> getDelayTotalsByDayOfWeek();
+
+    /**
+     * Get delay sum and count by time slot, mergeable with the archive totals
+     */
+    @Query("SELECT dh.preferredTimeSlot, SUM(dh.delayMinutes), COUNT(dh.delayMinutes) FROM DeliveryHistory dh " +
+           "WHERE dh.preferredTimeSlot IS NOT NULL AND dh.delayMinutes IS NOT NULL " +
+           "GROUP BY dh.preferredTimeSlot")
+    List<Object[]> getDelayTotalsByTimeSlot();
+
+    /**
+     * Oldest delivery date still in the hot table
+     */
+    @Query("SELECT MIN(dh.deliveryDate) FROM DeliveryHistory dh")
+    LocalDate findOldestDeliveryDate();
+
+    /**
+     * Keyset condition for the rows after a (date, id) cursor, newest first
+     * The leading deliveryDate bound is a range seek on the (.., delivery_date, id) indexes,
+     * the second condition only drops the rows of the cursor's day up to its id.
+     */
+    String BEFORE_KEY = "dh.deliveryDate <= :beforeDate AND (dh.deliveryDate < :beforeDate OR dh.id < :beforeId) ";
+
+    String ORDER_NEWEST_FIRST = "ORDER BY dh.deliveryDate DESC, dh.id DESC";
+
+    /**
+     * Delay model features of history rows with a known delay
+     * Columns: dayOfWeek, preferredTimeSlot, distanceFromWarehouseKm, sequenceInTour,
+     * vehicleType, weightKg, delayMinutes, then the deliveryDate and id keyset cursor
+     */
+    String TRAINING_SELECT = "SELECT dh.dayOfWeek, dh.preferredTimeSlot, dh.distanceFromWarehouseKm, " +
+            "dh.sequenceInTour, dh.vehicleType, dh.weightKg, dh.delayMinutes, dh.deliveryDate, dh.id " +
+            "FROM DeliveryHistory dh WHERE dh.delayMinutes IS NOT NULL ";
+
+    /**
+     * First keyset page of delay training rows, newest first, served by idx_history_date_id
+     */
+    @Query(TRAINING_SELECT + ORDER_NEWEST_FIRST)
+    List<Object[]> findFirstDelayTrainingRows(Pageable pageable);
+
+    /**
+     * Keyset page of delay training rows before a (date, id) key, a range seek on idx_history_date_id
+     */
+    @Query(TRAINING_SELECT + "AND " + BEFORE_KEY + ORDER_NEWEST_FIRST)
+    List<Object[]> findDelayTrainingRowsBefore(@Param("beforeDate") LocalDate beforeDate,
+                                               @Param("beforeId") Long beforeId,
+                                               Pageable pageable);
+
+    /**
+     * First keyset page of a customer's history, newest first, served by idx_history_customer_date_id
+     */
+    @Query("SELECT dh FROM DeliveryHistory dh WHERE dh.customer.id = :customerId " + ORDER_NEWEST_FIRST)
+    List<DeliveryHistory> findFirstPageByCustomer(@Param("customerId") Long customerId, Pageable pageable);
+
+    /**
+     * Keyset page of a customer's history before a (date, id) key, a range seek on idx_history_customer_date_id
+     */
+    @Query("SELECT dh FROM DeliveryHistory dh WHERE dh.customer.id = :customerId AND " + BEFORE_KEY + ORDER_NEWEST_FIRST)
+    List<DeliveryHistory> findPageByCustomerBefore(@Param("customerId") Long customerId,
+                                                   @Param("beforeDate") LocalDate beforeDate,
+                                                   @Param("beforeId") Long beforeId,
+                                                   Pageable pageable);
+
+    /**
+     * First keyset page of a date range, newest first, served by idx_history_date_id
+     */
+    @Query("SELECT dh FROM DeliveryHistory dh WHERE dh.deliveryDate BETWEEN :fromDate AND :toDate " + ORDER_NEWEST_FIRST)
+    List<DeliveryHistory> findFirstPageByDateRange(@Param("fromDate") LocalDate fromDate,
+                                                   @Param("toDate") LocalDate toDate,
+                                                   Pageable pageable);
+
+    /**
+     * Keyset page of a date range before a (date, id) key, a range seek on idx_history_date_id
+     */
+    @Query("SELECT dh FROM DeliveryHistory dh WHERE dh.deliveryDate BETWEEN :fromDate AND :toDate AND " +
+           BEFORE_KEY + ORDER_NEWEST_FIRST)
+    List<DeliveryHistory> findPageByDateRangeBefore(@Param("fromDate") LocalDate fromDate,
+                                                    @Param("toDate") LocalDate toDate,
+                                                    @Param("beforeDate") LocalDate beforeDate,
+                                                    @Param("beforeId") Long beforeId,
+                                                    Pageable pageable);
+
+    /**
+     * First keyset page of one day of the week, newest first
+     * Walks idx_history_date_id and keeps about one row in seven, so a page reads a bounded number of rows.
+     */
+    @Query("SELECT dh FROM DeliveryHistory dh WHERE dh.dayOfWeek = :dayOfWeek " + ORDER_NEWEST_FIRST)
+    List<DeliveryHistory> findFirstPageByDayOfWeek(@Param("dayOfWeek") DayOfWeek dayOfWeek, Pageable pageable);
+
+    /**
+     * Keyset page of one day of the week before a (date, id) key, a range seek on idx_history_date_id
+     */
+    @Query("SELECT dh FROM DeliveryHistory dh WHERE dh.dayOfWeek = :dayOfWeek AND " + BEFORE_KEY + ORDER_NEWEST_FIRST)
+    List<DeliveryHistory> findPageByDayOfWeekBefore(@Param("dayOfWeek") DayOfWeek dayOfWeek,
+                                                    @Param("beforeDate") LocalDate beforeDate,
+                                                    @Param("beforeId") Long beforeId,
+                                                    Pageable pageable);
+
+    /**
+     * First keyset page of deliveries delayed by more than minDelay minutes, newest first
+     * Walks idx_history_date_id and filters on the delay.
+     */
+    @Query("SELECT dh FROM DeliveryHistory dh WHERE dh.delayMinutes > :minDelay " + ORDER_NEWEST_FIRST)
+    List<DeliveryHistory> findFirstPageDelayed(@Param("minDelay") Integer minDelay, Pageable pageable);
+
+    /**
+     * Keyset page of delayed deliveries before a (date, id) key, a range seek on idx_history_date_id
+     */
+    @Query("SELECT dh FROM DeliveryHistory dh WHERE dh.delayMinutes > :minDelay AND " + BEFORE_KEY + ORDER_NEWEST_FIRST)
+    List<DeliveryHistory> findPageDelayedBefore(@Param("minDelay") Integer minDelay,
+                                                @Param("beforeDate") LocalDate beforeDate,
+                                                @Param("beforeId") Long beforeId,
+                                                Pageable pageable);
+
+    /**
+     * History in a date range, oldest first, read through a JDBC cursor
+     * Rows are loaded read-only; the caller clears the persistence context as it goes.
+     * @param fromDate First delivery date included, null for no lower bound
+     * @param toDate Last delivery date included, null for no upper bound
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT dh FROM DeliveryHistory dh " +
+           "WHERE (:fromDate IS NULL OR dh.deliveryDate >= :fromDate) " +
+           "AND (:toDate IS NULL OR dh.deliveryDate <= :toDate) " +
+           "ORDER BY dh.deliveryDate, dh.id")
+    Stream<DeliveryHistory> streamByDateRange(@Param("fromDate") LocalDate fromDate,
+                                              @Param("toDate") LocalDate toDate);
+
     /**
      * Find recent delivery history with pagination
      */
@@ -1,31 +1,182 @@
 package org.example.transport.repository;
 
+import jakarta.persistence.QueryHint;
+import org.example.transport.dto.DeliveryDTO;
 import org.example.transport.entity.Delivery;
 import org.example.transport.enums.DeliveryStatus;
+import org.example.transport.util.GeoCell;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for Delivery entity
  */
 public interface DeliveryRepository extends JpaRepository<Delivery, Long> {
 
+    /**
+     * All deliveries with their customer in one query (DeliveryDTO shows customer name and address)
+     */
+    @Override
+    @EntityGraph(attributePaths = {"customer"})
+    List<Delivery> findAll();
+
+    /**
+     * Select list of the keyset page queries, effective address resolved in SQL
+     */
+    String PAGE_SELECT = "SELECT new org.example.transport.dto.DeliveryDTO(d.id, c.id, c.name, " +
+            "d.specificAddress, d.specificLatitude, d.specificLongitude, " +
+            "COALESCE(d.specificAddress, c.address), COALESCE(d.specificLatitude, c.latitude), " +
+            "COALESCE(d.specificLongitude, c.longitude), d.weightKg, d.volumeM3, d.preferredTimeSlot, " +
+            "d.status, d.tour.id, d.sequenceInTour) " +
+            "FROM Delivery d JOIN d.customer c ";
+
+    /**
+     * First keyset page of deliveries ordered by id, served by the primary key
+     */
+    @Query(PAGE_SELECT + "ORDER BY d.id")
+    List<DeliveryDTO> findFirstPageAsDTO(Pageable pageable);
+
+    /**
+     * Keyset page of deliveries after an id, a range seek on the primary key
+     * @param afterId Last id of the previous page
+     */
+    @Query(PAGE_SELECT + "WHERE d.id > :afterId ORDER BY d.id")
+    List<DeliveryDTO> findPageAsDTOAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * First keyset page of deliveries in one status, served by idx_delivery_status_id
+     */
+    @Query(PAGE_SELECT + "WHERE d.status = :status ORDER BY d.id")
+    List<DeliveryDTO> findFirstPageByStatusAsDTO(@Param("status") DeliveryStatus status, Pageable pageable);
+
+    /**
+     * Keyset page of deliveries in one status after an id, a range seek on idx_delivery_status_id
+     * @param afterId Last id of the previous page
+     */
+    @Query(PAGE_SELECT + "WHERE d.status = :status AND d.id > :afterId ORDER BY d.id")
+    List<DeliveryDTO> findPageByStatusAsDTOAfter(@Param("status") DeliveryStatus status,
+                                                 @Param("afterId") Long afterId,
+                                                 Pageable pageable);
+
+    /**
+     * First keyset page of deliveries without a tour, the primary key filtered on tour_id
+     */
+    @Query(PAGE_SELECT + "WHERE d.tour IS NULL ORDER BY d.id")
+    List<DeliveryDTO> findFirstUnassignedPageAsDTO(Pageable pageable);
+
+    /**
+     * Keyset page of deliveries without a tour after an id
+     * @param afterId Last id of the previous page
+     */
+    @Query(PAGE_SELECT + "WHERE d.tour IS NULL AND d.id > :afterId ORDER BY d.id")
+    List<DeliveryDTO> findUnassignedPageAsDTOAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * All deliveries as DTOs in id order, read through a JDBC cursor
+     * The stream must be consumed inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new org.example.transport.dto.DeliveryDTO(d.id, c.id, c.name, " +
+           "d.specificAddress, d.specificLatitude, d.specificLongitude, " +
+           "COALESCE(d.specificAddress, c.address), COALESCE(d.specificLatitude, c.latitude), " +
+           "COALESCE(d.specificLongitude, c.longitude), d.weightKg, d.volumeM3, d.preferredTimeSlot, " +
+           "d.status, d.tour.id, d.sequenceInTour) " +
+           "FROM Delivery d JOIN d.customer c ORDER BY d.id")
+    Stream<DeliveryDTO> streamAllAsDTO();
+
+    /**
+     * Deliveries whose effective location is within a bounding box, answered by geo_cell range scans
+     * @param status Only deliveries in this status, null for all
+     * @return Deliveries in no particular order
+     */
+    default List<DeliveryDTO> findByLocationArea(double minLat, double maxLat, double minLon, double maxLon,
+                                                 DeliveryStatus status) {
+        List<DeliveryDTO> deliveries = new ArrayList<>();
+        for (GeoCell.Range range : GeoCell.cover(minLat, maxLat, minLon, maxLon)) {
+            deliveries.addAll(findInCellRange(range.from(), range.to(), minLat, maxLat, minLon, maxLon, status));
+        }
+        return deliveries;
+    }
+
+    /**
+     * One range scan of idx_delivery_geo_cell, exact box filter applied to the scanned rows
+     */
+    @Query("SELECT new org.example.transport.dto.DeliveryDTO(d.id, c.id, c.name, " +
+           "d.specificAddress, d.specificLatitude, d.specificLongitude, " +
+           "COALESCE(d.specificAddress, c.address), COALESCE(d.specificLatitude, c.latitude), " +
+           "COALESCE(d.specificLongitude, c.longitude), d.weightKg, d.volumeM3, d.preferredTimeSlot, " +
+           "d.status, d.tour.id, d.sequenceInTour) " +
+           "FROM Delivery d JOIN d.customer c " +
+           "WHERE d.geoCell BETWEEN :fromCell AND :toCell " +
+           "AND (:status IS NULL OR d.status = :status) " +
+           "AND COALESCE(d.specificLatitude, c.latitude) BETWEEN :minLat AND :maxLat " +
+           "AND COALESCE(d.specificLongitude, c.longitude) BETWEEN :minLon AND :maxLon")
+    List<DeliveryDTO> findInCellRange(@Param("fromCell") long fromCell,
+                                      @Param("toCell") long toCell,
+                                      @Param("minLat") double minLat,
+                                      @Param("maxLat") double maxLat,
+                                      @Param("minLon") double minLon,
+                                      @Param("maxLon") double maxLon,
+                                      @Param("status") DeliveryStatus status);
+
+    /**
+     * Move the cells of deliveries that use the customer location
+     */
+    @Modifying
+    @Query("UPDATE Delivery d SET d.geoCell = :geoCell WHERE d.customer.id = :customerId " +
+           "AND (d.specificLatitude IS NULL OR d.specificLongitude IS NULL)")
+    int updateGeoCellByCustomerId(@Param("customerId") Long customerId, @Param("geoCell") Long geoCell);
+
+    /**
+     * Tour of a delivery, empty when it is not assigned
+     */
+    @Query("SELECT d.tour.id FROM Delivery d WHERE d.id = :id")
+    Optional<Long> findTourIdById(@Param("id") Long id);
+
+    /**
+     * Delivery with its customer, so the effective location is known when it is saved
+     */
+    @EntityGraph(attributePaths = {"customer"})
+    Optional<Delivery> findWithCustomerById(Long id);
+
+    /**
+     * Delivery ids of the given tours in tour order
+     * @return Rows of [tourId, deliveryId]
+     */
+    @Query("SELECT d.tour.id, d.id FROM Delivery d WHERE d.tour.id IN :tourIds ORDER BY d.sequenceInTour ASC")
+    List<Object[]> findDeliveryIdsByTourIds(@Param("tourIds") Collection<Long> tourIds);
+
+    @EntityGraph(attributePaths = {"customer"})
     List<Delivery> findByStatus(DeliveryStatus status);
 
+    @EntityGraph(attributePaths = {"customer"})
     List<Delivery> findByTourId(Long tourId);
 
+    @EntityGraph(attributePaths = {"customer"})
     @Query("SELECT d FROM Delivery d WHERE d.tour IS NULL AND d.status = :status")
     List<Delivery> findUnassignedDeliveriesByStatus(@Param("status") DeliveryStatus status);
 
+    @EntityGraph(attributePaths = {"customer"})
     @Query("SELECT d FROM Delivery d WHERE d.tour IS NULL")
     List<Delivery> findUnassignedDeliveries();
 
+    @EntityGraph(attributePaths = {"customer"})
     @Query("SELECT d FROM Delivery d WHERE d.tour.id = :tourId ORDER BY d.sequenceInTour ASC")
     List<Delivery> findByTourIdOrderBySequence(@Param("tourId") Long tourId);
 
+    @EntityGraph(attributePaths = {"customer"})
     @Query("SELECT d FROM Delivery d WHERE d.status = :status AND d.weightKg <= :maxWeight AND d.volumeM3 <= :maxVolume")
     List<Delivery> findDeliveriesByStatusAndCapacity(
             @Param("status") DeliveryStatus status,
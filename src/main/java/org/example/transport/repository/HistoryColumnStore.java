@@ -0,0 +1,421 @@
+package org.example.transport.repository;
+
+import org.example.transport.entity.DeliveryHistory;
+import org.example.transport.enums.HistoryGroupBy;
+import org.springframework.stereotype.Repository;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-memory columnar copy of delivery history for ad-hoc analytics
+ * Rows are appended to fixed-size blocks of primitive arrays. Strings are dictionary
+ * encoded and each block keeps min/max of date, customer and delay so scans can skip
+ * whole blocks. Blocks are scanned in parallel.
+ * Appends are single-writer (synchronized), readers only see rows published through
+ * the volatile block size, so queries never need a lock.
+ */
+@Repository
+public class HistoryColumnStore {
+
+    public static final int BLOCK_SIZE = 4096;
+
+    static final int NO_CODE = -1;
+    static final int NO_DELAY = Integer.MIN_VALUE;
+
+    private final Dictionary timeSlots = new Dictionary();
+    private final Dictionary vehicleTypes = new Dictionary();
+    private final Dictionary deliveryStatuses = new Dictionary();
+    private final List<Block> blocks = new CopyOnWriteArrayList<>();
+
+    private Block active;
+
+    /**
+     * Selection of rows, null or empty criteria match everything
+     */
+    public record Filter(LocalDate from, LocalDate to, Set<DayOfWeek> daysOfWeek, Set<String> timeSlots,
+                         Set<Long> customerIds, Set<String> vehicleTypes, Set<String> deliveryStatuses,
+                         Integer minDelay, Integer maxDelay) {
+    }
+
+    /**
+     * Totals of one group
+     */
+    public static final class Aggregate {
+        private long count;
+        private long delayCount;
+        private long delaySum;
+        private int delayMin = Integer.MAX_VALUE;
+        private int delayMax = Integer.MIN_VALUE;
+        private double distanceSum;
+        private long distanceCount;
+        private double weightSum;
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getDelayCount() {
+            return delayCount;
+        }
+
+        public Double getAverageDelay() {
+            return delayCount > 0 ? (double) delaySum / delayCount : null;
+        }
+
+        public Integer getMinDelay() {
+            return delayCount > 0 ? delayMin : null;
+        }
+
+        public Integer getMaxDelay() {
+            return delayCount > 0 ? delayMax : null;
+        }
+
+        public Double getAverageDistanceKm() {
+            return distanceCount > 0 ? distanceSum / distanceCount : null;
+        }
+
+        public double getTotalWeightKg() {
+            return weightSum;
+        }
+
+        private void merge(Aggregate other) {
+            count += other.count;
+            delayCount += other.delayCount;
+            delaySum += other.delaySum;
+            delayMin = Math.min(delayMin, other.delayMin);
+            delayMax = Math.max(delayMax, other.delayMax);
+            distanceSum += other.distanceSum;
+            distanceCount += other.distanceCount;
+            weightSum += other.weightSum;
+        }
+    }
+
+    /**
+     * Outcome of a scan, groups are keyed by an encoded value, see {@link #label}
+     */
+    public record ScanResult(int scannedBlocks, int skippedBlocks, long scannedRows, long matchedRows,
+                             Map<Long, Aggregate> groups) {
+
+        private ScanResult merge(ScanResult other) {
+            other.groups.forEach((key, aggregate) -> groups.merge(key, aggregate, (a, b) -> {
+                a.merge(b);
+                return a;
+            }));
+            return new ScanResult(scannedBlocks + other.scannedBlocks, skippedBlocks + other.skippedBlocks,
+                    scannedRows + other.scannedRows, matchedRows + other.matchedRows, groups);
+        }
+    }
+
+    public synchronized void append(List<DeliveryHistory> rows) {
+        for (DeliveryHistory row : rows) {
+            appendRow(row.getDeliveryDate(),
+                    row.getCustomer() != null ? row.getCustomer().getId() : NO_CODE,
+                    row.getPreferredTimeSlot(), row.getVehicleType(), row.getDeliveryStatus(),
+                    row.getDelayMinutes(), row.getDistanceFromWarehouseKm(), row.getWeightKg());
+        }
+    }
+
+    /**
+     * Append every row of an archived month
+     */
+    public synchronized void append(ArchivedHistoryMonth month) {
+        for (int i = 0; i < month.size(); i++) {
+            double distance = month.distanceFromWarehouseKm[i];
+            double weight = month.weightKg[i];
+            appendRow(month.getMonth().atDay(month.dayOfMonth(i)), month.customerId(i),
+                    month.preferredTimeSlot(i), month.vehicleType(i), month.text(month.deliveryStatus[i]),
+                    month.hasDelay(i) ? month.delayMinutes(i) : null,
+                    Double.isNaN(distance) ? null : distance, Double.isNaN(weight) ? null : weight);
+        }
+    }
+
+    public synchronized void appendRow(LocalDate date, long customerId, String timeSlot, String vehicleType,
+                                       String deliveryStatus, Integer delayMinutes, Double distanceKm,
+                                       Double weightKg) {
+        if (active == null || active.size == BLOCK_SIZE) {
+            active = new Block();
+            blocks.add(active);
+        }
+        active.add((int) date.toEpochDay(), (byte) date.getDayOfWeek().getValue(), customerId,
+                timeSlots.encode(timeSlot), vehicleTypes.encode(vehicleType), deliveryStatuses.encode(deliveryStatus),
+                delayMinutes != null ? delayMinutes : NO_DELAY,
+                distanceKm != null ? distanceKm.floatValue() : Float.NaN,
+                weightKg != null ? weightKg.floatValue() : Float.NaN);
+    }
+
+    public synchronized void clear() {
+        blocks.clear();
+        active = null;
+    }
+
+    public long size() {
+        long size = 0;
+        for (Block block : blocks) {
+            size += block.size;
+        }
+        return size;
+    }
+
+    public int blockCount() {
+        return blocks.size();
+    }
+
+    /**
+     * Filter and aggregate all rows, blocks are scanned in parallel
+     */
+    public ScanResult scan(Filter filter, HistoryGroupBy groupBy) {
+        CompiledFilter compiled = new CompiledFilter(filter);
+        return blocks.parallelStream()
+                .map(block -> block.scan(compiled, groupBy))
+                .reduce(ScanResult::merge)
+                .orElseGet(() -> new ScanResult(0, 0, 0, 0, new HashMap<>()));
+    }
+
+    /**
+     * Readable value of a group key produced by {@link #scan}
+     */
+    public String label(HistoryGroupBy groupBy, long key) {
+        String label = switch (groupBy) {
+            case NONE -> "ALL";
+            case DAY_OF_WEEK -> DayOfWeek.of((int) key).name();
+            case TIME_SLOT -> timeSlots.decode((int) key);
+            case CUSTOMER -> Long.toString(key);
+            case VEHICLE_TYPE -> vehicleTypes.decode((int) key);
+            case DELIVERY_STATUS -> deliveryStatuses.decode((int) key);
+            case WEEK -> LocalDate.ofEpochDay(key * 7 - 3).toString(); // Monday of the week
+            case MONTH -> String.format("%04d-%02d", key / 12, key % 12 + 1);
+        };
+        return label != null ? label : "NONE";
+    }
+
+    /**
+     * Filter with strings resolved to dictionary codes
+     */
+    private final class CompiledFilter {
+        final int fromDay;
+        final int toDay;
+        final int dayMask;
+        final BitSet timeSlotCodes;
+        final long[] customerIds;
+        final BitSet vehicleTypeCodes;
+        final BitSet statusCodes;
+        final boolean delayFiltered;
+        final int minDelay;
+        final int maxDelay;
+
+        CompiledFilter(Filter filter) {
+            fromDay = filter.from() != null ? (int) filter.from().toEpochDay() : Integer.MIN_VALUE;
+            toDay = filter.to() != null ? (int) filter.to().toEpochDay() : Integer.MAX_VALUE;
+            int mask = 0;
+            if (filter.daysOfWeek() != null) {
+                for (DayOfWeek day : filter.daysOfWeek()) {
+                    mask |= 1 << day.getValue();
+                }
+            }
+            dayMask = mask;
+            timeSlotCodes = timeSlots.codesOf(filter.timeSlots());
+            vehicleTypeCodes = vehicleTypes.codesOf(filter.vehicleTypes());
+            statusCodes = deliveryStatuses.codesOf(filter.deliveryStatuses());
+            if (filter.customerIds() != null && !filter.customerIds().isEmpty()) {
+                customerIds = filter.customerIds().stream().mapToLong(Long::longValue).sorted().toArray();
+            } else {
+                customerIds = null;
+            }
+            delayFiltered = filter.minDelay() != null || filter.maxDelay() != null;
+            minDelay = filter.minDelay() != null ? filter.minDelay() : Integer.MIN_VALUE + 1;
+            maxDelay = filter.maxDelay() != null ? filter.maxDelay() : Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Up to BLOCK_SIZE rows, min/max are written before the size that publishes them
+     */
+    private static final class Block {
+        final int[] epochDay = new int[BLOCK_SIZE];
+        final byte[] dayOfWeek = new byte[BLOCK_SIZE];
+        final long[] customerId = new long[BLOCK_SIZE];
+        final int[] timeSlot = new int[BLOCK_SIZE];
+        final int[] vehicleType = new int[BLOCK_SIZE];
+        final int[] deliveryStatus = new int[BLOCK_SIZE];
+        final int[] delayMinutes = new int[BLOCK_SIZE];
+        final float[] distanceKm = new float[BLOCK_SIZE];
+        final float[] weightKg = new float[BLOCK_SIZE];
+
+        int minDay = Integer.MAX_VALUE;
+        int maxDay = Integer.MIN_VALUE;
+        long minCustomer = Long.MAX_VALUE;
+        long maxCustomer = Long.MIN_VALUE;
+        int minDelay = Integer.MAX_VALUE;
+        int maxDelay = Integer.MIN_VALUE;
+
+        volatile int size;
+
+        void add(int day, byte dow, long customer, int slot, int vehicle, int status, int delay,
+                 float distance, float weight) {
+            int i = size;
+            epochDay[i] = day;
+            dayOfWeek[i] = dow;
+            customerId[i] = customer;
+            timeSlot[i] = slot;
+            vehicleType[i] = vehicle;
+            deliveryStatus[i] = status;
+            delayMinutes[i] = delay;
+            distanceKm[i] = distance;
+            weightKg[i] = weight;
+            minDay = Math.min(minDay, day);
+            maxDay = Math.max(maxDay, day);
+            minCustomer = Math.min(minCustomer, customer);
+            maxCustomer = Math.max(maxCustomer, customer);
+            if (delay != NO_DELAY) {
+                minDelay = Math.min(minDelay, delay);
+                maxDelay = Math.max(maxDelay, delay);
+            }
+            size = i + 1;
+        }
+
+        boolean canSkip(CompiledFilter f) {
+            if (maxDay < f.fromDay || minDay > f.toDay) {
+                return true;
+            }
+            if (f.customerIds != null && (maxCustomer < f.customerIds[0]
+                    || minCustomer > f.customerIds[f.customerIds.length - 1])) {
+                return true;
+            }
+            return f.delayFiltered && (minDelay > maxDelay || maxDelay < f.minDelay || minDelay > f.maxDelay);
+        }
+
+        ScanResult scan(CompiledFilter f, HistoryGroupBy groupBy) {
+            int n = size;
+            Map<Long, Aggregate> groups = new HashMap<>();
+            if (n == 0 || canSkip(f)) {
+                return new ScanResult(0, 1, 0, 0, groups);
+            }
+            long matched = 0;
+            for (int i = 0; i < n; i++) {
+                if (!matches(f, i)) {
+                    continue;
+                }
+                matched++;
+                Aggregate a = groups.computeIfAbsent(groupKey(groupBy, i), k -> new Aggregate());
+                a.count++;
+                int delay = delayMinutes[i];
+                if (delay != NO_DELAY) {
+                    a.delayCount++;
+                    a.delaySum += delay;
+                    a.delayMin = Math.min(a.delayMin, delay);
+                    a.delayMax = Math.max(a.delayMax, delay);
+                }
+                if (!Float.isNaN(distanceKm[i])) {
+                    a.distanceSum += distanceKm[i];
+                    a.distanceCount++;
+                }
+                if (!Float.isNaN(weightKg[i])) {
+                    a.weightSum += weightKg[i];
+                }
+            }
+            return new ScanResult(1, 0, n, matched, groups);
+        }
+
+        private boolean matches(CompiledFilter f, int i) {
+            int day = epochDay[i];
+            if (day < f.fromDay || day > f.toDay) {
+                return false;
+            }
+            if (f.dayMask != 0 && (f.dayMask & (1 << dayOfWeek[i])) == 0) {
+                return false;
+            }
+            if (f.timeSlotCodes != null && (timeSlot[i] < 0 || !f.timeSlotCodes.get(timeSlot[i]))) {
+                return false;
+            }
+            if (f.vehicleTypeCodes != null && (vehicleType[i] < 0 || !f.vehicleTypeCodes.get(vehicleType[i]))) {
+                return false;
+            }
+            if (f.statusCodes != null && (deliveryStatus[i] < 0 || !f.statusCodes.get(deliveryStatus[i]))) {
+                return false;
+            }
+            if (f.customerIds != null && Arrays.binarySearch(f.customerIds, customerId[i]) < 0) {
+                return false;
+            }
+            if (f.delayFiltered) {
+                int delay = delayMinutes[i];
+                return delay != NO_DELAY && delay >= f.minDelay && delay <= f.maxDelay;
+            }
+            return true;
+        }
+
+        private long groupKey(HistoryGroupBy groupBy, int i) {
+            return switch (groupBy) {
+                case NONE -> 0L;
+                case DAY_OF_WEEK -> dayOfWeek[i];
+                case TIME_SLOT -> timeSlot[i];
+                case CUSTOMER -> customerId[i];
+                case VEHICLE_TYPE -> vehicleType[i];
+                case DELIVERY_STATUS -> deliveryStatus[i];
+                case WEEK -> Math.floorDiv(epochDay[i] + 3, 7); // Epoch day 0 is a Thursday
+                case MONTH -> {
+                    LocalDate date = LocalDate.ofEpochDay(epochDay[i]);
+                    yield date.getYear() * 12L + date.getMonthValue() - 1;
+                }
+            };
+        }
+    }
+
+    /**
+     * Append-only string dictionary, codes are written by the single appending thread
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+        private volatile String[] values = new String[16];
+
+        int encode(String value) {
+            if (value == null) {
+                return NO_CODE;
+            }
+            Integer code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            int next = codes.size();
+            String[] current = values;
+            if (next == current.length) {
+                current = Arrays.copyOf(current, next * 2);
+            }
+            current[next] = value;
+            values = current;
+            codes.put(value, next);
+            return next;
+        }
+
+        String decode(int code) {
+            return code >= 0 ? values[code] : null;
+        }
+
+        /**
+         * Codes of the given values, null when no restriction applies
+         * Unknown values simply match nothing.
+         */
+        BitSet codesOf(Collection<String> wanted) {
+            if (wanted == null || wanted.isEmpty()) {
+                return null;
+            }
+            BitSet bits = new BitSet();
+            for (String value : wanted) {
+                Integer code = codes.get(value);
+                if (code != null) {
+                    bits.set(code);
+                }
+            }
+            return bits;
+        }
+    }
+}
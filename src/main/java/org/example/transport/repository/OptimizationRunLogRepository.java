@@ -0,0 +1,53 @@
+package org.example.transport.repository;
+
+import org.example.transport.dto.ConstructionStatisticsDTO;
+import org.example.transport.entity.OptimizationRunLog;
+import org.example.transport.enums.OptimizationStrategy;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for OptimizationRunLog entity
+ */
+@Repository
+public interface OptimizationRunLogRepository extends JpaRepository<OptimizationRunLog, Long> {
+
+    List<OptimizationRunLog> findByTourIdOrderById(Long tourId);
+
+    /**
+     * Runtime and gap per construction algorithm of recent runs with a strategy and a stop count in range
+     * Runtimes are divided by the work units of AutoStrategySelector.workUnits.
+     * Served by idx_run_log_strategy_stops_created.
+     */
+    @Query("SELECT new org.example.transport.dto.ConstructionStatisticsDTO(r.construction, COUNT(r), " +
+           "AVG(r.runtimeMs / CASE WHEN r.construction = " +
+           "org.example.transport.enums.OptimizationAlgorithm.CLARKE_WRIGHT " +
+           "THEN 1.0 * r.stops * r.stops * (r.stops + LN(r.stops)) " +
+           "ELSE 1.0 * r.stops * r.stops END), AVG(r.gapPercent)) " +
+           "FROM OptimizationRunLog r " +
+           "WHERE r.strategy = :strategy AND r.stops BETWEEN :minStops AND :maxStops " +
+           "AND r.createdAt >= :since AND r.construction IS NOT NULL " +
+           "GROUP BY r.construction")
+    List<ConstructionStatisticsDTO> summarizeByConstruction(
+            @Param("strategy") OptimizationStrategy strategy,
+            @Param("minStops") int minStops,
+            @Param("maxStops") int maxStops,
+            @Param("since") LocalDateTime since
+    );
+
+    /**
+     * Delete the runs logged before a cutoff
+     * Served by idx_run_log_created_at.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OptimizationRunLog r WHERE r.createdAt < :cutoff")
+    int deleteByCreatedAtBefore(@Param("cutoff") LocalDateTime cutoff);
+}
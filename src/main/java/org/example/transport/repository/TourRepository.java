@@ -1,21 +1,98 @@
 package org.example.transport.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.example.transport.dto.TourDTO;
 import org.example.transport.entity.Tour;
 import org.example.transport.enums.OptimizationAlgorithm;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for Tour entity
  */
 public interface TourRepository extends JpaRepository<Tour, Long> {
 
+    /**
+     * All tours with their deliveries in one query (TourDTO lists delivery ids)
+     */
+    @Override
+    @EntityGraph(attributePaths = {"deliveries"})
+    List<Tour> findAll();
+
+    @EntityGraph(attributePaths = {"deliveries"})
     List<Tour> findByTourDate(LocalDate tourDate);
 
+    /**
+     * Tours of one day selected straight into DTOs, delivery ids are filled in by the caller
+     */
+    @Query("SELECT new org.example.transport.dto.TourDTO(t.id, t.tourDate, t.vehicle.id, t.warehouse.id, " +
+           "t.algorithm, t.totalDistanceKm, t.totalWeightKg, t.totalVolumeM3, t.optimized, t.status, " +
+           "t.startTime, t.completionTime) FROM Tour t WHERE t.tourDate = :date ORDER BY t.id")
+    List<TourDTO> findAsDTOByTourDate(@Param("date") LocalDate date);
+
+    /**
+     * Select list of the keyset page queries, delivery ids are filled in by the caller
+     */
+    String PAGE_SELECT = "SELECT new org.example.transport.dto.TourDTO(t.id, t.tourDate, t.vehicle.id, " +
+            "t.warehouse.id, t.algorithm, t.totalDistanceKm, t.totalWeightKg, t.totalVolumeM3, t.optimized, " +
+            "t.status, t.startTime, t.completionTime) FROM Tour t ";
+
+    /**
+     * First keyset page of tours selected into DTOs, newest first, served by idx_tour_date_id
+     */
+    @Query(PAGE_SELECT + "ORDER BY t.tourDate DESC, t.id DESC")
+    List<TourDTO> findFirstPageAsDTO(Pageable pageable);
+
+    /**
+     * Keyset page of tours before a (date, id) key, newest first
+     * The leading tourDate bound is a range seek on idx_tour_date_id, the second
+     * condition only drops the rows of the cursor's day up to its id.
+     * @param beforeDate Tour date of the last row of the previous page
+     * @param beforeId Id of the last row of the previous page
+     */
+    @Query(PAGE_SELECT + "WHERE t.tourDate <= :beforeDate AND (t.tourDate < :beforeDate OR t.id < :beforeId) " +
+           "ORDER BY t.tourDate DESC, t.id DESC")
+    List<TourDTO> findPageAsDTOBefore(@Param("beforeDate") LocalDate beforeDate,
+                                      @Param("beforeId") Long beforeId,
+                                      Pageable pageable);
+
+    /**
+     * All tours as DTOs in id order, read through a JDBC cursor
+     * The stream must be consumed inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new org.example.transport.dto.TourDTO(t.id, t.tourDate, t.vehicle.id, t.warehouse.id, " +
+           "t.algorithm, t.totalDistanceKm, t.totalWeightKg, t.totalVolumeM3, t.optimized, t.status, " +
+           "t.startTime, t.completionTime) FROM Tour t ORDER BY t.id")
+    Stream<TourDTO> streamAllAsDTO();
+
+    /**
+     * Load a tour with everything needed to optimize or complete it
+     * Vehicle, warehouse and customers are left to the second-level cache, misses load in batches.
+     */
+    @EntityGraph(attributePaths = {"deliveries"})
+    Optional<Tour> findWithDeliveriesById(Long id);
+
+    /**
+     * Load a tour and bump its version on commit even if only its deliveries change
+     */
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("SELECT t FROM Tour t WHERE t.id = :id")
+    Optional<Tour> findWithVersionIncrementById(@Param("id") Long id);
+
     List<Tour> findByVehicleId(Long vehicleId);
 
     List<Tour> findByWarehouseId(Long warehouseId);
@@ -32,4 +109,11 @@ public interface TourRepository extends JpaRepository<Tour, Long> {
 
     @Query("SELECT AVG(t.totalDistanceKm) FROM Tour t WHERE t.algorithm = :algorithm AND t.optimized = true")
     Double getAverageDistanceByAlgorithm(@Param("algorithm") OptimizationAlgorithm algorithm);
+
+    /**
+     * Warehouse of each tour
+     * @return Rows of [tourId, warehouseId]
+     */
+    @Query("SELECT t.id, t.warehouse.id FROM Tour t WHERE t.id IN :ids")
+    List<Object[]> findWarehouseIdsByTourIds(@Param("ids") Collection<Long> ids);
 }
@@ -1,9 +1,14 @@
 package org.example.transport.repository;
 
+import jakarta.persistence.QueryHint;
+import org.example.transport.dto.VehicleDTO;
 import org.example.transport.entity.Vehicle;
 import org.example.transport.enums.VehicleType;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
@@ -14,10 +19,33 @@ import java.util.Optional;
  */
 public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
 
+    /**
+     * First keyset page of vehicles ordered by id
+     */
+    @Query("SELECT new org.example.transport.dto.VehicleDTO(v.id, v.registrationNumber, v.type, " +
+           "v.maxWeightKg, v.maxVolumeM3, v.available) FROM Vehicle v ORDER BY v.id")
+    List<VehicleDTO> findFirstPageAsDTO(Pageable pageable);
+
+    /**
+     * Keyset page of vehicles after an id, a range seek on the primary key
+     * @param afterId Last id of the previous page
+     */
+    @Query("SELECT new org.example.transport.dto.VehicleDTO(v.id, v.registrationNumber, v.type, " +
+           "v.maxWeightKg, v.maxVolumeM3, v.available) FROM Vehicle v " +
+           "WHERE v.id > :afterId ORDER BY v.id")
+    List<VehicleDTO> findPageAsDTOAfter(@Param("afterId") Long afterId, Pageable pageable);
+
     Optional<Vehicle> findByRegistrationNumber(String registrationNumber);
 
     List<Vehicle> findByType(VehicleType type);
 
+    /**
+     * Cached in the vehicle-queries region, invalidated by any write to vehicles
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "vehicle-queries")
+    })
     List<Vehicle> findByAvailable(Boolean available);
 
     List<Vehicle> findByTypeAndAvailable(VehicleType type, Boolean available);
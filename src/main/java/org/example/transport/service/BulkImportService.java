@@ -0,0 +1,219 @@
+package org.example.transport.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.example.transport.dto.BulkImportResultDTO;
+import org.example.transport.dto.CustomerDTO;
+import org.example.transport.dto.DeliveryDTO;
+import org.example.transport.entity.Customer;
+import org.example.transport.entity.Delivery;
+import org.example.transport.mapper.CustomerMapper;
+import org.example.transport.mapper.DeliveryMapper;
+import org.example.transport.repository.CustomerRepository;
+import org.example.transport.util.BulkRowReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service for bulk ingestion of deliveries and customers
+ * Input is read as a stream and processed in chunks: rows are validated in parallel,
+ * customer references are checked with one query per chunk, and each chunk is
+ * persisted in its own transaction so Hibernate sends it as JDBC batches.
+ * Invalid rows are reported and skipped, they never fail the whole import.
+ */
+@Service
+public class BulkImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkImportService.class);
+
+    private final CustomerRepository customerRepository;
+    private final CustomerSearchService customerSearchService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+
+    public BulkImportService(CustomerRepository customerRepository,
+                             CustomerSearchService customerSearchService,
+                             EntityManager entityManager,
+                             TransactionTemplate transactionTemplate,
+                             Validator validator,
+                             ObjectMapper objectMapper,
+                             @Value("${bulk.import.chunk-size:2000}") int chunkSize,
+                             @Value("${bulk.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.customerRepository = customerRepository;
+        this.customerSearchService = customerSearchService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /**
+     * Import deliveries, each row must reference an existing customer
+     * @param csv true for CSV with a header row, false for newline-delimited JSON
+     */
+    public BulkImportResultDTO importDeliveries(InputStream in, boolean csv) throws IOException {
+        logger.info("Bulk importing deliveries ({})", csv ? "CSV" : "NDJSON");
+        return importRows(in, csv, DeliveryDTO.class, this::saveDeliveries);
+    }
+
+    /**
+     * Import customers, new customers are active unless the row says otherwise
+     * @param csv true for CSV with a header row, false for newline-delimited JSON
+     */
+    public BulkImportResultDTO importCustomers(InputStream in, boolean csv) throws IOException {
+        logger.info("Bulk importing customers ({})", csv ? "CSV" : "NDJSON");
+        return importRows(in, csv, CustomerDTO.class, this::saveCustomers);
+    }
+
+    private <T> BulkImportResultDTO importRows(InputStream in, boolean csv, Class<T> type,
+                                               Function<List<T>, List<String>> saver) throws IOException {
+        long start = System.currentTimeMillis();
+        BulkImportResultDTO result = new BulkImportResultDTO();
+        try (BulkRowReader<T> reader = new BulkRowReader<>(in, csv, objectMapper, type)) {
+            List<BulkRowReader.Row<T>> chunk = new ArrayList<>(chunkSize);
+            for (BulkRowReader.Row<T> row = reader.next(); row != null; row = reader.next()) {
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    processChunk(chunk, saver, result);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                processChunk(chunk, saver, result);
+            }
+        }
+        result.setDurationMs(System.currentTimeMillis() - start);
+        logger.info("Bulk import done: {} received, {} imported, {} failed in {} ms",
+                result.getReceived(), result.getImported(), result.getFailed(), result.getDurationMs());
+        return result;
+    }
+
+    private <T> void processChunk(List<BulkRowReader.Row<T>> chunk, Function<List<T>, List<String>> saver,
+                                  BulkImportResultDTO result) {
+        result.setReceived(result.getReceived() + chunk.size());
+
+        // Bean validation is CPU bound and thread safe
+        List<String> errors = chunk.parallelStream()
+                .map(this::validate)
+                .toList();
+        List<BulkRowReader.Row<T>> valid = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            if (errors.get(i) != null) {
+                reject(result, chunk.get(i).line(), errors.get(i));
+            } else {
+                valid.add(chunk.get(i));
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        List<T> values = valid.stream().map(BulkRowReader.Row::value).toList();
+        try {
+            List<String> saveErrors = transactionTemplate.execute(status -> saver.apply(values));
+            for (int i = 0; i < valid.size(); i++) {
+                if (saveErrors.get(i) != null) {
+                    reject(result, valid.get(i).line(), saveErrors.get(i));
+                } else {
+                    result.setImported(result.getImported() + 1);
+                }
+            }
+        } catch (RuntimeException e) {
+            String message = "Chunk rolled back: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            logger.warn("Bulk import chunk of {} rows failed: {}", valid.size(), message);
+            valid.forEach(row -> reject(result, row.line(), message));
+        }
+    }
+
+    private String validate(BulkRowReader.Row<?> row) {
+        if (row.error() != null) {
+            return row.error();
+        }
+        Set<? extends ConstraintViolation<?>> violations = validator.validate(row.value());
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private void reject(BulkImportResultDTO result, long line, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new BulkImportResultDTO.RowError(line, message));
+        }
+    }
+
+    /**
+     * Persist one chunk of deliveries, runs inside the chunk transaction
+     * @return Per-row error, null for rows that were saved
+     */
+    private List<String> saveDeliveries(List<DeliveryDTO> rows) {
+        Set<Long> customerIds = rows.stream().map(DeliveryDTO::getCustomerId).collect(Collectors.toSet());
+        // Loaded rather than referenced: the delivery geo cell needs the customer location
+        Map<Long, Customer> customers = customerRepository.findAllById(customerIds).stream()
+                .collect(Collectors.toMap(Customer::getId, Function.identity()));
+
+        List<String> errors = new ArrayList<>(rows.size());
+        for (DeliveryDTO dto : rows) {
+            Customer customer = customers.get(dto.getCustomerId());
+            if (customer == null) {
+                errors.add("Customer not found with id: " + dto.getCustomerId());
+                continue;
+            }
+            Delivery delivery = DeliveryMapper.toEntity(dto);
+            delivery.setId(null);
+            delivery.setCustomer(customer);
+            entityManager.persist(delivery);
+            errors.add(null);
+        }
+        flushAndClear();
+        return errors;
+    }
+
+    /**
+     * Persist one chunk of customers, runs inside the chunk transaction
+     */
+    private List<String> saveCustomers(List<CustomerDTO> rows) {
+        List<String> errors = new ArrayList<>(rows.size());
+        List<Customer> saved = new ArrayList<>(rows.size());
+        for (CustomerDTO dto : rows) {
+            Customer customer = CustomerMapper.toEntity(dto);
+            customer.setId(null);
+            entityManager.persist(customer);
+            saved.add(customer);
+            errors.add(null);
+        }
+        flushAndClear();
+        customerSearchService.index(saved);
+        return errors;
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.transport.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.example.transport.dto.CacheStatisticsDTO;
+import org.example.transport.exception.ResourceNotFoundException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Service reporting and clearing the Hibernate second-level cache
+ * Entity regions are kept current by Hibernate on every write through JPA, and cached
+ * queries are invalidated whenever their tables are written. Eviction here is only
+ * needed after data was changed outside the application.
+ */
+@Service
+public class CacheStatisticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheStatisticsService.class);
+
+    private final SessionFactory sessionFactory;
+
+    public CacheStatisticsService(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    /**
+     * Statistics of every region, empty when Hibernate statistics are disabled
+     */
+    public List<CacheStatisticsDTO> getStatistics() {
+        Statistics statistics = sessionFactory.getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            return List.of();
+        }
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(statistics::getCacheRegionStatistics)
+                .filter(Objects::nonNull)
+                .map(CacheStatisticsService::toDTO)
+                .toList();
+    }
+
+    /**
+     * Drop every entry of one region
+     * @param region Region name as listed by the statistics
+     */
+    public void evictRegion(String region) {
+        if (!Arrays.asList(sessionFactory.getStatistics().getSecondLevelCacheRegionNames()).contains(region)) {
+            throw new ResourceNotFoundException("Cache region not found: " + region);
+        }
+        logger.info("Evicting cache region {}", region);
+        sessionFactory.getCache().evictRegion(region);
+    }
+
+    private static CacheStatisticsDTO toDTO(CacheRegionStatistics region) {
+        long lookups = region.getHitCount() + region.getMissCount();
+        return new CacheStatisticsDTO(region.getRegionName(), region.getHitCount(), region.getMissCount(),
+                region.getPutCount(), lookups > 0 ? (double) region.getHitCount() / lookups : null);
+    }
+}
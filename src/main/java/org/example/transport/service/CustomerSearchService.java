@@ -0,0 +1,123 @@
+package org.example.transport.service;
+
+import jakarta.annotation.PostConstruct;
+import org.example.transport.dto.CustomerDTO;
+import org.example.transport.entity.Customer;
+import org.example.transport.mapper.CustomerMapper;
+import org.example.transport.repository.CustomerRepository;
+import org.example.transport.repository.CustomerSearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service answering customer typeahead searches from the in-memory trigram index
+ * The index is filled at startup and updated whenever customer writes commit.
+ */
+@Service
+public class CustomerSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerSearchService.class);
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private static final String LOAD_SQL = "SELECT id, name, address, email, active FROM customers";
+    private static final int LOAD_FETCH_SIZE = 5000;
+
+    private final CustomerSearchIndex searchIndex;
+    private final CustomerRepository customerRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public CustomerSearchService(CustomerSearchIndex searchIndex,
+                                 CustomerRepository customerRepository,
+                                 JdbcTemplate jdbcTemplate) {
+        this.searchIndex = searchIndex;
+        this.customerRepository = customerRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Index all customers before the application starts serving requests
+     */
+    @PostConstruct
+    public void load() {
+        long start = System.currentTimeMillis();
+        searchIndex.clear();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(LOAD_SQL);
+            ps.setFetchSize(LOAD_FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            searchIndex.put(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getBoolean(5));
+        });
+        logger.info("Indexed {} customers for search in {} ms",
+                searchIndex.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Index all customers again, needed after customers were written outside the application
+     * Searches running meanwhile see a partial index.
+     * @return Customers in the index
+     */
+    public int reload() {
+        load();
+        return searchIndex.size();
+    }
+
+    /**
+     * Ranked customers for a free text query, prefix and typo tolerant
+     * @param limit Maximum number of results, defaults to 20
+     * @param activeOnly Skip deactivated customers
+     */
+    public List<CustomerDTO> search(String query, Integer limit, boolean activeOnly) {
+        int max = limit == null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+        List<CustomerSearchIndex.Hit> hits = searchIndex.search(query, max, activeOnly);
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> rank = new HashMap<>();
+        for (int i = 0; i < hits.size(); i++) {
+            rank.put(hits.get(i).id(), i);
+        }
+        return customerRepository.findAllAsDTOByIdIn(rank.keySet()).stream()
+                .sorted(Comparator.comparing(c -> rank.get(c.getId())))
+                .toList();
+    }
+
+    /**
+     * Re-index saved customers, inside a transaction only once it commits
+     */
+    public void index(Collection<Customer> customers) {
+        if (customers.isEmpty()) {
+            return;
+        }
+        List<CustomerDTO> rows = customers.stream().map(CustomerMapper::toDTO).toList();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(rows);
+                }
+            });
+        } else {
+            put(rows);
+        }
+    }
+
+    private void put(List<CustomerDTO> rows) {
+        for (CustomerDTO c : rows) {
+            searchIndex.put(c.getId(), c.getName(), c.getAddress(), c.getEmail(), !Boolean.FALSE.equals(c.getActive()));
+        }
+    }
+}
@@ -1,20 +1,26 @@
 package org.example.transport.service;
 
+import org.example.transport.dto.CursorPageDTO;
 import org.example.transport.dto.CustomerDTO;
 import org.example.transport.entity.Customer;
 import org.example.transport.exception.ResourceNotFoundException;
 import org.example.transport.mapper.CustomerMapper;
 import org.example.transport.repository.CustomerRepository;
+import org.example.transport.repository.DeliveryRepository;
+import org.example.transport.util.DistanceCalculator;
+import org.example.transport.util.GeoCell;
+import org.example.transport.util.PageCursor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Objects;
 
 /**
  * Service for Customer management
@@ -26,16 +32,37 @@ public class CustomerService {
 
     private static final Logger logger = LoggerFactory.getLogger(CustomerService.class);
 
+    public static final int DEFAULT_NEARBY_LIMIT = 100;
+    public static final int MAX_NEARBY_LIMIT = 1000;
+    public static final int MAX_NEAREST = 100;
+
+    // Half the circumference of the earth, a circle this large covers everything
+    private static final double MAX_RADIUS_KM = 20040.0;
+    private static final double NEAREST_START_RADIUS_KM = 1.0;
+    private static final double NEAREST_MIN_RADIUS_KM = 0.01;
+    // A box may hold this many times the wanted customers before it is shrunk
+    private static final int NEAREST_SLACK = 4;
+
     @Autowired
     private CustomerRepository customerRepository;
 
-    public List<CustomerDTO> getAllCustomers() {
-        logger.info("Fetching all customers");
-        return customerRepository.findAll().stream()
-                .map(CustomerMapper::toDTO)
-                .collect(Collectors.toList());
+    @Autowired
+    private CustomerSearchService customerSearchService;
+
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
+    /**
+     * One keyset page of customers ordered by id
+     * @param cursor Continuation token from the previous page, null for the first page
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<CustomerDTO> getAllCustomers(String cursor, Integer size) {
+        logger.info("Fetching customers page");
+        return findPage(false, cursor, size);
     }
 
+    @Transactional(readOnly = true)
     public Page<CustomerDTO> getAllCustomersPaginated(Pageable pageable) {
         logger.info("Fetching customers with pagination: page={}, size={}", 
                    pageable.getPageNumber(), pageable.getPageSize());
@@ -43,6 +70,7 @@ public class CustomerService {
                 .map(CustomerMapper::toDTO);
     }
 
+    @Transactional(readOnly = true)
     public CustomerDTO getCustomerById(Long id) {
         logger.info("Fetching customer with id: {}", id);
         Customer customer = customerRepository.findById(id)
@@ -55,6 +83,7 @@ public class CustomerService {
         Customer customer = CustomerMapper.toEntity(customerDTO);
         customer.setActive(true);
         Customer savedCustomer = customerRepository.save(customer);
+        customerSearchService.index(List.of(savedCustomer));
         logger.info("Customer created successfully with id: {}", savedCustomer.getId());
         return CustomerMapper.toDTO(savedCustomer);
     }
@@ -64,8 +93,15 @@ public class CustomerService {
         Customer customer = customerRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + id));
         
+        Long previousCell = customer.getGeoCell();
         CustomerMapper.updateEntityFromDTO(customerDTO, customer);
         Customer updatedCustomer = customerRepository.save(customer);
+        Long cell = GeoCell.of(updatedCustomer.getLatitude(), updatedCustomer.getLongitude());
+        if (!Objects.equals(previousCell, cell)) {
+            // Deliveries without a specific location move with their customer
+            deliveryRepository.updateGeoCellByCustomerId(id, cell);
+        }
+        customerSearchService.index(List.of(updatedCustomer));
         logger.info("Customer updated successfully");
         return CustomerMapper.toDTO(updatedCustomer);
     }
@@ -76,19 +112,125 @@ public class CustomerService {
                 .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + id));
         customer.setActive(false);
         customerRepository.save(customer);
+        customerSearchService.index(List.of(customer));
         logger.info("Customer deactivated successfully");
     }
 
-    public List<CustomerDTO> getActiveCustomers() {
+    @Transactional(readOnly = true)
+    public CursorPageDTO<CustomerDTO> getActiveCustomers(String cursor, Integer size) {
         logger.info("Fetching active customers");
-        return customerRepository.findByActiveTrue().stream()
-                .map(CustomerMapper::toDTO)
-                .collect(Collectors.toList());
+        return findPage(true, cursor, size);
     }
 
-    public Page<CustomerDTO> searchCustomers(String searchTerm, Pageable pageable) {
-        logger.info("Searching customers with term: {}", searchTerm);
-        return customerRepository.searchCustomers(searchTerm, pageable)
-                .map(CustomerMapper::toDTO);
+    /**
+     * Ranked typeahead search over name, address and email
+     * Answered from the in-memory search index, only the hits are loaded from the database.
+     */
+    @Transactional(readOnly = true)
+    public List<CustomerDTO> searchCustomers(String searchTerm, Integer limit, boolean activeOnly) {
+        logger.debug("Searching customers with term: {}", searchTerm);
+        return customerSearchService.search(searchTerm, limit, activeOnly);
+    }
+
+    /**
+     * Customers within a bounding box
+     * @param limit Maximum number of results, default 100, at most 1000
+     */
+    @Transactional(readOnly = true)
+    public List<CustomerDTO> getCustomersInArea(double minLat, double maxLat, double minLon, double maxLon,
+                                                Integer limit) {
+        logger.debug("Fetching customers in area [{}, {}] x [{}, {}]", minLat, maxLat, minLon, maxLon);
+        return customerRepository.findByLocationArea(minLat, maxLat, minLon, maxLon, nearbyLimit(limit));
+    }
+
+    /**
+     * Customers within a radius of a point, closest first
+     * @param limit Maximum number of results, default 100, at most 1000
+     */
+    @Transactional(readOnly = true)
+    public List<CustomerDTO> getCustomersNearby(double latitude, double longitude, double radiusKm, Integer limit) {
+        logger.debug("Fetching customers within {} km of ({}, {})", radiusKm, latitude, longitude);
+        return closest(latitude, longitude, Math.min(radiusKm, MAX_RADIUS_KM), nearbyLimit(limit));
+    }
+
+    /**
+     * The k customers closest to a point, closest first
+     */
+    @Transactional(readOnly = true)
+    public List<CustomerDTO> getNearestCustomers(double latitude, double longitude, int k) {
+        logger.debug("Fetching {} customers nearest to ({}, {})", k, latitude, longitude);
+        return closest(latitude, longitude, MAX_RADIUS_KM, Math.max(1, Math.min(k, MAX_NEAREST)));
+    }
+
+    private static int nearbyLimit(Integer limit) {
+        return limit == null || limit <= 0 ? DEFAULT_NEARBY_LIMIT : Math.min(limit, MAX_NEARBY_LIMIT);
+    }
+
+    /**
+     * The count customers closest to a point within maxRadiusKm
+     * The box around the point is sized by counting the customers in it, only the final box is loaded.
+     * Once a box holds count customers they are no farther than its corners, so the result is exact.
+     */
+    private List<CustomerDTO> closest(double latitude, double longitude, double maxRadiusKm, int count) {
+        double radius = Math.min(NEAREST_START_RADIUS_KM, maxRadiusKm);
+        long inBox = countWithin(latitude, longitude, radius);
+        // Grow by the density seen so far, at least doubling so sparse areas converge quickly
+        while (inBox < count && radius < maxRadiusKm) {
+            double growth = inBox == 0 ? 4.0 : Math.sqrt((double) count / inBox) * 1.25;
+            radius = Math.min(maxRadiusKm, radius * Math.max(2.0, Math.min(4.0, growth)));
+            inBox = countWithin(latitude, longitude, radius);
+        }
+        if (inBox < count) {
+            return withinRadius(latitude, longitude, radius, count);
+        }
+        // Shrink while the box holds far more than needed, so the load stays near count rows in dense areas
+        while (inBox > NEAREST_SLACK * count && radius > NEAREST_MIN_RADIUS_KM) {
+            double smaller = Math.max(NEAREST_MIN_RADIUS_KM, radius * Math.sqrt((double) count / inBox) * 1.25);
+            long inSmaller = countWithin(latitude, longitude, smaller);
+            if (inSmaller < count) {
+                break;
+            }
+            radius = smaller;
+            inBox = inSmaller;
+        }
+        return withinRadius(latitude, longitude, Math.min(maxRadiusKm, cornerDistance(latitude, longitude, radius)),
+                count);
+    }
+
+    private long countWithin(double latitude, double longitude, double radiusKm) {
+        double[] box = GeoCell.boundingBox(latitude, longitude, radiusKm);
+        return customerRepository.countByLocationArea(box[0], box[1], box[2], box[3]);
+    }
+
+    private static double cornerDistance(double latitude, double longitude, double radiusKm) {
+        double[] box = GeoCell.boundingBox(latitude, longitude, radiusKm);
+        double distance = 0.0;
+        for (double lat : new double[]{box[0], box[1]}) {
+            for (double lon : new double[]{box[2], box[3]}) {
+                distance = Math.max(distance, DistanceCalculator.calculateDistance(latitude, longitude, lat, lon));
+            }
+        }
+        return distance;
+    }
+
+    private List<CustomerDTO> withinRadius(double latitude, double longitude, double radiusKm, int limit) {
+        double[] box = GeoCell.boundingBox(latitude, longitude, radiusKm);
+        return DistanceCalculator.closestWithin(customerRepository.findByLocationArea(box[0], box[1], box[2], box[3]),
+                CustomerDTO::getLatitude, CustomerDTO::getLongitude, latitude, longitude, radiusKm, limit);
+    }
+
+    private CursorPageDTO<CustomerDTO> findPage(boolean activeOnly, String cursor, Integer size) {
+        int pageSize = PageCursor.pageSize(size);
+        Long afterId = PageCursor.decodeId(cursor);
+        PageRequest limit = PageRequest.ofSize(pageSize + 1);
+        List<CustomerDTO> rows;
+        if (activeOnly) {
+            rows = afterId == null ? customerRepository.findFirstActivePageAsDTO(limit)
+                    : customerRepository.findActivePageAsDTOAfter(afterId, limit);
+        } else {
+            rows = afterId == null ? customerRepository.findFirstPageAsDTO(limit)
+                    : customerRepository.findPageAsDTOAfter(afterId, limit);
+        }
+        return PageCursor.page(rows, pageSize, c -> PageCursor.encode(c.getId()));
     }
 }
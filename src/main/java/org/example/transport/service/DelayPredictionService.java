@@ -0,0 +1,135 @@
+package org.example.transport.service;
+
+import org.example.transport.enums.VehicleType;
+import org.example.transport.optimizer.DelayModel;
+import org.example.transport.optimizer.DelayModelTrainer;
+import org.example.transport.repository.DeliveryHistoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Service owning the in-process delay model
+ * The model is retrained from DeliveryHistory in the background and swapped in
+ * with a single volatile write, so optimizers never observe a partially built model.
+ */
+@Service
+public class DelayPredictionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DelayPredictionService.class);
+
+    private static final int PAGE_SIZE = 5000;
+
+    private final DeliveryHistoryRepository deliveryHistoryRepository;
+    private final int maxSamples;
+    private final int minSamples;
+    private final double lambda;
+
+    private volatile DelayModel model = DelayModel.EMPTY;
+
+    public DelayPredictionService(DeliveryHistoryRepository deliveryHistoryRepository,
+                                  @Value("${tour.delay-model.max-samples:200000}") int maxSamples,
+                                  @Value("${tour.delay-model.min-samples:50}") int minSamples,
+                                  @Value("${tour.delay-model.lambda:0.1}") double lambda) {
+        this.deliveryHistoryRepository = deliveryHistoryRepository;
+        this.maxSamples = maxSamples;
+        this.minSamples = minSamples;
+        this.lambda = lambda;
+    }
+
+    /**
+     * Current model, never null
+     */
+    public DelayModel getModel() {
+        return model;
+    }
+
+    @Scheduled(initialDelayString = "${tour.delay-model.initial-delay-ms:60000}",
+               fixedDelayString = "${tour.delay-model.retrain-interval-ms:3600000}")
+    public void scheduledRetrain() {
+        try {
+            retrain();
+        } catch (RuntimeException e) {
+            logger.error("Delay model training failed, keeping previous model: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Train a new model from the most recent history rows and publish it
+     * @return The model now in use
+     */
+    public DelayModel retrain() {
+        long start = System.nanoTime();
+        DelayModelTrainer trainer = new DelayModelTrainer(lambda);
+
+        // Keyset pages newest first, each one a seek past the last (date, id) read
+        PageRequest limit = PageRequest.ofSize(PAGE_SIZE);
+        LocalDate beforeDate = null;
+        Long beforeId = null;
+        while (trainer.getSampleCount() < maxSamples) {
+            List<Object[]> rows = beforeId == null
+                    ? deliveryHistoryRepository.findFirstDelayTrainingRows(limit)
+                    : deliveryHistoryRepository.findDelayTrainingRowsBefore(beforeDate, beforeId, limit);
+            for (Object[] row : rows) {
+                addRow(trainer, row);
+            }
+            if (rows.size() < PAGE_SIZE) {
+                break;
+            }
+            Object[] last = rows.get(rows.size() - 1);
+            beforeDate = (LocalDate) last[7];
+            beforeId = (Long) last[8];
+        }
+
+        if (trainer.getSampleCount() < minSamples) {
+            logger.info("Delay model not trained: {} samples available, {} required",
+                       trainer.getSampleCount(), minSamples);
+            return model;
+        }
+
+        DelayModel trained = trainer.train();
+        model = trained;
+        logger.info("Delay model trained on {} samples in {} ms",
+                   trained.getTrainingSamples(), (System.nanoTime() - start) / 1_000_000);
+        return trained;
+    }
+
+    private void addRow(DelayModelTrainer trainer, Object[] row) {
+        DayOfWeek dayOfWeek = (DayOfWeek) row[0];
+        Double distance = (Double) row[2];
+        Integer sequence = (Integer) row[3];
+        Double weight = (Double) row[5];
+        Integer delay = (Integer) row[6];
+        trainer.addSample(
+                dayOfWeek.getValue(),
+                DelayModel.parseSlotStartMinute((String) row[1]),
+                distance != null ? distance : 0.0,
+                sequence != null ? sequence : 0,
+                vehicleTypeOrdinal((String) row[4]),
+                weight != null ? weight : 0.0,
+                delay
+        );
+    }
+
+    /**
+     * Ordinal of a vehicle type stored as text, or -1 if unknown
+     */
+    public static int vehicleTypeOrdinal(String vehicleType) {
+        if (vehicleType == null) {
+            return -1;
+        }
+        for (VehicleType type : VehicleType.values()) {
+            if (type.name().equals(vehicleType)) {
+                return type.ordinal();
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,376 @@
+package org.example.transport.service;
+
+import io.micrometer.core.annotation.Timed;
+import org.example.transport.dto.DelayStatisticsDTO;
+import org.example.transport.entity.DeliveryDelayRollup;
+import org.example.transport.entity.DeliveryHistory;
+import org.example.transport.repository.ArchivedHistoryMonth;
+import org.example.transport.repository.DeliveryDelayRollupRepository;
+import org.example.transport.repository.DeliveryHistoryArchiveRepository;
+import org.example.transport.repository.TourRepository;
+import org.example.transport.util.DelayHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Service maintaining the delivery_delay_rollup table
+ * Rollups are keyed by week, day of week, time slot and warehouse. They are updated
+ * incrementally as the history writer inserts rows, with in-place increments so
+ * several instances can add to the same rows, and can be rebuilt from the hot table
+ * and the archive for a date range (backfill or repair). A rebuild replaces the rows
+ * of its weeks in one transaction; history written while it scans may be missed or
+ * counted twice, so it should run while no tours are being completed.
+ */
+@Service
+public class DelayRollupService implements DeliveryHistoryListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(DelayRollupService.class);
+
+    private static final String HOT_ROWS_SQL =
+            "SELECT h.delivery_date, h.preferred_time_slot, t.warehouse_id, h.delay_minutes " +
+            "FROM delivery_history h LEFT JOIN tours t ON t.id = h.tour_id " +
+            "WHERE h.delay_minutes IS NOT NULL AND h.delivery_date BETWEEN ? AND ?";
+
+    private static final String KEY_CONDITION =
+            "week_start = ? AND day_of_week = ? AND time_slot = ? AND warehouse_id = ?";
+
+    private static final String INSERT_IF_ABSENT_SQL =
+            "MERGE INTO delivery_delay_rollup r USING (SELECT CAST(? AS DATE) AS week_start, " +
+            "CAST(? AS VARCHAR(20)) AS day_of_week, CAST(? AS VARCHAR(50)) AS time_slot, " +
+            "CAST(? AS BIGINT) AS warehouse_id) k " +
+            "ON r.week_start = k.week_start AND r.day_of_week = k.day_of_week " +
+            "AND r.time_slot = k.time_slot AND r.warehouse_id = k.warehouse_id " +
+            "WHEN NOT MATCHED THEN INSERT (week_start, day_of_week, time_slot, warehouse_id, " +
+            "delivery_count, delay_sum, delay_sum_squares, histogram) " +
+            "VALUES (k.week_start, k.day_of_week, k.time_slot, k.warehouse_id, 0, 0, 0, ?)";
+
+    private static final String ADD_TOTALS_SQL =
+            "UPDATE delivery_delay_rollup SET delivery_count = delivery_count + ?, delay_sum = delay_sum + ?, " +
+            "delay_sum_squares = delay_sum_squares + ? WHERE " + KEY_CONDITION;
+
+    private static final String SELECT_HISTOGRAM_SQL =
+            "SELECT histogram FROM delivery_delay_rollup WHERE " + KEY_CONDITION;
+
+    private static final String SET_HISTOGRAM_SQL =
+            "UPDATE delivery_delay_rollup SET histogram = ? WHERE " + KEY_CONDITION;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO delivery_delay_rollup (delivery_count, delay_sum, delay_sum_squares, histogram, " +
+            "week_start, day_of_week, time_slot, warehouse_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int MERGE_ATTEMPTS = 3;
+
+    // Rows are locked in this order by every merge, so concurrent merges cannot deadlock
+    private static final Comparator<RollupKey> KEY_ORDER = Comparator.comparing(RollupKey::weekStart)
+            .thenComparing(RollupKey::dayOfWeek)
+            .thenComparing(RollupKey::timeSlot)
+            .thenComparing(RollupKey::warehouseId);
+
+    private final DeliveryDelayRollupRepository rollupRepository;
+    private final TourRepository tourRepository;
+    private final DeliveryHistoryArchiveRepository archiveRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock lock = new ReentrantLock(); // Serializes incremental updates and rebuilds
+
+    public DelayRollupService(DeliveryDelayRollupRepository rollupRepository,
+                              TourRepository tourRepository,
+                              DeliveryHistoryArchiveRepository archiveRepository,
+                              JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate) {
+        this.rollupRepository = rollupRepository;
+        this.tourRepository = tourRepository;
+        this.archiveRepository = archiveRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Fold a batch of newly written history rows into the rollups
+     */
+    @Override
+    public void onHistoryWritten(List<DeliveryHistory> rows) {
+        Set<Long> tourIds = new HashSet<>();
+        for (DeliveryHistory row : rows) {
+            if (row.getTour() != null) {
+                tourIds.add(row.getTour().getId());
+            }
+        }
+        Map<Long, Long> warehouses = findWarehouses(tourIds);
+
+        Map<RollupKey, Totals> totals = new HashMap<>();
+        for (DeliveryHistory row : rows) {
+            if (row.getDelayMinutes() == null) {
+                continue;
+            }
+            Long warehouseId = row.getTour() != null ? warehouses.get(row.getTour().getId()) : null;
+            add(totals, row.getDeliveryDate(), row.getPreferredTimeSlot(), warehouseId, row.getDelayMinutes());
+        }
+        if (totals.isEmpty()) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            mergeWithRetry(totals);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Recompute the rollups of every week overlapping a date range
+     * @return Number of history rows aggregated
+     */
+    public long rebuild(LocalDate from, LocalDate to) {
+        LocalDate fromWeek = weekStart(from);
+        LocalDate toWeek = weekStart(to);
+        LocalDate lastDay = toWeek.plusDays(6);
+
+        lock.lock();
+        try {
+            Map<RollupKey, Totals> totals = new HashMap<>();
+            jdbcTemplate.query(HOT_ROWS_SQL, rs -> {
+                long warehouseId = rs.getLong(3);
+                add(totals, rs.getDate(1).toLocalDate(), rs.getString(2),
+                        rs.wasNull() ? null : warehouseId, rs.getInt(4));
+            }, Date.valueOf(fromWeek), Date.valueOf(lastDay));
+            archiveRepository.forEachMonth(fromWeek, lastDay, month -> addArchived(totals, month, fromWeek, lastDay));
+
+            // Readers see either the previous or the rebuilt rows of these weeks
+            transactionTemplate.executeWithoutResult(status -> {
+                rollupRepository.deleteByWeekStartBetween(fromWeek, toWeek);
+                List<Map.Entry<RollupKey, Totals>> rebuilt = sorted(totals);
+                jdbcTemplate.batchUpdate(INSERT_SQL, rebuilt, rebuilt.size(), (ps, entry) -> {
+                    Totals t = entry.getValue();
+                    ps.setLong(1, t.count);
+                    ps.setLong(2, t.sum);
+                    ps.setLong(3, t.sumSquares);
+                    ps.setBytes(4, t.histogram.toBytes());
+                    bindKey(ps, 5, entry.getKey());
+                });
+            });
+
+            long rows = totals.values().stream().mapToLong(t -> t.count).sum();
+            logger.info("Rebuilt {} delay rollups from {} history rows for weeks {} to {}",
+                    totals.size(), rows, fromWeek, toWeek);
+            return rows;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Timed(value = "history.query", extraTags = {"query", "rollup-by-day-of-week"})
+    @Transactional(readOnly = true)
+    public List<DelayStatisticsDTO> getDelayByDayOfWeek(LocalDate from, LocalDate to, Long warehouseId) {
+        return aggregate(from, to, warehouseId, DeliveryDelayRollup::getDayOfWeek);
+    }
+
+    @Timed(value = "history.query", extraTags = {"query", "rollup-by-time-slot"})
+    @Transactional(readOnly = true)
+    public List<DelayStatisticsDTO> getDelayByTimeSlot(LocalDate from, LocalDate to, Long warehouseId) {
+        return aggregate(from, to, warehouseId, DeliveryDelayRollup::getTimeSlot);
+    }
+
+    @Timed(value = "history.query", extraTags = {"query", "rollup-by-week"})
+    @Transactional(readOnly = true)
+    public List<DelayStatisticsDTO> getDelayByWeek(LocalDate from, LocalDate to, Long warehouseId) {
+        return aggregate(from, to, warehouseId, DeliveryDelayRollup::getWeekStart);
+    }
+
+    @Timed(value = "history.query", extraTags = {"query", "rollup-by-warehouse"})
+    @Transactional(readOnly = true)
+    public List<DelayStatisticsDTO> getDelayByWarehouse(LocalDate from, LocalDate to) {
+        return aggregate(from, to, null, DeliveryDelayRollup::getWarehouseId);
+    }
+
+    private <K extends Comparable<K>> List<DelayStatisticsDTO> aggregate(LocalDate from, LocalDate to, Long warehouseId,
+                                                                      Function<DeliveryDelayRollup, K> groupBy) {
+        List<DeliveryDelayRollup> rollups = rollupRepository.findByFilter(
+                from != null ? weekStart(from) : null,
+                to != null ? weekStart(to) : null,
+                warehouseId);
+
+        Map<K, Totals> groups = new TreeMap<>();
+        for (DeliveryDelayRollup rollup : rollups) {
+            LocalDate date = rollup.getDate();
+            if ((from != null && date.isBefore(from)) || (to != null && date.isAfter(to))) {
+                continue; // Partial first or last week
+            }
+            groups.computeIfAbsent(groupBy.apply(rollup), k -> new Totals()).merge(rollup);
+        }
+
+        List<DelayStatisticsDTO> result = new ArrayList<>(groups.size());
+        groups.forEach((key, t) -> result.add(t.toDTO(String.valueOf(key))));
+        return result;
+    }
+
+    private void addArchived(Map<RollupKey, Totals> totals, ArchivedHistoryMonth month,
+                             LocalDate from, LocalDate to) {
+        Set<Long> tourIds = new HashSet<>();
+        for (int i = 0; i < month.size(); i++) {
+            if (month.tourId(i) >= 0) {
+                tourIds.add(month.tourId(i));
+            }
+        }
+        Map<Long, Long> warehouses = findWarehouses(tourIds);
+
+        for (int i = 0; i < month.size(); i++) {
+            LocalDate date = month.getMonth().atDay(month.dayOfMonth(i));
+            if (!month.hasDelay(i) || date.isBefore(from) || date.isAfter(to)) {
+                continue;
+            }
+            Long warehouseId = month.tourId(i) >= 0 ? warehouses.get(month.tourId(i)) : null;
+            add(totals, date, month.preferredTimeSlot(i), warehouseId, month.delayMinutes(i));
+        }
+    }
+
+    private void mergeWithRetry(Map<RollupKey, Totals> totals) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> merge(totals));
+                return;
+            } catch (DuplicateKeyException | ConcurrencyFailureException e) {
+                // Another instance inserted one of the missing rows first, or won a lock
+                if (attempt == MERGE_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Add totals to the stored rollups, creating missing ones
+     * Counts and sums are incremented in place, which also locks the rows until the
+     * transaction ends, so the histograms can then be read, merged and written back
+     * without losing an update from another instance.
+     */
+    private void merge(Map<RollupKey, Totals> totals) {
+        List<Map.Entry<RollupKey, Totals>> entries = sorted(totals);
+        byte[] empty = new DelayHistogram().toBytes();
+        jdbcTemplate.batchUpdate(INSERT_IF_ABSENT_SQL, entries, entries.size(), (ps, entry) -> {
+            bindKey(ps, 1, entry.getKey());
+            ps.setBytes(5, empty);
+        });
+        jdbcTemplate.batchUpdate(ADD_TOTALS_SQL, entries, entries.size(), (ps, entry) -> {
+            Totals t = entry.getValue();
+            ps.setLong(1, t.count);
+            ps.setLong(2, t.sum);
+            ps.setLong(3, t.sumSquares);
+            bindKey(ps, 4, entry.getKey());
+        });
+
+        Map<RollupKey, byte[]> histograms = new HashMap<>();
+        for (Map.Entry<RollupKey, Totals> entry : entries) {
+            RollupKey key = entry.getKey();
+            DelayHistogram histogram = DelayHistogram.fromBytes(jdbcTemplate.queryForObject(SELECT_HISTOGRAM_SQL,
+                    byte[].class, Date.valueOf(key.weekStart()), key.dayOfWeek().name(), key.timeSlot(),
+                    key.warehouseId()));
+            histogram.merge(entry.getValue().histogram);
+            histograms.put(key, histogram.toBytes());
+        }
+        jdbcTemplate.batchUpdate(SET_HISTOGRAM_SQL, entries, entries.size(), (ps, entry) -> {
+            ps.setBytes(1, histograms.get(entry.getKey()));
+            bindKey(ps, 2, entry.getKey());
+        });
+    }
+
+    private static List<Map.Entry<RollupKey, Totals>> sorted(Map<RollupKey, Totals> totals) {
+        List<Map.Entry<RollupKey, Totals>> entries = new ArrayList<>(totals.entrySet());
+        entries.sort(Map.Entry.comparingByKey(KEY_ORDER));
+        return entries;
+    }
+
+    private static void bindKey(PreparedStatement ps, int first, RollupKey key) throws SQLException {
+        ps.setDate(first, Date.valueOf(key.weekStart()));
+        ps.setString(first + 1, key.dayOfWeek().name());
+        ps.setString(first + 2, key.timeSlot());
+        ps.setLong(first + 3, key.warehouseId());
+    }
+
+    private Map<Long, Long> findWarehouses(Collection<Long> tourIds) {
+        Map<Long, Long> warehouses = new HashMap<>();
+        if (!tourIds.isEmpty()) {
+            for (Object[] row : tourRepository.findWarehouseIdsByTourIds(tourIds)) {
+                warehouses.put((Long) row[0], (Long) row[1]);
+            }
+        }
+        return warehouses;
+    }
+
+    private static void add(Map<RollupKey, Totals> totals, LocalDate date, String timeSlot,
+                            Long warehouseId, int delayMinutes) {
+        RollupKey key = new RollupKey(weekStart(date), date.getDayOfWeek(),
+                timeSlot != null ? timeSlot : DeliveryDelayRollup.NO_TIME_SLOT,
+                warehouseId != null ? warehouseId : DeliveryDelayRollup.NO_WAREHOUSE);
+        totals.computeIfAbsent(key, k -> new Totals()).add(delayMinutes);
+    }
+
+    private static LocalDate weekStart(LocalDate date) {
+        return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    private record RollupKey(LocalDate weekStart, DayOfWeek dayOfWeek, String timeSlot, Long warehouseId) {
+    }
+
+    /**
+     * Mergeable delay totals
+     */
+    private static final class Totals {
+        private long count;
+        private long sum;
+        private long sumSquares;
+        private final DelayHistogram histogram = new DelayHistogram();
+
+        void add(int delayMinutes) {
+            count++;
+            sum += delayMinutes;
+            sumSquares += (long) delayMinutes * delayMinutes;
+            histogram.add(delayMinutes);
+        }
+
+        void merge(DeliveryDelayRollup rollup) {
+            count += rollup.getDeliveryCount();
+            sum += rollup.getDelaySum();
+            sumSquares += rollup.getDelaySumSquares();
+            histogram.merge(DelayHistogram.fromBytes(rollup.getHistogram()));
+        }
+
+        DelayStatisticsDTO toDTO(String key) {
+            double mean = count > 0 ? (double) sum / count : 0.0;
+            double variance = count > 0 ? Math.max(0.0, (double) sumSquares / count - mean * mean) : 0.0;
+            return DelayStatisticsDTO.builder()
+                    .key(key)
+                    .deliveryCount(count)
+                    .averageDelayMinutes(mean)
+                    .stdDevDelayMinutes(Math.sqrt(variance))
+                    .p50DelayMinutes(histogram.quantile(0.5))
+                    .p90DelayMinutes(histogram.quantile(0.9))
+                    .build();
+        }
+    }
+}
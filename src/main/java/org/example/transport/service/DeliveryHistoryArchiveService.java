@@ -0,0 +1,178 @@
+package org.example.transport.service;
+
+import org.example.transport.entity.Customer;
+import org.example.transport.entity.DeliveryHistory;
+import org.example.transport.entity.Tour;
+import org.example.transport.repository.DeliveryHistoryArchiveRepository;
+import org.example.transport.repository.DeliveryHistoryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Tiering job for delivery history
+ * Months older than the retention period are moved from the delivery_history table
+ * into the compressed month archive. The archive file is written before the rows are
+ * deleted, a failure in between is repaired by the next run (already archived ids are skipped).
+ * Only the archived ids are deleted, so rows written for the month while it is being
+ * archived stay in the table until the next run.
+ */
+@Service
+public class DeliveryHistoryArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeliveryHistoryArchiveService.class);
+
+    private static final String SELECT_MONTH_SQL =
+            "SELECT id, delivery_date, day_of_week, customer_id, customer_name, delivery_address, latitude, " +
+            "longitude, tour_id, sequence_in_tour, planned_time, actual_time, delay_minutes, preferred_time_slot, " +
+            "weight_kg, volume_m3, delivery_status, vehicle_type, vehicle_registration, " +
+            "distance_from_warehouse_km, distance_from_previous_delivery_km, notes " +
+            "FROM delivery_history WHERE delivery_date >= ? AND delivery_date < ? ORDER BY id";
+
+    private static final String DELETE_ROW_SQL = "DELETE FROM delivery_history WHERE id = ?";
+
+    private static final int DELETE_BATCH_SIZE = 1000;
+
+    private final DeliveryHistoryRepository deliveryHistoryRepository;
+    private final DeliveryHistoryArchiveRepository archiveRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int retentionMonths;
+
+    public DeliveryHistoryArchiveService(DeliveryHistoryRepository deliveryHistoryRepository,
+                                         DeliveryHistoryArchiveRepository archiveRepository,
+                                         JdbcTemplate jdbcTemplate,
+                                         TransactionTemplate transactionTemplate,
+                                         @Value("${history.archive.enabled:true}") boolean enabled,
+                                         @Value("${history.archive.retention-months:12}") int retentionMonths) {
+        this.deliveryHistoryRepository = deliveryHistoryRepository;
+        this.archiveRepository = archiveRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @Scheduled(cron = "${history.archive.cron:0 30 2 * * *}")
+    public void scheduledArchive() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            archiveExpired();
+        } catch (RuntimeException e) {
+            logger.error("Delivery history archiving failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Move every month past the retention period to the archive
+     * @return Number of rows moved
+     */
+    public int archiveExpired() {
+        return archiveOlderThan(YearMonth.now().minusMonths(retentionMonths));
+    }
+
+    /**
+     * Move every month before the cutoff month to the archive
+     * @return Number of rows moved
+     */
+    public int archiveOlderThan(YearMonth cutoff) {
+        LocalDate oldest = deliveryHistoryRepository.findOldestDeliveryDate();
+        if (oldest == null) {
+            return 0;
+        }
+        int moved = 0;
+        for (YearMonth month = YearMonth.from(oldest); month.isBefore(cutoff); month = month.plusMonths(1)) {
+            moved += archiveMonth(month);
+        }
+        if (moved > 0) {
+            logger.info("Moved {} delivery history rows older than {} to the archive", moved, cutoff);
+        }
+        return moved;
+    }
+
+    private int archiveMonth(YearMonth month) {
+        Date from = Date.valueOf(month.atDay(1));
+        Date to = Date.valueOf(month.plusMonths(1).atDay(1));
+
+        List<DeliveryHistory> rows = jdbcTemplate.query(SELECT_MONTH_SQL, HISTORY_ROW_MAPPER, from, to);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        archiveRepository.appendMonth(month, rows);
+        int[][] counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(DELETE_ROW_SQL, rows,
+                DELETE_BATCH_SIZE, (ps, row) -> ps.setLong(1, row.getId())));
+        int deleted = 0;
+        if (counts != null) {
+            for (int[] batch : counts) {
+                for (int count : batch) {
+                    deleted += Math.max(count, 0);
+                }
+            }
+        }
+        return deleted;
+    }
+
+    private static final RowMapper<DeliveryHistory> HISTORY_ROW_MAPPER = (rs, rowNum) -> {
+        Customer customer = new Customer();
+        customer.setId(rs.getLong("customer_id"));
+        Tour tour = null;
+        long tourId = rs.getLong("tour_id");
+        if (!rs.wasNull()) {
+            tour = new Tour();
+            tour.setId(tourId);
+        }
+        Time planned = rs.getTime("planned_time");
+        Time actual = rs.getTime("actual_time");
+        return DeliveryHistory.builder()
+                .id(rs.getLong("id"))
+                .deliveryDate(rs.getDate("delivery_date").toLocalDate())
+                .dayOfWeek(DayOfWeek.valueOf(rs.getString("day_of_week")))
+                .customer(customer)
+                .customerName(rs.getString("customer_name"))
+                .deliveryAddress(rs.getString("delivery_address"))
+                .latitude(rs.getDouble("latitude"))
+                .longitude(rs.getDouble("longitude"))
+                .tour(tour)
+                .sequenceInTour(getInteger(rs, "sequence_in_tour"))
+                .plannedTime(planned != null ? planned.toLocalTime() : null)
+                .actualTime(actual != null ? actual.toLocalTime() : null)
+                .delayMinutes(getInteger(rs, "delay_minutes"))
+                .preferredTimeSlot(rs.getString("preferred_time_slot"))
+                .weightKg(getDouble(rs, "weight_kg"))
+                .volumeM3(getDouble(rs, "volume_m3"))
+                .deliveryStatus(rs.getString("delivery_status"))
+                .vehicleType(rs.getString("vehicle_type"))
+                .vehicleRegistration(rs.getString("vehicle_registration"))
+                .distanceFromWarehouseKm(getDouble(rs, "distance_from_warehouse_km"))
+                .distanceFromPreviousDeliveryKm(getDouble(rs, "distance_from_previous_delivery_km"))
+                .notes(rs.getString("notes"))
+                .build();
+    };
+
+    private static Integer getInteger(ResultSet rs, String column) throws SQLException {
+        int value = rs.getInt(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static Double getDouble(ResultSet rs, String column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? null : value;
+    }
+}
@@ -0,0 +1,14 @@
+package org.example.transport.service;
+
+import org.example.transport.entity.DeliveryHistory;
+
+import java.util.List;
+
+/**
+ * Callback for derived views of delivery history
+ * Invoked by {@link DeliveryHistoryWriter} on its writer thread after each batch is inserted.
+ */
+public interface DeliveryHistoryListener {
+
+    void onHistoryWritten(List<DeliveryHistory> rows);
+}
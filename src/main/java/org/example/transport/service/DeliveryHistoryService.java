@@ -0,0 +1,150 @@
+package org.example.transport.service;
+
+import io.micrometer.core.annotation.Timed;
+import org.example.transport.dto.CursorPageDTO;
+import org.example.transport.dto.DeliveryHistoryDTO;
+import org.example.transport.entity.DeliveryHistory;
+import org.example.transport.mapper.DeliveryHistoryMapper;
+import org.example.transport.repository.DeliveryHistoryArchiveRepository;
+import org.example.transport.repository.DeliveryHistoryRepository;
+import org.example.transport.util.PageCursor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Service for delivery history queries
+ * Results combine the hot delivery_history table with the month archive.
+ */
+@Service
+@Transactional(readOnly = true)
+public class DeliveryHistoryService {
+
+    private final DeliveryHistoryRepository deliveryHistoryRepository;
+    private final DeliveryHistoryArchiveRepository archiveRepository;
+
+    public DeliveryHistoryService(DeliveryHistoryRepository deliveryHistoryRepository,
+                                  DeliveryHistoryArchiveRepository archiveRepository) {
+        this.deliveryHistoryRepository = deliveryHistoryRepository;
+        this.archiveRepository = archiveRepository;
+    }
+
+    @Timed(value = "history.query", extraTags = {"query", "by-customer"})
+    public CursorPageDTO<DeliveryHistoryDTO> getHistoryByCustomer(Long customerId, String cursor, Integer size) {
+        return findPage(customerId, null, null, null, null, cursor, size);
+    }
+
+    @Timed(value = "history.query", extraTags = {"query", "by-day-of-week"})
+    public CursorPageDTO<DeliveryHistoryDTO> getHistoryByDayOfWeek(DayOfWeek dayOfWeek, String cursor, Integer size) {
+        return findPage(null, dayOfWeek, null, null, null, cursor, size);
+    }
+
+    @Timed(value = "history.query", extraTags = {"query", "by-date-range"})
+    public CursorPageDTO<DeliveryHistoryDTO> getHistoryByDateRange(LocalDate startDate, LocalDate endDate,
+                                                                   String cursor, Integer size) {
+        return findPage(null, null, startDate, endDate, null, cursor, size);
+    }
+
+    @Timed(value = "history.query", extraTags = {"query", "delayed"})
+    public CursorPageDTO<DeliveryHistoryDTO> getDelayedDeliveries(Integer minDelay, String cursor, Integer size) {
+        return findPage(null, null, null, null, minDelay, cursor, size);
+    }
+
+    /**
+     * Average delay in minutes by day of week, over hot and archived history
+     */
+    @Timed(value = "history.query", extraTags = {"query", "average-by-day-of-week"})
+    public Map<DayOfWeek, Double> getAverageDelayByDayOfWeek() {
+        Map<DayOfWeek, long[]> totals = new TreeMap<>();
+        addTotals(totals, deliveryHistoryRepository.getDelayTotalsByDayOfWeek());
+        addTotals(totals, archiveRepository.getDelayTotalsByDayOfWeek());
+        return toAverages(totals);
+    }
+
+    /**
+     * Average delay in minutes by preferred time slot, over hot and archived history
+     */
+    @Timed(value = "history.query", extraTags = {"query", "average-by-time-slot"})
+    public Map<String, Double> getAverageDelayByTimeSlot() {
+        Map<String, long[]> totals = new TreeMap<>();
+        addTotals(totals, deliveryHistoryRepository.getDelayTotalsByTimeSlot());
+        addTotals(totals, archiveRepository.getDelayTotalsByTimeSlot());
+        return toAverages(totals);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> void addTotals(Map<K, long[]> totals, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            long[] t = totals.computeIfAbsent((K) row[0], k -> new long[2]);
+            t[0] += ((Number) row[1]).longValue();
+            t[1] += ((Number) row[2]).longValue();
+        }
+    }
+
+    private static <K> Map<K, Double> toAverages(Map<K, long[]> totals) {
+        Map<K, Double> averages = new LinkedHashMap<>();
+        totals.forEach((key, t) -> averages.put(key, t[1] > 0 ? (double) t[0] / t[1] : 0.0));
+        return averages;
+    }
+
+    /**
+     * One keyset page of history, newest first
+     * Archiving deletes only the rows it wrote to the archive, so rows of an archived month
+     * that arrive later stay in the hot table and the two tiers interleave. Both are read
+     * from the cursor on: the archive only down to the last hot row when the hot table
+     * already filled the page, then the rows are merged in keyset order.
+     */
+    private CursorPageDTO<DeliveryHistoryDTO> findPage(Long customerId, DayOfWeek dayOfWeek, LocalDate fromDate,
+                                                      LocalDate toDate, Integer minDelay,
+                                                      String cursor, Integer size) {
+        int pageSize = PageCursor.pageSize(size);
+        PageCursor.DateKey after = PageCursor.decodeDateKey(cursor);
+        LocalDate beforeDate = after != null ? after.date() : null;
+        Long beforeId = after != null ? after.id() : null;
+
+        List<DeliveryHistory> rows = new ArrayList<>(findHotPage(customerId, dayOfWeek, fromDate, toDate, minDelay,
+                after, PageRequest.ofSize(pageSize + 1)));
+        DeliveryHistory lastHot = rows.size() > pageSize ? rows.get(rows.size() - 1) : null;
+        rows.addAll(archiveRepository.findPage(customerId, dayOfWeek, fromDate, toDate, minDelay,
+                beforeDate, beforeId, lastHot != null ? lastHot.getDeliveryDate() : null,
+                lastHot != null ? lastHot.getId() : null, pageSize + 1));
+        rows.sort(DeliveryHistoryArchiveRepository.NEWEST_FIRST);
+        List<DeliveryHistoryDTO> dtos = rows.stream()
+                .limit(pageSize + 1)
+                .map(DeliveryHistoryMapper::toDTO)
+                .toList();
+        return PageCursor.page(dtos, pageSize, h -> PageCursor.encode(h.getDeliveryDate(), h.getId()));
+    }
+
+    /**
+     * Hot table rows of a page, one query per filter and page position so each seeks its index
+     * Exactly one filter is set, the date range by both of its bounds.
+     */
+    private List<DeliveryHistory> findHotPage(Long customerId, DayOfWeek dayOfWeek, LocalDate fromDate,
+                                              LocalDate toDate, Integer minDelay, PageCursor.DateKey after,
+                                              PageRequest limit) {
+        if (customerId != null) {
+            return after == null ? deliveryHistoryRepository.findFirstPageByCustomer(customerId, limit)
+                    : deliveryHistoryRepository.findPageByCustomerBefore(customerId, after.date(), after.id(), limit);
+        }
+        if (dayOfWeek != null) {
+            return after == null ? deliveryHistoryRepository.findFirstPageByDayOfWeek(dayOfWeek, limit)
+                    : deliveryHistoryRepository.findPageByDayOfWeekBefore(dayOfWeek, after.date(), after.id(), limit);
+        }
+        if (fromDate != null) {
+            return after == null ? deliveryHistoryRepository.findFirstPageByDateRange(fromDate, toDate, limit)
+                    : deliveryHistoryRepository.findPageByDateRangeBefore(
+                            fromDate, toDate, after.date(), after.id(), limit);
+        }
+        return after == null ? deliveryHistoryRepository.findFirstPageDelayed(minDelay, limit)
+                : deliveryHistoryRepository.findPageDelayedBefore(minDelay, after.date(), after.id(), limit);
+    }
+}
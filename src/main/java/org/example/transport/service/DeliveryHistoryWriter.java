@@ -0,0 +1,297 @@
+package org.example.transport.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.transport.entity.DeliveryHistory;
+import org.example.transport.exception.HistoryBacklogException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous writer for delivery_history rows
+ * Rows are queued by the request thread and written by a single background thread
+ * using JDBC batch inserts, so rows from many completed tours share the same batches.
+ * A batch that fails is retried with backoff until it is written; a batch the database
+ * rejects is written row by row so only the offending rows are dropped. Submissions that
+ * would overflow the queue are refused before the caller's transaction commits.
+ */
+@Service
+public class DeliveryHistoryWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(DeliveryHistoryWriter.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO delivery_history (delivery_date, day_of_week, customer_id, customer_name, " +
+            "delivery_address, latitude, longitude, tour_id, sequence_in_tour, planned_time, actual_time, " +
+            "delay_minutes, preferred_time_slot, weight_kg, volume_m3, delivery_status, vehicle_type, " +
+            "vehicle_registration, distance_from_warehouse_km, distance_from_previous_delivery_km, notes) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final long MAX_RETRY_BACKOFF_MS = 30_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<DeliveryHistoryListener> listeners;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final int queueCapacity;
+    private final long offerTimeoutMs;
+    private final long retryBackoffMs;
+    private final BlockingQueue<DeliveryHistory> queue;
+    // Rows that did not fit into the queue within the offer timeout, written first
+    private final Queue<DeliveryHistory> overflow = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    // Held while a batch is written and handed to the listeners
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public DeliveryHistoryWriter(JdbcTemplate jdbcTemplate,
+                                 ObjectProvider<DeliveryHistoryListener> listeners,
+                                 @Value("${history.writer.batch-size:500}") int batchSize,
+                                 @Value("${history.writer.flush-interval-ms:200}") long flushIntervalMs,
+                                 @Value("${history.writer.queue-capacity:100000}") int queueCapacity,
+                                 @Value("${history.writer.offer-timeout-ms:1000}") long offerTimeoutMs,
+                                 @Value("${history.writer.retry-backoff-ms:500}") long retryBackoffMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.listeners = listeners;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.queueCapacity = queueCapacity;
+        this.offerTimeoutMs = offerTimeoutMs;
+        this.retryBackoffMs = retryBackoffMs;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        worker = new Thread(this::drainLoop, "delivery-history-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(30));
+        if (pending.get() > 0) {
+            logger.error("Stopped with {} delivery history rows not written", pending.get());
+        }
+    }
+
+    /**
+     * Queue history rows for insertion
+     * Inside a transaction the rows are queued only once it commits, so a rolled back
+     * tour completion never leaves history behind.
+     * @throws HistoryBacklogException When the writer is too far behind to take the rows,
+     *                                 thrown before the caller's transaction commits
+     */
+    public void submit(List<DeliveryHistory> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        if (pending.get() + rows.size() > queueCapacity) {
+            throw new HistoryBacklogException(pending.get() + " delivery history rows are waiting to be written");
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(rows);
+                }
+            });
+        } else {
+            enqueue(rows);
+        }
+    }
+
+    /**
+     * Wait until every queued row has been written
+     * @return true if the queue drained before the timeout
+     */
+    public boolean awaitIdle(long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (pending.get() > 0) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    /**
+     * Run an action while no batch is being written or handed to the listeners
+     * Lets a listener rebuild its view from the table without missing or doubling rows,
+     * queued rows wait and are written once the action returns.
+     */
+    public <T> T whilePaused(Supplier<T> action) {
+        writeLock.lock();
+        try {
+            return action.get();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Rows the database refused to store since startup
+     */
+    public long getRejectedRows() {
+        return rejected.get();
+    }
+
+    private void enqueue(List<DeliveryHistory> rows) {
+        pending.addAndGet(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            boolean queued;
+            try {
+                queued = queue.offer(rows.get(i), offerTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                queued = false;
+            }
+            if (!queued) {
+                // The transaction has committed, so the rows must not be dropped
+                logger.warn("Delivery history queue full, {} rows handed over outside of it", rows.size() - i);
+                overflow.addAll(rows.subList(i, rows.size()));
+                return;
+            }
+        }
+    }
+
+    private void drainLoop() {
+        List<DeliveryHistory> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty() || !overflow.isEmpty()) {
+            try {
+                DeliveryHistory next = overflow.poll();
+                if (next == null) {
+                    next = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                }
+                if (next == null) {
+                    continue;
+                }
+                batch.add(next);
+                while (batch.size() < batchSize && (next = overflow.poll()) != null) {
+                    batch.add(next);
+                }
+                queue.drainTo(batch, batchSize - batch.size());
+                writeLock.lockInterruptibly();
+                try {
+                    write(batch);
+                } finally {
+                    writeLock.unlock();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.error("Delivery history writer interrupted with {} rows not written", pending.get());
+                return;
+            } finally {
+                pending.addAndGet(-batch.size());
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Insert a batch, retrying with growing backoff until the database is reachable again
+     */
+    private void write(List<DeliveryHistory> batch) throws InterruptedException {
+        List<DeliveryHistory> written = batch;
+        long backoffMs = retryBackoffMs;
+        while (true) {
+            try {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), this::bind);
+                logger.debug("Wrote {} delivery history rows", batch.size());
+                break;
+            } catch (DataIntegrityViolationException e) {
+                // Retrying cannot help, find the offending rows
+                written = writeEach(batch);
+                break;
+            } catch (RuntimeException e) {
+                logger.warn("Failed to write {} delivery history rows, retrying in {} ms: {}",
+                        batch.size(), backoffMs, e.getMessage());
+                Thread.sleep(backoffMs);
+                backoffMs = Math.min(backoffMs * 2, MAX_RETRY_BACKOFF_MS);
+            }
+        }
+        notifyListeners(written);
+    }
+
+    private List<DeliveryHistory> writeEach(List<DeliveryHistory> batch) {
+        List<DeliveryHistory> written = new ArrayList<>(batch.size());
+        for (DeliveryHistory row : batch) {
+            try {
+                jdbcTemplate.batchUpdate(INSERT_SQL, List.of(row), 1, this::bind);
+                written.add(row);
+            } catch (DataIntegrityViolationException e) {
+                rejected.incrementAndGet();
+                logger.error("Delivery history row of tour {} stop {} rejected: {}",
+                        row.getTour() != null ? row.getTour().getId() : null, row.getSequenceInTour(), e.getMessage());
+            }
+        }
+        return written;
+    }
+
+    private void notifyListeners(List<DeliveryHistory> written) {
+        if (written.isEmpty()) {
+            return;
+        }
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                listener.onHistoryWritten(written);
+            } catch (RuntimeException e) {
+                logger.error("History listener {} failed: {}", listener.getClass().getSimpleName(), e.getMessage(), e);
+            }
+        });
+    }
+
+    private void bind(PreparedStatement ps, DeliveryHistory h) throws SQLException {
+        ps.setDate(1, Date.valueOf(h.getDeliveryDate()));
+        ps.setString(2, h.getDayOfWeek().name());
+        ps.setLong(3, h.getCustomer().getId());
+        ps.setString(4, h.getCustomerName());
+        ps.setString(5, h.getDeliveryAddress());
+        ps.setDouble(6, h.getLatitude());
+        ps.setDouble(7, h.getLongitude());
+        ps.setObject(8, h.getTour() != null ? h.getTour().getId() : null, Types.BIGINT);
+        ps.setObject(9, h.getSequenceInTour(), Types.INTEGER);
+        ps.setTime(10, h.getPlannedTime() != null ? Time.valueOf(h.getPlannedTime()) : null);
+        ps.setTime(11, h.getActualTime() != null ? Time.valueOf(h.getActualTime()) : null);
+        ps.setObject(12, h.getDelayMinutes(), Types.INTEGER);
+        ps.setString(13, h.getPreferredTimeSlot());
+        ps.setObject(14, h.getWeightKg(), Types.DOUBLE);
+        ps.setObject(15, h.getVolumeM3(), Types.DOUBLE);
+        ps.setString(16, h.getDeliveryStatus());
+        ps.setString(17, h.getVehicleType());
+        ps.setString(18, h.getVehicleRegistration());
+        ps.setObject(19, h.getDistanceFromWarehouseKm(), Types.DOUBLE);
+        ps.setObject(20, h.getDistanceFromPreviousDeliveryKm(), Types.DOUBLE);
+        ps.setString(21, h.getNotes());
+    }
+}
@@ -1,38 +1,57 @@
 package org.example.transport.service;
 
+import org.example.transport.dto.CursorPageDTO;
 import org.example.transport.dto.DeliveryDTO;
 import org.example.transport.entity.Delivery;
 import org.example.transport.enums.DeliveryStatus;
 import org.example.transport.exception.ResourceNotFoundException;
 import org.example.transport.mapper.DeliveryMapper;
+import org.example.transport.repository.CustomerRepository;
 import org.example.transport.repository.DeliveryRepository;
+import org.example.transport.util.DistanceCalculator;
+import org.example.transport.util.GeoCell;
+import org.example.transport.util.PageCursor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  *
  * for managing deliveries
  */
 @Service
+@Transactional(readOnly = true)
 public class DeliveryService {
 
     private static final Logger logger = LoggerFactory.getLogger(DeliveryService.class);
 
+    public static final int DEFAULT_NEARBY_LIMIT = 100;
+    public static final int MAX_NEARBY_LIMIT = 1000;
+
     private final DeliveryRepository deliveryRepository;
+    private final CustomerRepository customerRepository;
+    private final TourLockManager tourLockManager;
 
-    public DeliveryService(DeliveryRepository deliveryRepository) {
+    public DeliveryService(DeliveryRepository deliveryRepository,
+                           CustomerRepository customerRepository,
+                           TourLockManager tourLockManager) {
         this.deliveryRepository = deliveryRepository;
+        this.customerRepository = customerRepository;
+        this.tourLockManager = tourLockManager;
     }
 
-    public List<DeliveryDTO> getAllDeliveries() {
-        logger.info("Fetching all deliveries");
-        return deliveryRepository.findAll().stream()
-                .map(DeliveryMapper::toDTO)
-                .collect(Collectors.toList());
+    /**
+     * One keyset page of deliveries ordered by id
+     * @param cursor Continuation token from the previous page, null for the first page
+     */
+    public CursorPageDTO<DeliveryDTO> getAllDeliveries(String cursor, Integer size) {
+        logger.info("Fetching deliveries page");
+        return findPage(null, false, cursor, size);
     }
 
     public DeliveryDTO getDeliveryById(Long id) {
@@ -42,54 +61,104 @@ public class DeliveryService {
         return DeliveryMapper.toDTO(delivery);
     }
 
+    @Transactional
     public DeliveryDTO createDelivery(DeliveryDTO deliveryDTO) {
         logger.info("Creating new delivery for customer: {}", deliveryDTO.getCustomerId());
         Delivery delivery = DeliveryMapper.toEntity(deliveryDTO);
+        delivery.setCustomer(customerRepository.findById(deliveryDTO.getCustomerId())
+                .orElseThrow(() -> new ResourceNotFoundException("Customer", deliveryDTO.getCustomerId())));
         Delivery saved = deliveryRepository.save(delivery);
         logger.info("Delivery created with id: {}", saved.getId());
         return DeliveryMapper.toDTO(saved);
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public DeliveryDTO updateDelivery(Long id, DeliveryDTO deliveryDTO) {
-        logger.info("Updating delivery with id: {}", id);
-        Delivery delivery = deliveryRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Delivery", id));
-        DeliveryMapper.updateEntityFromDTO(deliveryDTO, delivery);
-        Delivery updated = deliveryRepository.save(delivery);
-        logger.info("Delivery updated: {}", id);
-        return DeliveryMapper.toDTO(updated);
+        return tourLockManager.inTransaction(tourIdOf(id), () -> {
+            logger.info("Updating delivery with id: {}", id);
+            // The customer location is needed when the specific location is cleared
+            Delivery delivery = deliveryRepository.findWithCustomerById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Delivery", id));
+            DeliveryMapper.updateEntityFromDTO(deliveryDTO, delivery);
+            Delivery updated = deliveryRepository.save(delivery);
+            logger.info("Delivery updated: {}", id);
+            return DeliveryMapper.toDTO(updated);
+        });
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void deleteDelivery(Long id) {
-        logger.info("Deleting delivery with id: {}", id);
-        if (!deliveryRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Delivery", id);
-        }
-        deliveryRepository.deleteById(id);
-        logger.info("Delivery deleted: {}", id);
+        tourLockManager.inTransaction(tourIdOf(id), () -> {
+            logger.info("Deleting delivery with id: {}", id);
+            if (!deliveryRepository.existsById(id)) {
+                throw new ResourceNotFoundException("Delivery", id);
+            }
+            deliveryRepository.deleteById(id);
+            logger.info("Delivery deleted: {}", id);
+            return null;
+        });
     }
 
-    public List<DeliveryDTO> getDeliveriesByStatus(DeliveryStatus status) {
+    public CursorPageDTO<DeliveryDTO> getDeliveriesByStatus(DeliveryStatus status, String cursor, Integer size) {
         logger.info("Fetching deliveries by status: {}", status);
-        return deliveryRepository.findByStatus(status).stream()
-                .map(DeliveryMapper::toDTO)
-                .collect(Collectors.toList());
+        return findPage(status, false, cursor, size);
     }
 
-    public List<DeliveryDTO> getUnassignedDeliveries() {
+    public CursorPageDTO<DeliveryDTO> getUnassignedDeliveries(String cursor, Integer size) {
         logger.info("Fetching unassigned deliveries");
-        return deliveryRepository.findUnassignedDeliveries().stream()
-                .map(DeliveryMapper::toDTO)
-                .collect(Collectors.toList());
+        return findPage(null, true, cursor, size);
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public DeliveryDTO updateDeliveryStatus(Long id, DeliveryStatus status) {
-        logger.info("Updating delivery {} status to: {}", id, status);
-        Delivery delivery = deliveryRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Delivery", id));
-        delivery.setStatus(status);
-        Delivery updated = deliveryRepository.save(delivery);
-        logger.info("Delivery status updated: {}", id);
-        return DeliveryMapper.toDTO(updated);
+        return tourLockManager.inTransaction(tourIdOf(id), () -> {
+            logger.info("Updating delivery {} status to: {}", id, status);
+            Delivery delivery = deliveryRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Delivery", id));
+            delivery.setStatus(status);
+            Delivery updated = deliveryRepository.save(delivery);
+            logger.info("Delivery status updated: {}", id);
+            return DeliveryMapper.toDTO(updated);
+        });
+    }
+
+    /**
+     * Deliveries within a radius of a point, closest first
+     * @param status Only deliveries in this status, null for all
+     * @param limit Maximum number of results, default 100, at most 1000
+     */
+    public List<DeliveryDTO> getDeliveriesNearby(double latitude, double longitude, double radiusKm,
+                                                 DeliveryStatus status, Integer limit) {
+        logger.debug("Fetching deliveries within {} km of ({}, {})", radiusKm, latitude, longitude);
+        int max = limit == null || limit <= 0 ? DEFAULT_NEARBY_LIMIT : Math.min(limit, MAX_NEARBY_LIMIT);
+        double[] box = GeoCell.boundingBox(latitude, longitude, radiusKm);
+        return DistanceCalculator.closestWithin(deliveryRepository.findByLocationArea(box[0], box[1], box[2], box[3], status),
+                DeliveryDTO::getEffectiveLatitude, DeliveryDTO::getEffectiveLongitude, latitude, longitude, radiusKm, max);
+    }
+
+    /**
+     * Tour the delivery is planned on, its edits are serialized with the tour's
+     */
+    private Long tourIdOf(Long deliveryId) {
+        return deliveryRepository.findTourIdById(deliveryId).orElse(null);
+    }
+
+    private CursorPageDTO<DeliveryDTO> findPage(DeliveryStatus status, boolean unassigned, String cursor, Integer size) {
+        int pageSize = PageCursor.pageSize(size);
+        Long afterId = PageCursor.decodeId(cursor);
+        PageRequest limit = PageRequest.ofSize(pageSize + 1);
+        // One query per filter and page position, so each seeks its index instead of scanning
+        List<DeliveryDTO> rows;
+        if (status != null) {
+            rows = afterId == null ? deliveryRepository.findFirstPageByStatusAsDTO(status, limit)
+                    : deliveryRepository.findPageByStatusAsDTOAfter(status, afterId, limit);
+        } else if (unassigned) {
+            rows = afterId == null ? deliveryRepository.findFirstUnassignedPageAsDTO(limit)
+                    : deliveryRepository.findUnassignedPageAsDTOAfter(afterId, limit);
+        } else {
+            rows = afterId == null ? deliveryRepository.findFirstPageAsDTO(limit)
+                    : deliveryRepository.findPageAsDTOAfter(afterId, limit);
+        }
+        return PageCursor.page(rows, pageSize, d -> PageCursor.encode(d.getId()));
     }
 }
@@ -0,0 +1,165 @@
+package org.example.transport.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.example.transport.dto.DeliveryDTO;
+import org.example.transport.dto.TourDTO;
+import org.example.transport.entity.DeliveryHistory;
+import org.example.transport.mapper.DeliveryHistoryMapper;
+import org.example.transport.repository.DeliveryHistoryArchiveRepository;
+import org.example.transport.repository.DeliveryHistoryRepository;
+import org.example.transport.repository.DeliveryRepository;
+import org.example.transport.repository.TourRepository;
+import org.example.transport.util.NdjsonWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Service for full-table exports as newline-delimited JSON
+ * Rows are read through streaming queries and written as they arrive, so memory use
+ * does not depend on the export size. Each export runs in one read-only transaction
+ * that stays open while the response is written.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+
+    // Rows written between flushes (and persistence context clears for entity streams)
+    private static final int BATCH_SIZE = 500;
+
+    private static final Comparator<DeliveryHistory> OLDEST_FIRST = DeliveryHistoryArchiveRepository.NEWEST_FIRST.reversed();
+
+    private final DeliveryRepository deliveryRepository;
+    private final TourRepository tourRepository;
+    private final DeliveryHistoryRepository deliveryHistoryRepository;
+    private final DeliveryHistoryArchiveRepository archiveRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public ExportService(DeliveryRepository deliveryRepository,
+                         TourRepository tourRepository,
+                         DeliveryHistoryRepository deliveryHistoryRepository,
+                         DeliveryHistoryArchiveRepository archiveRepository,
+                         EntityManager entityManager,
+                         ObjectMapper objectMapper) {
+        this.deliveryRepository = deliveryRepository;
+        this.tourRepository = tourRepository;
+        this.deliveryHistoryRepository = deliveryHistoryRepository;
+        this.archiveRepository = archiveRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    public void exportDeliveries(OutputStream out) throws IOException {
+        logger.info("Exporting deliveries");
+        long count = 0;
+        try (Stream<DeliveryDTO> rows = deliveryRepository.streamAllAsDTO();
+             NdjsonWriter writer = new NdjsonWriter(objectMapper, out)) {
+            Iterator<DeliveryDTO> it = rows.iterator();
+            while (it.hasNext()) {
+                writer.write(it.next());
+                if (++count % BATCH_SIZE == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        logger.info("Exported {} deliveries", count);
+    }
+
+    /**
+     * Tours in id order, delivery ids are loaded one batch of tours at a time
+     */
+    public void exportTours(OutputStream out) throws IOException {
+        logger.info("Exporting tours");
+        long count = 0;
+        try (Stream<TourDTO> rows = tourRepository.streamAllAsDTO();
+             NdjsonWriter writer = new NdjsonWriter(objectMapper, out)) {
+            List<TourDTO> batch = new ArrayList<>(BATCH_SIZE);
+            Iterator<TourDTO> it = rows.iterator();
+            while (it.hasNext()) {
+                batch.add(it.next());
+                if (batch.size() == BATCH_SIZE || !it.hasNext()) {
+                    fillDeliveryIds(batch);
+                    for (TourDTO tour : batch) {
+                        writer.write(tour);
+                    }
+                    writer.flush();
+                    count += batch.size();
+                    batch.clear();
+                }
+            }
+        }
+        logger.info("Exported {} tours", count);
+    }
+
+    /**
+     * Delivery history oldest first, archived months merged with the hot table
+     * Rows of an archived month can still be in the hot table (written after the month was
+     * archived), so both are read in keyset order and merged rather than written one after
+     * the other.
+     * @param fromDate First delivery date included, null for no lower bound
+     * @param toDate Last delivery date included, null for no upper bound
+     */
+    public void exportHistory(LocalDate fromDate, LocalDate toDate, OutputStream out) throws IOException {
+        logger.info("Exporting delivery history from {} to {}", fromDate, toDate);
+        long[] count = {0};
+        try (NdjsonWriter writer = new NdjsonWriter(objectMapper, out);
+             Stream<DeliveryHistory> rows = deliveryHistoryRepository.streamByDateRange(fromDate, toDate)) {
+            Iterator<DeliveryHistory> hot = rows.iterator();
+            DeliveryHistory[] nextHot = {hot.hasNext() ? hot.next() : null};
+            try {
+                archiveRepository.forEachOldestFirst(fromDate, toDate, archived -> {
+                    try {
+                        while (nextHot[0] != null && OLDEST_FIRST.compare(nextHot[0], archived) < 0) {
+                            writeHistory(writer, nextHot[0], count);
+                            nextHot[0] = hot.hasNext() ? hot.next() : null;
+                        }
+                        writeHistory(writer, archived, count);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            while (nextHot[0] != null) {
+                writeHistory(writer, nextHot[0], count);
+                nextHot[0] = hot.hasNext() ? hot.next() : null;
+            }
+        }
+        logger.info("Exported {} delivery history rows", count[0]);
+    }
+
+    private void writeHistory(NdjsonWriter writer, DeliveryHistory row, long[] count) throws IOException {
+        writer.write(DeliveryHistoryMapper.toDTO(row));
+        if (++count[0] % BATCH_SIZE == 0) {
+            // Rows already written are detached so the persistence context stays small
+            entityManager.clear();
+            writer.flush();
+        }
+    }
+
+    private void fillDeliveryIds(List<TourDTO> tours) {
+        Map<Long, TourDTO> byId = new HashMap<>();
+        tours.forEach(tour -> byId.put(tour.getId(), tour));
+        for (Object[] row : deliveryRepository.findDeliveryIdsByTourIds(byId.keySet())) {
+            byId.get((Long) row[0]).getDeliveryIds().add((Long) row[1]);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package org.example.transport.service;
+
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import org.example.transport.dto.HistoryQueryDTO;
+import org.example.transport.dto.HistoryQueryResultDTO;
+import org.example.transport.entity.DeliveryHistory;
+import org.example.transport.enums.HistoryGroupBy;
+import org.example.transport.repository.DeliveryHistoryArchiveRepository;
+import org.example.transport.repository.HistoryColumnStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Service answering ad-hoc history queries from the in-memory column store
+ * The store is filled at startup from the archive and the hot table, then kept
+ * current by listening to the history writer. Rows written by anything else
+ * (the dataset generator, SQL scripts, restored archive files) only show up after
+ * {@link #reload()}, exposed as POST /api/history/query/reload.
+ */
+@Service
+public class HistoryQueryService implements DeliveryHistoryListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoryQueryService.class);
+
+    private static final String LOAD_SQL =
+            "SELECT delivery_date, customer_id, preferred_time_slot, vehicle_type, delivery_status, " +
+            "delay_minutes, distance_from_warehouse_km, weight_kg FROM delivery_history ORDER BY id";
+
+    private static final int LOAD_FETCH_SIZE = 5000;
+
+    private final HistoryColumnStore columnStore;
+    private final DeliveryHistoryArchiveRepository archiveRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final DeliveryHistoryWriter historyWriter;
+    private final boolean enabled;
+
+    public HistoryQueryService(HistoryColumnStore columnStore,
+                               DeliveryHistoryArchiveRepository archiveRepository,
+                               JdbcTemplate jdbcTemplate,
+                               DeliveryHistoryWriter historyWriter,
+                               @Value("${history.column-store.enabled:true}") boolean enabled) {
+        this.columnStore = columnStore;
+        this.archiveRepository = archiveRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.historyWriter = historyWriter;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Load all history before the application starts serving requests
+     */
+    @PostConstruct
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        columnStore.clear();
+        archiveRepository.forEachMonth(null, null, columnStore::append);
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(LOAD_SQL);
+            ps.setFetchSize(LOAD_FETCH_SIZE);
+            return ps;
+        }, rs -> {
+            int delay = rs.getInt(6);
+            boolean noDelay = rs.wasNull();
+            double distance = rs.getDouble(7);
+            boolean noDistance = rs.wasNull();
+            double weight = rs.getDouble(8);
+            boolean noWeight = rs.wasNull();
+            columnStore.appendRow(rs.getDate(1).toLocalDate(), rs.getLong(2), rs.getString(3), rs.getString(4),
+                    rs.getString(5), noDelay ? null : delay, noDistance ? null : distance, noWeight ? null : weight);
+        });
+        logger.info("Loaded {} delivery history rows into {} column blocks in {} ms",
+                columnStore.size(), columnStore.blockCount(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Load the store again from the archive and the hot table
+     * The history writer is paused meanwhile so its batches are neither missed nor
+     * counted twice, queries running during the reload see a partial store.
+     * @return Rows in the store afterwards
+     */
+    public long reload() {
+        if (!enabled) {
+            return 0;
+        }
+        return historyWriter.whilePaused(() -> {
+            load();
+            return columnStore.size();
+        });
+    }
+
+    @Override
+    public void onHistoryWritten(List<DeliveryHistory> rows) {
+        if (enabled) {
+            columnStore.append(rows);
+        }
+    }
+
+    @Timed(value = "history.query", extraTags = {"query", "column-store"})
+    public HistoryQueryResultDTO query(HistoryQueryDTO query) {
+        long start = System.nanoTime();
+        HistoryGroupBy groupBy = query.getGroupBy() != null ? query.getGroupBy() : HistoryGroupBy.NONE;
+        HistoryColumnStore.ScanResult result = columnStore.scan(new HistoryColumnStore.Filter(
+                query.getFrom(), query.getTo(), query.getDaysOfWeek(), query.getTimeSlots(),
+                query.getCustomerIds(), query.getVehicleTypes(), query.getDeliveryStatuses(),
+                query.getMinDelay(), query.getMaxDelay()), groupBy);
+
+        List<HistoryQueryResultDTO.Group> groups = new ArrayList<>(result.groups().size());
+        result.groups().entrySet().stream()
+                .sorted(Comparator.comparingLong(e -> e.getKey()))
+                .forEach(e -> {
+                    HistoryColumnStore.Aggregate a = e.getValue();
+                    groups.add(HistoryQueryResultDTO.Group.builder()
+                            .key(columnStore.label(groupBy, e.getKey()))
+                            .count(a.getCount())
+                            .delayedCount(a.getDelayCount())
+                            .averageDelayMinutes(a.getAverageDelay())
+                            .minDelayMinutes(a.getMinDelay())
+                            .maxDelayMinutes(a.getMaxDelay())
+                            .averageDistanceFromWarehouseKm(a.getAverageDistanceKm())
+                            .totalWeightKg(a.getTotalWeightKg())
+                            .build());
+                });
+
+        return HistoryQueryResultDTO.builder()
+                .matchedRows(result.matchedRows())
+                .scannedRows(result.scannedRows())
+                .scannedBlocks(result.scannedBlocks())
+                .skippedBlocks(result.skippedBlocks())
+                .elapsedMicros((System.nanoTime() - start) / 1000)
+                .groups(groups)
+                .build();
+    }
+}
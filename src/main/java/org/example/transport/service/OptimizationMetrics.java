@@ -0,0 +1,96 @@
+package org.example.transport.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.transport.enums.OptimizationAlgorithm;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * Micrometer meters of tour optimization
+ * tour.optimization times the whole call including lock waits and retries, and
+ * tour.optimization.phase splits one attempt into load (database), compute (optimizer CPU,
+ * or the model call for AI) and persist (database), so a slow call can be attributed.
+ * Tour sizes and distance evaluations per run are recorded as distribution summaries.
+ */
+@Component
+public class OptimizationMetrics {
+
+    public static final String PHASE_LOAD = "load";
+    public static final String PHASE_COMPUTE = "compute";
+    public static final String PHASE_PERSIST = "persist";
+
+    // Bucket bounds for tour sizes, histograms of stop counts are more useful than percentiles
+    private static final double[] STOP_BUCKETS = {5, 10, 25, 50, 100, 200, 500, 1000, 2000};
+
+    private final MeterRegistry registry;
+
+    public OptimizationMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Time a whole optimization call, tagged with its outcome
+     */
+    public <T> T recordOptimization(OptimizationAlgorithm algorithm, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "error";
+        try {
+            T result = call.get();
+            outcome = "success";
+            return result;
+        } catch (OptimisticLockingFailureException e) {
+            outcome = "conflict";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("tour.optimization")
+                    .description("Tour optimization calls, including lock waits and conflict retries")
+                    .tag("algorithm", tag(algorithm))
+                    .tag("outcome", outcome)
+                    .register(registry));
+        }
+    }
+
+    /**
+     * Time one phase of an optimization attempt
+     */
+    public <T> T recordPhase(OptimizationAlgorithm algorithm, String phase, Supplier<T> step) {
+        return phaseTimer(algorithm, phase).record(step);
+    }
+
+    public void recordPhase(OptimizationAlgorithm algorithm, String phase, Runnable step) {
+        phaseTimer(algorithm, phase).record(step);
+    }
+
+    /**
+     * Record the size and work of one optimizer run
+     */
+    public void recordRun(OptimizationAlgorithm algorithm, int stops, long distanceEvaluations) {
+        DistributionSummary.builder("tour.optimization.stops")
+                .description("Stops per optimized tour")
+                .tag("algorithm", tag(algorithm))
+                .serviceLevelObjectives(STOP_BUCKETS)
+                .register(registry)
+                .record(stops);
+        DistributionSummary.builder("tour.optimization.distance.evaluations")
+                .description("Distance computations per optimizer run")
+                .tag("algorithm", tag(algorithm))
+                .register(registry)
+                .record(distanceEvaluations);
+    }
+
+    private Timer phaseTimer(OptimizationAlgorithm algorithm, String phase) {
+        return Timer.builder("tour.optimization.phase")
+                .description("Time spent per optimization phase")
+                .tag("algorithm", tag(algorithm))
+                .tag("phase", phase)
+                .register(registry);
+    }
+
+    private static String tag(OptimizationAlgorithm algorithm) {
+        return algorithm != null ? algorithm.name() : "none";
+    }
+}
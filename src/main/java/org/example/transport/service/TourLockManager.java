@@ -0,0 +1,132 @@
+package org.example.transport.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes mutations of the same tour inside this process and retries version conflicts
+ * Every tour being changed gets its own lock, created on first use and dropped once no
+ * thread holds or waits for it, so edits of different tours never wait on each other.
+ * The locks only avoid conflicts: correctness comes from the version columns of tours and
+ * deliveries, which also cover other instances and writes that reached a tour through a stale id.
+ */
+@Service
+public class TourLockManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(TourLockManager.class);
+
+    private final Map<Long, TourLock> locks = new ConcurrentHashMap<>();
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long timeoutMs;
+
+    /**
+     * Lock of one tour with the number of threads holding or waiting for it
+     */
+    private static final class TourLock extends ReentrantLock {
+        // Only changed inside compute on the map entry
+        private int users;
+    }
+
+    public TourLockManager(TransactionTemplate transactionTemplate,
+                           @Value("${tour.locking.max-attempts:3}") int maxAttempts,
+                           @Value("${tour.locking.timeout-ms:30000}") long timeoutMs) {
+        this.transactionTemplate = transactionTemplate;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Run an action holding the tour's lock, re-running it on a version conflict
+     * The action manages its own transactions, each attempt must start from fresh reads.
+     * @param tourId Tour being changed, null to skip the lock and only retry
+     */
+    public <T> T execute(Long tourId, Supplier<T> action) {
+        return withLock(tourId, () -> retrying(tourId, action));
+    }
+
+    /**
+     * Run an action in a new transaction per attempt, holding the tour's lock
+     * Callers must not already be in a transaction, or the retries would join it.
+     */
+    public <T> T inTransaction(Long tourId, Supplier<T> action) {
+        return execute(tourId, () -> transactionTemplate.execute(status -> action.get()));
+    }
+
+    /**
+     * Run an action holding the tour's lock, without retrying it
+     * @param tourId Tour being changed, null to run the action unlocked
+     */
+    public <T> T withLock(Long tourId, Supplier<T> action) {
+        if (tourId == null) {
+            return action.get();
+        }
+        TourLock lock = acquire(tourId);
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+            release(tourId);
+        }
+    }
+
+    /**
+     * Run an action without a lock, re-running it on a version conflict
+     * For long computations that take the lock only around their final write.
+     */
+    public <T> T retrying(Long tourId, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                logger.debug("Version conflict on tour {}, retrying ({}/{})", tourId, attempt, maxAttempts);
+            }
+        }
+    }
+
+    /**
+     * Tours whose lock is currently held or waited for
+     */
+    int lockCount() {
+        return locks.size();
+    }
+
+    private TourLock acquire(long tourId) {
+        TourLock lock = locks.compute(tourId, (id, existing) -> {
+            TourLock used = existing != null ? existing : new TourLock();
+            used.users++;
+            return used;
+        });
+        boolean locked = false;
+        try {
+            locked = lock.tryLock(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            release(tourId);
+            throw new CannotAcquireLockException("Interrupted waiting for tour " + tourId, e);
+        }
+        if (!locked) {
+            release(tourId);
+            throw new CannotAcquireLockException("Timed out waiting for tour " + tourId);
+        }
+        return lock;
+    }
+
+    private void release(long tourId) {
+        locks.computeIfPresent(tourId, (id, lock) -> --lock.users == 0 ? null : lock);
+    }
+}
@@ -1,67 +1,173 @@
 package org.example.transport.service;
 
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.transport.dto.CursorPageDTO;
 import org.example.transport.dto.DeliveryDTO;
+import org.example.transport.dto.OptimalityGapDTO;
+import org.example.transport.dto.OptimizationDiagnosticsDTO;
 import org.example.transport.dto.OptimizedTourResponseDTO;
+import org.example.transport.dto.TourCompletionDTO;
 import org.example.transport.dto.TourDTO;
+import org.example.transport.entity.Customer;
 import org.example.transport.entity.Delivery;
+import org.example.transport.entity.DeliveryHistory;
+import org.example.transport.entity.OptimizationRunLog;
 import org.example.transport.entity.Tour;
 import org.example.transport.entity.Vehicle;
 import org.example.transport.entity.Warehouse;
+import org.example.transport.enums.DeliveryStatus;
 import org.example.transport.enums.OptimizationAlgorithm;
+import org.example.transport.enums.OptimizationStrategy;
+import org.example.transport.enums.TourStatus;
 import org.example.transport.exception.InvalidTourException;
 import org.example.transport.exception.ResourceNotFoundException;
 import org.example.transport.mapper.DeliveryMapper;
 import org.example.transport.mapper.TourMapper;
+import org.example.transport.optimizer.AutoStrategySelector;
 import org.example.transport.optimizer.ClarkeWrightOptimizer;
+import org.example.transport.optimizer.ExactOptimizer;
+import org.example.transport.optimizer.LowerBoundCalculator;
 import org.example.transport.optimizer.NearestNeighborOptimizer;
+import org.example.transport.optimizer.OptimizationPhaseEvent;
+import org.example.transport.optimizer.OptimizationRun;
+import org.example.transport.optimizer.SpaceFillingCurveOptimizer;
 import org.example.transport.optimizer.TourOptimizer;
+import org.example.transport.optimizer.TwoOptImprover;
 import org.example.transport.repository.DeliveryRepository;
+import org.example.transport.repository.OptimizationRunLogRepository;
 import org.example.transport.repository.TourRepository;
 import org.example.transport.repository.VehicleRepository;
 import org.example.transport.repository.WarehouseRepository;
 import org.example.transport.util.DistanceCalculator;
+import org.example.transport.util.PageCursor;
+import org.example.transport.util.Tsplib;
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.StringWriter;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 /**
  * Service for managing tours and optimization
  */
 @Service
+@Transactional(readOnly = true)
 public class TourService {
 
     private static final Logger logger = LoggerFactory.getLogger(TourService.class);
 
+    private static final String UPDATE_TOUR_TOTALS_SQL =
+            "UPDATE tours SET algorithm = ?, total_distance_km = ?, total_weight_kg = ?, total_volume_m3 = ?, " +
+            "optimized = TRUE, version = version + 1 WHERE id = ? AND version = ?";
+    private static final String UPDATE_SEQUENCE_SQL =
+            "UPDATE deliveries SET sequence_in_tour = ?, version = version + 1 WHERE id = ? AND tour_id = ? AND version = ?";
+
     private final TourRepository tourRepository;
     private final VehicleRepository vehicleRepository;
     private final WarehouseRepository warehouseRepository;
     private final DeliveryRepository deliveryRepository;
     private final NearestNeighborOptimizer nearestNeighborOptimizer;
     private final ClarkeWrightOptimizer clarkeWrightOptimizer;
+    private final TwoOptImprover twoOptImprover;
+    private final LowerBoundCalculator lowerBoundCalculator;
+    private final ExactOptimizer exactOptimizer;
+    private final SpaceFillingCurveOptimizer spaceFillingCurveOptimizer;
+    private final AutoStrategySelector autoStrategySelector;
+    private final OptimizationRunLogRepository optimizationRunLogRepository;
+    private final DeliveryHistoryWriter deliveryHistoryWriter;
+    private final TourLockManager tourLockManager;
+    private final OptimizationMetrics optimizationMetrics;
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final double averageSpeedKmh;
+    private final int serviceMinutesPerStop;
 
     public TourService(TourRepository tourRepository,
                        VehicleRepository vehicleRepository,
                        WarehouseRepository warehouseRepository,
                        DeliveryRepository deliveryRepository,
                        NearestNeighborOptimizer nearestNeighborOptimizer,
-                       ClarkeWrightOptimizer clarkeWrightOptimizer) {
+                       ClarkeWrightOptimizer clarkeWrightOptimizer,
+                       TwoOptImprover twoOptImprover,
+                       LowerBoundCalculator lowerBoundCalculator,
+                       ExactOptimizer exactOptimizer,
+                       SpaceFillingCurveOptimizer spaceFillingCurveOptimizer,
+                       AutoStrategySelector autoStrategySelector,
+                       OptimizationRunLogRepository optimizationRunLogRepository,
+                       DeliveryHistoryWriter deliveryHistoryWriter,
+                       TourLockManager tourLockManager,
+                       OptimizationMetrics optimizationMetrics,
+                       EntityManagerFactory entityManagerFactory,
+                       JdbcTemplate jdbcTemplate,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${tour.planning.average-speed-kmh:30}") double averageSpeedKmh,
+                       @Value("${tour.planning.service-minutes-per-stop:5}") int serviceMinutesPerStop) {
         this.tourRepository = tourRepository;
         this.vehicleRepository = vehicleRepository;
         this.warehouseRepository = warehouseRepository;
         this.deliveryRepository = deliveryRepository;
         this.nearestNeighborOptimizer = nearestNeighborOptimizer;
         this.clarkeWrightOptimizer = clarkeWrightOptimizer;
+        this.twoOptImprover = twoOptImprover;
+        this.lowerBoundCalculator = lowerBoundCalculator;
+        this.exactOptimizer = exactOptimizer;
+        this.spaceFillingCurveOptimizer = spaceFillingCurveOptimizer;
+        this.autoStrategySelector = autoStrategySelector;
+        this.optimizationRunLogRepository = optimizationRunLogRepository;
+        this.deliveryHistoryWriter = deliveryHistoryWriter;
+        this.tourLockManager = tourLockManager;
+        this.optimizationMetrics = optimizationMetrics;
+        this.entityManagerFactory = entityManagerFactory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransaction.setReadOnly(true);
+        this.averageSpeedKmh = averageSpeedKmh;
+        this.serviceMinutesPerStop = serviceMinutesPerStop;
     }
 
-    public List<TourDTO> getAllTours() {
-        logger.info("Fetching all tours");
-        return tourRepository.findAll().stream()
-                .map(TourMapper::toDTO)
-                .collect(Collectors.toList());
+    /**
+     * One keyset page of tours, newest first
+     * @param cursor Continuation token from the previous page, null for the first page
+     */
+    public CursorPageDTO<TourDTO> getAllTours(String cursor, Integer size) {
+        logger.info("Fetching tours page");
+        int pageSize = PageCursor.pageSize(size);
+        PageCursor.DateKey after = PageCursor.decodeDateKey(cursor);
+        PageRequest limit = PageRequest.ofSize(pageSize + 1);
+        List<TourDTO> rows = after == null ? tourRepository.findFirstPageAsDTO(limit)
+                : tourRepository.findPageAsDTOBefore(after.date(), after.id(), limit);
+        CursorPageDTO<TourDTO> page = PageCursor.page(rows, pageSize,
+                t -> PageCursor.encode(t.getTourDate(), t.getId()));
+        if (!page.getItems().isEmpty()) {
+            withDeliveryIds(page.getItems(), deliveryRepository.findDeliveryIdsByTourIds(
+                    page.getItems().stream().map(TourDTO::getId).toList()));
+        }
+        return page;
     }
 
     public TourDTO getTourById(Long id) {
@@ -71,6 +177,7 @@ public class TourService {
         return TourMapper.toDTO(tour);
     }
 
+    @Transactional
     public TourDTO createTour(TourDTO tourDTO) {
         logger.info("Creating new tour for date: {}", tourDTO.getTourDate());
         
@@ -91,49 +198,305 @@ public class TourService {
         return TourMapper.toDTO(saved);
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void deleteTour(Long id) {
-        logger.info("Deleting tour with id: {}", id);
-        if (!tourRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Tour", id);
-        }
-        tourRepository.deleteById(id);
-        logger.info("Tour deleted: {}", id);
+        tourLockManager.inTransaction(id, () -> {
+            logger.info("Deleting tour with id: {}", id);
+            if (!tourRepository.existsById(id)) {
+                throw new ResourceNotFoundException("Tour", id);
+            }
+            tourRepository.deleteById(id);
+            logger.info("Tour deleted: {}", id);
+            return null;
+        });
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public TourDTO addDeliveryToTour(Long tourId, Long deliveryId) {
-        logger.info("Adding delivery {} to tour {}", deliveryId, tourId);
+        return tourLockManager.inTransaction(tourId, () -> {
+            logger.info("Adding delivery {} to tour {}", deliveryId, tourId);
         
-        Tour tour = tourRepository.findById(tourId)
-                .orElseThrow(() -> new ResourceNotFoundException("Tour", tourId));
+            // New stops must invalidate optimizations still running on the old snapshot
+            Tour tour = tourRepository.findWithVersionIncrementById(tourId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Tour", tourId));
         
-        Delivery delivery = deliveryRepository.findById(deliveryId)
-                .orElseThrow(() -> new ResourceNotFoundException("Delivery", deliveryId));
+            Delivery delivery = deliveryRepository.findById(deliveryId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Delivery", deliveryId));
 
-        tour.addDelivery(delivery);
-        tour.setOptimized(false);
-        Tour updated = tourRepository.save(tour);
+            tour.addDelivery(delivery);
+            tour.setOptimized(false);
+            Tour updated = tourRepository.save(tour);
         
-        logger.info("Delivery added to tour: {}", tourId);
-        return TourMapper.toDTO(updated);
+            logger.info("Delivery added to tour: {}", tourId);
+            return TourMapper.toDTO(updated);
+        });
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public TourDTO startTour(Long tourId) {
+        return tourLockManager.inTransaction(tourId, () -> {
+            logger.info("Starting tour {}", tourId);
+            Tour tour = tourRepository.findWithDeliveriesById(tourId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Tour", tourId));
+            requireStatus(tour, TourStatus.PENDING);
+            if (tour.getDeliveries().isEmpty()) {
+                throw new InvalidTourException("Cannot start tour with no deliveries");
+            }
+
+            tour.setStatus(TourStatus.IN_PROGRESS);
+            tour.setStartTime(LocalDateTime.now());
+            tour.getDeliveries().forEach(d -> d.setStatus(DeliveryStatus.IN_TRANSIT));
+
+            logger.info("Tour {} started", tourId);
+            return TourMapper.toDTO(tourRepository.save(tour));
+        });
+    }
+
+    /**
+     * Complete a tour and record one DeliveryHistory row per stop
+     * History rows are handed to the asynchronous writer once the transaction commits.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public TourDTO completeTour(Long tourId, TourCompletionDTO completion) {
+        return tourLockManager.inTransaction(tourId, () -> {
+            logger.info("Completing tour {}", tourId);
+            Tour tour = tourRepository.findWithDeliveriesById(tourId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Tour", tourId));
+            requireStatus(tour, TourStatus.IN_PROGRESS);
+
+            Map<Long, TourCompletionDTO.StopReport> reports = new HashMap<>();
+            if (completion != null && completion.getStops() != null) {
+                completion.getStops().forEach(report -> reports.put(report.getDeliveryId(), report));
+            }
+
+            tour.setStatus(TourStatus.COMPLETED);
+            tour.setCompletionTime(LocalDateTime.now());
+            List<DeliveryHistory> history = buildHistory(tour, reports);
+            Tour saved = tourRepository.save(tour);
+
+            deliveryHistoryWriter.submit(history);
+            logger.info("Tour {} completed, {} history rows queued", tourId, history.size());
+            return TourMapper.toDTO(saved);
+        });
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public TourDTO cancelTour(Long tourId) {
+        return tourLockManager.inTransaction(tourId, () -> {
+            logger.info("Cancelling tour {}", tourId);
+            Tour tour = tourRepository.findWithDeliveriesById(tourId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Tour", tourId));
+            requireStatus(tour, TourStatus.PENDING, TourStatus.IN_PROGRESS);
+
+            tour.setStatus(TourStatus.CANCELLED);
+            tour.setCompletionTime(LocalDateTime.now());
+            tour.getDeliveries().stream()
+                    .filter(d -> d.getStatus() == DeliveryStatus.IN_TRANSIT)
+                    .forEach(d -> d.setStatus(DeliveryStatus.PENDING));
+
+            logger.info("Tour {} cancelled", tourId);
+            return TourMapper.toDTO(tourRepository.save(tour));
+        });
+    }
+
+    private void requireStatus(Tour tour, TourStatus... allowed) {
+        for (TourStatus status : allowed) {
+            if (tour.getStatus() == status) {
+                return;
+            }
+        }
+        throw new InvalidTourException(String.format("Tour %d is %s, expected one of %s",
+                tour.getId(), tour.getStatus(), Arrays.toString(allowed)));
+    }
+
+    /**
+     * Build history rows in tour order
+     * Planned times assume the configured average speed plus a fixed service time per stop,
+     * delay is the reported actual time minus the planned time.
+     */
+    private List<DeliveryHistory> buildHistory(Tour tour, Map<Long, TourCompletionDTO.StopReport> reports) {
+        List<Delivery> stops = new ArrayList<>(tour.getDeliveries());
+        stops.sort((a, b) -> Integer.compare(
+                a.getSequenceInTour() != null ? a.getSequenceInTour() : Integer.MAX_VALUE,
+                b.getSequenceInTour() != null ? b.getSequenceInTour() : Integer.MAX_VALUE));
+
+        Warehouse warehouse = tour.getWarehouse();
+        LocalDate date = tour.getTourDate();
+        LocalDateTime clock = tour.getStartTime() != null ? tour.getStartTime() : date.atTime(warehouse.getOpeningTime());
+        double previousLat = warehouse.getLatitude();
+        double previousLon = warehouse.getLongitude();
+
+        List<DeliveryHistory> rows = new ArrayList<>(stops.size());
+        for (int i = 0; i < stops.size(); i++) {
+            Delivery delivery = stops.get(i);
+            double lat = delivery.getEffectiveLatitude();
+            double lon = delivery.getEffectiveLongitude();
+            double fromPrevious = DistanceCalculator.calculateDistance(previousLat, previousLon, lat, lon);
+            double fromWarehouse = DistanceCalculator.calculateDistance(
+                    warehouse.getLatitude(), warehouse.getLongitude(), lat, lon);
+
+            clock = clock.plusSeconds(Math.round(fromPrevious / averageSpeedKmh * 3600));
+            LocalDateTime planned = clock;
+            clock = clock.plusMinutes(serviceMinutesPerStop);
+
+            TourCompletionDTO.StopReport report = reports.get(delivery.getId());
+            LocalTime actual = report != null ? report.getActualTime() : null;
+            DeliveryStatus status = report != null && report.getStatus() != null
+                    ? report.getStatus() : DeliveryStatus.DELIVERED;
+            delivery.setStatus(status);
+
+            rows.add(DeliveryHistory.builder()
+                    .deliveryDate(date)
+                    .dayOfWeek(date.getDayOfWeek())
+                    .customer(delivery.getCustomer())
+                    .customerName(delivery.getCustomer().getName())
+                    .deliveryAddress(delivery.getEffectiveAddress())
+                    .latitude(lat)
+                    .longitude(lon)
+                    .tour(tour)
+                    .sequenceInTour(i + 1)
+                    .plannedTime(planned.toLocalTime())
+                    .actualTime(actual)
+                    .delayMinutes(actual != null ? delayMinutes(planned, actual) : null)
+                    .preferredTimeSlot(delivery.getPreferredTimeSlot() != null
+                            ? delivery.getPreferredTimeSlot() : delivery.getCustomer().getPreferredTimeSlot())
+                    .weightKg(delivery.getWeightKg())
+                    .volumeM3(delivery.getVolumeM3())
+                    .deliveryStatus(status.name())
+                    .vehicleType(tour.getVehicle().getType().name())
+                    .vehicleRegistration(tour.getVehicle().getRegistrationNumber())
+                    .distanceFromWarehouseKm(fromWarehouse)
+                    .distanceFromPreviousDeliveryKm(fromPrevious)
+                    .notes(report != null ? report.getNotes() : null)
+                    .build());
+
+            previousLat = lat;
+            previousLon = lon;
+        }
+        return rows;
     }
 
+    /**
+     * Minutes from the planned time to a reported time of day, taken as the occurrence
+     * nearest to the plan, so a stop planned at 23:55 and delivered at 00:05 is 10 minutes late
+     */
+    static int delayMinutes(LocalDateTime planned, LocalTime actual) {
+        LocalDateTime reported = planned.toLocalDate().atTime(actual);
+        if (Duration.between(planned, reported).toHours() >= 12) {
+            reported = reported.minusDays(1);
+        } else if (Duration.between(reported, planned).toHours() >= 12) {
+            reported = reported.plusDays(1);
+        }
+        return (int) Duration.between(planned, reported).toMinutes();
+    }
+
+    /**
+     * Optimize a tour in three steps so no connection is held while the optimizer runs
+     * The tour is loaded as a detached snapshot in a read-only transaction, optimized
+     * without a transaction, then written back in a short transaction that only succeeds
+     * if the tour was not changed in between, together with a row of the optimization run log.
+     * Only the write-back holds the tour's lock, so same-tour mutations never wait for the
+     * optimizer; one that lands meanwhile fails the version check and the optimization is
+     * re-run on a fresh snapshot.
+     * @throws ObjectOptimisticLockingFailureException When the tour or its stops kept changing during optimization
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public OptimizedTourResponseDTO getOptimizedTour(Long tourId, OptimizationAlgorithm algorithm) {
+        return getOptimizedTour(tourId, algorithm, false);
+    }
+
+    /**
+     * Optimize a tour, see {@link #getOptimizedTour(Long, OptimizationAlgorithm)}
+     * @param diagnostics Add phase timings, distance evaluations, stage distances, fallbacks
+     *                    and cache lookups to the response
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public OptimizedTourResponseDTO getOptimizedTour(Long tourId, OptimizationAlgorithm algorithm, boolean diagnostics) {
+        return getOptimizedTour(tourId, algorithm, diagnostics, null);
+    }
+
+    /**
+     * Optimize a tour, see {@link #getOptimizedTour(Long, OptimizationAlgorithm)}
+     * @param latencyBudgetMs Compute time for AUTO, null for the budget of the vehicle type;
+     *                        explicit algorithms run unbounded
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public OptimizedTourResponseDTO getOptimizedTour(Long tourId, OptimizationAlgorithm algorithm, boolean diagnostics,
+                                                     Long latencyBudgetMs) {
+        if (latencyBudgetMs != null && latencyBudgetMs < 0) {
+            throw new InvalidTourException("Latency budget must not be negative");
+        }
+        AtomicInteger attempts = new AtomicInteger();
+        // A conflict re-runs the whole optimization on a fresh snapshot
+        OptimizedTourResponseDTO response = optimizationMetrics.recordOptimization(algorithm,
+                () -> tourLockManager.retrying(tourId, () -> {
+                    attempts.incrementAndGet();
+                    try (OptimizationRun run = OptimizationRun.open(diagnostics)) {
+                        return optimize(tourId, algorithm, latencyBudgetMs, run);
+                    }
+                }));
+        if (response.getDiagnostics() != null) {
+            response.getDiagnostics().setAttempts(attempts.get());
+        }
+        return response;
+    }
+
+    private OptimizedTourResponseDTO optimize(Long tourId, OptimizationAlgorithm algorithm, Long latencyBudgetMs,
+                                              OptimizationRun run) {
         logger.info("Optimizing tour {} with algorithm: {}", tourId, algorithm);
-        
-        Tour tour = tourRepository.findById(tourId)
-                .orElseThrow(() -> new ResourceNotFoundException("Tour", tourId));
+
+        OptimizationPhaseEvent loadPhase = OptimizationPhaseEvent.start(OptimizationPhaseEvent.SNAPSHOT_LOAD);
+        Tour tour = optimizationMetrics.recordPhase(algorithm, OptimizationMetrics.PHASE_LOAD,
+                () -> readOnlyTransaction.execute(status -> loadSnapshot(tourId, run.isDiagnostic())));
+        loadPhase.end(tourId, tour.getDeliveries().size(), algorithm);
 
         if (tour.getDeliveries().isEmpty()) {
             throw new InvalidTourException("Cannot optimize tour with no deliveries");
         }
 
-        // Select optimizer based on algorithm
-        TourOptimizer optimizer = algorithm == OptimizationAlgorithm.CLARKE_WRIGHT 
-                ? clarkeWrightOptimizer 
-                : nearestNeighborOptimizer;
-
-        // Calculate optimal tour
-        List<Delivery> optimizedDeliveries = optimizer.calculateOptimalTour(tour);
+        // AUTO picks a strategy for the tour, explicit algorithms construct and improve
+        AutoStrategySelector.Plan plan = algorithm == OptimizationAlgorithm.AUTO
+                ? autoStrategySelector.select(tour, latencyBudgetMs)
+                : localSearchPlan(algorithm);
+        OptimizationAlgorithm used = plan.construction() != null ? plan.construction() : algorithm;
+        TourOptimizer optimizer = switch (plan.strategy()) {
+            case EXACT -> exactOptimizer;
+            case SPACE_FILLING_CURVE -> spaceFillingCurveOptimizer;
+            case LOCAL_SEARCH -> used == OptimizationAlgorithm.CLARKE_WRIGHT
+                    ? clarkeWrightOptimizer
+                    : nearestNeighborOptimizer;
+        };
+        double initialDistance = run.isDiagnostic() ? getTotalDistance(tour, currentOrder(tour)) : 0.0;
+
+        // Construct a route, then improve it until it is close enough to the lower bound or the budget is spent
+        long computeStart = System.nanoTime();
+        Long deadline = plan.budget() != null ? computeStart + plan.budget().toNanos() : null;
+        List<Delivery> optimizedDeliveries = optimizationMetrics.recordPhase(algorithm,
+                OptimizationMetrics.PHASE_COMPUTE, () -> {
+                    List<Delivery> constructed = optimizer.calculateOptimalTour(tour, deadline);
+                    if (run.isDiagnostic()) {
+                        OptimizationRun.addStage(stageName(plan.strategy()), initialDistance,
+                                getTotalDistance(tour, constructed));
+                    }
+                    if (plan.strategy() != OptimizationStrategy.LOCAL_SEARCH) {
+                        return constructed;
+                    }
+                    if (optimizer == nearestNeighborOptimizer && nearestNeighborOptimizer.usesDelayCost(tour)) {
+                        // 2-opt only sees distance and would undo the delay-aware order
+                        if (run.isDiagnostic()) {
+                            double distance = getTotalDistance(tour, constructed);
+                            OptimizationRun.addStage(TwoOptImprover.STAGE, distance, distance,
+                                    TwoOptImprover.SKIPPED_FOR_DELAY_COST);
+                        }
+                        return constructed;
+                    }
+                    Duration remaining = plan.budget() != null
+                            ? plan.budget().minusNanos(System.nanoTime() - computeStart)
+                            : null;
+                    return twoOptImprover.improve(tour, constructed, used, remaining);
+                });
+        double runtimeMs = (System.nanoTime() - computeStart) / 1_000_000.0;
+        optimizationMetrics.recordRun(algorithm, optimizedDeliveries.size(), run.getDistanceEvaluations());
 
         // Update sequence numbers
         for (int i = 0; i < optimizedDeliveries.size(); i++) {
@@ -149,8 +512,29 @@ public class TourService {
         tour.setTotalWeightKg(optimizedDeliveries.stream().mapToDouble(Delivery::getWeightKg).sum());
         tour.setTotalVolumeM3(optimizedDeliveries.stream().mapToDouble(Delivery::getVolumeM3).sum());
         tour.setOptimized(true);
-        
-        tourRepository.save(tour);
+
+        OptimizationRunLog runLog = OptimizationRunLog.builder()
+                .tourId(tourId)
+                .algorithm(algorithm)
+                .strategy(plan.strategy())
+                .construction(plan.construction())
+                .vehicleType(tour.getVehicle().getType())
+                .stops(optimizedDeliveries.size())
+                .spreadKm(AutoStrategySelector.spreadKm(tour))
+                .runtimeMs(runtimeMs)
+                .distanceKm(totalDistance)
+                .lowerBoundKm(run.getLowerBoundKm())
+                .gapPercent(gapPercent(totalDistance, run.getLowerBoundKm()))
+                .createdAt(LocalDateTime.now())
+                .build();
+
+        OptimizationPhaseEvent persistPhase = OptimizationPhaseEvent.start(OptimizationPhaseEvent.PERSIST);
+        optimizationMetrics.recordPhase(algorithm, OptimizationMetrics.PHASE_PERSIST, () ->
+                tourLockManager.withLock(tourId, () -> transactionTemplate.execute(status -> {
+                    writeOptimization(tour, optimizedDeliveries);
+                    return optimizationRunLogRepository.save(runLog);
+                })));
+        persistPhase.end(tourId, optimizedDeliveries.size(), algorithm);
 
         // Create response
         List<DeliveryDTO> deliveryDTOs = optimizedDeliveries.stream()
@@ -165,10 +549,126 @@ public class TourService {
                 deliveryDTOs,
                 totalDistance,
                 tour.getTotalWeightKg(),
-                tour.getTotalVolumeM3()
+                tour.getTotalVolumeM3(),
+                run.isDiagnostic() ? toDiagnostics(run, plan, used, totalDistance) : null
         );
     }
 
+    /**
+     * Construction and 2-opt with an explicit algorithm, AI is not available for stored tours
+     */
+    private static AutoStrategySelector.Plan localSearchPlan(OptimizationAlgorithm algorithm) {
+        OptimizationAlgorithm construction = algorithm == OptimizationAlgorithm.CLARKE_WRIGHT
+                ? OptimizationAlgorithm.CLARKE_WRIGHT
+                : OptimizationAlgorithm.NEAREST_NEIGHBOR;
+        if (construction != algorithm) {
+            OptimizationRun.addFallback(algorithm + " -> " + construction);
+        }
+        return new AutoStrategySelector.Plan(OptimizationStrategy.LOCAL_SEARCH, construction, null, null);
+    }
+
+    /**
+     * Diagnostics stage of the route a strategy starts from
+     */
+    private static String stageName(OptimizationStrategy strategy) {
+        return switch (strategy) {
+            case EXACT -> OptimizationPhaseEvent.EXACT_SEARCH;
+            case SPACE_FILLING_CURVE -> OptimizationPhaseEvent.SPACE_FILLING_CURVE;
+            case LOCAL_SEARCH -> OptimizationPhaseEvent.CONSTRUCTION;
+        };
+    }
+
+    private static Double gapPercent(double distanceKm, Double lowerBoundKm) {
+        return lowerBoundKm != null ? LowerBoundCalculator.gap(distanceKm, lowerBoundKm) * 100 : null;
+    }
+
+    private static OptimizationDiagnosticsDTO toDiagnostics(OptimizationRun run, AutoStrategySelector.Plan plan,
+                                                            OptimizationAlgorithm used, double totalDistance) {
+        Double lowerBound = run.getLowerBoundKm();
+        Map<String, Double> phaseMillis = new LinkedHashMap<>();
+        run.getPhaseNanos().forEach((phase, nanos) -> phaseMillis.put(phase, nanos / 1_000_000.0));
+        return OptimizationDiagnosticsDTO.builder()
+                .algorithmUsed(used)
+                .strategy(plan.strategy())
+                .strategyReason(plan.reason())
+                .latencyBudgetMs(plan.budget() != null ? plan.budget().toMillis() : null)
+                .fallbacks(run.getFallbacks())
+                .phaseMillis(phaseMillis)
+                .distanceEvaluations(run.getDistanceEvaluations())
+                .stages(run.getStages().stream()
+                        .map(s -> new OptimizationDiagnosticsDTO.Stage(s.name(), s.initialDistanceKm(),
+                                s.finalDistanceKm(), s.stopReason()))
+                        .toList())
+                .lowerBoundKm(lowerBound)
+                .gapPercent(gapPercent(totalDistance, lowerBound))
+                .cacheHits(run.getCacheHits())
+                .cacheMisses(run.getCacheMisses())
+                .build();
+    }
+
+    /**
+     * Load a tour with everything the optimizers read, so it can be used once detached
+     * @param countCacheLookups Record in the open run which references were second-level cache hits
+     */
+    private Tour loadSnapshot(Long tourId, boolean countCacheLookups) {
+        Tour tour = tourRepository.findWithDeliveriesById(tourId)
+                .orElseThrow(() -> new ResourceNotFoundException("Tour", tourId));
+        if (countCacheLookups) {
+            countCacheLookups(tour);
+        }
+        Hibernate.initialize(tour.getVehicle());
+        Hibernate.initialize(tour.getWarehouse());
+        // Customers come from the second-level cache, misses load in batches
+        tour.getDeliveries().forEach(d -> Hibernate.initialize(d.getCustomer()));
+        return tour;
+    }
+
+    /**
+     * Check the vehicle, warehouse and distinct customers against the second-level cache
+     * Runs before the proxies are initialized, afterwards every one of them is cached.
+     * Reading the id of a proxy does not initialize it.
+     */
+    private void countCacheLookups(Tour tour) {
+        Cache cache = entityManagerFactory.getCache();
+        OptimizationRun.addCacheLookup(cache.contains(Vehicle.class, tour.getVehicle().getId()));
+        OptimizationRun.addCacheLookup(cache.contains(Warehouse.class, tour.getWarehouse().getId()));
+        tour.getDeliveries().stream()
+                .map(d -> d.getCustomer().getId())
+                .distinct()
+                .forEach(id -> OptimizationRun.addCacheLookup(cache.contains(Customer.class, id)));
+    }
+
+    /**
+     * Write the new stop order and totals with two statements and a version check
+     * The tour update fails if the tour was saved since the snapshot, a stop update fails
+     * if the delivery was changed or left the tour. Either way nothing is written.
+     */
+    private void writeOptimization(Tour tour, List<Delivery> optimizedDeliveries) {
+        int updated = jdbcTemplate.update(UPDATE_TOUR_TOTALS_SQL,
+                tour.getAlgorithm().name(), tour.getTotalDistanceKm(), tour.getTotalWeightKg(),
+                tour.getTotalVolumeM3(), tour.getId(), tour.getVersion());
+        if (updated != 1) {
+            throw new ObjectOptimisticLockingFailureException(Tour.class, tour.getId());
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SEQUENCE_SQL, optimizedDeliveries,
+                optimizedDeliveries.size(), (ps, delivery) -> {
+                    ps.setInt(1, delivery.getSequenceInTour());
+                    ps.setLong(2, delivery.getId());
+                    ps.setLong(3, tour.getId());
+                    ps.setLong(4, delivery.getVersion());
+                });
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                // SUCCESS_NO_INFO (-2) is a success whose row count the driver did not report
+                if (count == 0) {
+                    throw new ObjectOptimisticLockingFailureException(Tour.class, tour.getId());
+                }
+            }
+        }
+        tour.setVersion(tour.getVersion() + 1);
+        optimizedDeliveries.forEach(d -> d.setVersion(d.getVersion() + 1));
+    }
+
     public Double getTotalDistance(Long tourId) {
         logger.info("Calculating total distance for tour: {}", tourId);
         Tour tour = tourRepository.findById(tourId)
@@ -178,47 +678,67 @@ public class TourService {
         return getTotalDistance(tour, deliveries);
     }
 
-    private Double getTotalDistance(Tour tour, List<Delivery> deliveries) {
-        if (deliveries.isEmpty()) {
-            return 0.0;
-        }
-
-        double totalDistance = 0.0;
-        double currentLat = tour.getWarehouse().getLatitude();
-        double currentLon = tour.getWarehouse().getLongitude();
+    /**
+     * Gap between the tour's distance in its current stop order and a lower bound on the optimum
+     * The bound is computed on every call, O(n^2) per subgradient iteration.
+     */
+    public OptimalityGapDTO getOptimalityGap(Long tourId) {
+        logger.info("Calculating optimality gap for tour: {}", tourId);
+        Tour tour = tourRepository.findById(tourId)
+                .orElseThrow(() -> new ResourceNotFoundException("Tour", tourId));
 
-        // Distance from warehouse to first delivery
-        Delivery firstDelivery = deliveries.get(0);
-        totalDistance += DistanceCalculator.calculateDistance(
-                currentLat, currentLon,
-                firstDelivery.getEffectiveLatitude(), firstDelivery.getEffectiveLongitude()
-        );
+        List<Delivery> deliveries = deliveryRepository.findByTourIdOrderBySequence(tourId);
+        double distance = getTotalDistance(tour, deliveries);
+        Double lowerBound = lowerBoundCalculator.lowerBound(tour, deliveries);
+        return new OptimalityGapDTO(tourId, deliveries.size(), distance, lowerBound, gapPercent(distance, lowerBound));
+    }
 
-        // Distance between deliveries
-        for (int i = 0; i < deliveries.size() - 1; i++) {
-            Delivery current = deliveries.get(i);
-            Delivery next = deliveries.get(i + 1);
-            totalDistance += DistanceCalculator.calculateDistance(
-                    current.getEffectiveLatitude(), current.getEffectiveLongitude(),
-                    next.getEffectiveLatitude(), next.getEffectiveLongitude()
-            );
-        }
+    /**
+     * Export a tour as a TSPLIB GEO instance, stops in their current sequence
+     * Unsequenced stops follow the sequenced ones in id order.
+     */
+    public String exportTsplib(Long tourId) {
+        Tour tour = loadSnapshot(tourId, false);
+        StringWriter out = new StringWriter();
+        Tsplib.write(tour, currentOrder(tour), out);
+        return out.toString();
+    }
 
-        // Distance from last delivery back to warehouse
-        Delivery lastDelivery = deliveries.get(deliveries.size() - 1);
-        totalDistance += DistanceCalculator.calculateDistance(
-                lastDelivery.getEffectiveLatitude(), lastDelivery.getEffectiveLongitude(),
-                tour.getWarehouse().getLatitude(), tour.getWarehouse().getLongitude()
-        );
+    /**
+     * Stops in their current sequence, unsequenced stops after the sequenced ones in id order
+     */
+    private static List<Delivery> currentOrder(Tour tour) {
+        List<Delivery> route = new ArrayList<>(tour.getDeliveries());
+        route.sort(Comparator.comparing(Delivery::getSequenceInTour, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(Delivery::getId));
+        return route;
+    }
 
-        return totalDistance;
+    private Double getTotalDistance(Tour tour, List<Delivery> deliveries) {
+        return DistanceCalculator.tourDistance(tour.getWarehouse(), deliveries);
     }
 
     public List<TourDTO> getToursByDate(LocalDate date) {
         logger.info("Fetching tours for date: {}", date);
-        return tourRepository.findByTourDate(date).stream()
-                .map(TourMapper::toDTO)
-                .collect(Collectors.toList());
+        List<TourDTO> tours = tourRepository.findAsDTOByTourDate(date);
+        return tours.isEmpty() ? tours : withDeliveryIds(tours, deliveryRepository.findDeliveryIdsByTourIds(
+                tours.stream().map(TourDTO::getId).toList()));
+    }
+
+    /**
+     * Fill the delivery ids of projected tours
+     * @param deliveryIds Rows of [tourId, deliveryId] in tour order
+     */
+    private List<TourDTO> withDeliveryIds(List<TourDTO> tours, List<Object[]> deliveryIds) {
+        Map<Long, TourDTO> byId = new HashMap<>();
+        tours.forEach(tour -> byId.put(tour.getId(), tour));
+        for (Object[] row : deliveryIds) {
+            TourDTO tour = byId.get((Long) row[0]);
+            if (tour != null) {
+                tour.getDeliveryIds().add((Long) row[1]);
+            }
+        }
+        return tours;
     }
 
     public Double getAverageDistanceByAlgorithm(OptimizationAlgorithm algorithm) {
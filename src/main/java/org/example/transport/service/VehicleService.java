@@ -1,14 +1,18 @@
 package org.example.transport.service;
 
+import org.example.transport.dto.CursorPageDTO;
 import org.example.transport.dto.VehicleDTO;
 import org.example.transport.entity.Vehicle;
 import org.example.transport.enums.VehicleType;
 import org.example.transport.exception.ResourceNotFoundException;
 import org.example.transport.mapper.VehicleMapper;
 import org.example.transport.repository.VehicleRepository;
+import org.example.transport.util.PageCursor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -17,6 +21,7 @@ import java.util.stream.Collectors;
  * Service for managing vehicles
  */
 @Service
+@Transactional(readOnly = true)
 public class VehicleService {
 
     private static final Logger logger = LoggerFactory.getLogger(VehicleService.class);
@@ -27,11 +32,18 @@ public class VehicleService {
         this.vehicleRepository = vehicleRepository;
     }
 
-    public List<VehicleDTO> getAllVehicles() {
-        logger.info("Fetching all vehicles");
-        return vehicleRepository.findAll().stream()
-                .map(VehicleMapper::toDTO)
-                .collect(Collectors.toList());
+    /**
+     * One keyset page of vehicles ordered by id
+     * @param cursor Continuation token from the previous page, null for the first page
+     */
+    public CursorPageDTO<VehicleDTO> getAllVehicles(String cursor, Integer size) {
+        logger.info("Fetching vehicles page");
+        int pageSize = PageCursor.pageSize(size);
+        Long afterId = PageCursor.decodeId(cursor);
+        PageRequest limit = PageRequest.ofSize(pageSize + 1);
+        List<VehicleDTO> rows = afterId == null ? vehicleRepository.findFirstPageAsDTO(limit)
+                : vehicleRepository.findPageAsDTOAfter(afterId, limit);
+        return PageCursor.page(rows, pageSize, v -> PageCursor.encode(v.getId()));
     }
 
     public VehicleDTO getVehicleById(Long id) {
@@ -41,6 +53,7 @@ public class VehicleService {
         return VehicleMapper.toDTO(vehicle);
     }
 
+    @Transactional
     public VehicleDTO createVehicle(VehicleDTO vehicleDTO) {
         logger.info("Creating new vehicle: {}", vehicleDTO.getRegistrationNumber());
         Vehicle vehicle = VehicleMapper.toEntity(vehicleDTO);
@@ -49,6 +62,7 @@ public class VehicleService {
         return VehicleMapper.toDTO(saved);
     }
 
+    @Transactional
     public VehicleDTO updateVehicle(Long id, VehicleDTO vehicleDTO) {
         logger.info("Updating vehicle with id: {}", id);
         Vehicle vehicle = vehicleRepository.findById(id)
@@ -59,6 +73,7 @@ public class VehicleService {
         return VehicleMapper.toDTO(updated);
     }
 
+    @Transactional
     public void deleteVehicle(Long id) {
         logger.info("Deleting vehicle with id: {}", id);
         if (!vehicleRepository.existsById(id)) {
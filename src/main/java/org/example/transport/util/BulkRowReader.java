@@ -0,0 +1,124 @@
+package org.example.transport.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Line-oriented reader for bulk imports in CSV or NDJSON
+ * CSV input starts with a header row naming the DTO fields, values may be wrapped in
+ * double quotes. A row that cannot be parsed is returned with an error instead of
+ * ending the import.
+ */
+public class BulkRowReader<T> implements Closeable {
+
+    /**
+     * One input row: the parsed value, or the reason it could not be parsed
+     */
+    public record Row<T>(long line, T value, String error) {
+    }
+
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private final Class<T> type;
+    private final boolean csv;
+    private String[] header;
+    private long line;
+
+    public BulkRowReader(InputStream in, boolean csv, ObjectMapper objectMapper, Class<T> type) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+        this.csv = csv;
+        this.objectMapper = objectMapper;
+        this.type = type;
+    }
+
+    /**
+     * @return Next non-blank row, or null at the end of the input
+     */
+    public Row<T> next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            line++;
+            if (text == null) {
+                return null;
+            }
+            if (csv && header == null && !text.isBlank()) {
+                header = splitCsv(text);
+                text = "";
+            }
+        } while (text.isBlank());
+
+        try {
+            T value = csv
+                    ? objectMapper.convertValue(toFields(splitCsv(text)), type)
+                    : objectMapper.readValue(text, type);
+            return new Row<>(line, value, null);
+        } catch (JsonProcessingException e) {
+            return new Row<>(line, null, "Unparseable row: " + e.getOriginalMessage());
+        } catch (IllegalArgumentException e) {
+            String message = e.getCause() instanceof JsonProcessingException cause
+                    ? cause.getOriginalMessage() : e.getMessage();
+            return new Row<>(line, null, "Unparseable row: " + message);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Map<String, String> toFields(String[] values) {
+        if (values.length > header.length) {
+            throw new IllegalArgumentException(values.length + " values for " + header.length + " columns");
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < values.length; i++) {
+            if (!values[i].isEmpty()) {
+                fields.put(header[i], values[i]);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Split one CSV line, "" inside a quoted value is a literal quote
+     */
+    static String[] splitCsv(String text) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString().trim());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString().trim());
+        return values.toArray(new String[0]);
+    }
+}
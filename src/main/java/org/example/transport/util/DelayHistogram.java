@@ -0,0 +1,88 @@
+package org.example.transport.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-bucket histogram of delays used as a mergeable quantile sketch
+ * Buckets are 5 minutes wide from -120 to +360 minutes, values outside are clamped
+ * into the first or last bucket. Two histograms merge by adding their counts, so
+ * p50/p90 over any set of rollup rows can be computed without the raw history.
+ */
+public final class DelayHistogram {
+
+    public static final int MIN_MINUTES = -120;
+    public static final int BUCKET_MINUTES = 5;
+    public static final int BUCKETS = 96;
+
+    private final int[] counts;
+    private long total;
+
+    public DelayHistogram() {
+        this.counts = new int[BUCKETS];
+    }
+
+    /**
+     * Decode a histogram serialized with {@link #toBytes()}, null or empty gives an empty histogram
+     */
+    public static DelayHistogram fromBytes(byte[] bytes) {
+        DelayHistogram histogram = new DelayHistogram();
+        if (bytes == null || bytes.length == 0) {
+            return histogram;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        for (int i = 0; i < BUCKETS && buffer.remaining() >= Integer.BYTES; i++) {
+            histogram.counts[i] = buffer.getInt();
+            histogram.total += histogram.counts[i];
+        }
+        return histogram;
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(BUCKETS * Integer.BYTES);
+        for (int count : counts) {
+            buffer.putInt(count);
+        }
+        return buffer.array();
+    }
+
+    public void add(int delayMinutes) {
+        int bucket = Math.floorDiv(delayMinutes - MIN_MINUTES, BUCKET_MINUTES);
+        counts[Math.max(0, Math.min(BUCKETS - 1, bucket))]++;
+        total++;
+    }
+
+    public void merge(DelayHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Approximate quantile, interpolated linearly inside the bucket
+     * @param q Quantile between 0 and 1
+     * @return Delay in minutes, or null when the histogram is empty
+     */
+    public Double quantile(double q) {
+        if (total == 0) {
+            return null;
+        }
+        double rank = q * total;
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            if (seen + counts[i] >= rank) {
+                double fraction = (rank - seen) / counts[i];
+                return MIN_MINUTES + (i + fraction) * BUCKET_MINUTES;
+            }
+            seen += counts[i];
+        }
+        return (double) (MIN_MINUTES + BUCKETS * BUCKET_MINUTES);
+    }
+}
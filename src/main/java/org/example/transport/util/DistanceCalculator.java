@@ -1,5 +1,13 @@
 package org.example.transport.util;
 
+import org.example.transport.entity.Delivery;
+import org.example.transport.entity.Warehouse;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
 /**
  * Utility class for calculating distances between GPS coordinates using Haversine formula
  */
@@ -27,4 +35,42 @@ public class DistanceCalculator {
 
         return EARTH_RADIUS_KM * c;
     }
+
+    /**
+     * Length of a closed tour: warehouse, every stop in order, back to the warehouse
+     * @return Distance in kilometers, 0 without stops
+     */
+    public static double tourDistance(Warehouse warehouse, List<Delivery> route) {
+        if (route.isEmpty()) {
+            return 0.0;
+        }
+        double total = 0.0;
+        double lat = warehouse.getLatitude();
+        double lon = warehouse.getLongitude();
+        for (Delivery delivery : route) {
+            total += calculateDistance(lat, lon, delivery.getEffectiveLatitude(), delivery.getEffectiveLongitude());
+            lat = delivery.getEffectiveLatitude();
+            lon = delivery.getEffectiveLongitude();
+        }
+        return total + calculateDistance(lat, lon, warehouse.getLatitude(), warehouse.getLongitude());
+    }
+
+    /**
+     * Items within a radius of a point, closest first
+     * @param limit Maximum number of items returned
+     */
+    public static <T> List<T> closestWithin(Collection<T> items, ToDoubleFunction<T> latitude,
+                                            ToDoubleFunction<T> longitude, double lat, double lon,
+                                            double radiusKm, int limit) {
+        record Ranked<T>(T item, double distance) {
+        }
+        return items.stream()
+                .map(item -> new Ranked<>(item,
+                        calculateDistance(lat, lon, latitude.applyAsDouble(item), longitude.applyAsDouble(item))))
+                .filter(r -> r.distance() <= radiusKm)
+                .sorted(Comparator.comparingDouble(Ranked::distance))
+                .limit(limit)
+                .map(Ranked::item)
+                .toList();
+    }
 }
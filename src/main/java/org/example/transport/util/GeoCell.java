@@ -0,0 +1,133 @@
+package org.example.transport.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Z-order (Morton) cell ids for GPS coordinates
+ * Latitude and longitude are each quantized to 26 bits (about 0.3 m by 0.6 m at the
+ * equator) and their bits interleaved into one long. Every coarser cell is then a
+ * contiguous id range, so a bounding box can be answered by a few index range scans
+ * on the geo_cell column followed by an exact filter.
+ * The antimeridian is not wrapped: boxes are clamped to [-180, 180] longitude.
+ */
+public final class GeoCell {
+
+    public static final int MAX_LEVEL = 26;
+
+    /** Finest level is chosen so that a box is covered by at most this many cells */
+    static final int MAX_COVER_CELLS = 8;
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private GeoCell() {
+    }
+
+    /**
+     * Inclusive range of cell ids
+     */
+    public record Range(long from, long to) {
+    }
+
+    /**
+     * Cell id of a point at the finest level
+     */
+    public static long encode(double latitude, double longitude) {
+        return interleave(quantize(longitude, -180.0, 360.0), quantize(latitude, -90.0, 180.0));
+    }
+
+    /**
+     * Cell id of a point, null when either coordinate is missing
+     */
+    public static Long of(Double latitude, Double longitude) {
+        return latitude == null || longitude == null ? null : encode(latitude, longitude);
+    }
+
+    /**
+     * Sorted, non-overlapping cell id ranges covering the bounding box
+     */
+    public static List<Range> cover(double minLat, double maxLat, double minLon, double maxLon) {
+        if (minLat > maxLat || minLon > maxLon) {
+            return List.of();
+        }
+        int x0 = quantize(minLon, -180.0, 360.0);
+        int x1 = quantize(maxLon, -180.0, 360.0);
+        int y0 = quantize(minLat, -90.0, 180.0);
+        int y1 = quantize(maxLat, -90.0, 180.0);
+
+        // Coarsen until the box touches few enough cells
+        int shift = 0;
+        while (shift < MAX_LEVEL
+                && (long) ((x1 >> shift) - (x0 >> shift) + 1) * ((y1 >> shift) - (y0 >> shift) + 1) > MAX_COVER_CELLS) {
+            shift++;
+        }
+
+        List<Long> cells = new ArrayList<>(MAX_COVER_CELLS);
+        for (int x = x0 >> shift; x <= x1 >> shift; x++) {
+            for (int y = y0 >> shift; y <= y1 >> shift; y++) {
+                cells.add(interleave(x, y));
+            }
+        }
+        cells.sort(null);
+
+        int span = 2 * shift;
+        List<Range> ranges = new ArrayList<>(cells.size());
+        long from = -1;
+        long to = -1;
+        for (long cell : cells) {
+            long start = cell << span;
+            long end = ((cell + 1) << span) - 1;
+            if (from >= 0 && start == to + 1) {
+                to = end;
+            } else {
+                if (from >= 0) {
+                    ranges.add(new Range(from, to));
+                }
+                from = start;
+                to = end;
+            }
+        }
+        ranges.add(new Range(from, to));
+        return ranges;
+    }
+
+    /**
+     * Bounding box of a circle as {minLat, maxLat, minLon, maxLon}
+     * Uses the same earth radius as DistanceCalculator, so every point within radiusKm
+     * by the haversine distance is inside the box.
+     */
+    public static double[] boundingBox(double latitude, double longitude, double radiusKm) {
+        double angular = radiusKm / EARTH_RADIUS_KM;
+        double minLat = latitude - Math.toDegrees(angular);
+        double maxLat = latitude + Math.toDegrees(angular);
+        if (minLat <= -90.0 || maxLat >= 90.0) {
+            // The circle contains a pole, every longitude is reached
+            return new double[]{Math.max(-90.0, minLat), Math.min(90.0, maxLat), -180.0, 180.0};
+        }
+        double ratio = Math.sin(angular) / Math.cos(Math.toRadians(latitude));
+        double dLon = ratio >= 1.0 ? 180.0 : Math.toDegrees(Math.asin(ratio));
+        return new double[]{minLat, maxLat, Math.max(-180.0, longitude - dLon), Math.min(180.0, longitude + dLon)};
+    }
+
+    private static int quantize(double value, double min, double extent) {
+        long cell = (long) Math.floor((value - min) / extent * (1L << MAX_LEVEL));
+        return (int) Math.max(0, Math.min((1L << MAX_LEVEL) - 1, cell));
+    }
+
+    private static long interleave(int x, int y) {
+        return spread(x) | (spread(y) << 1);
+    }
+
+    /**
+     * Insert a zero bit between each of the low 32 bits
+     */
+    private static long spread(long v) {
+        v &= 0xFFFFFFFFL;
+        v = (v | (v << 16)) & 0x0000FFFF0000FFFFL;
+        v = (v | (v << 8)) & 0x00FF00FF00FF00FFL;
+        v = (v | (v << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        v = (v | (v << 2)) & 0x3333333333333333L;
+        v = (v | (v << 1)) & 0x5555555555555555L;
+        return v;
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.transport.util;
+
+import org.example.transport.dto.CursorPageDTO;
+import org.example.transport.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Opaque continuation tokens for keyset pagination
+ * A cursor holds the sort key of the last row of a page, either (id) or (date, id),
+ * Base64 encoded so clients treat it as opaque.
+ */
+public final class PageCursor {
+
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 500;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    /**
+     * Decoded (date, id) cursor
+     */
+    public record DateKey(LocalDate date, long id) {
+    }
+
+    private PageCursor() {
+    }
+
+    public static String encode(long id) {
+        return ENCODER.encodeToString(Long.toString(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String encode(LocalDate date, long id) {
+        return ENCODER.encodeToString((date + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return Id after which the page starts, null for the first page
+     */
+    public static Long decodeId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(decode(cursor));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    /**
+     * @return (date, id) after which the page starts, null for the first page
+     */
+    public static DateKey decodeDateKey(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = decode(cursor).split("\\|");
+            return new DateKey(LocalDate.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+
+    /**
+     * Clamp a requested page size to [1, MAX_SIZE]
+     */
+    public static int pageSize(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_SIZE;
+        }
+        return Math.max(1, Math.min(MAX_SIZE, requested));
+    }
+
+    /**
+     * Build a page from a query that fetched up to size + 1 rows
+     * The extra row only tells whether another page exists.
+     */
+    public static <T> CursorPageDTO<T> page(List<T> rows, int size, Function<T, String> cursorOf) {
+        boolean hasMore = rows.size() > size;
+        List<T> items = hasMore ? rows.subList(0, size) : rows;
+        String next = hasMore ? cursorOf.apply(items.get(items.size() - 1)) : null;
+        return new CursorPageDTO<>(List.copyOf(items), next, hasMore);
+    }
+
+    private static String decode(String cursor) {
+        return new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+    }
+}
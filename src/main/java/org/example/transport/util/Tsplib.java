@@ -0,0 +1,297 @@
+package org.example.transport.util;
+
+import org.example.transport.entity.Delivery;
+import org.example.transport.entity.Tour;
+import org.example.transport.entity.Vehicle;
+import org.example.transport.entity.Warehouse;
+import org.example.transport.enums.VehicleType;
+import org.example.transport.optimizer.TourOptimizer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reader and writer for TSPLIB and CVRPLIB instance files
+ * Instances become detached Tour snapshots: the depot (CVRP) or the first node (TSP) is
+ * the warehouse and every other node a delivery whose id is the node id. Costs are
+ * computed with the instance's own integer metric, so they compare directly with the
+ * published best known values. Supported metrics are EUC_2D, CEIL_2D, ATT and GEO;
+ * explicit edge weight matrices have no coordinates for the optimizers and are rejected.
+ */
+public final class Tsplib {
+
+    /** Planar instances are scaled to this extent around (0, 0), where degrees are square */
+    private static final double PLANAR_EXTENT_KM = 100.0;
+    private static final double KM_PER_DEGREE = Math.PI * 6371.0 / 180.0;
+    private static final double GEO_RADIUS_KM = 6378.388;
+    private static final double GEO_PI = 3.141592;
+
+    private Tsplib() {
+    }
+
+    public record Node(int id, double x, double y) {
+    }
+
+    /**
+     * One parsed instance
+     * @param depot Depot node id, the first node when the file has no depot section
+     * @param demands Demand per node id, empty for TSP instances
+     * @param capacity Vehicle capacity, 0 for TSP instances
+     */
+    public record Instance(String name, String type, String edgeWeightType, List<Node> nodes,
+                           int depot, Map<Integer, Integer> demands, int capacity) {
+
+        public boolean isCvrp() {
+            return capacity > 0;
+        }
+
+        public Node node(int id) {
+            for (Node node : nodes) {
+                if (node.id() == id) {
+                    return node;
+                }
+            }
+            throw new IllegalArgumentException("No node " + id + " in " + name);
+        }
+    }
+
+    /**
+     * Outcome of one optimizer on one instance
+     * @param gap (cost - bestKnown) / bestKnown
+     */
+    public record Result(String instance, long cost, long bestKnown, double gap, long millis) {
+    }
+
+    public static Instance read(Reader in) throws IOException {
+        BufferedReader reader = in instanceof BufferedReader buffered ? buffered : new BufferedReader(in);
+        Map<String, String> header = new HashMap<>();
+        List<Node> nodes = new ArrayList<>();
+        Map<Integer, Integer> demands = new HashMap<>();
+        int depot = -1;
+        String section = null;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (trimmed.equals("EOF")) {
+                break;
+            }
+            String keyword = trimmed.endsWith(":") ? trimmed.substring(0, trimmed.length() - 1).trim() : trimmed;
+            if (keyword.endsWith("_SECTION")) {
+                section = keyword;
+                if (section.equals("EDGE_WEIGHT_SECTION")) {
+                    throw new IllegalArgumentException("Explicit edge weights are not supported, coordinates are required");
+                }
+                continue;
+            }
+            int colon = trimmed.indexOf(':');
+            if (colon > 0 && Character.isLetter(trimmed.charAt(0))) {
+                header.put(trimmed.substring(0, colon).trim().toUpperCase(Locale.ROOT), trimmed.substring(colon + 1).trim());
+                section = null;
+                continue;
+            }
+            String[] fields = trimmed.split("\\s+");
+            if ("NODE_COORD_SECTION".equals(section)) {
+                nodes.add(new Node(Integer.parseInt(fields[0]), Double.parseDouble(fields[1]), Double.parseDouble(fields[2])));
+            } else if ("DEMAND_SECTION".equals(section)) {
+                demands.put(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]));
+            } else if ("DEPOT_SECTION".equals(section)) {
+                int id = Integer.parseInt(fields[0]);
+                if (id >= 0 && depot < 0) {
+                    depot = id;
+                }
+            }
+        }
+        if (nodes.size() < 2) {
+            throw new IllegalArgumentException("Instance needs a NODE_COORD_SECTION with at least two nodes");
+        }
+        String edgeWeightType = header.getOrDefault("EDGE_WEIGHT_TYPE", "EUC_2D");
+        if (!List.of("EUC_2D", "CEIL_2D", "ATT", "GEO").contains(edgeWeightType)) {
+            throw new IllegalArgumentException("Unsupported EDGE_WEIGHT_TYPE " + edgeWeightType);
+        }
+        return new Instance(header.getOrDefault("NAME", "unnamed"), header.getOrDefault("TYPE", "TSP"),
+                edgeWeightType, List.copyOf(nodes), depot >= 0 ? depot : nodes.get(0).id(),
+                Map.copyOf(demands), Integer.parseInt(header.getOrDefault("CAPACITY", "0")));
+    }
+
+    /**
+     * Distance between two nodes as defined by TSPLIB for the instance's metric
+     */
+    public static long distance(Instance instance, Node a, Node b) {
+        double dx = a.x() - b.x();
+        double dy = a.y() - b.y();
+        return switch (instance.edgeWeightType()) {
+            case "CEIL_2D" -> (long) Math.ceil(Math.sqrt(dx * dx + dy * dy));
+            case "ATT" -> {
+                double r = Math.sqrt((dx * dx + dy * dy) / 10.0);
+                long t = Math.round(r);
+                yield t < r ? t + 1 : t;
+            }
+            case "GEO" -> {
+                double lat1 = geoRadians(a.x());
+                double lon1 = geoRadians(a.y());
+                double lat2 = geoRadians(b.x());
+                double lon2 = geoRadians(b.y());
+                double q1 = Math.cos(lon1 - lon2);
+                double q2 = Math.cos(lat1 - lat2);
+                double q3 = Math.cos(lat1 + lat2);
+                yield (long) (GEO_RADIUS_KM * Math.acos(0.5 * ((1.0 + q1) * q2 - (1.0 - q1) * q3)) + 1.0);
+            }
+            default -> (long) (Math.sqrt(dx * dx + dy * dy) + 0.5);
+        };
+    }
+
+    /**
+     * Detached tour for the optimizers, GEO nodes keep their position, planar nodes are
+     * scaled into a small box around (0, 0) so haversine stays proportional to the metric
+     */
+    public static Tour toTour(Instance instance) {
+        double minX = Double.MAX_VALUE, maxX = -Double.MAX_VALUE, minY = Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        for (Node node : instance.nodes()) {
+            minX = Math.min(minX, node.x());
+            maxX = Math.max(maxX, node.x());
+            minY = Math.min(minY, node.y());
+            maxY = Math.max(maxY, node.y());
+        }
+        double extent = Math.max(maxX - minX, maxY - minY);
+        double degreesPerUnit = extent > 0 ? PLANAR_EXTENT_KM / extent / KM_PER_DEGREE : 0.0;
+        double centerX = (minX + maxX) / 2;
+        double centerY = (minY + maxY) / 2;
+        boolean geo = instance.edgeWeightType().equals("GEO");
+
+        Tour tour = new Tour();
+        tour.setId(0L);
+        tour.setTourDate(LocalDate.now());
+        Vehicle vehicle = new Vehicle(instance.name(), VehicleType.TRUCK);
+        if (instance.isCvrp()) {
+            vehicle.setMaxWeightKg((double) instance.capacity());
+        }
+        tour.setVehicle(vehicle);
+        for (Node node : instance.nodes()) {
+            double lat = geo ? geoDegrees(node.x()) : (node.y() - centerY) * degreesPerUnit;
+            double lon = geo ? geoDegrees(node.y()) : (node.x() - centerX) * degreesPerUnit;
+            if (node.id() == instance.depot()) {
+                Warehouse warehouse = new Warehouse();
+                warehouse.setId((long) node.id());
+                warehouse.setName(instance.name() + " depot");
+                warehouse.setAddress("Node " + node.id());
+                warehouse.setLatitude(lat);
+                warehouse.setLongitude(lon);
+                warehouse.setOpeningTime(LocalTime.MIN);
+                warehouse.setClosingTime(LocalTime.MAX);
+                tour.setWarehouse(warehouse);
+            } else {
+                Delivery delivery = new Delivery();
+                delivery.setId((long) node.id());
+                delivery.setSpecificAddress("Node " + node.id());
+                delivery.setSpecificLatitude(lat);
+                delivery.setSpecificLongitude(lon);
+                delivery.setWeightKg((double) instance.demands().getOrDefault(node.id(), 1));
+                delivery.setVolumeM3(0.01);
+                tour.addDelivery(delivery);
+            }
+        }
+        return tour;
+    }
+
+    /**
+     * Cost of a stop order in the instance metric, starting and ending at the depot
+     * For CVRP instances the order is split into trips greedily: the vehicle returns to
+     * the depot whenever the next demand would exceed the capacity.
+     */
+    public static long cost(Instance instance, List<Delivery> route) {
+        Map<Integer, Node> byId = new HashMap<>();
+        instance.nodes().forEach(node -> byId.put(node.id(), node));
+        Node depot = byId.get(instance.depot());
+        Node previous = depot;
+        long total = 0;
+        int load = 0;
+        for (Delivery delivery : route) {
+            Node node = byId.get(delivery.getId().intValue());
+            if (node == null || node == depot) {
+                throw new IllegalArgumentException("Delivery " + delivery.getId() + " is not a stop of " + instance.name());
+            }
+            int demand = instance.demands().getOrDefault(node.id(), 0);
+            if (instance.isCvrp() && load + demand > instance.capacity()) {
+                total += distance(instance, previous, depot);
+                previous = depot;
+                load = 0;
+            }
+            total += distance(instance, previous, node);
+            previous = node;
+            load += demand;
+        }
+        return total + distance(instance, previous, depot);
+    }
+
+    /**
+     * Run an optimizer on an instance and compare its route with the best known cost
+     */
+    public static Result evaluate(Instance instance, TourOptimizer optimizer, long bestKnown) {
+        Tour tour = toTour(instance);
+        long start = System.nanoTime();
+        List<Delivery> route = optimizer.calculateOptimalTour(tour);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        if (route.size() != tour.getDeliveries().size()) {
+            throw new IllegalStateException(instance.name() + ": optimizer returned " + route.size()
+                    + " of " + tour.getDeliveries().size() + " stops");
+        }
+        long cost = cost(instance, route);
+        return new Result(instance.name(), cost, bestKnown, (double) (cost - bestKnown) / bestKnown, millis);
+    }
+
+    /**
+     * Write a tour as a GEO TSP instance for offline solvers
+     * Node 1 is the warehouse and nodes 2..n+1 are the stops in the given order, so the
+     * identity permutation is the current route.
+     */
+    public static void write(Tour tour, List<Delivery> route, Writer out) {
+        PrintWriter writer = new PrintWriter(out);
+        writer.println("NAME : tour" + tour.getId());
+        writer.println("COMMENT : Tour " + tour.getId() + " on " + tour.getTourDate()
+                + ", node 1 is the warehouse, nodes 2.." + (route.size() + 1) + " the stops in sequence");
+        writer.println("TYPE : TSP");
+        writer.println("DIMENSION : " + (route.size() + 1));
+        writer.println("EDGE_WEIGHT_TYPE : GEO");
+        writer.println("NODE_COORD_SECTION");
+        writeNode(writer, 1, tour.getWarehouse().getLatitude(), tour.getWarehouse().getLongitude());
+        for (int i = 0; i < route.size(); i++) {
+            writeNode(writer, i + 2, route.get(i).getEffectiveLatitude(), route.get(i).getEffectiveLongitude());
+        }
+        writer.println("EOF");
+        writer.flush();
+    }
+
+    private static void writeNode(PrintWriter writer, int id, double latitude, double longitude) {
+        writer.printf(Locale.ROOT, "%d %.6f %.6f%n", id, toGeo(latitude), toGeo(longitude));
+    }
+
+    /**
+     * TSPLIB GEO coordinates are DDD.MM, degrees followed by minutes
+     */
+    private static double geoDegrees(double value) {
+        int degrees = (int) value;
+        return degrees + (value - degrees) * 100.0 / 60.0;
+    }
+
+    private static double toGeo(double decimalDegrees) {
+        int degrees = (int) decimalDegrees;
+        return degrees + (decimalDegrees - degrees) * 60.0 / 100.0;
+    }
+
+    private static double geoRadians(double value) {
+        int degrees = (int) value;
+        return GEO_PI * (degrees + 5.0 * (value - degrees) / 3.0) / 180.0;
+    }
+}
@@ -0,0 +1,185 @@
+package org.example.transport.datagen;
+
+import org.example.transport.enums.VehicleType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the dataset generator
+ */
+class DatasetGeneratorTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2024, 3, 4);
+
+    private static final DatasetSpec SPEC = new DatasetSpec(2, 5, 300, MONDAY, MONDAY.plusDays(3),
+            4, 10, 25, MONDAY.plusDays(2), 7L);
+
+    @Test
+    void testSameSeedGivesSameRows() throws IOException {
+        RecordingSink first = new RecordingSink(1);
+        RecordingSink second = new RecordingSink(1);
+        new DatasetGenerator(SPEC).generate(first);
+        new DatasetGenerator(SPEC).generate(second);
+
+        for (DatasetTable table : DatasetTable.values()) {
+            List<Object[]> a = first.rows.get(table);
+            List<Object[]> b = second.rows.get(table);
+            assertEquals(a.size(), b.size());
+            for (int i = 0; i < a.size(); i++) {
+                assertArrayEquals(a.get(i), b.get(i));
+            }
+        }
+    }
+
+    @Test
+    void testRowsAndIdsMatchSpec() throws IOException {
+        RecordingSink sink = new RecordingSink(100);
+        DatasetGenerator.Summary summary = new DatasetGenerator(SPEC).generate(sink);
+
+        assertEquals(2L, summary.rows().get(DatasetTable.WAREHOUSES));
+        assertEquals(5L, summary.rows().get(DatasetTable.VEHICLES));
+        assertEquals(300L, summary.rows().get(DatasetTable.CUSTOMERS));
+        assertEquals(16L, summary.rows().get(DatasetTable.TOURS));
+        assertEquals(8L, summary.openTours());
+        assertEquals(108L, summary.firstOpenTourId());
+
+        for (DatasetTable table : DatasetTable.values()) {
+            List<Object[]> rows = sink.rows.get(table);
+            assertEquals(summary.rows().get(table), rows.size());
+            assertEquals(table.columns().size(), rows.get(0).length);
+            if (table.explicitIds()) {
+                for (int i = 0; i < rows.size(); i++) {
+                    assertEquals(100L + i, rows.get(i)[0]);
+                }
+            }
+        }
+        // Every delivery on a tour plus the unassigned ones
+        long planned = sink.rows.get(DatasetTable.DELIVERIES).stream().filter(r -> r[9] != null).count();
+        assertEquals(25L, summary.rows().get(DatasetTable.DELIVERIES) - planned);
+    }
+
+    @Test
+    void testParentsAreWrittenBeforeChildren() throws IOException {
+        RecordingSink sink = new RecordingSink(1);
+        new DatasetGenerator(SPEC).generate(sink);
+
+        Set<Long> tours = new HashSet<>();
+        Set<Long> customers = new HashSet<>();
+        for (Object[] event : sink.order) {
+            DatasetTable table = (DatasetTable) event[0];
+            Object[] row = (Object[]) event[1];
+            switch (table) {
+                case CUSTOMERS -> customers.add((Long) row[0]);
+                case TOURS -> tours.add((Long) row[0]);
+                case DELIVERIES -> {
+                    assertTrue(customers.contains((Long) row[1]));
+                    assertTrue(row[9] == null || tours.contains((Long) row[9]));
+                }
+                case DELIVERY_HISTORY -> assertTrue(tours.contains((Long) row[7]));
+                default -> {
+                }
+            }
+        }
+    }
+
+    @Test
+    void testOnlyPastToursAreCompletedAndWithinCapacity() throws IOException {
+        RecordingSink sink = new RecordingSink(1);
+        new DatasetGenerator(SPEC).generate(sink);
+
+        Map<Long, String> vehicleTypes = new HashMap<>();
+        sink.rows.get(DatasetTable.VEHICLES).forEach(r -> vehicleTypes.put((Long) r[0], (String) r[2]));
+        for (Object[] tour : sink.rows.get(DatasetTable.TOURS)) {
+            boolean past = ((LocalDate) tour[1]).isBefore(SPEC.today());
+            assertEquals(past ? "COMPLETED" : "PENDING", tour[9]);
+            assertEquals(past, tour[10] != null);
+            VehicleType type = VehicleType.valueOf(vehicleTypes.get((Long) tour[2]));
+            assertTrue((Double) tour[6] <= type.getMaxWeightKg());
+        }
+
+        List<Object[]> history = sink.rows.get(DatasetTable.DELIVERY_HISTORY);
+        assertFalse(history.isEmpty());
+        assertTrue(history.stream().allMatch(h -> ((LocalDate) h[0]).isBefore(SPEC.today())));
+        long completedDeliveries = sink.rows.get(DatasetTable.DELIVERIES).stream()
+                .filter(d -> !"PENDING".equals(d[8]))
+                .count();
+        assertEquals(completedDeliveries, history.size());
+    }
+
+    @Test
+    void testDelaysFollowTheModelledPatterns() {
+        Random random = new Random(1);
+        double monday = 0.0;
+        double wednesday = 0.0;
+        double late = 0.0;
+        double early = 0.0;
+        for (int i = 0; i < 5000; i++) {
+            monday += DatasetGenerator.delayMinutes(random, DayOfWeek.MONDAY, null, 1, VehicleType.VAN, 10);
+            wednesday += DatasetGenerator.delayMinutes(random, DayOfWeek.WEDNESDAY, null, 1, VehicleType.VAN, 10);
+            late += DatasetGenerator.delayMinutes(random, DayOfWeek.WEDNESDAY, "16:00-18:00", 30, VehicleType.TRUCK, 10);
+            early += DatasetGenerator.delayMinutes(random, DayOfWeek.WEDNESDAY, "10:00-12:00", 1, VehicleType.BIKE, 10);
+        }
+        assertTrue(monday > wednesday);
+        assertTrue(late > early + 5000 * 10);
+    }
+
+    @Test
+    void testCsvHeadersUseFieldNames(@TempDir Path directory) throws IOException {
+        try (CsvDatasetSink sink = new CsvDatasetSink(directory)) {
+            new DatasetGenerator(SPEC).generate(sink);
+        }
+
+        List<String> customers = Files.readAllLines(directory.resolve("customers.csv"));
+        assertEquals(301, customers.size());
+        assertEquals("id,name,address,latitude,longitude,preferredTimeSlot,phone,email,active,geoCell",
+                customers.get(0));
+        assertTrue(customers.get(1).startsWith("1,Customer 1,"));
+        assertTrue(Files.readAllLines(directory.resolve("delivery_history.csv")).get(0)
+                .startsWith("deliveryDate,dayOfWeek,customerId,"));
+    }
+
+    private static class RecordingSink implements DatasetSink {
+
+        private final long firstId;
+        private final Map<DatasetTable, List<Object[]>> rows = new EnumMap<>(DatasetTable.class);
+        private final List<Object[]> order = new ArrayList<>();
+
+        RecordingSink(long firstId) {
+            this.firstId = firstId;
+            for (DatasetTable table : DatasetTable.values()) {
+                rows.put(table, new ArrayList<>());
+            }
+        }
+
+        @Override
+        public long firstId(DatasetTable table) {
+            return firstId;
+        }
+
+        @Override
+        public void add(DatasetTable table, Object[] row) {
+            rows.get(table).add(row);
+            order.add(new Object[]{table, row});
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package org.example.transport.integration;
+
+import org.example.transport.dto.OptimizationDiagnosticsDTO;
+import org.example.transport.dto.OptimizedTourResponseDTO;
+import org.example.transport.entity.OptimizationRunLog;
+import org.example.transport.enums.OptimizationAlgorithm;
+import org.example.transport.enums.OptimizationStrategy;
+import org.example.transport.enums.VehicleType;
+import org.example.transport.exception.InvalidTourException;
+import org.example.transport.optimizer.AutoStrategySelector;
+import org.example.transport.optimizer.OptimizationPhaseEvent;
+import org.example.transport.optimizer.TwoOptImprover;
+import org.example.transport.repository.OptimizationRunLogRepository;
+import org.example.transport.service.TourService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for the AUTO algorithm and the optimization run log
+ */
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties")
+public class AutoOptimizationIntegrationTest {
+
+    @Autowired
+    private TourService tourService;
+
+    @Autowired
+    private TourFixtures fixtures;
+
+    @Autowired
+    private OptimizationRunLogRepository optimizationRunLogRepository;
+
+    @Autowired
+    private AutoStrategySelector autoStrategySelector;
+
+    @Test
+    void testSmallTourIsSolvedExactly() {
+        Long tourId = tour("AUTO-001", 6);
+        OptimizedTourResponseDTO nearestNeighbor = tourService.getOptimizedTour(tourId,
+                OptimizationAlgorithm.NEAREST_NEIGHBOR);
+
+        OptimizedTourResponseDTO auto = tourService.getOptimizedTour(tourId, OptimizationAlgorithm.AUTO, true);
+
+        assertEquals(OptimizationAlgorithm.AUTO, auto.getAlgorithm());
+        assertTrue(auto.getTotalDistanceKm() <= nearestNeighbor.getTotalDistanceKm() + 1e-9);
+        OptimizationDiagnosticsDTO diagnostics = auto.getDiagnostics();
+        assertEquals(OptimizationStrategy.EXACT, diagnostics.getStrategy());
+        assertNotNull(diagnostics.getStrategyReason());
+        assertEquals(500L, diagnostics.getLatencyBudgetMs());
+        assertEquals(List.of(OptimizationPhaseEvent.EXACT_SEARCH),
+                diagnostics.getStages().stream().map(OptimizationDiagnosticsDTO.Stage::getName).toList());
+        assertEquals(auto.getTotalDistanceKm(), diagnostics.getLowerBoundKm(), 1e-9);
+        assertEquals(0.0, diagnostics.getGapPercent(), 1e-9);
+    }
+
+    @Test
+    void testEveryRunIsLogged() {
+        Long tourId = tour("AUTO-002", 6);
+        OptimizedTourResponseDTO clarkeWright = tourService.getOptimizedTour(tourId,
+                OptimizationAlgorithm.CLARKE_WRIGHT);
+        OptimizedTourResponseDTO auto = tourService.getOptimizedTour(tourId, OptimizationAlgorithm.AUTO);
+
+        List<OptimizationRunLog> runs = optimizationRunLogRepository.findByTourIdOrderById(tourId);
+        assertEquals(2, runs.size());
+
+        OptimizationRunLog first = runs.get(0);
+        assertEquals(OptimizationAlgorithm.CLARKE_WRIGHT, first.getAlgorithm());
+        assertEquals(OptimizationStrategy.LOCAL_SEARCH, first.getStrategy());
+        assertEquals(OptimizationAlgorithm.CLARKE_WRIGHT, first.getConstruction());
+        assertEquals(VehicleType.VAN, first.getVehicleType());
+        assertEquals(6, first.getStops());
+        assertTrue(first.getSpreadKm() > 0);
+        assertTrue(first.getRuntimeMs() >= 0);
+        assertEquals(clarkeWright.getTotalDistanceKm(), first.getDistanceKm(), 1e-9);
+        assertNotNull(first.getLowerBoundKm());
+        assertTrue(first.getGapPercent() >= -1e-6);
+        assertNotNull(first.getCreatedAt());
+
+        OptimizationRunLog second = runs.get(1);
+        assertEquals(OptimizationAlgorithm.AUTO, second.getAlgorithm());
+        assertEquals(OptimizationStrategy.EXACT, second.getStrategy());
+        assertNull(second.getConstruction());
+        assertEquals(auto.getTotalDistanceKm(), second.getDistanceKm(), 1e-9);
+        assertEquals(0.0, second.getGapPercent(), 1e-9);
+    }
+
+    @Test
+    void testLargerTourUsesTheBudgetAndLogsTheChosenStrategy() {
+        Long tourId = tour("AUTO-003", 20);
+
+        OptimizedTourResponseDTO auto = tourService.getOptimizedTour(tourId, OptimizationAlgorithm.AUTO, true, 1000L);
+
+        assertEquals(20, auto.getOrderedDeliveries().size());
+        OptimizationDiagnosticsDTO diagnostics = auto.getDiagnostics();
+        assertEquals(1000L, diagnostics.getLatencyBudgetMs());
+        // Local search or the curve, depending on the runs other tests logged before
+        assertNotEquals(OptimizationStrategy.EXACT, diagnostics.getStrategy());
+        if (diagnostics.getStrategy() == OptimizationStrategy.LOCAL_SEARCH) {
+            assertNotEquals(OptimizationAlgorithm.AUTO, diagnostics.getAlgorithmUsed());
+            assertEquals(TwoOptImprover.STAGE, diagnostics.getStages().get(1).getName());
+        }
+
+        OptimizationRunLog run = optimizationRunLogRepository.findByTourIdOrderById(tourId).get(0);
+        assertEquals(diagnostics.getStrategy(), run.getStrategy());
+        assertEquals(20, run.getStops());
+    }
+
+    @Test
+    void testNegativeBudgetIsRejected() {
+        Long tourId = tour("AUTO-004", 6);
+
+        assertThrows(InvalidTourException.class,
+                () -> tourService.getOptimizedTour(tourId, OptimizationAlgorithm.AUTO, false, -1L));
+    }
+
+    @Test
+    void testPurgeDeletesRunsOlderThanTheHistory() {
+        Long tourId = tour("AUTO-005", 6);
+        tourService.getOptimizedTour(tourId, OptimizationAlgorithm.NEAREST_NEIGHBOR);
+        OptimizationRunLog expired = optimizationRunLogRepository.findByTourIdOrderById(tourId).get(0);
+        expired.setId(null);
+        expired.setCreatedAt(LocalDateTime.of(2020, 3, 2, 9, 0));
+        optimizationRunLogRepository.save(expired);
+        assertEquals(2, optimizationRunLogRepository.findByTourIdOrderById(tourId).size());
+
+        assertTrue(autoStrategySelector.purgeExpiredRuns() >= 1);
+
+        List<OptimizationRunLog> runs = optimizationRunLogRepository.findByTourIdOrderById(tourId);
+        assertEquals(1, runs.size());
+        assertTrue(runs.get(0).getCreatedAt().isAfter(LocalDateTime.of(2021, 1, 1, 0, 0)));
+    }
+
+        private Long tour(String registration, int stops) {
+        // Grid of five stops per row, 1 km apart
+        return fixtures.tourWithCustomers(registration, LocalDate.of(2021, 8, 2), stops,
+                i -> 48.85 + (i / 5) * 0.01, i -> 2.33 + (i % 5) * 0.01);
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.transport.integration;
+
+import org.example.transport.dto.BulkImportResultDTO;
+import org.example.transport.entity.Customer;
+import org.example.transport.repository.CustomerRepository;
+import org.example.transport.repository.DeliveryRepository;
+import org.example.transport.service.BulkImportService;
+import org.example.transport.service.CustomerSearchService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for bulk ingestion on the embedded database
+ */
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties")
+public class BulkImportIntegrationTest {
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
+    @Autowired
+    private CustomerSearchService customerSearchService;
+
+    @Test
+    void testImportReportsRowErrorsAndKeepsValidRows() throws IOException {
+        long customersBefore = customerRepository.count();
+        BulkImportResultDTO customers = bulkImportService.importCustomers(body(
+                "{\"name\":\"Bulk A\",\"address\":\"1 Bulk Street\",\"latitude\":48.85,\"longitude\":2.35}\n" +
+                "{\"name\":\"Bulk B\",\"address\":\"2 Bulk Street\",\"latitude\":48.86,\"longitude\":2.36}\n" +
+                "{\"name\":\"\",\"address\":\"3 Bulk Street\",\"latitude\":48.87,\"longitude\":2.37}\n"), false);
+
+        assertEquals(3, customers.getReceived());
+        assertEquals(2, customers.getImported());
+        assertEquals(3, customers.getErrors().get(0).getLine());
+        assertEquals(customersBefore + 2, customerRepository.count());
+
+        Customer customer = customerRepository.findAll().stream()
+                .filter(c -> "Bulk A".equals(c.getName()))
+                .findFirst().orElseThrow();
+        assertEquals(customer.getId(), customerSearchService.search("bulk a", 5, false).get(0).getId());
+
+        long deliveriesBefore = deliveryRepository.count();
+        BulkImportResultDTO deliveries = bulkImportService.importDeliveries(body(
+                "customerId,weightKg,volumeM3,preferredTimeSlot\n" +
+                customer.getId() + ",10,0.5,09:00-11:00\n" +
+                customer.getId() + ",-1,0.5,\n" +
+                "999999,10,0.5,\n" +
+                customer.getId() + ",20,1.0,\n"), true);
+
+        assertEquals(4, deliveries.getReceived());
+        assertEquals(2, deliveries.getImported());
+        assertEquals(2, deliveries.getFailed());
+        assertEquals(deliveriesBefore + 2, deliveryRepository.count());
+        assertTrue(deliveries.getErrors().stream().anyMatch(e -> e.getLine() == 4
+                && e.getMessage().contains("Customer not found")));
+    }
+
+    private static InputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.transport.integration;
+
+import org.example.transport.dto.CacheStatisticsDTO;
+import org.example.transport.dto.VehicleDTO;
+import org.example.transport.enums.VehicleType;
+import org.example.transport.service.CacheStatisticsService;
+import org.example.transport.service.VehicleService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for the second-level cache of reference data
+ */
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties")
+public class CacheIntegrationTest {
+
+    @Autowired
+    private VehicleService vehicleService;
+
+    @Autowired
+    private CacheStatisticsService cacheStatisticsService;
+
+    @Test
+    void testVehicleReadsHitTheCacheAndWritesInvalidate() {
+        VehicleDTO created = vehicleService.createVehicle(
+                new VehicleDTO(null, "CACHE-001", VehicleType.VAN, 700.0, 10.0, true));
+
+        long hitsBefore = region("test.vehicles").getHits();
+        vehicleService.getVehicleById(created.getId());
+        vehicleService.getVehicleById(created.getId());
+        assertTrue(region("test.vehicles").getHits() >= hitsBefore + 2);
+
+        created.setMaxWeightKg(750.0);
+        vehicleService.updateVehicle(created.getId(), created);
+        assertEquals(750.0, vehicleService.getVehicleById(created.getId()).getMaxWeightKg());
+
+        vehicleService.getAvailableVehicles();
+        long queryHitsBefore = region("test.vehicle-queries").getHits();
+        vehicleService.getAvailableVehicles();
+        assertEquals(queryHitsBefore + 1, region("test.vehicle-queries").getHits());
+
+        created.setAvailable(false);
+        vehicleService.updateVehicle(created.getId(), created);
+        assertTrue(vehicleService.getAvailableVehicles().stream().noneMatch(v -> v.getId().equals(created.getId())));
+    }
+
+    private CacheStatisticsDTO region(String name) {
+        return cacheStatisticsService.getStatistics().stream()
+                .filter(r -> r.getRegion().equals(name))
+                .findFirst()
+                .orElse(new CacheStatisticsDTO(name, 0, 0, 0, null));
+    }
+}
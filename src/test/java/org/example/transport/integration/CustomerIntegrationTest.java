@@ -1,15 +1,20 @@
 package org.example.transport.integration;
 
+import org.example.transport.dto.CursorPageDTO;
 import org.example.transport.dto.CustomerDTO;
 import org.example.transport.repository.CustomerRepository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -69,15 +74,50 @@ public class CustomerIntegrationTest {
     @Test
     public void testGetAllCustomers() {
         // Act
-        ResponseEntity<CustomerDTO[]> response = restTemplate.getForEntity(
-                "/api/customers",
-                CustomerDTO[].class
+        ResponseEntity<CursorPageDTO<CustomerDTO>> response = restTemplate.exchange(
+                "/api/customers?size=10",
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<>() {}
         );
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        // At least one customer should exist from the previous test or initial data
-        assertTrue(response.getBody().length >= 0);
+        assertTrue(response.getBody().getItems().size() <= 10);
+        assertEquals(response.getBody().isHasMore(), response.getBody().getNextCursor() != null);
+    }
+
+    @Test
+    public void testLocationQueries() {
+        // Arrange - a customer far away from the sample data
+        CustomerDTO remote = new CustomerDTO();
+        remote.setName("Remote Customer");
+        remote.setAddress("1 Harbour Road, Dunedin");
+        remote.setLatitude(-45.8788);
+        remote.setLongitude(170.5028);
+        CustomerDTO created = restTemplate.postForEntity("/api/customers", remote, CustomerDTO.class).getBody();
+        assertNotNull(created);
+
+        // Act
+        ResponseEntity<List<CustomerDTO>> nearest = restTemplate.exchange(
+                "/api/customers/nearest?lat=-45.87&lon=170.5&k=1",
+                HttpMethod.GET, null, new ParameterizedTypeReference<>() {});
+        ResponseEntity<List<CustomerDTO>> nearby = restTemplate.exchange(
+                "/api/customers/nearby?lat=-45.87&lon=170.5&radiusKm=0.5",
+                HttpMethod.GET, null, new ParameterizedTypeReference<>() {});
+        ResponseEntity<List<CustomerDTO>> area = restTemplate.exchange(
+                "/api/customers/area?minLat=-46&maxLat=-45&minLon=170&maxLon=171",
+                HttpMethod.GET, null, new ParameterizedTypeReference<>() {});
+        ResponseEntity<List<CustomerDTO>> world = restTemplate.exchange(
+                "/api/customers/area?minLat=-90&maxLat=90&minLon=-180&maxLon=180&limit=1",
+                HttpMethod.GET, null, new ParameterizedTypeReference<>() {});
+
+        // Assert - about 1 km away: nearest and in the box, but outside a 500 m radius
+        assertEquals(HttpStatus.OK, nearest.getStatusCode());
+        assertEquals(created.getId(), nearest.getBody().get(0).getId());
+        assertTrue(nearby.getBody().stream().noneMatch(c -> c.getId().equals(created.getId())));
+        assertTrue(area.getBody().stream().anyMatch(c -> c.getId().equals(created.getId())));
+        assertEquals(1, world.getBody().size());
     }
 }
@@ -0,0 +1,80 @@
+package org.example.transport.integration;
+
+import org.example.transport.datagen.DatasetGenerator;
+import org.example.transport.datagen.DatasetSpec;
+import org.example.transport.datagen.DatasetTable;
+import org.example.transport.datagen.JdbcDatasetSink;
+import org.example.transport.entity.Customer;
+import org.example.transport.entity.Tour;
+import org.example.transport.enums.TourStatus;
+import org.example.transport.repository.CustomerRepository;
+import org.example.transport.repository.DeliveryHistoryRepository;
+import org.example.transport.repository.TourRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for writing a generated dataset to the embedded database
+ */
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties")
+public class DatasetGeneratorIntegrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private TourRepository tourRepository;
+
+    @Autowired
+    private DeliveryHistoryRepository deliveryHistoryRepository;
+
+    @Test
+    void testGeneratedRowsLoadAndIdsKeepWorking() throws IOException {
+        LocalDate date = LocalDate.of(2020, 1, 6);
+        DatasetSpec spec = new DatasetSpec(1, 2, 120, date, date.plusDays(1), 2, 5, 10, date.plusDays(1), 3L);
+        long customersBefore = customerRepository.count();
+        long historyBefore = deliveryHistoryRepository.count();
+
+        DatasetGenerator.Summary summary;
+        try (JdbcDatasetSink sink = new JdbcDatasetSink(jdbcTemplate, 7)) {
+            summary = new DatasetGenerator(spec).generate(sink);
+        }
+
+        assertEquals(customersBefore + 120, customerRepository.count());
+        assertEquals(historyBefore + summary.rows().get(DatasetTable.DELIVERY_HISTORY), deliveryHistoryRepository.count());
+        Tour completed = tourRepository.findById(summary.firstIds().get(DatasetTable.TOURS)).orElseThrow();
+        assertEquals(TourStatus.COMPLETED, completed.getStatus());
+        Tour open = tourRepository.findById(summary.firstOpenTourId()).orElseThrow();
+        assertEquals(TourStatus.PENDING, open.getStatus());
+        assertTrue(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM deliveries WHERE tour_id = ?", Long.class,
+                open.getId()) > 0);
+
+        // New rows get ids after the generated ones
+        long lastCustomerId = summary.firstIds().get(DatasetTable.CUSTOMERS) + 119;
+        Customer customer = new Customer();
+        customer.setName("After Generation");
+        customer.setAddress("1 Sequence Street");
+        customer.setLatitude(48.85);
+        customer.setLongitude(2.35);
+        assertTrue(customerRepository.save(customer).getId() > lastCustomerId);
+
+        Tour tour = new Tour();
+        tour.setTourDate(date);
+        tour.setVehicle(open.getVehicle());
+        tour.setWarehouse(open.getWarehouse());
+        long lastTourId = summary.firstIds().get(DatasetTable.TOURS) + summary.rows().get(DatasetTable.TOURS) - 1;
+        assertTrue(tourRepository.save(tour).getId() > lastTourId);
+    }
+}
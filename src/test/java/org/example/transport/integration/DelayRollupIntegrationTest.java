@@ -0,0 +1,88 @@
+package org.example.transport.integration;
+
+import org.example.transport.dto.DelayStatisticsDTO;
+import org.example.transport.entity.DeliveryHistory;
+import org.example.transport.repository.DeliveryDelayRollupRepository;
+import org.example.transport.repository.DeliveryHistoryArchiveRepository;
+import org.example.transport.repository.TourRepository;
+import org.example.transport.service.DelayRollupService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for concurrent incremental delay rollup updates
+ */
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties")
+public class DelayRollupIntegrationTest {
+
+    private static final LocalDate DATE = LocalDate.of(2020, 6, 1);
+    private static final String SLOT = "05:00-06:00";
+
+    @Autowired
+    private DeliveryDelayRollupRepository rollupRepository;
+
+    @Autowired
+    private TourRepository tourRepository;
+
+    @Autowired
+    private DeliveryHistoryArchiveRepository archiveRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void testMergesOfSeparateInstancesAddUp() throws Exception {
+        // Two services stand in for two application instances, each with its own in-process lock
+        DelayRollupService first = new DelayRollupService(rollupRepository, tourRepository, archiveRepository,
+                jdbcTemplate, transactionTemplate);
+        DelayRollupService second = new DelayRollupService(rollupRepository, tourRepository, archiveRepository,
+                jdbcTemplate, transactionTemplate);
+        first.onHistoryWritten(List.of(row(1)));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> merges = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            DelayRollupService service = i % 2 == 0 ? first : second;
+            merges.add(executor.submit(() -> service.onHistoryWritten(List.of(row(2), row(30)))));
+        }
+        for (Future<?> merge : merges) {
+            merge.get();
+        }
+        executor.shutdown();
+
+        DelayStatisticsDTO slot = first.getDelayByTimeSlot(DATE, DATE, null).stream()
+                .filter(s -> SLOT.equals(s.getKey()))
+                .findFirst().orElseThrow();
+        assertEquals(201L, slot.getDeliveryCount());
+        assertEquals((1 + 100 * 32) / 201.0, slot.getAverageDelayMinutes(), 1e-9);
+        // 101 delays in the 0-5 minute bucket, 100 in the 30-35 one: no histogram update was lost
+        assertEquals(-120 + (24 + (0.5 * 201) / 101) * 5, slot.getP50DelayMinutes(), 1e-9);
+        assertEquals(-120 + (30 + (0.9 * 201 - 101) / 100) * 5, slot.getP90DelayMinutes(), 1e-9);
+    }
+
+    private static DeliveryHistory row(int delayMinutes) {
+        return DeliveryHistory.builder()
+                .deliveryDate(DATE)
+                .dayOfWeek(DATE.getDayOfWeek())
+                .preferredTimeSlot(SLOT)
+                .delayMinutes(delayMinutes)
+                .build();
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.transport.integration;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.transport.entity.Customer;
+import org.example.transport.entity.Tour;
+import org.example.transport.enums.OptimizationAlgorithm;
+import org.example.transport.service.DelayRollupService;
+import org.example.transport.service.TourService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for the Micrometer meters of optimization and history queries
+ */
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties")
+public class MetricsIntegrationTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TourService tourService;
+
+    @Autowired
+    private DelayRollupService delayRollupService;
+
+    @Autowired
+    private TourFixtures fixtures;
+
+    @Test
+    void testOptimizationRecordsCallPhasesAndWork() {
+        Tour tour = fixtures.tour("METRICS-001", LocalDate.of(2021, 3, 1));
+        Customer customer = fixtures.customer("Metrics Customer", 48.8600, 2.3600);
+        for (int i = 0; i < 4; i++) {
+            tour.addDelivery(fixtures.stop(customer, 48.86 + i * 0.01, 2.36 - i * 0.01));
+        }
+        Long tourId = fixtures.save(tour);
+
+        long callsBefore = timerCount("tour.optimization", "outcome", "success");
+        tourService.getOptimizedTour(tourId, OptimizationAlgorithm.CLARKE_WRIGHT);
+
+        assertEquals(callsBefore + 1, timerCount("tour.optimization", "outcome", "success"));
+        for (String phase : new String[]{"load", "compute", "persist"}) {
+            assertTrue(timerCount("tour.optimization.phase", "phase", phase) >= 1, phase);
+        }
+        DistributionSummary evaluations = meterRegistry.get("tour.optimization.distance.evaluations")
+                .tag("algorithm", "CLARKE_WRIGHT").summary();
+        assertTrue(evaluations.max() >= 4 + 4 * 3 / 2);
+        assertTrue(meterRegistry.get("tour.optimization.stops").tag("algorithm", "CLARKE_WRIGHT")
+                .summary().max() >= 4);
+    }
+
+    @Test
+    void testHistoryQueriesAndCacheRegionsArePublished() {
+        delayRollupService.getDelayByWeek(LocalDate.of(2021, 1, 1), LocalDate.of(2021, 12, 31), null);
+
+        Timer query = meterRegistry.get("history.query").tag("query", "rollup-by-week").timer();
+        assertTrue(query.count() >= 1);
+        assertFalse(meterRegistry.find("hibernate.second.level.cache.requests").meters().isEmpty());
+    }
+
+    private long timerCount(String name, String tagKey, String tagValue) {
+        return meterRegistry.find(name).tag("algorithm", "CLARKE_WRIGHT").tag(tagKey, tagValue).timers().stream()
+                .mapToLong(Timer::count)
+                .sum();
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.transport.integration;
+
+import org.example.transport.dto.OptimalityGapDTO;
+import org.example.transport.dto.OptimizationDiagnosticsDTO;
+import org.example.transport.dto.OptimizedTourResponseDTO;
+import org.example.transport.enums.OptimizationAlgorithm;
+import org.example.transport.optimizer.OptimizationPhaseEvent;
+import org.example.transport.optimizer.TwoOptImprover;
+import org.example.transport.service.TourService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for the diagnostics and the optimality gap of a tour optimization
+ */
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties")
+public class OptimizationDiagnosticsIntegrationTest {
+
+    private static final int STOPS = 6;
+
+    @Autowired
+    private TourService tourService;
+
+    @Autowired
+    private TourFixtures fixtures;
+
+    @Test
+    void testDiagnosticsAreOnlyReturnedWhenRequested() {
+        Long tourId = tour("DIAG-001");
+
+        assertNull(tourService.getOptimizedTour(tourId, OptimizationAlgorithm.NEAREST_NEIGHBOR).getDiagnostics());
+        assertNull(tourService.getOptimizedTour(tourId, OptimizationAlgorithm.NEAREST_NEIGHBOR, false)
+                .getDiagnostics());
+    }
+
+    @Test
+    void testDiagnosticsReportPhasesWorkAndStages() {
+        Long tourId = tour("DIAG-002");
+
+        OptimizedTourResponseDTO optimized = tourService.getOptimizedTour(tourId,
+                OptimizationAlgorithm.CLARKE_WRIGHT, true);
+
+        OptimizationDiagnosticsDTO diagnostics = optimized.getDiagnostics();
+        assertEquals(OptimizationAlgorithm.CLARKE_WRIGHT, diagnostics.getAlgorithmUsed());
+        assertTrue(diagnostics.getFallbacks().isEmpty());
+        assertEquals(List.of(OptimizationPhaseEvent.SNAPSHOT_LOAD, OptimizationPhaseEvent.DISTANCE_MATRIX,
+                        OptimizationPhaseEvent.SAVINGS, OptimizationPhaseEvent.MERGE, OptimizationPhaseEvent.LOWER_BOUND,
+                        OptimizationPhaseEvent.IMPROVEMENT, OptimizationPhaseEvent.PERSIST),
+                List.copyOf(diagnostics.getPhaseMillis().keySet()));
+        assertTrue(diagnostics.getPhaseMillis().values().stream().allMatch(ms -> ms >= 0));
+        // Clarke-Wright distances, then the matrix of warehouse and stops for bound and 2-opt
+        assertEquals(STOPS + STOPS * (STOPS - 1) / 2 + (STOPS + 1) * STOPS / 2, diagnostics.getDistanceEvaluations());
+
+        assertEquals(2, diagnostics.getStages().size());
+        OptimizationDiagnosticsDTO.Stage construction = diagnostics.getStages().get(0);
+        assertEquals(OptimizationPhaseEvent.CONSTRUCTION, construction.getName());
+        assertTrue(construction.getInitialDistanceKm() > 0);
+        assertNull(construction.getStopReason());
+        OptimizationDiagnosticsDTO.Stage twoOpt = diagnostics.getStages().get(1);
+        assertEquals(TwoOptImprover.STAGE, twoOpt.getName());
+        assertEquals(construction.getFinalDistanceKm(), twoOpt.getInitialDistanceKm(), 1e-9);
+        assertEquals(optimized.getTotalDistanceKm(), twoOpt.getFinalDistanceKm(), 1e-9);
+        assertNotNull(twoOpt.getStopReason());
+
+        assertTrue(diagnostics.getLowerBoundKm() > 0);
+        assertTrue(diagnostics.getLowerBoundKm() <= optimized.getTotalDistanceKm() + 1e-9);
+        assertTrue(diagnostics.getGapPercent() >= -1e-6);
+        // Vehicle, warehouse and one customer per stop
+        assertEquals(2 + STOPS, diagnostics.getCacheHits() + diagnostics.getCacheMisses());
+        assertEquals(1, diagnostics.getAttempts());
+    }
+
+    @Test
+    void testDiagnosticsReportTheAiFallbackAndCacheHits() {
+        Long tourId = tour("DIAG-003");
+        tourService.getOptimizedTour(tourId, OptimizationAlgorithm.NEAREST_NEIGHBOR);
+
+        OptimizationDiagnosticsDTO diagnostics = tourService.getOptimizedTour(tourId,
+                OptimizationAlgorithm.AI, true).getDiagnostics();
+
+        assertEquals(OptimizationAlgorithm.NEAREST_NEIGHBOR, diagnostics.getAlgorithmUsed());
+        assertEquals(List.of("AI -> NEAREST_NEIGHBOR"), diagnostics.getFallbacks());
+        assertTrue(diagnostics.getPhaseMillis().containsKey(OptimizationPhaseEvent.CONSTRUCTION));
+        // The first optimization put everything into the second-level cache
+        assertEquals(2 + STOPS, diagnostics.getCacheHits());
+        assertEquals(0, diagnostics.getCacheMisses());
+    }
+
+    @Test
+    void testGapOfTheStoredOrder() {
+        Long tourId = tour("DIAG-004");
+
+        OptimalityGapDTO stored = tourService.getOptimalityGap(tourId);
+        assertEquals(STOPS, stored.getStops());
+        assertTrue(stored.getLowerBoundKm() > 0);
+        assertTrue(stored.getLowerBoundKm() <= stored.getDistanceKm() + 1e-9);
+        assertEquals((stored.getDistanceKm() - stored.getLowerBoundKm()) / stored.getLowerBoundKm() * 100,
+                stored.getGapPercent(), 1e-9);
+
+        OptimizedTourResponseDTO optimized = tourService.getOptimizedTour(tourId, OptimizationAlgorithm.NEAREST_NEIGHBOR);
+        OptimalityGapDTO after = tourService.getOptimalityGap(tourId);
+        assertEquals(optimized.getTotalDistanceKm(), after.getDistanceKm(), 1e-9);
+        assertTrue(after.getGapPercent() >= -1e-6);
+    }
+
+    private Long tour(String registration) {
+        return fixtures.tourWithCustomers(registration, LocalDate.of(2021, 7, 1), STOPS,
+                i -> 48.85 + i * 0.003, i -> 2.35 + (i % 3) * 0.004);
+    }
+}
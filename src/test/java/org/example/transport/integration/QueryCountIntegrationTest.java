@@ -0,0 +1,71 @@
+package org.example.transport.integration;
+
+import org.example.transport.dto.OptimizedTourResponseDTO;
+import org.example.transport.enums.OptimizationAlgorithm;
+import org.example.transport.jdbc.QueryCountExtension;
+import org.example.transport.repository.TourRepository;
+import org.example.transport.service.TourService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Statement budgets of hot service calls, so N+1 regressions fail in CI
+ */
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties")
+public class QueryCountIntegrationTest {
+
+    private static final int STOPS = 20;
+
+    @RegisterExtension
+    final QueryCountExtension queries = new QueryCountExtension();
+
+    @Autowired
+    private TourService tourService;
+
+    @Autowired
+    private TourFixtures fixtures;
+
+    @Autowired
+    private TourRepository tourRepository;
+
+    @Test
+    void testTourPageDoesNotLoadDeliveriesPerTour() {
+        tourWithDistinctCustomers("QUERY-001");
+
+        // Page of tours, then the delivery ids of all of them in one query
+        assertFalse(queries.assertAtMost(2, () -> tourService.getAllTours(null, 50)).getItems().isEmpty());
+    }
+
+    @Test
+    void testOptimizeLoadsStopsAndCustomersInBatches() {
+        Long tourId = tourWithDistinctCustomers("QUERY-002");
+
+        // Tour with stops, vehicle, warehouse, customers in one batch, then tour and stop updates and the run log row
+        OptimizedTourResponseDTO optimized = queries.assertAtMost(7,
+                () -> tourService.getOptimizedTour(tourId, OptimizationAlgorithm.NEAREST_NEIGHBOR));
+        assertEquals(STOPS, optimized.getOrderedDeliveries().size());
+    }
+
+    @Test
+    void testBudgetFailureListsRepeatedStatements() {
+        Long tourId = tourWithDistinctCustomers("QUERY-003");
+
+        AssertionError error = assertThrows(AssertionError.class, () -> queries.assertAtMost(0,
+                () -> tourRepository.findById(tourId)));
+        assertTrue(error.getMessage().contains("1 x select"), error.getMessage());
+        assertEquals(1, queries.getLastCount());
+    }
+
+    private Long tourWithDistinctCustomers(String registration) {
+        return fixtures.tourWithCustomers(registration, LocalDate.of(2021, 6, 1), STOPS,
+                i -> 48.85 + i * 0.001, i -> 2.35 + (i % 5) * 0.002);
+    }
+}
@@ -0,0 +1,110 @@
+package org.example.transport.integration;
+
+import org.example.transport.entity.Customer;
+import org.example.transport.entity.Delivery;
+import org.example.transport.entity.Tour;
+import org.example.transport.entity.Vehicle;
+import org.example.transport.entity.Warehouse;
+import org.example.transport.enums.VehicleType;
+import org.example.transport.repository.CustomerRepository;
+import org.example.transport.repository.TourRepository;
+import org.example.transport.repository.VehicleRepository;
+import org.example.transport.repository.WarehouseRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Tours with their warehouse, van, customers and stops for the integration tests
+ * Every tour gets its own warehouse in central Paris and a van with the given registration,
+ * which must be unique within the shared test database.
+ */
+@Component
+public class TourFixtures {
+
+    public static final double WAREHOUSE_LATITUDE = 48.8566;
+    public static final double WAREHOUSE_LONGITUDE = 2.3522;
+
+    private final WarehouseRepository warehouseRepository;
+    private final VehicleRepository vehicleRepository;
+    private final CustomerRepository customerRepository;
+    private final TourRepository tourRepository;
+
+    public TourFixtures(WarehouseRepository warehouseRepository, VehicleRepository vehicleRepository,
+                        CustomerRepository customerRepository, TourRepository tourRepository) {
+        this.warehouseRepository = warehouseRepository;
+        this.vehicleRepository = vehicleRepository;
+        this.customerRepository = customerRepository;
+        this.tourRepository = tourRepository;
+    }
+
+    /**
+     * Saved tour with one new customer per stop
+     * @param latitude Latitude of the customer of stop i
+     * @param longitude Longitude of the customer of stop i
+     * @return Id of the tour
+     */
+    public Long tourWithCustomers(String registration, LocalDate date, int stops,
+                                  IntToDoubleFunction latitude, IntToDoubleFunction longitude) {
+        Tour tour = tour(registration, date);
+        for (int i = 0; i < stops; i++) {
+            tour.addDelivery(stop(customer(registration + " Customer " + i,
+                    latitude.applyAsDouble(i), longitude.applyAsDouble(i))));
+        }
+        return save(tour);
+    }
+
+    /**
+     * Unsaved tour without stops, its warehouse and van are saved
+     */
+    public Tour tour(String registration, LocalDate date) {
+        Warehouse warehouse = warehouseRepository.save(new Warehouse(null, registration + " Warehouse",
+                "1 Depot Road", WAREHOUSE_LATITUDE, WAREHOUSE_LONGITUDE, LocalTime.of(8, 0), LocalTime.of(18, 0)));
+        Vehicle vehicle = vehicleRepository.save(new Vehicle(registration, VehicleType.VAN));
+        Tour tour = new Tour();
+        tour.setTourDate(date);
+        tour.setVehicle(vehicle);
+        tour.setWarehouse(warehouse);
+        return tour;
+    }
+
+    public Customer customer(String name, double latitude, double longitude) {
+        Customer customer = new Customer();
+        customer.setName(name);
+        customer.setAddress("2 Client Street");
+        customer.setLatitude(latitude);
+        customer.setLongitude(longitude);
+        return customerRepository.save(customer);
+    }
+
+    /**
+     * Unsaved stop of 1 kg and 0.1 m3 at the customer's location
+     */
+    public Delivery stop(Customer customer) {
+        Delivery delivery = new Delivery();
+        delivery.setCustomer(customer);
+        delivery.setWeightKg(1.0);
+        delivery.setVolumeM3(0.1);
+        return delivery;
+    }
+
+    /**
+     * Unsaved stop of 1 kg and 0.1 m3 at its own location
+     */
+    public Delivery stop(Customer customer, double latitude, double longitude) {
+        Delivery delivery = stop(customer);
+        delivery.setSpecificLatitude(latitude);
+        delivery.setSpecificLongitude(longitude);
+        return delivery;
+    }
+
+    /**
+     * Save a tour with its stops
+     * @return Id of the tour
+     */
+    public Long save(Tour tour) {
+        return tourRepository.save(tour).getId();
+    }
+}
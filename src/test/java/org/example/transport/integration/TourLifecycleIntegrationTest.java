@@ -0,0 +1,159 @@
+package org.example.transport.integration;
+
+import org.example.transport.dto.DelayStatisticsDTO;
+import org.example.transport.dto.DeliveryDTO;
+import org.example.transport.dto.OptimizedTourResponseDTO;
+import org.example.transport.dto.TourCompletionDTO;
+import org.example.transport.dto.TourDTO;
+import org.example.transport.entity.Customer;
+import org.example.transport.entity.Delivery;
+import org.example.transport.entity.DeliveryHistory;
+import org.example.transport.entity.Tour;
+import org.example.transport.enums.DeliveryStatus;
+import org.example.transport.enums.OptimizationAlgorithm;
+import org.example.transport.enums.TourStatus;
+import org.example.transport.exception.InvalidTourException;
+import org.example.transport.repository.DeliveryHistoryRepository;
+import org.example.transport.repository.DeliveryRepository;
+import org.example.transport.repository.TourRepository;
+import org.example.transport.service.DelayRollupService;
+import org.example.transport.service.DeliveryHistoryWriter;
+import org.example.transport.service.TourService;
+import org.example.transport.util.PageCursor;
+import org.example.transport.util.Tsplib;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration test for the tour lifecycle
+ * V2.0 - Completing a tour writes one history row per stop and updates the delay rollups
+ */
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties")
+public class TourLifecycleIntegrationTest {
+
+    @Autowired
+    private TourService tourService;
+
+    @Autowired
+    private DeliveryHistoryWriter deliveryHistoryWriter;
+
+    @Autowired
+    private DelayRollupService delayRollupService;
+
+    @Autowired
+    private TourFixtures fixtures;
+
+    @Autowired
+    private TourRepository tourRepository;
+
+    @Autowired
+    private DeliveryHistoryRepository deliveryHistoryRepository;
+
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
+    @Test
+    public void testCompleteTourWritesHistory() throws InterruptedException {
+        Tour tour = fixtures.tour("LIFE-001", LocalDate.of(2025, 11, 7));
+        Customer customer = fixtures.customer("Lifecycle Customer", 48.8600, 2.3600);
+        for (int i = 0; i < 3; i++) {
+            Delivery delivery = fixtures.stop(customer, 48.86 + i * 0.01, 2.36 + i * 0.01);
+            delivery.setWeightKg(10.0);
+            delivery.setVolumeM3(0.5);
+            delivery.setSequenceInTour(i + 1);
+            tour.addDelivery(delivery);
+        }
+        Long tourId = fixtures.save(tour);
+        Long firstDeliveryId = tour.getDeliveries().get(0).getId();
+
+        TourDTO listed = tourService.getToursByDate(tour.getTourDate()).stream()
+                .filter(t -> t.getId().equals(tourId))
+                .findFirst().orElseThrow();
+        assertEquals(tour.getDeliveries().stream().map(Delivery::getId).toList(), listed.getDeliveryIds());
+        assertEquals(TourStatus.PENDING, listed.getStatus());
+        TourDTO paged = tourService.getAllTours(null, PageCursor.MAX_SIZE).getItems().stream()
+                .filter(t -> t.getId().equals(tourId))
+                .findFirst().orElseThrow();
+        assertEquals(listed.getDeliveryIds(), paged.getDeliveryIds());
+
+        assertThrows(InvalidTourException.class, () -> tourService.completeTour(tourId, null));
+
+        TourDTO started = tourService.startTour(tourId);
+        assertEquals(TourStatus.IN_PROGRESS, started.getStatus());
+        assertNotNull(started.getStartTime());
+
+        TourCompletionDTO completion = new TourCompletionDTO();
+        completion.getStops().add(new TourCompletionDTO.StopReport(
+                firstDeliveryId, started.getStartTime().toLocalTime().plusHours(1), DeliveryStatus.DELIVERED, "Late"));
+        TourDTO completed = tourService.completeTour(tourId, completion);
+        assertEquals(TourStatus.COMPLETED, completed.getStatus());
+
+        assertTrue(deliveryHistoryWriter.awaitIdle(5000));
+        List<DeliveryHistory> history = deliveryHistoryRepository.findAll().stream()
+                .filter(h -> "Lifecycle Customer".equals(h.getCustomerName()))
+                .toList();
+        assertEquals(3, history.size());
+        assertTrue(history.stream().allMatch(h -> h.getDistanceFromWarehouseKm() > 0));
+        assertTrue(history.stream().allMatch(h -> h.getDistanceFromPreviousDeliveryKm() > 0));
+        assertEquals(1, history.stream().filter(h -> h.getDelayMinutes() != null).count());
+
+        LocalDate tourDate = tour.getTourDate();
+        Long warehouseId = tour.getWarehouse().getId();
+        List<DelayStatisticsDTO> byDay = delayRollupService.getDelayByDayOfWeek(tourDate, tourDate, warehouseId);
+        assertEquals(1, byDay.size());
+        assertEquals("FRIDAY", byDay.get(0).getKey());
+        assertEquals(1L, byDay.get(0).getDeliveryCount());
+        assertTrue(byDay.get(0).getAverageDelayMinutes() > 0);
+
+        delayRollupService.rebuild(tourDate, tourDate);
+        assertEquals(byDay, delayRollupService.getDelayByDayOfWeek(tourDate, tourDate, warehouseId));
+    }
+
+    @Test
+    public void testOptimizeWritesBackStopOrder() throws IOException {
+        Tour tour = fixtures.tour("OPT-001", LocalDate.of(2025, 11, 10));
+        Customer customer = fixtures.customer("Optimize Customer", 48.8600, 2.3600);
+        // Stored farthest first, the nearest neighbor order is the reverse
+        for (int i = 0; i < 3; i++) {
+            Delivery delivery = fixtures.stop(customer, TourFixtures.WAREHOUSE_LATITUDE + (3 - i) * 0.01,
+                    TourFixtures.WAREHOUSE_LONGITUDE);
+            delivery.setWeightKg(10.0);
+            delivery.setVolumeM3(0.5);
+            delivery.setSequenceInTour(i + 1);
+            tour.addDelivery(delivery);
+        }
+        Long tourId = fixtures.save(tour);
+        List<Long> expectedOrder = new ArrayList<>(tour.getDeliveries().stream().map(Delivery::getId).toList());
+        Collections.reverse(expectedOrder);
+        long version = tourRepository.findById(tourId).orElseThrow().getVersion();
+
+        OptimizedTourResponseDTO optimized = tourService.getOptimizedTour(tourId, OptimizationAlgorithm.NEAREST_NEIGHBOR);
+        assertEquals(expectedOrder, optimized.getOrderedDeliveries().stream().map(DeliveryDTO::getId).toList());
+        assertEquals(30.0, optimized.getTotalWeightKg());
+
+        Tour saved = tourRepository.findById(tourId).orElseThrow();
+        assertTrue(saved.getOptimized());
+        assertEquals(OptimizationAlgorithm.NEAREST_NEIGHBOR, saved.getAlgorithm());
+        assertEquals(optimized.getTotalDistanceKm(), saved.getTotalDistanceKm());
+        assertEquals(version + 1, saved.getVersion());
+        assertEquals(expectedOrder, deliveryRepository.findByTourIdOrderBySequence(tourId).stream()
+                .map(Delivery::getId).toList());
+
+        // The export lists the warehouse, then the stops nearest first
+        Tsplib.Instance exported = Tsplib.read(new StringReader(tourService.exportTsplib(tourId)));
+        assertEquals(4, exported.nodes().size());
+        assertTrue(exported.nodes().get(1).x() < exported.nodes().get(3).x());
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.transport.jdbc;
+
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * JUnit extension asserting how many JDBC statements a call may execute
+ * Register it with {@code @RegisterExtension} in a Spring Boot test and wrap the call:
+ * {@code queries.assertAtMost(2, () -> tourService.getAllTours(null, 50))}. Only statements
+ * of the test thread are counted. A failure lists every statement with its execution count,
+ * which usually points straight at the association loaded row by row.
+ */
+public class QueryCountExtension implements AfterEachCallback {
+
+    private int lastCount = -1;
+
+    /**
+     * Run a call and fail if it executed more than max statements
+     * @return The call's result
+     */
+    public <T> T assertAtMost(int max, Supplier<T> call) {
+        try (QueryCounter counter = QueryCounter.open()) {
+            T result = call.get();
+            check(max, counter);
+            return result;
+        }
+    }
+
+    public void assertAtMost(int max, Runnable call) {
+        assertAtMost(max, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /**
+     * Statements executed by the last asserted call
+     */
+    public int getLastCount() {
+        return lastCount;
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        lastCount = -1;
+    }
+
+    private void check(int max, QueryCounter counter) {
+        lastCount = counter.getStatements();
+        if (lastCount > max) {
+            fail("Expected at most " + max + " statements but " + lastCount + " were executed:\n"
+                    + counter.getExecutionsBySql().stream()
+                    .map(e -> e.getValue() + " x " + e.getKey())
+                    .collect(Collectors.joining("\n")));
+        }
+    }
+}
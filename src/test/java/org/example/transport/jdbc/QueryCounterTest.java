@@ -0,0 +1,29 @@
+package org.example.transport.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the per-thread statement counter
+ */
+class QueryCounterTest {
+
+    @Test
+    void testCountersNestOnTheThread() {
+        try (QueryCounter outer = QueryCounter.open()) {
+            QueryCounter.record("select a");
+            try (QueryCounter inner = QueryCounter.open()) {
+                QueryCounter.record("select b");
+                QueryCounter.record("select b");
+                QueryCounter.record("select b");
+                assertEquals(3, inner.getStatements());
+            }
+            QueryCounter.record("select a");
+            assertEquals(5, outer.getStatements());
+            assertEquals("select b", outer.getExecutionsBySql().get(0).getKey());
+        }
+        // Nothing is open any more, recording is a no-op
+        QueryCounter.record("select c");
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.transport.jdbc;
+
+import org.example.transport.dto.SlowQueryDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the slow query log
+ */
+class SlowQueryLogTest {
+
+    @Test
+    void testKeepsOnlySlowStatementsNewestFirst() {
+        SlowQueryLog log = new SlowQueryLog(100, 2);
+        log.record("select 1", List.of(), 99, 0, true);
+        log.record("select 2", List.of("[1=a]"), 100, 0, true);
+        log.record("insert 3", List.of("[1=b]", "[1=c]"), 250, 2, false);
+        log.record("select 4", List.of(), 300, 0, true);
+
+        List<SlowQueryDTO> entries = log.getEntries();
+        assertEquals(List.of("select 4", "insert 3"), entries.stream().map(SlowQueryDTO::getSql).toList());
+        assertEquals(List.of("[1=b]", "[1=c]"), entries.get(1).getParameters());
+        assertEquals(2, entries.get(1).getBatchSize());
+        assertFalse(entries.get(1).getSuccess());
+
+        log.clear();
+        assertTrue(log.getEntries().isEmpty());
+    }
+}
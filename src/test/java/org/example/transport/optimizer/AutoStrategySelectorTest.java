@@ -0,0 +1,172 @@
+package org.example.transport.optimizer;
+
+import org.example.transport.dto.ConstructionStatisticsDTO;
+import org.example.transport.entity.Tour;
+import org.example.transport.entity.Vehicle;
+import org.example.transport.enums.OptimizationAlgorithm;
+import org.example.transport.enums.OptimizationStrategy;
+import org.example.transport.enums.VehicleType;
+import org.example.transport.repository.OptimizationRunLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the AUTO strategy selection
+ */
+@ExtendWith(MockitoExtension.class)
+class AutoStrategySelectorTest {
+
+    private static final int STOPS = 20;
+
+    @Mock
+    private OptimizationRunLogRepository runLogRepository;
+
+    private AutoStrategySelector selector;
+
+    @BeforeEach
+    void setUp() {
+        selector = new AutoStrategySelector(runLogRepository, new LowerBoundCalculator(1000, 100),
+                10, 0.5, 5, 30, 50, 500, 2000, 200);
+    }
+
+    @Test
+    void testSmallTourGetsExactSearch() {
+        AutoStrategySelector.Plan plan = selector.select(tour(VehicleType.VAN, 8, 0.01), null);
+
+        assertEquals(OptimizationStrategy.EXACT, plan.strategy());
+        assertNull(plan.construction());
+        assertEquals(Duration.ofMillis(500), plan.budget());
+        verifyNoInteractions(runLogRepository);
+    }
+
+    @Test
+    void testTourTooLargeForAMatrixGetsTheCurve() {
+        selector = new AutoStrategySelector(runLogRepository, new LowerBoundCalculator(15, 100),
+                10, 0.5, 5, 30, 50, 500, 2000, 200);
+
+        AutoStrategySelector.Plan plan = selector.select(tour(VehicleType.VAN, STOPS, 0.01), null);
+
+        assertEquals(OptimizationStrategy.SPACE_FILLING_CURVE, plan.strategy());
+        verifyNoInteractions(runLogRepository);
+    }
+
+    @Test
+    void testCompactTourGetsTheCurve() {
+        // Twenty stops on one block, about 60 m across
+        Tour tour = tour(VehicleType.BIKE, STOPS, 0.0001);
+        assertTrue(AutoStrategySelector.spreadKm(tour) < 0.1);
+
+        AutoStrategySelector.Plan plan = selector.select(tour, null);
+
+        assertEquals(OptimizationStrategy.SPACE_FILLING_CURVE, plan.strategy());
+        assertEquals(Duration.ofMillis(200), plan.budget());
+        verifyNoInteractions(runLogRepository);
+    }
+
+    @Test
+    void testConstructionsAreSampledBeforeTheyAreCompared() {
+        Tour tour = tour(VehicleType.VAN, STOPS, 0.01);
+        when(runLogRepository.summarizeByConstruction(eq(OptimizationStrategy.LOCAL_SEARCH), eq(STOPS / 2),
+                eq(2 * STOPS), any()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(statistics(OptimizationAlgorithm.CLARKE_WRIGHT, 5, 0.01, 1.0),
+                        statistics(OptimizationAlgorithm.NEAREST_NEIGHBOR, 4, 0.01, 1.0)));
+
+        AutoStrategySelector.Plan coldStart = selector.select(tour, null);
+        assertEquals(OptimizationStrategy.LOCAL_SEARCH, coldStart.strategy());
+        assertEquals(OptimizationAlgorithm.CLARKE_WRIGHT, coldStart.construction());
+
+        AutoStrategySelector.Plan sampling = selector.select(tour, null);
+        assertEquals(OptimizationAlgorithm.NEAREST_NEIGHBOR, sampling.construction());
+    }
+
+    @Test
+    void testConstructionsExpectedToOverrunTheBudgetAreNotSampled() {
+        int stops = 400;
+        Tour tour = tour(VehicleType.BIKE, stops, 0.01);
+        when(runLogRepository.summarizeByConstruction(any(), anyInt(), anyInt(), any())).thenReturn(List.of());
+
+        // Clarke-Wright would take seconds on a cold log, nearest neighbor about 8 ms
+        AutoStrategySelector.Plan bike = selector.select(tour, null);
+        assertEquals(OptimizationStrategy.LOCAL_SEARCH, bike.strategy());
+        assertEquals(OptimizationAlgorithm.NEAREST_NEIGHBOR, bike.construction());
+
+        AutoStrategySelector.Plan tooTight = selector.select(tour, 1L);
+        assertEquals(OptimizationStrategy.SPACE_FILLING_CURVE, tooTight.strategy());
+    }
+
+    @Test
+    void testClarkeWrightWorkGrowsFasterThanNearestNeighbor() {
+        double ratioAt100 = AutoStrategySelector.workUnits(OptimizationAlgorithm.CLARKE_WRIGHT, 100)
+                / AutoStrategySelector.workUnits(OptimizationAlgorithm.NEAREST_NEIGHBOR, 100);
+        double ratioAt400 = AutoStrategySelector.workUnits(OptimizationAlgorithm.CLARKE_WRIGHT, 400)
+                / AutoStrategySelector.workUnits(OptimizationAlgorithm.NEAREST_NEIGHBOR, 400);
+        assertEquals(400.0 * 400, AutoStrategySelector.workUnits(OptimizationAlgorithm.NEAREST_NEIGHBOR, 400));
+        assertTrue(ratioAt400 > 3 * ratioAt100);
+    }
+
+    @Test
+    void testLowestGapWithinTheBudgetIsChosen() {
+        Tour tour = tour(VehicleType.TRUCK, STOPS, 0.01);
+        // Clarke-Wright is expected to take 400 ms, nearest neighbor 40 ms
+        when(runLogRepository.summarizeByConstruction(any(), anyInt(), anyInt(), any()))
+                .thenReturn(List.of(statistics(OptimizationAlgorithm.CLARKE_WRIGHT, 10,
+                                400.0 / AutoStrategySelector.workUnits(OptimizationAlgorithm.CLARKE_WRIGHT, STOPS), 0.5),
+                        statistics(OptimizationAlgorithm.NEAREST_NEIGHBOR, 10,
+                                40.0 / AutoStrategySelector.workUnits(OptimizationAlgorithm.NEAREST_NEIGHBOR, STOPS), 3.0)));
+
+        AutoStrategySelector.Plan truck = selector.select(tour, null);
+        assertEquals(OptimizationStrategy.LOCAL_SEARCH, truck.strategy());
+        assertEquals(OptimizationAlgorithm.CLARKE_WRIGHT, truck.construction());
+        assertEquals(Duration.ofMillis(2000), truck.budget());
+
+        AutoStrategySelector.Plan tight = selector.select(tour, 100L);
+        assertEquals(OptimizationAlgorithm.NEAREST_NEIGHBOR, tight.construction());
+        assertEquals(Duration.ofMillis(100), tight.budget());
+
+        AutoStrategySelector.Plan tooTight = selector.select(tour, 10L);
+        assertEquals(OptimizationStrategy.SPACE_FILLING_CURVE, tooTight.strategy());
+    }
+
+    @Test
+    void testRunsWithoutABoundRankLast() {
+        Tour tour = tour(VehicleType.VAN, STOPS, 0.01);
+        when(runLogRepository.summarizeByConstruction(any(), anyInt(), anyInt(), any()))
+                .thenReturn(List.of(statistics(OptimizationAlgorithm.CLARKE_WRIGHT, 10, 0.01, null),
+                        statistics(OptimizationAlgorithm.NEAREST_NEIGHBOR, 10, 0.01, 4.0)));
+
+        assertEquals(OptimizationAlgorithm.NEAREST_NEIGHBOR, selector.select(tour, null).construction());
+    }
+
+    @Test
+    void testSpreadIsTheDiagonalAroundWarehouseAndStops() {
+        // One stop 0.01 degrees north of the warehouse is about 1.11 km away
+        assertEquals(1.11, AutoStrategySelector.spreadKm(tour(VehicleType.VAN, 1, 0.01)), 0.01);
+    }
+
+    private static ConstructionStatisticsDTO statistics(OptimizationAlgorithm construction, long runs,
+                                                        double runtimeMsPerWorkUnit, Double gapPercent) {
+        return new ConstructionStatisticsDTO(construction, runs, runtimeMsPerWorkUnit, gapPercent);
+    }
+
+    /**
+     * Stops on a grid of five columns north-east of the warehouse
+     */
+    private static Tour tour(VehicleType vehicleType, int stops, double step) {
+        Tour tour = OptimizerFixtures.tour(stops, i -> OptimizerFixtures.WAREHOUSE_LATITUDE + (i / 5 + 1) * step,
+                i -> OptimizerFixtures.WAREHOUSE_LONGITUDE + (i % 5) * step);
+        tour.setVehicle(new Vehicle("AUTO-" + vehicleType, vehicleType));
+        return tour;
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.transport.optimizer;
+
+import org.example.transport.enums.VehicleType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DelayModel and DelayModelTrainer
+ */
+class DelayModelTest {
+
+    @Test
+    void testEmptyTrainerReturnsEmptyModel() {
+        DelayModel model = new DelayModelTrainer(0.1).train();
+
+        assertFalse(model.isTrained());
+        assertEquals(0.0, model.predictDelayMinutes(1, 540, 10.0, 3, 0, 5.0));
+    }
+
+    @Test
+    void testTrainerRecoversLinearDelayPattern() {
+        DelayModelTrainer trainer = new DelayModelTrainer(0.001);
+        Random random = new Random(42);
+
+        // Fridays run 10 minutes late, every km adds 0.5 minutes, every stop adds 1 minute
+        for (int i = 0; i < 5000; i++) {
+            int day = 1 + random.nextInt(7);
+            int slot = (8 + random.nextInt(8)) * 60;
+            double distance = random.nextDouble() * 30.0;
+            int sequence = 1 + random.nextInt(20);
+            int vehicle = random.nextInt(VehicleType.values().length);
+            double weight = random.nextDouble() * 50.0;
+            double delay = (day == 5 ? 10.0 : 0.0) + 0.5 * distance + sequence + random.nextGaussian() * 0.5;
+            trainer.addSample(day, slot, distance, sequence, vehicle, weight, delay);
+        }
+
+        DelayModel model = trainer.train();
+
+        assertTrue(model.isTrained());
+        assertEquals(5000, model.getTrainingSamples());
+        double friday = model.predictDelayMinutes(5, 600, 10.0, 5, VehicleType.VAN.ordinal(), 20.0);
+        double monday = model.predictDelayMinutes(1, 600, 10.0, 5, VehicleType.VAN.ordinal(), 20.0);
+        assertEquals(20.0, friday, 1.0);
+        assertEquals(10.0, monday, 1.0);
+    }
+
+    @Test
+    void testParseSlotStartMinute() {
+        assertEquals(540, DelayModel.parseSlotStartMinute("09:00-11:00"));
+        assertEquals(-1, DelayModel.parseSlotStartMinute(null));
+        assertEquals(-1, DelayModel.parseSlotStartMinute("morning"));
+    }
+}
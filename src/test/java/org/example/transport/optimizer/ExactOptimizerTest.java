@@ -0,0 +1,80 @@
+package org.example.transport.optimizer;
+
+import org.example.transport.entity.Delivery;
+import org.example.transport.entity.Tour;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the exact Held-Karp search
+ */
+class ExactOptimizerTest {
+
+    private final ExactOptimizer optimizer = new ExactOptimizer();
+
+    @Test
+    void testRouteIsAsShortAsEveryPermutation() {
+        Random random = new Random(11);
+        for (int trial = 0; trial < 50; trial++) {
+            Tour tour = tour(random, 1 + random.nextInt(8));
+
+            try (OptimizationRun run = OptimizationRun.open()) {
+                List<Delivery> route = optimizer.calculateOptimalTour(tour);
+
+                assertEquals(tour.getDeliveries().size(), new HashSet<>(route).size());
+                double length = LowerBoundCalculator.routeLength(LowerBoundCalculator.distanceMatrix(tour, route));
+                double optimum = shortestRoute(LowerBoundCalculator.distanceMatrix(tour, tour.getDeliveries()));
+                assertEquals(optimum, length, 1e-9);
+                assertEquals(optimum, run.getLowerBoundKm(), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    void testLargeToursAreRejected() {
+        Tour tour = tour(new Random(3), ExactOptimizer.MAX_STOPS + 1);
+        assertThrows(IllegalArgumentException.class, () -> optimizer.calculateOptimalTour(tour));
+    }
+
+    private static Tour tour(Random random, int stops) {
+        return OptimizerFixtures.tour(stops,
+                i -> OptimizerFixtures.WAREHOUSE_LATITUDE + (random.nextDouble() - 0.5) * 0.1,
+                i -> OptimizerFixtures.WAREHOUSE_LONGITUDE + (random.nextDouble() - 0.5) * 0.1);
+    }
+
+    private static double shortestRoute(double[][] distances) {
+        int[] stops = new int[distances.length - 1];
+        for (int i = 0; i < stops.length; i++) {
+            stops[i] = i + 1;
+        }
+        return shortestRoute(distances, stops, 0);
+    }
+
+    private static double shortestRoute(double[][] distances, int[] stops, int fixed) {
+        if (fixed == stops.length) {
+            double length = distances[0][stops[0]] + distances[stops[stops.length - 1]][0];
+            for (int i = 0; i + 1 < stops.length; i++) {
+                length += distances[stops[i]][stops[i + 1]];
+            }
+            return length;
+        }
+        double best = Double.MAX_VALUE;
+        for (int i = fixed; i < stops.length; i++) {
+            swap(stops, fixed, i);
+            best = Math.min(best, shortestRoute(distances, stops, fixed + 1));
+            swap(stops, fixed, i);
+        }
+        return best;
+    }
+
+    private static void swap(int[] values, int i, int j) {
+        int swap = values[i];
+        values[i] = values[j];
+        values[j] = swap;
+    }
+}
@@ -0,0 +1,156 @@
+package org.example.transport.optimizer;
+
+import org.example.transport.util.Tsplib;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Held-Karp lower bound
+ */
+class LowerBoundCalculatorTest {
+
+    private final LowerBoundCalculator calculator = new LowerBoundCalculator(1000, 100);
+
+    @Test
+    void testBoundIsExactWhenTheOneTreeIsARoute() {
+        // On a regular polygon the first 1-tree already is the perimeter
+        int n = 7;
+        double[][] distances = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                double a = 2 * Math.PI * i / n;
+                double b = 2 * Math.PI * j / n;
+                distances[i][j] = Math.hypot(Math.cos(a) - Math.cos(b), Math.sin(a) - Math.sin(b));
+            }
+        }
+        double perimeter = LowerBoundCalculator.routeLength(distances);
+        assertEquals(perimeter, calculator.lowerBound(distances, perimeter, 0.0), 1e-9);
+    }
+
+    @Test
+    void testBoundNeverExceedsTheOptimalRoute() {
+        Random random = new Random(7);
+        for (int trial = 0; trial < 100; trial++) {
+            int n = 4 + random.nextInt(5);
+            double[][] points = new double[n][2];
+            for (double[] point : points) {
+                point[0] = random.nextDouble();
+                point[1] = random.nextDouble();
+            }
+            double[][] distances = new double[n][n];
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    distances[i][j] = Math.hypot(points[i][0] - points[j][0], points[i][1] - points[j][1]);
+                }
+            }
+            double optimum = shortestRoute(distances);
+            double bound = calculator.lowerBound(distances, LowerBoundCalculator.routeLength(distances), 0.0);
+            assertTrue(bound <= optimum + 1e-9, bound + " > " + optimum);
+            assertTrue(bound > 0);
+        }
+    }
+
+    @Test
+    void testBoundIsTightOnBerlin52() throws IOException {
+        Tsplib.Instance instance;
+        try (Reader reader = new InputStreamReader(
+                LowerBoundCalculatorTest.class.getResourceAsStream("/tsplib/berlin52.tsp"), StandardCharsets.UTF_8)) {
+            instance = Tsplib.read(reader);
+        }
+        List<Tsplib.Node> nodes = instance.nodes();
+        double[][] distances = new double[nodes.size()][nodes.size()];
+        for (int i = 0; i < nodes.size(); i++) {
+            for (int j = 0; j < nodes.size(); j++) {
+                distances[i][j] = Tsplib.distance(instance, nodes.get(i), nodes.get(j));
+            }
+        }
+
+        // Best known route: 7542, the node order of the file is about three times as long
+        double bound = calculator.lowerBound(distances, LowerBoundCalculator.routeLength(distances), 0.0);
+        assertTrue(bound <= 7542 + 1e-9);
+        assertTrue(bound >= 7542 * 0.99, "Bound " + bound);
+    }
+
+    @Test
+    void testDeadlineStopsTheIterationsEarly() throws IOException {
+        Tsplib.Instance instance;
+        try (Reader reader = new InputStreamReader(
+                LowerBoundCalculatorTest.class.getResourceAsStream("/tsplib/berlin52.tsp"), StandardCharsets.UTF_8)) {
+            instance = Tsplib.read(reader);
+        }
+        List<Tsplib.Node> nodes = instance.nodes();
+        double[][] distances = new double[nodes.size()][nodes.size()];
+        for (int i = 0; i < nodes.size(); i++) {
+            for (int j = 0; j < nodes.size(); j++) {
+                distances[i][j] = Tsplib.distance(instance, nodes.get(i), nodes.get(j));
+            }
+        }
+        double route = LowerBoundCalculator.routeLength(distances);
+
+        // A passed deadline leaves the plain 1-tree of the first iteration
+        double early = calculator.lowerBound(distances, route, 0.0, System.nanoTime());
+        assertTrue(early > 0);
+        assertTrue(early < calculator.lowerBound(distances, route, 0.0), "Bound " + early);
+    }
+
+    @Test
+    void testTargetGapStopsTheIterationsEarly() {
+        double[][] distances = {{0, 3, 4, 5, 4}, {3, 0, 5, 4, 5}, {4, 5, 0, 3, 6}, {5, 4, 3, 0, 5}, {4, 5, 6, 5, 0}};
+        double route = LowerBoundCalculator.routeLength(distances);
+        double bound = calculator.lowerBound(distances, route, 1.0);
+        assertTrue(LowerBoundCalculator.gap(route, bound) <= 1.0);
+    }
+
+    @Test
+    void testSmallToursHaveASingleRoute() {
+        double[][] twoStops = {{0, 3, 4}, {3, 0, 5}, {4, 5, 0}};
+        assertEquals(12.0, calculator.lowerBound(twoStops, 12.0, 0.0));
+        assertEquals(0.0, calculator.lowerBound(new double[][]{{0}}, 0.0, 0.0));
+    }
+
+    @Test
+    void testGap() {
+        assertEquals(0.1, LowerBoundCalculator.gap(110.0, 100.0), 1e-12);
+        assertEquals(0.0, LowerBoundCalculator.gap(0.0, 0.0));
+        assertFalse(calculator.supports(1001));
+    }
+
+    private static double shortestRoute(double[][] distances) {
+        int[] stops = new int[distances.length - 1];
+        for (int i = 0; i < stops.length; i++) {
+            stops[i] = i + 1;
+        }
+        return shortestRoute(distances, stops, 0);
+    }
+
+    private static double shortestRoute(double[][] distances, int[] stops, int fixed) {
+        if (fixed == stops.length) {
+            double length = distances[0][stops[0]] + distances[stops[stops.length - 1]][0];
+            for (int i = 0; i + 1 < stops.length; i++) {
+                length += distances[stops[i]][stops[i + 1]];
+            }
+            return length;
+        }
+        double best = Double.MAX_VALUE;
+        for (int i = fixed; i < stops.length; i++) {
+            swap(stops, fixed, i);
+            best = Math.min(best, shortestRoute(distances, stops, fixed + 1));
+            swap(stops, fixed, i);
+        }
+        return best;
+    }
+
+    private static void swap(int[] values, int i, int j) {
+        int swap = values[i];
+        values[i] = values[j];
+        values[j] = swap;
+    }
+}
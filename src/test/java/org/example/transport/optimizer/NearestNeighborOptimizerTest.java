@@ -6,14 +6,18 @@ import org.example.transport.entity.Vehicle;
 import org.example.transport.entity.Warehouse;
 import org.example.transport.enums.DeliveryStatus;
 import org.example.transport.enums.VehicleType;
+import org.example.transport.service.DelayPredictionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 /**
  * Unit tests for NearestNeighborOptimizer
@@ -131,4 +135,108 @@ class NearestNeighborOptimizerTest {
         // First delivery should be the closest to warehouse
         assertEquals(1L, result.get(0).getId());
     }
+
+    @Test
+    void testPassedDeadlineKeepsEveryStop() {
+        Tour tour = new Tour();
+        tour.setId(1L);
+        tour.setVehicle(vehicle);
+        tour.setWarehouse(warehouse);
+        for (int i = 0; i < 4; i++) {
+            Delivery delivery = new Delivery();
+            delivery.setId(i + 1L);
+            delivery.setSpecificLatitude(48.8600 + (4 - i) * 0.01);
+            delivery.setSpecificLongitude(2.3600);
+            tour.addDelivery(delivery);
+        }
+
+        // No step fits, the stops stay in stored order
+        List<Delivery> result = optimizer.calculateOptimalTour(tour, System.nanoTime());
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), result.stream().map(Delivery::getId).toList());
+        assertEquals(List.of(4L, 3L, 2L, 1L), optimizer.calculateOptimalTour(tour, null).stream()
+                .map(Delivery::getId).toList());
+    }
+
+    @Test
+    void testDelayCostLowersPredictedLateness() {
+        // Early slots run late, and every position adds 10 minutes
+        double[] weights = new double[DelayModel.FeatureLayout.SIZE];
+        weights[DelayModel.FeatureLayout.SLOT_HOUR] = -1.0;
+        weights[DelayModel.FeatureLayout.SEQUENCE] = 10.0;
+        DelayModel model = new DelayModel(weights, 100);
+        DelayPredictionService delayPredictionService = mock(DelayPredictionService.class);
+        when(delayPredictionService.getModel()).thenReturn(model);
+
+        Tour tour = new Tour();
+        tour.setId(1L);
+        tour.setTourDate(LocalDate.of(2021, 3, 1));
+        tour.setVehicle(vehicle);
+        tour.setWarehouse(warehouse);
+        // Near stop with an afternoon slot, farther stop with a morning slot
+        tour.addDelivery(slotDelivery(1L, 48.8616, 2.3522, "14:00-16:00"));
+        tour.addDelivery(slotDelivery(2L, 48.8566, 2.3672, "08:00-10:00"));
+
+        List<Delivery> distanceOnly = optimizer.calculateOptimalTour(tour);
+        assertEquals(1L, distanceOnly.get(0).getId());
+        assertFalse(optimizer.usesDelayCost(tour));
+
+        ReflectionTestUtils.setField(optimizer, "delayPredictionService", delayPredictionService);
+        ReflectionTestUtils.setField(optimizer, "delayCostKmPerMinute", 1.0);
+        List<Delivery> delayAware = optimizer.calculateOptimalTour(tour);
+        assertTrue(optimizer.usesDelayCost(tour));
+
+        assertEquals(2L, delayAware.get(0).getId());
+        assertEquals(12.0, predictedLateness(model, tour, distanceOnly), 1e-9);
+        assertEquals(8.0, predictedLateness(model, tour, delayAware), 1e-9);
+    }
+
+    @Test
+    void testStopPredictedLaterIsServedFirst() {
+        // Both stops are late at any position, the earlier slot by 2 minutes more
+        double[] weights = new double[DelayModel.FeatureLayout.SIZE];
+        weights[DelayModel.FeatureLayout.SLOT_HOUR] = -1.0;
+        weights[DelayModel.FeatureLayout.SEQUENCE] = 10.0;
+        DelayPredictionService delayPredictionService = mock(DelayPredictionService.class);
+        when(delayPredictionService.getModel()).thenReturn(new DelayModel(weights, 100));
+
+        Tour tour = new Tour();
+        tour.setId(1L);
+        tour.setTourDate(LocalDate.of(2021, 3, 1));
+        tour.setVehicle(vehicle);
+        tour.setWarehouse(warehouse);
+        // About 0.56 km away and 2 minutes late, about 1.1 km away and 4 minutes late
+        tour.addDelivery(slotDelivery(1L, 48.8616, 2.3522, "08:00-10:00"));
+        tour.addDelivery(slotDelivery(2L, 48.8566, 2.3672, "06:00-08:00"));
+
+        ReflectionTestUtils.setField(optimizer, "delayPredictionService", delayPredictionService);
+        ReflectionTestUtils.setField(optimizer, "delayCostKmPerMinute", 1.0);
+        List<Delivery> route = optimizer.calculateOptimalTour(tour);
+
+        assertEquals(List.of(2L, 1L), route.stream().map(Delivery::getId).toList());
+    }
+
+    private static double predictedLateness(DelayModel model, Tour tour, List<Delivery> route) {
+        double lateness = 0.0;
+        for (int i = 0; i < route.size(); i++) {
+            Delivery delivery = route.get(i);
+            double delay = model.predictDelayMinutes(tour.getTourDate().getDayOfWeek().getValue(),
+                    DelayModel.parseSlotStartMinute(delivery.getPreferredTimeSlot()), 0.0, i + 1,
+                    tour.getVehicle().getType().ordinal(), delivery.getWeightKg());
+            lateness += Math.max(0.0, delay);
+        }
+        return lateness;
+    }
+
+    private static Delivery slotDelivery(Long id, double latitude, double longitude, String timeSlot) {
+        Delivery delivery = new Delivery();
+        delivery.setId(id);
+        delivery.setSpecificLatitude(latitude);
+        delivery.setSpecificLongitude(longitude);
+        delivery.setPreferredTimeSlot(timeSlot);
+        delivery.setWeightKg(1.0);
+        delivery.setVolumeM3(0.1);
+        delivery.setStatus(DeliveryStatus.PENDING);
+        return delivery;
+    }
 }
@@ -0,0 +1,74 @@
+package org.example.transport.optimizer;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.example.transport.entity.Tour;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the optimization phase flight recorder events
+ */
+class OptimizationPhaseEventTest {
+
+    private static final String EVENT_NAME = "org.example.transport.OptimizationPhase";
+
+    @Test
+    void testClarkeWrightRecordsItsPhases(@TempDir Path directory) throws IOException {
+        Tour tour = tour(42L, 6);
+        Path file = directory.resolve("optimization.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(EVENT_NAME);
+            recording.start();
+            new ClarkeWrightOptimizer().calculateOptimalTour(tour);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals(EVENT_NAME))
+                .toList();
+        assertEquals(List.of(OptimizationPhaseEvent.DISTANCE_MATRIX, OptimizationPhaseEvent.SAVINGS,
+                OptimizationPhaseEvent.MERGE), events.stream().map(e -> e.getString("phase")).toList());
+        for (RecordedEvent event : events) {
+            assertEquals(42L, event.getLong("tourId"));
+            assertEquals(6, event.getInt("stops"));
+            assertEquals("CLARKE_WRIGHT", event.getString("algorithm"));
+        }
+    }
+
+    @Test
+    void testNothingIsRecordedWithoutARecording() {
+        OptimizationPhaseEvent event = OptimizationPhaseEvent.start(OptimizationPhaseEvent.CONSTRUCTION);
+        event.end(null, 0, null);
+        assertFalse(event.shouldCommit());
+        assertEquals(5, new NearestNeighborOptimizer().calculateOptimalTour(tour(null, 5)).size());
+    }
+
+    @Test
+    void testPhasesAreTimedIntoADiagnosticRun() {
+        try (OptimizationRun run = OptimizationRun.open(true)) {
+            new ClarkeWrightOptimizer().calculateOptimalTour(tour(7L, 5));
+            assertEquals(List.of(OptimizationPhaseEvent.DISTANCE_MATRIX, OptimizationPhaseEvent.SAVINGS,
+                    OptimizationPhaseEvent.MERGE), List.copyOf(run.getPhaseNanos().keySet()));
+            assertTrue(run.getPhaseNanos().values().stream().allMatch(nanos -> nanos >= 0));
+        }
+        try (OptimizationRun run = OptimizationRun.open()) {
+            new ClarkeWrightOptimizer().calculateOptimalTour(tour(7L, 5));
+            assertTrue(run.getPhaseNanos().isEmpty());
+        }
+    }
+
+    private static Tour tour(Long id, int stops) {
+        Tour tour = OptimizerFixtures.tour(stops, i -> 48.85 + (i % 3) * 0.01, i -> 2.34 + i * 0.005);
+        tour.setId(id);
+        return tour;
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.transport.optimizer;
+
+import org.example.transport.entity.Delivery;
+import org.example.transport.entity.Tour;
+import org.example.transport.entity.Warehouse;
+
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Detached tours for the optimizer unit tests, nothing is persisted
+ * Tours get id 1 and stops only a specific location, tests set anything else they need.
+ */
+final class OptimizerFixtures {
+
+    static final double WAREHOUSE_LATITUDE = 48.8566;
+    static final double WAREHOUSE_LONGITUDE = 2.3522;
+
+    private OptimizerFixtures() {
+    }
+
+    /**
+     * Tour from a warehouse in central Paris
+     * @param latitude Latitude of each stop, called before longitude for the same stop
+     */
+    static Tour tour(int stops, IntToDoubleFunction latitude, IntToDoubleFunction longitude) {
+        return tour(WAREHOUSE_LATITUDE, WAREHOUSE_LONGITUDE, stops, latitude, longitude);
+    }
+
+    static Tour tour(double warehouseLatitude, double warehouseLongitude, int stops,
+                     IntToDoubleFunction latitude, IntToDoubleFunction longitude) {
+        Warehouse warehouse = new Warehouse();
+        warehouse.setLatitude(warehouseLatitude);
+        warehouse.setLongitude(warehouseLongitude);
+        Tour tour = new Tour();
+        tour.setId(1L);
+        tour.setWarehouse(warehouse);
+        for (int i = 0; i < stops; i++) {
+            tour.addDelivery(stop(latitude.applyAsDouble(i), longitude.applyAsDouble(i)));
+        }
+        return tour;
+    }
+
+    /**
+     * Tour with the given stops, each a latitude and longitude pair
+     */
+    static Tour tour(double warehouseLatitude, double warehouseLongitude, double[]... stops) {
+        return tour(warehouseLatitude, warehouseLongitude, stops.length, i -> stops[i][0], i -> stops[i][1]);
+    }
+
+    static Delivery stop(double latitude, double longitude) {
+        Delivery delivery = new Delivery();
+        delivery.setSpecificLatitude(latitude);
+        delivery.setSpecificLongitude(longitude);
+        return delivery;
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.transport.optimizer;
+
+import org.example.transport.util.Tsplib;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Solution quality regression suite on bundled TSPLIB instances
+ * Each optimizer must stay within its recorded gap to the best known tour length. The
+ * limits sit slightly above the current gaps, so a change that makes routes longer fails
+ * here, and one that makes them shorter should lower the limit.
+ */
+class OptimizerQualityRegressionTest {
+
+    @ParameterizedTest(name = "{0} on {1}")
+    @CsvSource({
+            "NEAREST_NEIGHBOR, burma14,   0.23",
+            "NEAREST_NEIGHBOR, ulysses16, 0.47",
+            "NEAREST_NEIGHBOR, eil51,     0.21",
+            "NEAREST_NEIGHBOR, berlin52,  0.20",
+            "CLARKE_WRIGHT,    burma14,   0.01",
+            "CLARKE_WRIGHT,    ulysses16, 0.03",
+            "CLARKE_WRIGHT,    eil51,     0.03",
+            "CLARKE_WRIGHT,    berlin52,  0.11"
+    })
+    void testGapToBestKnownDoesNotRegress(String algorithm, String instanceName, double maxGap) throws IOException {
+        TourOptimizer optimizer = algorithm.equals("CLARKE_WRIGHT")
+                ? new ClarkeWrightOptimizer() : new NearestNeighborOptimizer();
+
+        Tsplib.Result result = Tsplib.evaluate(load(instanceName), optimizer, bestKnown(instanceName));
+
+        String figures = String.format("cost %d, best known %d, gap %.2f%% in %d ms",
+                result.cost(), result.bestKnown(), result.gap() * 100, result.millis());
+        assertTrue(result.gap() >= 0, "Cost below the best known value, check the metric: " + figures);
+        assertTrue(result.gap() <= maxGap,
+                String.format("%s gap on %s grew past the limit of %.0f%%: %s", algorithm, instanceName,
+                        maxGap * 100, figures));
+    }
+
+    private static Tsplib.Instance load(String name) throws IOException {
+        try (Reader reader = new InputStreamReader(resource("/tsplib/" + name + ".tsp"), StandardCharsets.UTF_8)) {
+            return Tsplib.read(reader);
+        }
+    }
+
+    private static long bestKnown(String name) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = resource("/tsplib/best-known.properties")) {
+            properties.load(in);
+        }
+        return Long.parseLong(properties.getProperty(name));
+    }
+
+    private static InputStream resource(String path) {
+        InputStream in = OptimizerQualityRegressionTest.class.getResourceAsStream(path);
+        assertNotNull(in, "Missing test resource " + path);
+        return in;
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.transport.optimizer;
+
+import org.example.transport.entity.Delivery;
+import org.example.transport.entity.Tour;
+import org.example.transport.util.DistanceCalculator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Hilbert curve ordering
+ */
+class SpaceFillingCurveOptimizerTest {
+
+    // 0.01 degrees at the equator
+    private static final double STEP_KM = DistanceCalculator.calculateDistance(0.0, 0.0, 0.0, 0.01);
+
+    @Test
+    void testGridIsWalkedOneStepAtATime() {
+        // Warehouse in the corner of a 4 x 4 grid, the curve starts there and ends three steps away
+        Tour tour = OptimizerFixtures.tour(0.0, 0.0);
+        for (int x = 0; x < 4; x++) {
+            for (int y = 0; y < 4; y++) {
+                if (x + y > 0) {
+                    tour.addDelivery(OptimizerFixtures.stop(y * 0.01, x * 0.01));
+                }
+            }
+        }
+        Collections.shuffle(tour.getDeliveries(), new Random(5));
+
+        List<Delivery> route = new SpaceFillingCurveOptimizer().calculateOptimalTour(tour);
+
+        assertEquals(15, new HashSet<>(route).size());
+        double latitude = 0.0;
+        double longitude = 0.0;
+        for (Delivery delivery : route) {
+            assertEquals(STEP_KM, DistanceCalculator.calculateDistance(latitude, longitude,
+                    delivery.getEffectiveLatitude(), delivery.getEffectiveLongitude()), 1e-3);
+            latitude = delivery.getEffectiveLatitude();
+            longitude = delivery.getEffectiveLongitude();
+        }
+        double length = LowerBoundCalculator.routeLength(LowerBoundCalculator.distanceMatrix(tour, route));
+        assertEquals(18 * STEP_KM, length, 1e-2);
+    }
+
+    @Test
+    void testStopsAtOnePointKeepTheirOrder() {
+        Tour tour = OptimizerFixtures.tour(0.0, 0.0);
+        for (int i = 0; i < 5; i++) {
+            tour.addDelivery(OptimizerFixtures.stop(0.0, 0.0));
+        }
+        List<Delivery> stops = new ArrayList<>(tour.getDeliveries());
+
+        assertEquals(stops, new SpaceFillingCurveOptimizer().calculateOptimalTour(tour));
+    }
+
+    @Test
+    void testHilbertCurveMovesToANeighbouringCell() {
+        long[][] positions = new long[64 * 64][];
+        for (int x = 0; x < 64; x++) {
+            for (int y = 0; y < 64; y++) {
+                long index = SpaceFillingCurveOptimizer.hilbert(x, y);
+                assertTrue(index < positions.length, "Cell " + x + "," + y + " at " + index);
+                positions[(int) index] = new long[]{x, y};
+            }
+        }
+        for (int i = 1; i < positions.length; i++) {
+            long dx = Math.abs(positions[i][0] - positions[i - 1][0]);
+            long dy = Math.abs(positions[i][1] - positions[i - 1][1]);
+            assertEquals(1, dx + dy, "Step " + i);
+        }
+    }
+}
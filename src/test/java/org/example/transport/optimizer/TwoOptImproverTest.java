@@ -0,0 +1,120 @@
+package org.example.transport.optimizer;
+
+import org.example.transport.entity.Delivery;
+import org.example.transport.entity.Tour;
+import org.example.transport.enums.OptimizationAlgorithm;
+import org.example.transport.util.Tsplib;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the 2-opt improvement stage
+ */
+class TwoOptImproverTest {
+
+    private final LowerBoundCalculator lowerBoundCalculator = new LowerBoundCalculator(1000, 100);
+
+    @Test
+    void testCrossingRouteIsUntangled() {
+        // Corners of a square visited crosswise, the perimeter is the optimum
+        Tour tour = OptimizerFixtures.tour(0.0, 0.0, new double[][]{{0.01, 0.0}, {0.0, 0.01}, {0.01, 0.01}});
+        List<Delivery> route = new ArrayList<>(tour.getDeliveries());
+
+        try (OptimizationRun run = OptimizationRun.open()) {
+            List<Delivery> improved = new TwoOptImprover(lowerBoundCalculator, true, 50, 1.0)
+                    .improve(tour, route, OptimizationAlgorithm.NEAREST_NEIGHBOR);
+
+            // The perimeter in either direction
+            assertTrue(improved.equals(List.of(route.get(0), route.get(2), route.get(1)))
+                    || improved.equals(List.of(route.get(1), route.get(2), route.get(0))), improved.toString());
+            OptimizationRun.Stage stage = run.getStages().get(0);
+            assertEquals(TwoOptImprover.STAGE, stage.name());
+            assertTrue(stage.finalDistanceKm() < stage.initialDistanceKm());
+            assertEquals(stage.finalDistanceKm(), run.getLowerBoundKm(), 1e-9);
+            assertEquals(TwoOptImprover.STOPPED_AT_TARGET_GAP, stage.stopReason());
+        }
+    }
+
+    @Test
+    void testRouteWithinTargetGapIsLeftAlone() {
+        Tour tour = OptimizerFixtures.tour(0.0, 0.0,
+                new double[][]{{0.01, 0.0}, {0.0, 0.01}, {0.01, 0.01}, {0.02, 0.005}});
+        List<Delivery> route = new ArrayList<>(tour.getDeliveries());
+
+        try (OptimizationRun run = OptimizationRun.open()) {
+            List<Delivery> improved = new TwoOptImprover(lowerBoundCalculator, true, 50, 1000.0)
+                    .improve(tour, route, OptimizationAlgorithm.NEAREST_NEIGHBOR);
+
+            assertEquals(route, improved);
+            OptimizationRun.Stage stage = run.getStages().get(0);
+            assertEquals(stage.initialDistanceKm(), stage.finalDistanceKm());
+            assertEquals(TwoOptImprover.STOPPED_AT_TARGET_GAP, stage.stopReason());
+        }
+    }
+
+    @Test
+    void testSpentBudgetSkipsTheStage() {
+        Tour tour = OptimizerFixtures.tour(0.0, 0.0, new double[][]{{0.01, 0.0}, {0.0, 0.01}, {0.01, 0.01}});
+        List<Delivery> route = new ArrayList<>(tour.getDeliveries());
+
+        try (OptimizationRun run = OptimizationRun.open()) {
+            List<Delivery> improved = new TwoOptImprover(lowerBoundCalculator, true, 50, 0.0)
+                    .improve(tour, route, OptimizationAlgorithm.NEAREST_NEIGHBOR, Duration.ofMillis(-5));
+
+            assertEquals(route, improved);
+            OptimizationRun.Stage stage = run.getStages().get(0);
+            assertEquals(TwoOptImprover.STOPPED_AT_TIME_BUDGET, stage.stopReason());
+            assertEquals(stage.initialDistanceKm(), stage.finalDistanceKm());
+            assertTrue(stage.initialDistanceKm() > 0);
+            // Neither the matrix nor the bound was computed
+            assertNull(run.getLowerBoundKm());
+            assertEquals(0, run.getDistanceEvaluations());
+        }
+    }
+
+    @Test
+    void testDisabledOrOversizedToursAreNotImproved() {
+        Tour tour = OptimizerFixtures.tour(0.0, 0.0, new double[][]{{0.01, 0.0}, {0.0, 0.01}, {0.01, 0.01}});
+        List<Delivery> route = new ArrayList<>(tour.getDeliveries());
+
+        try (OptimizationRun run = OptimizationRun.open()) {
+            assertSame(route, new TwoOptImprover(lowerBoundCalculator, false, 50, 1.0)
+                    .improve(tour, route, OptimizationAlgorithm.NEAREST_NEIGHBOR));
+            assertSame(route, new TwoOptImprover(new LowerBoundCalculator(2, 100), true, 50, 1.0)
+                    .improve(tour, route, OptimizationAlgorithm.NEAREST_NEIGHBOR));
+            assertTrue(run.getStages().isEmpty());
+            assertNull(run.getLowerBoundKm());
+        }
+    }
+
+    @Test
+    void testNearestNeighborPlusTwoOptOnBerlin52() throws IOException {
+        Tsplib.Instance instance;
+        try (Reader reader = new InputStreamReader(
+                TwoOptImproverTest.class.getResourceAsStream("/tsplib/berlin52.tsp"), StandardCharsets.UTF_8)) {
+            instance = Tsplib.read(reader);
+        }
+        Tour tour = Tsplib.toTour(instance);
+        List<Delivery> constructed = new NearestNeighborOptimizer().calculateOptimalTour(tour);
+
+        List<Delivery> improved = new TwoOptImprover(lowerBoundCalculator, true, 50, 0.0)
+                .improve(tour, constructed, OptimizationAlgorithm.NEAREST_NEIGHBOR);
+
+        assertEquals(constructed.size(), improved.size());
+        assertTrue(improved.containsAll(constructed));
+        long constructedCost = Tsplib.cost(instance, constructed);
+        long improvedCost = Tsplib.cost(instance, improved);
+        // Nearest neighbor alone is about 20% above the best known 7542
+        assertTrue(improvedCost < constructedCost);
+        assertTrue(improvedCost <= 7542 * 1.10, "2-opt cost " + improvedCost);
+    }
+}
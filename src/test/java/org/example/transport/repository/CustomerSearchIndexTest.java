@@ -0,0 +1,83 @@
+package org.example.transport.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the in-memory customer trigram index
+ */
+class CustomerSearchIndexTest {
+
+    @Test
+    void testPrefixAndRanking() {
+        CustomerSearchIndex index = new CustomerSearchIndex();
+        index.put(1, "Boulangerie Martin", "12 Rue de Rivoli, Paris", "contact@martin.fr", true);
+        index.put(2, "Martin & Fils", "3 Avenue Foch, Lyon", null, true);
+        index.put(3, "Pharmacie Centrale", "5 Rue Martinet, Paris", "info@pharma.fr", true);
+
+        List<CustomerSearchIndex.Hit> hits = index.search("mart", 10, false);
+        assertEquals(List.of(2L, 1L, 3L), hits.stream().map(CustomerSearchIndex.Hit::id).toList());
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+
+        assertEquals(3L, index.search("pharmacie par", 10, false).get(0).id());
+        assertEquals(1, index.search("foch", 10, false).size());
+        assertTrue(index.search("", 10, false).isEmpty());
+        assertTrue(index.search("zzz", 10, false).isEmpty());
+    }
+
+    @Test
+    void testFuzzyAndAccentInsensitive() {
+        CustomerSearchIndex index = new CustomerSearchIndex();
+        index.put(1, "Café Hélène", "8 Quai Saint-Michel", null, true);
+        index.put(2, "Johnson Logistics", "1 Dock Road", "ops@johnson.com", true);
+
+        assertEquals(1L, index.search("helene", 10, false).get(0).id());
+        assertEquals(2L, index.search("johnsen", 10, false).get(0).id());
+        assertEquals(2L, index.search("OPS@Johnson", 10, false).get(0).id());
+    }
+
+    @Test
+    void testUpdatesRemovalsAndActiveFilter() {
+        CustomerSearchIndex index = new CustomerSearchIndex();
+        index.put(1, "Alpha Foods", "Paris", null, true);
+        index.put(2, "Alpha Drinks", "Lyon", null, true);
+
+        index.put(1, "Omega Foods", "Paris", null, true);
+        assertEquals(List.of(2L), index.search("alpha", 10, false).stream().map(CustomerSearchIndex.Hit::id).toList());
+        assertEquals(1L, index.search("omega", 10, false).get(0).id());
+
+        index.put(2, "Alpha Drinks", "Lyon", null, false);
+        assertEquals(1, index.search("alpha", 10, false).size());
+        assertTrue(index.search("alpha", 10, true).isEmpty());
+
+        index.remove(2);
+        assertTrue(index.search("alpha", 10, false).isEmpty());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void testCompactionKeepsLiveCustomers() {
+        CustomerSearchIndex index = new CustomerSearchIndex();
+        for (int round = 0; round < 5; round++) {
+            for (long id = 0; id < 1000; id++) {
+                index.put(id, "Customer " + id, "Street " + round, null, true);
+            }
+        }
+        assertEquals(1000, index.size());
+        assertEquals(42L, index.search("customer 42", 1, false).get(0).id());
+        assertEquals(1, index.search("customer 999 street 4", 5, false).stream()
+                .filter(h -> h.id() == 999L).count());
+    }
+
+    @Test
+    void testLimit() {
+        CustomerSearchIndex index = new CustomerSearchIndex();
+        for (long id = 0; id < 50; id++) {
+            index.put(id, "Depot " + id, "Rue du Port", null, true);
+        }
+        assertEquals(5, index.search("depot", 5, false).size());
+    }
+}
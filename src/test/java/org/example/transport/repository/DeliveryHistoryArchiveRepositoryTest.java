@@ -0,0 +1,190 @@
+package org.example.transport.repository;
+
+import org.example.transport.entity.Customer;
+import org.example.transport.entity.DeliveryHistory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the month archive of delivery history
+ */
+class DeliveryHistoryArchiveRepositoryTest {
+
+    @TempDir
+    Path archiveDir;
+
+    @Test
+    void testMonthRoundTripPreservesRows() {
+        DeliveryHistoryArchiveRepository repository = new DeliveryHistoryArchiveRepository(archiveDir.toString(), 6);
+        YearMonth month = YearMonth.of(2024, 3);
+
+        repository.appendMonth(month, List.of(
+                row(1L, LocalDate.of(2024, 3, 4), 10L, "09:00-11:00", 12),
+                row(2L, LocalDate.of(2024, 3, 5), 11L, null, null)));
+
+        assertEquals(List.of(month), repository.findArchivedMonths());
+        List<DeliveryHistory> rows = repository.readMonth(month).toEntities();
+        assertEquals(2, rows.size());
+
+        DeliveryHistory first = rows.get(0);
+        assertEquals(1L, first.getId());
+        assertEquals(LocalDate.of(2024, 3, 4), first.getDeliveryDate());
+        assertEquals(DayOfWeek.MONDAY, first.getDayOfWeek());
+        assertEquals(10L, first.getCustomer().getId());
+        assertEquals("Customer 10", first.getCustomerName());
+        assertEquals("09:00-11:00", first.getPreferredTimeSlot());
+        assertEquals(LocalTime.of(9, 30), first.getPlannedTime());
+        assertEquals(12, first.getDelayMinutes());
+        assertEquals(4.5, first.getDistanceFromWarehouseKm());
+
+        DeliveryHistory second = rows.get(1);
+        assertNull(second.getPreferredTimeSlot());
+        assertNull(second.getDelayMinutes());
+    }
+
+    @Test
+    void testQueriesAndTotalsOverArchivedMonths() {
+        DeliveryHistoryArchiveRepository repository = new DeliveryHistoryArchiveRepository(archiveDir.toString(), 6);
+        repository.appendMonth(YearMonth.of(2024, 1), List.of(
+                row(1L, LocalDate.of(2024, 1, 1), 10L, "09:00-11:00", 10),
+                row(2L, LocalDate.of(2024, 1, 8), 10L, "09:00-11:00", 20)));
+        repository.appendMonth(YearMonth.of(2024, 2), List.of(
+                row(3L, LocalDate.of(2024, 2, 6), 11L, "14:00-16:00", 5)));
+        // Re-archiving an id is ignored
+        repository.appendMonth(YearMonth.of(2024, 2), List.of(
+                row(3L, LocalDate.of(2024, 2, 6), 11L, "14:00-16:00", 5)));
+
+        assertEquals(2, repository.findByCustomerId(10L).size());
+        assertEquals(1, repository.findByDateRange(LocalDate.of(2024, 1, 5), LocalDate.of(2024, 2, 1)).size());
+        assertEquals(List.of(20, 10), repository.findDelayedDeliveries(6).stream()
+                .map(DeliveryHistory::getDelayMinutes).toList());
+
+        List<Object[]> byDay = repository.getDelayTotalsByDayOfWeek();
+        Object[] monday = byDay.stream().filter(r -> r[0] == DayOfWeek.MONDAY).findFirst().orElseThrow();
+        assertEquals(30L, monday[1]);
+        assertEquals(2L, monday[2]);
+        assertEquals(2, repository.getDelayTotalsByTimeSlot().size());
+    }
+
+    @Test
+    void testTotalsFollowAppendedRows() {
+        DeliveryHistoryArchiveRepository repository = new DeliveryHistoryArchiveRepository(archiveDir.toString(), 6);
+        YearMonth month = YearMonth.of(2024, 1);
+        repository.appendMonth(month, List.of(row(1L, LocalDate.of(2024, 1, 1), 10L, "09:00-11:00", 10)));
+        assertEquals(10L, repository.getDelayTotalsByDayOfWeek().get(0)[1]);
+
+        repository.appendMonth(month, List.of(row(2L, LocalDate.of(2024, 1, 8), 10L, "09:00-11:00", 20)));
+        Object[] monday = repository.getDelayTotalsByDayOfWeek().get(0);
+        assertEquals(30L, monday[1]);
+        assertEquals(2L, monday[2]);
+
+        // Months archived by another instance are totalled on first use
+        DeliveryHistoryArchiveRepository restarted = new DeliveryHistoryArchiveRepository(archiveDir.toString(), 6);
+        assertEquals(30L, restarted.getDelayTotalsByTimeSlot().get(0)[1]);
+    }
+
+    @Test
+    void testKeysetPagesWalkMonthsNewestFirst() {
+        DeliveryHistoryArchiveRepository repository = new DeliveryHistoryArchiveRepository(archiveDir.toString(), 6);
+        repository.appendMonth(YearMonth.of(2024, 1), List.of(
+                row(1L, LocalDate.of(2024, 1, 1), 10L, "09:00-11:00", 10),
+                row(2L, LocalDate.of(2024, 1, 8), 10L, "09:00-11:00", 20)));
+        repository.appendMonth(YearMonth.of(2024, 2), List.of(
+                row(3L, LocalDate.of(2024, 2, 6), 11L, "14:00-16:00", 5),
+                row(4L, LocalDate.of(2024, 2, 6), 10L, "14:00-16:00", null)));
+
+        List<DeliveryHistory> first = repository.findPage(null, null, null, null, null, null, null, 2);
+        assertEquals(List.of(4L, 3L), first.stream().map(DeliveryHistory::getId).toList());
+
+        DeliveryHistory last = first.get(1);
+        List<DeliveryHistory> second = repository.findPage(null, null, null, null, null,
+                last.getDeliveryDate(), last.getId(), 2);
+        assertEquals(List.of(2L, 1L), second.stream().map(DeliveryHistory::getId).toList());
+
+        assertEquals(List.of(4L, 2L, 1L), repository.findPage(10L, null, null, null, null, null, null, 10)
+                .stream().map(DeliveryHistory::getId).toList());
+    }
+
+    @Test
+    void testPageStopsAtTheUntilKey() {
+        DeliveryHistoryArchiveRepository repository = new DeliveryHistoryArchiveRepository(archiveDir.toString(), 6);
+        repository.appendMonth(YearMonth.of(2024, 1), List.of(
+                row(1L, LocalDate.of(2024, 1, 1), 10L, null, null),
+                row(2L, LocalDate.of(2024, 1, 8), 10L, null, null)));
+        repository.appendMonth(YearMonth.of(2024, 2), List.of(
+                row(3L, LocalDate.of(2024, 2, 6), 10L, null, null),
+                row(5L, LocalDate.of(2024, 2, 6), 10L, null, null)));
+
+        // A hot row (2024-02-06, 4) already ends the page, only newer archive rows are wanted
+        assertEquals(List.of(5L), repository.findPage(null, null, null, null, null, null, null,
+                LocalDate.of(2024, 2, 6), 4L, 10).stream().map(DeliveryHistory::getId).toList());
+        assertEquals(List.of(5L, 3L), repository.findPage(null, null, null, null, null, null, null,
+                LocalDate.of(2024, 1, 20), 9L, 10).stream().map(DeliveryHistory::getId).toList());
+
+        List<Long> oldestFirst = new ArrayList<>();
+        repository.forEachOldestFirst(LocalDate.of(2024, 1, 5), null, r -> oldestFirst.add(r.getId()));
+        assertEquals(List.of(2L, 3L, 5L), oldestFirst);
+    }
+
+    @Test
+    void testDeepPagingVisitsEveryRowOnce() {
+        DeliveryHistoryArchiveRepository repository = new DeliveryHistoryArchiveRepository(archiveDir.toString(), 1);
+        List<DeliveryHistory> rows = new ArrayList<>();
+        for (long id = 1; id <= 50; id++) {
+            // Ids out of date order, several rows per day
+            rows.add(row(id, LocalDate.of(2024, 1 + (int) (id % 2), 1 + (int) (id * 7 % 10)), 10L, null, null));
+        }
+        for (int month = 1; month <= 2; month++) {
+            int monthValue = month;
+            repository.appendMonth(YearMonth.of(2024, month), rows.stream()
+                    .filter(r -> r.getDeliveryDate().getMonthValue() == monthValue)
+                    .toList());
+        }
+
+        List<Long> expected = rows.stream()
+                .sorted(DeliveryHistoryArchiveRepository.NEWEST_FIRST)
+                .map(DeliveryHistory::getId)
+                .toList();
+        List<Long> walked = new ArrayList<>();
+        List<DeliveryHistory> page = repository.findPage(null, null, null, null, null, null, null, 7);
+        while (!page.isEmpty()) {
+            page.forEach(r -> walked.add(r.getId()));
+            DeliveryHistory last = page.get(page.size() - 1);
+            page = repository.findPage(null, null, null, null, null, last.getDeliveryDate(), last.getId(), 7);
+        }
+        assertEquals(expected, walked);
+    }
+
+    private static DeliveryHistory row(Long id, LocalDate date, Long customerId, String slot, Integer delay) {
+        Customer customer = new Customer();
+        customer.setId(customerId);
+        return DeliveryHistory.builder()
+                .id(id)
+                .deliveryDate(date)
+                .dayOfWeek(date.getDayOfWeek())
+                .customer(customer)
+                .customerName("Customer " + customerId)
+                .deliveryAddress(customerId + " Archive Street")
+                .latitude(48.85)
+                .longitude(2.35)
+                .sequenceInTour(1)
+                .plannedTime(LocalTime.of(9, 30))
+                .delayMinutes(delay)
+                .preferredTimeSlot(slot)
+                .weightKg(10.0)
+                .deliveryStatus("DELIVERED")
+                .vehicleType("VAN")
+                .distanceFromWarehouseKm(4.5)
+                .build();
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.transport.repository;
+
+import org.example.transport.enums.HistoryGroupBy;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the in-memory history column store
+ */
+class HistoryColumnStoreTest {
+
+    private static final HistoryColumnStore.Filter ALL =
+            new HistoryColumnStore.Filter(null, null, null, null, null, null, null, null, null);
+
+    @Test
+    void testAggregatesAcrossBlocks() {
+        HistoryColumnStore store = new HistoryColumnStore();
+        LocalDate start = LocalDate.of(2024, 1, 1); // Monday
+        int rows = HistoryColumnStore.BLOCK_SIZE * 3 + 10;
+        for (int i = 0; i < rows; i++) {
+            store.appendRow(start.plusDays(i % 7), i % 5, i % 2 == 0 ? "09:00-11:00" : null, "VAN",
+                    "DELIVERED", i % 7 == 4 ? 20 : 0, 5.0, 1.0);
+        }
+
+        assertEquals(rows, store.size());
+        assertEquals(4, store.blockCount());
+
+        HistoryColumnStore.ScanResult byDay = store.scan(ALL, HistoryGroupBy.DAY_OF_WEEK);
+        assertEquals(rows, byDay.matchedRows());
+        assertEquals(7, byDay.groups().size());
+        HistoryColumnStore.Aggregate friday = byDay.groups().get((long) DayOfWeek.FRIDAY.getValue());
+        assertEquals(20.0, friday.getAverageDelay());
+        assertEquals("FRIDAY", store.label(HistoryGroupBy.DAY_OF_WEEK, DayOfWeek.FRIDAY.getValue()));
+    }
+
+    @Test
+    void testFiltersAndBlockSkipping() {
+        HistoryColumnStore store = new HistoryColumnStore();
+        for (int i = 0; i < HistoryColumnStore.BLOCK_SIZE; i++) {
+            store.appendRow(LocalDate.of(2023, 6, 2), 1L, "09:00-11:00", "VAN", "DELIVERED", 30, 2.0, 1.0);
+        }
+        for (int i = 0; i < HistoryColumnStore.BLOCK_SIZE; i++) {
+            store.appendRow(LocalDate.of(2024, 6, 7), 2L, "14:00-16:00", "TRUCK", "FAILED", null, 3.0, 1.0);
+        }
+        store.appendRow(LocalDate.of(2024, 6, 7), 1L, "09:00-11:00", "VAN", "DELIVERED", 10, 4.0, 1.0);
+
+        HistoryColumnStore.ScanResult result = store.scan(new HistoryColumnStore.Filter(
+                LocalDate.of(2024, 3, 1), null, Set.of(DayOfWeek.FRIDAY), Set.of("09:00-11:00"),
+                Set.of(1L), null, null, null, null), HistoryGroupBy.TIME_SLOT);
+
+        assertEquals(1, result.matchedRows());
+        assertEquals(2, result.skippedBlocks()); // 2023 block pruned by date, customer 2 block by id range
+        assertEquals(10, result.groups().values().iterator().next().getMinDelay());
+
+        HistoryColumnStore.ScanResult unknownSlot = store.scan(new HistoryColumnStore.Filter(
+                null, null, null, Set.of("23:00-24:00"), null, null, null, null, null), HistoryGroupBy.NONE);
+        assertEquals(0, unknownSlot.matchedRows());
+
+        HistoryColumnStore.ScanResult delayed = store.scan(new HistoryColumnStore.Filter(
+                null, null, null, null, null, null, null, 25, null), HistoryGroupBy.MONTH);
+        assertEquals(HistoryColumnStore.BLOCK_SIZE, delayed.matchedRows());
+        assertEquals("2023-06", store.label(HistoryGroupBy.MONTH, delayed.groups().keySet().iterator().next()));
+    }
+}
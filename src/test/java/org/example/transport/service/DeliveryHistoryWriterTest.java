@@ -0,0 +1,120 @@
+package org.example.transport.service;
+
+import org.example.transport.entity.DeliveryHistory;
+import org.example.transport.exception.HistoryBacklogException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DeliveryHistoryWriter
+ */
+@ExtendWith(MockitoExtension.class)
+class DeliveryHistoryWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ObjectProvider<DeliveryHistoryListener> listeners;
+
+    @Mock
+    private DeliveryHistoryListener listener;
+
+    private DeliveryHistoryWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        writer = new DeliveryHistoryWriter(jdbcTemplate, listeners, 10, 10, 2, 10, 1);
+        writer.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writer.stop();
+    }
+
+    @Test
+    void testFailedBatchIsRetried() throws InterruptedException {
+        when(listeners.orderedStream()).thenReturn(Stream.of(listener));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"))
+                .thenReturn(new int[][]{{1, 1}});
+        List<DeliveryHistory> rows = List.of(new DeliveryHistory(), new DeliveryHistory());
+
+        writer.submit(rows);
+
+        assertTrue(writer.awaitIdle(5000));
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        verify(listener).onHistoryWritten(rows);
+    }
+
+    @Test
+    void testRejectedRowDoesNotDropItsBatch() throws InterruptedException {
+        DeliveryHistory good = new DeliveryHistory();
+        DeliveryHistory bad = new DeliveryHistory();
+        when(listeners.orderedStream()).thenReturn(Stream.of(listener));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    List<?> batch = invocation.getArgument(1);
+                    if (batch.stream().anyMatch(row -> row == bad)) {
+                        throw new DataIntegrityViolationException("Customer does not exist");
+                    }
+                    return new int[][]{{1}};
+                });
+
+        writer.submit(List.of(good, bad));
+
+        assertTrue(writer.awaitIdle(5000));
+        assertEquals(1, writer.getRejectedRows());
+        verify(listener).onHistoryWritten(argThat(written -> written.size() == 1 && written.get(0) == good));
+    }
+
+    @Test
+    void testSubmissionBeyondCapacityIsRefused() {
+        assertThrows(HistoryBacklogException.class,
+                () -> writer.submit(List.of(new DeliveryHistory(), new DeliveryHistory(), new DeliveryHistory())));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void testNothingIsWrittenWhilePaused() throws InterruptedException {
+        when(listeners.orderedStream()).thenReturn(Stream.of(listener));
+        List<DeliveryHistory> rows = List.of(new DeliveryHistory());
+
+        boolean idleWhilePaused = writer.whilePaused(() -> {
+            writer.submit(rows);
+            try {
+                return writer.awaitIdle(200);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertFalse(idleWhilePaused);
+        assertTrue(writer.awaitIdle(5000));
+        verify(listener).onHistoryWritten(rows);
+    }
+}
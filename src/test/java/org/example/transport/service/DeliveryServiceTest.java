@@ -1,22 +1,28 @@
 package org.example.transport.service;
 
+import org.example.transport.dto.CursorPageDTO;
 import org.example.transport.dto.DeliveryDTO;
 import org.example.transport.entity.Delivery;
 import org.example.transport.enums.DeliveryStatus;
 import org.example.transport.exception.ResourceNotFoundException;
+import org.example.transport.repository.CustomerRepository;
 import org.example.transport.repository.DeliveryRepository;
+import org.example.transport.util.PageCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -28,31 +34,57 @@ class DeliveryServiceTest {
     @Mock
     private DeliveryRepository deliveryRepository;
 
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private TourLockManager tourLockManager;
+
     private DeliveryService deliveryService;
 
     @BeforeEach
     void setUp() {
-        deliveryService = new DeliveryService(deliveryRepository);
+        deliveryService = new DeliveryService(deliveryRepository, customerRepository, tourLockManager);
     }
 
     @Test
     void testGetAllDeliveries() {
-        Delivery delivery1 = new Delivery();
+        DeliveryDTO delivery1 = new DeliveryDTO();
         delivery1.setId(1L);
         delivery1.setSpecificAddress("123 Main St");
         delivery1.setStatus(DeliveryStatus.PENDING);
 
-        Delivery delivery2 = new Delivery();
+        DeliveryDTO delivery2 = new DeliveryDTO();
         delivery2.setId(2L);
         delivery2.setSpecificAddress("456 Oak Ave");
         delivery2.setStatus(DeliveryStatus.DELIVERED);
 
-        when(deliveryRepository.findAll()).thenReturn(Arrays.asList(delivery1, delivery2));
+        when(deliveryRepository.findFirstPageAsDTO(PageRequest.ofSize(PageCursor.DEFAULT_SIZE + 1)))
+                .thenReturn(Arrays.asList(delivery1, delivery2));
 
-        List<DeliveryDTO> deliveries = deliveryService.getAllDeliveries();
+        CursorPageDTO<DeliveryDTO> page = deliveryService.getAllDeliveries(null, null);
 
-        assertEquals(2, deliveries.size());
-        verify(deliveryRepository, times(1)).findAll();
+        assertEquals(2, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+        verify(deliveryRepository, never()).findAll();
+    }
+
+    @Test
+    void testGetAllDeliveries_NextPageStartsAfterLastId() {
+        DeliveryDTO delivery1 = new DeliveryDTO();
+        delivery1.setId(7L);
+        DeliveryDTO delivery2 = new DeliveryDTO();
+        delivery2.setId(9L);
+
+        when(deliveryRepository.findPageAsDTOAfter(3L, PageRequest.ofSize(2)))
+                .thenReturn(Arrays.asList(delivery1, delivery2));
+
+        CursorPageDTO<DeliveryDTO> page = deliveryService.getAllDeliveries(PageCursor.encode(3L), 1);
+
+        assertEquals(1, page.getItems().size());
+        assertTrue(page.isHasMore());
+        assertEquals(7L, PageCursor.decodeId(page.getNextCursor()));
     }
 
     @Test
@@ -95,26 +127,30 @@ class DeliveryServiceTest {
         delivery.setVolumeM3(0.5);
         delivery.setStatus(DeliveryStatus.PENDING);
 
+        when(deliveryRepository.findTourIdById(1L)).thenReturn(Optional.of(5L));
         when(deliveryRepository.findById(1L)).thenReturn(Optional.of(delivery));
         when(deliveryRepository.save(any(Delivery.class))).thenReturn(delivery);
+        when(tourLockManager.inTransaction(eq(5L), any())).thenAnswer(inv -> inv.<Supplier<?>>getArgument(1).get());
 
         DeliveryDTO result = deliveryService.updateDeliveryStatus(1L, DeliveryStatus.IN_TRANSIT);
 
         assertNotNull(result);
         assertEquals(DeliveryStatus.IN_TRANSIT, result.getStatus());
         verify(deliveryRepository, times(1)).save(any(Delivery.class));
+        verify(tourLockManager).inTransaction(eq(5L), any());
     }
 
     @Test
     void testGetDeliveriesByStatus() {
-        Delivery delivery = new Delivery();
+        DeliveryDTO delivery = new DeliveryDTO();
         delivery.setId(1L);
         delivery.setStatus(DeliveryStatus.PENDING);
 
-        when(deliveryRepository.findByStatus(DeliveryStatus.PENDING))
+        when(deliveryRepository.findFirstPageByStatusAsDTO(eq(DeliveryStatus.PENDING), any()))
                 .thenReturn(Arrays.asList(delivery));
 
-        List<DeliveryDTO> deliveries = deliveryService.getDeliveriesByStatus(DeliveryStatus.PENDING);
+        List<DeliveryDTO> deliveries = deliveryService.getDeliveriesByStatus(DeliveryStatus.PENDING, null, null)
+                .getItems();
 
         assertEquals(1, deliveries.size());
         assertEquals(DeliveryStatus.PENDING, deliveries.get(0).getStatus());
@@ -0,0 +1,165 @@
+package org.example.transport.service;
+
+import org.example.transport.entity.Tour;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TourLockManager
+ */
+class TourLockManagerTest {
+
+    private final TourLockManager lockManager = new TourLockManager(new TransactionTemplate(), 3, 5000);
+
+    @Test
+    void testLockIsDroppedAfterUse() {
+        assertEquals("done", lockManager.execute(7L, () -> {
+            assertEquals(1, lockManager.lockCount());
+            // Re-entering the same tour shares its lock
+            return lockManager.withLock(7L, () -> lockManager.lockCount() == 1 ? "done" : "second lock");
+        }));
+        assertEquals(0, lockManager.lockCount());
+    }
+
+    @Test
+    void testSameTourIsSerialized() throws Exception {
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            Future<?>[] futures = new Future<?>[8];
+            for (int i = 0; i < futures.length; i++) {
+                futures[i] = pool.submit(() -> {
+                    start.await();
+                    return lockManager.execute(7L, () -> {
+                        maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                        for (int k = 0; k < 1000; k++) {
+                            Thread.yield();
+                        }
+                        inside.decrementAndGet();
+                        return null;
+                    });
+                });
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, maxInside.get());
+    }
+
+    @Test
+    void testDifferentToursDoNotWait() throws Exception {
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holder = pool.submit(() -> lockManager.execute(7L, () -> {
+                holding.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }));
+            assertTrue(holding.await(5, TimeUnit.SECONDS));
+            assertEquals("done", lockManager.execute(8L, () -> "done"));
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testVersionConflictIsRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+        String result = lockManager.execute(7L, () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException(Tour.class, 7L);
+            }
+            return "saved";
+        });
+        assertEquals("saved", result);
+        assertEquals(3, attempts.get());
+        assertEquals(0, lockManager.lockCount());
+    }
+
+    @Test
+    void testConflictSurfacesAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> lockManager.execute(7L, () -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(Tour.class, 7L);
+        }));
+        assertEquals(3, attempts.get());
+        assertEquals(0, lockManager.lockCount());
+    }
+
+    @Test
+    void testWaitTimesOut() throws Exception {
+        TourLockManager impatient = new TourLockManager(new TransactionTemplate(), 3, 50);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holder = pool.submit(() -> impatient.withLock(7L, () -> {
+                holding.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }));
+            assertTrue(holding.await(5, TimeUnit.SECONDS));
+            assertThrows(CannotAcquireLockException.class, () -> impatient.withLock(7L, () -> "late"));
+            assertEquals(1, impatient.lockCount());
+            release.countDown();
+            holder.get(5, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(0, impatient.lockCount());
+    }
+
+    @Test
+    void testRetryingHoldsNoLock() {
+        AtomicInteger attempts = new AtomicInteger();
+        String result = lockManager.retrying(7L, () -> {
+            assertEquals(0, lockManager.lockCount());
+            if (attempts.incrementAndGet() < 2) {
+                throw new ObjectOptimisticLockingFailureException(Tour.class, 7L);
+            }
+            return "saved";
+        });
+        assertEquals("saved", result);
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void testOtherErrorsAreNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+        assertThrows(IllegalStateException.class, () -> lockManager.execute(null, () -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("boom");
+        }));
+        assertEquals(1, attempts.get());
+    }
+}
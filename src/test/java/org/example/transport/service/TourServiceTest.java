@@ -0,0 +1,26 @@
+package org.example.transport.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the delay computation of TourService
+ */
+class TourServiceTest {
+
+    @Test
+    void testDelaySameDay() {
+        assertEquals(15, TourService.delayMinutes(LocalDateTime.of(2021, 3, 1, 10, 0), LocalTime.of(10, 15)));
+        assertEquals(-20, TourService.delayMinutes(LocalDateTime.of(2021, 3, 1, 10, 0), LocalTime.of(9, 40)));
+    }
+
+    @Test
+    void testDelayAcrossMidnight() {
+        assertEquals(10, TourService.delayMinutes(LocalDateTime.of(2021, 3, 1, 23, 55), LocalTime.of(0, 5)));
+        assertEquals(-10, TourService.delayMinutes(LocalDateTime.of(2021, 3, 2, 0, 5), LocalTime.of(23, 55)));
+    }
+}
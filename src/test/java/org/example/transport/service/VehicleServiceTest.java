@@ -5,11 +5,13 @@ import org.example.transport.entity.Vehicle;
 import org.example.transport.enums.VehicleType;
 import org.example.transport.exception.ResourceNotFoundException;
 import org.example.transport.repository.VehicleRepository;
+import org.example.transport.util.PageCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 
 import java.util.Arrays;
 import java.util.List;
@@ -37,17 +39,16 @@ class VehicleServiceTest {
 
     @Test
     void testGetAllVehicles() {
-        Vehicle vehicle1 = new Vehicle("ABC123", VehicleType.VAN);
-        vehicle1.setId(1L);
-        Vehicle vehicle2 = new Vehicle("XYZ789", VehicleType.TRUCK);
-        vehicle2.setId(2L);
+        VehicleDTO vehicle1 = new VehicleDTO(1L, "ABC123", VehicleType.VAN, 1000.0, 10.0, true);
+        VehicleDTO vehicle2 = new VehicleDTO(2L, "XYZ789", VehicleType.TRUCK, 5000.0, 40.0, true);
 
-        when(vehicleRepository.findAll()).thenReturn(Arrays.asList(vehicle1, vehicle2));
+        when(vehicleRepository.findFirstPageAsDTO(PageRequest.ofSize(PageCursor.DEFAULT_SIZE + 1)))
+                .thenReturn(Arrays.asList(vehicle1, vehicle2));
 
-        List<VehicleDTO> vehicles = vehicleService.getAllVehicles();
+        List<VehicleDTO> vehicles = vehicleService.getAllVehicles(null, null).getItems();
 
         assertEquals(2, vehicles.size());
-        verify(vehicleRepository, times(1)).findAll();
+        verify(vehicleRepository, never()).findAll();
     }
 
     @Test
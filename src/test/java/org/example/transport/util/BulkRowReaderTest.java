@@ -0,0 +1,64 @@
+package org.example.transport.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.transport.dto.DeliveryDTO;
+import org.example.transport.enums.DeliveryStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BulkRowReader
+ */
+class BulkRowReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testSplitCsvHandlesQuotes() {
+        assertArrayEquals(new String[]{"1", "12 Rue \"A\", Paris", ""},
+                BulkRowReader.splitCsv("1,\"12 Rue \"\"A\"\", Paris\","));
+    }
+
+    @Test
+    void testCsvRowsMapToDtoFields() throws IOException {
+        String csv = "customerId,weightKg,volumeM3,status\n" +
+                "\n" +
+                "7,12.5,0.4,PENDING\n" +
+                "8,heavy,0.4,\n";
+        try (BulkRowReader<DeliveryDTO> reader = reader(csv, true)) {
+            BulkRowReader.Row<DeliveryDTO> first = reader.next();
+            assertEquals(3, first.line());
+            assertNull(first.error());
+            assertEquals(7L, first.value().getCustomerId());
+            assertEquals(12.5, first.value().getWeightKg());
+            assertEquals(DeliveryStatus.PENDING, first.value().getStatus());
+
+            BulkRowReader.Row<DeliveryDTO> second = reader.next();
+            assertEquals(4, second.line());
+            assertNull(second.value());
+            assertNotNull(second.error());
+
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void testNdjsonRows() throws IOException {
+        String ndjson = "{\"customerId\":7,\"weightKg\":1.0,\"volumeM3\":0.1}\n{not json}\n";
+        try (BulkRowReader<DeliveryDTO> reader = reader(ndjson, false)) {
+            assertEquals(7L, reader.next().value().getCustomerId());
+            assertNotNull(reader.next().error());
+            assertNull(reader.next());
+        }
+    }
+
+    private BulkRowReader<DeliveryDTO> reader(String text, boolean csv) {
+        return new BulkRowReader<>(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)),
+                csv, objectMapper, DeliveryDTO.class);
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.transport.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DelayHistogram
+ */
+class DelayHistogramTest {
+
+    @Test
+    void testEmptyHistogramHasNoQuantile() {
+        assertNull(new DelayHistogram().quantile(0.5));
+        assertEquals(0, DelayHistogram.fromBytes(null).getTotal());
+    }
+
+    @Test
+    void testQuantilesOfUniformDelays() {
+        DelayHistogram histogram = new DelayHistogram();
+        for (int delay = 0; delay < 100; delay++) {
+            histogram.add(delay);
+        }
+
+        assertEquals(50.0, histogram.quantile(0.5), DelayHistogram.BUCKET_MINUTES);
+        assertEquals(90.0, histogram.quantile(0.9), DelayHistogram.BUCKET_MINUTES);
+    }
+
+    @Test
+    void testMergeAndSerializationRoundTrip() {
+        DelayHistogram early = new DelayHistogram();
+        DelayHistogram late = new DelayHistogram();
+        for (int i = 0; i < 10; i++) {
+            early.add(-10);
+            late.add(1000); // Clamped into the last bucket
+        }
+
+        DelayHistogram merged = DelayHistogram.fromBytes(early.toBytes());
+        merged.merge(DelayHistogram.fromBytes(late.toBytes()));
+
+        assertEquals(20, merged.getTotal());
+        assertTrue(merged.quantile(0.25) < 0);
+        assertTrue(merged.quantile(0.9) > 300);
+    }
+}
@@ -1,6 +1,12 @@
 package org.example.transport.util;
 
+import org.example.transport.entity.Delivery;
+import org.example.transport.entity.Warehouse;
 import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -36,4 +42,17 @@ class DistanceCalculatorTest {
         double distance = DistanceCalculator.calculateDistance(48.8566, 2.3522, 48.8656, 2.3522);
         assertTrue(distance > 0 && distance < 2, "Distance should be less than 2 km");
     }
+
+    @Test
+    void testTourDistance_ReturnsToWarehouse() {
+        Warehouse warehouse = new Warehouse(null, "Depot", "1 Depot Road", 48.8566, 2.3522,
+                LocalTime.of(8, 0), LocalTime.of(18, 0));
+        Delivery stop = new Delivery();
+        stop.setSpecificLatitude(48.8656);
+        stop.setSpecificLongitude(2.3522);
+
+        double oneWay = DistanceCalculator.calculateDistance(48.8566, 2.3522, 48.8656, 2.3522);
+        assertEquals(2 * oneWay, DistanceCalculator.tourDistance(warehouse, List.of(stop)), 1e-9);
+        assertEquals(0.0, DistanceCalculator.tourDistance(warehouse, List.of()));
+    }
 }
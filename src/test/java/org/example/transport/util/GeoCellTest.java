@@ -0,0 +1,64 @@
+package org.example.transport.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Z-order geo cells
+ */
+class GeoCellTest {
+
+    @Test
+    void testNearbyPointsShareCellPrefix() {
+        long paris = GeoCell.encode(48.8566, 2.3522);
+        long parisNearby = GeoCell.encode(48.8567, 2.3523);
+        long london = GeoCell.encode(51.5074, -0.1278);
+
+        assertTrue(Long.numberOfLeadingZeros(paris ^ parisNearby) > Long.numberOfLeadingZeros(paris ^ london));
+        assertEquals(0L, GeoCell.encode(-90.0, -180.0));
+        assertEquals((1L << (2 * GeoCell.MAX_LEVEL)) - 1, GeoCell.encode(90.0, 180.0));
+        assertNull(GeoCell.of(null, 2.0));
+    }
+
+    @Test
+    void testCoverContainsEveryPointInTheBox() {
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            double minLat = random.nextDouble() * 170 - 85;
+            double minLon = random.nextDouble() * 350 - 175;
+            double size = Math.pow(10, -4 + random.nextDouble() * 5);
+            double maxLat = Math.min(90, minLat + size);
+            double maxLon = Math.min(180, minLon + size * 1.5);
+
+            List<GeoCell.Range> ranges = GeoCell.cover(minLat, maxLat, minLon, maxLon);
+            assertTrue(ranges.size() <= GeoCell.MAX_COVER_CELLS);
+            for (int r = 1; r < ranges.size(); r++) {
+                assertTrue(ranges.get(r).from() > ranges.get(r - 1).to() + 1, "ranges are sorted and merged");
+            }
+            for (int p = 0; p < 50; p++) {
+                long cell = GeoCell.encode(minLat + random.nextDouble() * (maxLat - minLat),
+                        minLon + random.nextDouble() * (maxLon - minLon));
+                assertTrue(ranges.stream().anyMatch(range -> cell >= range.from() && cell <= range.to()));
+            }
+        }
+    }
+
+    @Test
+    void testBoundingBoxContainsCircle() {
+        double[] box = GeoCell.boundingBox(60.0, 10.0, 5.0);
+
+        assertEquals(5.0, DistanceCalculator.calculateDistance(60.0, 10.0, box[1], 10.0), 1e-6);
+        assertEquals(5.0, DistanceCalculator.calculateDistance(60.0, 10.0, box[0], 10.0), 1e-6);
+        assertTrue(DistanceCalculator.calculateDistance(60.0, 10.0, 60.0, box[3]) > 5.0);
+        assertTrue(DistanceCalculator.calculateDistance(60.0, 10.0, 60.0, box[2]) > 5.0);
+
+        double[] pole = GeoCell.boundingBox(89.99, 0.0, 50.0);
+        assertEquals(90.0, pole[1]);
+        assertEquals(-180.0, pole[2]);
+        assertEquals(180.0, pole[3]);
+    }
+}
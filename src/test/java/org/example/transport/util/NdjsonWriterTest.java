@@ -0,0 +1,39 @@
+package org.example.transport.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for NdjsonWriter
+ */
+class NdjsonWriterTest {
+
+    @Test
+    void testOneObjectPerLine() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (NdjsonWriter writer = new NdjsonWriter(new ObjectMapper(), out)) {
+            writer.write(Map.of("id", 1));
+            writer.write(Map.of("id", 2));
+        }
+
+        assertEquals("{\"id\":1}\n{\"id\":2}\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testCloseLeavesTargetOpen() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                fail("Target stream must stay open");
+            }
+        };
+        new NdjsonWriter(new ObjectMapper(), out).close();
+    }
+}
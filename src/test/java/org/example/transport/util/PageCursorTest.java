@@ -0,0 +1,53 @@
+package org.example.transport.util;
+
+import org.example.transport.dto.CursorPageDTO;
+import org.example.transport.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PageCursor
+ */
+class PageCursorTest {
+
+    @Test
+    void testCursorRoundTrip() {
+        assertEquals(42L, PageCursor.decodeId(PageCursor.encode(42L)));
+
+        PageCursor.DateKey key = PageCursor.decodeDateKey(PageCursor.encode(LocalDate.of(2024, 3, 4), 7L));
+        assertEquals(LocalDate.of(2024, 3, 4), key.date());
+        assertEquals(7L, key.id());
+
+        assertNull(PageCursor.decodeId(null));
+        assertNull(PageCursor.decodeDateKey(""));
+    }
+
+    @Test
+    void testMalformedCursorIsRejected() {
+        assertThrows(InvalidCursorException.class, () -> PageCursor.decodeId("not a cursor"));
+        assertThrows(InvalidCursorException.class, () -> PageCursor.decodeDateKey(PageCursor.encode(42L)));
+    }
+
+    @Test
+    void testPageSizeIsClamped() {
+        assertEquals(PageCursor.DEFAULT_SIZE, PageCursor.pageSize(null));
+        assertEquals(1, PageCursor.pageSize(0));
+        assertEquals(PageCursor.MAX_SIZE, PageCursor.pageSize(1_000_000));
+    }
+
+    @Test
+    void testExtraRowSignalsNextPage() {
+        CursorPageDTO<Long> page = PageCursor.page(List.of(1L, 2L, 3L), 2, PageCursor::encode);
+        assertEquals(List.of(1L, 2L), page.getItems());
+        assertTrue(page.isHasMore());
+        assertEquals(2L, PageCursor.decodeId(page.getNextCursor()));
+
+        CursorPageDTO<Long> last = PageCursor.page(List.of(1L, 2L), 2, PageCursor::encode);
+        assertFalse(last.isHasMore());
+        assertNull(last.getNextCursor());
+    }
+}
@@ -0,0 +1,130 @@
+package org.example.transport.util;
+
+import org.example.transport.entity.Delivery;
+import org.example.transport.entity.Tour;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TSPLIB reader and writer
+ */
+class TsplibTest {
+
+    private static final String SMALL_CVRP = """
+            NAME : small
+            TYPE : CVRP
+            DIMENSION : 4
+            EDGE_WEIGHT_TYPE : EUC_2D
+            CAPACITY : 10
+            NODE_COORD_SECTION
+            1 0 0
+            2 3 4
+            3 6 8
+            4 -3 -4
+            DEMAND_SECTION
+            1 0
+            2 6
+            3 3
+            4 5
+            DEPOT_SECTION
+            1
+            -1
+            EOF
+            """;
+
+    @Test
+    void testReadsBundledGeoInstance() throws IOException {
+        Tsplib.Instance burma = load("burma14");
+
+        assertEquals("burma14", burma.name());
+        assertEquals("GEO", burma.edgeWeightType());
+        assertEquals(14, burma.nodes().size());
+        assertEquals(1, burma.depot());
+        assertFalse(burma.isCvrp());
+        assertEquals(16.47, burma.node(1).x(), 1e-9);
+    }
+
+    @Test
+    void testKnownOptimalTourCost() throws IOException {
+        // Optimal tour of burma14 as published with TSPLIB
+        int[] optimal = {1, 2, 14, 3, 4, 5, 6, 12, 7, 13, 8, 11, 9, 10};
+        Tsplib.Instance burma = load("burma14");
+        Tour tour = Tsplib.toTour(burma);
+
+        List<Delivery> route = new ArrayList<>();
+        for (int i = 1; i < optimal.length; i++) {
+            long id = optimal[i];
+            route.add(tour.getDeliveries().stream().filter(d -> d.getId() == id).findFirst().orElseThrow());
+        }
+        assertEquals(3323, Tsplib.cost(burma, route));
+    }
+
+    @Test
+    void testEuclideanInstanceIsScaledAroundOrigin() throws IOException {
+        Tour tour = Tsplib.toTour(load("berlin52"));
+
+        assertEquals(51, tour.getDeliveries().size());
+        for (Delivery delivery : tour.getDeliveries()) {
+            assertTrue(Math.abs(delivery.getEffectiveLatitude()) < 1.0);
+            assertTrue(Math.abs(delivery.getEffectiveLongitude()) < 1.0);
+        }
+    }
+
+    @Test
+    void testCvrpCostSplitsTripsOnCapacity() throws IOException {
+        Tsplib.Instance instance = Tsplib.read(new StringReader(SMALL_CVRP));
+        Tour tour = Tsplib.toTour(instance);
+        List<Delivery> route = new ArrayList<>(tour.getDeliveries());
+        route.sort(Comparator.comparing(Delivery::getId));
+
+        assertTrue(instance.isCvrp());
+        assertEquals(5.0, route.get(2).getWeightKg());
+        // 2 and 3 fit together (9), 4 needs a second trip: 5 + 5 + 10 + 5 + 5
+        assertEquals(30, Tsplib.cost(instance, route));
+    }
+
+    @Test
+    void testRejectsExplicitWeights() {
+        String explicit = "NAME : x\nTYPE : TSP\nEDGE_WEIGHT_TYPE : EXPLICIT\nEDGE_WEIGHT_SECTION\n0 1\n1 0\nEOF\n";
+
+        assertThrows(IllegalArgumentException.class, () -> Tsplib.read(new StringReader(explicit)));
+    }
+
+    @Test
+    void testWriteRoundTripKeepsRoute() throws IOException {
+        Tsplib.Instance burma = load("burma14");
+        Tour tour = Tsplib.toTour(burma);
+        tour.setId(7L);
+        List<Delivery> route = new ArrayList<>(tour.getDeliveries());
+
+        StringWriter out = new StringWriter();
+        Tsplib.write(tour, route, out);
+        Tsplib.Instance exported = Tsplib.read(new StringReader(out.toString()));
+
+        assertEquals("tour7", exported.name());
+        assertEquals(route.size() + 1, exported.nodes().size());
+        for (int i = 0; i < burma.nodes().size(); i++) {
+            Tsplib.Node original = i == 0 ? burma.node(1) : burma.node(route.get(i - 1).getId().intValue());
+            assertEquals(original.x(), exported.nodes().get(i).x(), 1e-4);
+            assertEquals(original.y(), exported.nodes().get(i).y(), 1e-4);
+        }
+    }
+
+    static Tsplib.Instance load(String name) throws IOException {
+        try (Reader reader = new InputStreamReader(
+                TsplibTest.class.getResourceAsStream("/tsplib/" + name + ".tsp"), StandardCharsets.UTF_8)) {
+            return Tsplib.read(reader);
+        }
+    }
+}